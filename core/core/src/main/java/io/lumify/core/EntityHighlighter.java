@@ -1,5 +1,7 @@
 package io.lumify.core;
 
+import com.google.common.base.Charsets;
+import io.lumify.core.exception.LumifyException;
 import io.lumify.core.ingest.video.VideoFrameInfo;
 import io.lumify.core.ingest.video.VideoPropertyHelper;
 import io.lumify.core.ingest.video.VideoTranscript;
@@ -14,82 +16,140 @@ import org.json.JSONObject;
 import org.securegraph.Authorizations;
 import org.securegraph.Vertex;
 
+import java.io.*;
 import java.util.*;
 
 public class EntityHighlighter {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final char NON_BREAKING_SPACE = '\u00A0';
+
     public String getHighlightedText(String text, Iterable<Vertex> termMentions, String workspaceId, Authorizations authorizations) {
         List<OffsetItem> offsetItems = convertTermMentionsToOffsetItems(termMentions, workspaceId, authorizations);
         return getHighlightedText(text, offsetItems);
     }
 
-    // TODO: change to use an InputStream?
+    public void writeHighlightedText(InputStream in, Iterable<Vertex> termMentions, String workspaceId, Authorizations authorizations, Writer out) throws IOException {
+        List<OffsetItem> offsetItems = convertTermMentionsToOffsetItems(termMentions, workspaceId, authorizations);
+        writeHighlightedText(new InputStreamReader(in, Charsets.UTF_8), offsetItems, out);
+    }
+
     public static String getHighlightedText(String text, List<OffsetItem> offsetItems) throws JSONException {
-        Collections.sort(offsetItems);
-        StringBuilder result = new StringBuilder();
-        PriorityQueue<Integer> endOffsets = new PriorityQueue<>();
-        int lastStart = 0;
-        for (int i = 0; i < offsetItems.size(); i++) {
-            OffsetItem offsetItem = offsetItems.get(i);
+        StringWriter out = new StringWriter();
+        try {
+            writeHighlightedText(new StringReader(text), offsetItems, out);
+        } catch (IOException e) {
+            throw new LumifyException("Could not highlight text", e);
+        }
+        return out.toString();
+    }
 
-            boolean overlapsPreviousItem = false;
-            if (offsetItem instanceof VertexOffsetItem) {
-                for (int j = 0; j < i; j++) {
-                    OffsetItem compareItem = offsetItems.get(j);
-                    if (compareItem instanceof VertexOffsetItem
-                            && (OffsetItem.getOffset(compareItem.getEnd()) >= OffsetItem.getOffset(offsetItem.getEnd())
-                            || OffsetItem.getOffset(compareItem.getEnd()) > OffsetItem.getOffset(offsetItem.getStart()))) {
-                        overlapsPreviousItem = true;
-                        offsetItems.remove(i--);
-                        break;
-                    }
-                }
-            }
-            if (overlapsPreviousItem) {
-                continue;
-            }
-            if (OffsetItem.getOffset(offsetItem.getStart()) < 0 || OffsetItem.getOffset(offsetItem.getEnd()) < 0) {
+    /**
+     * Writes the text as escaped HTML with a span around each offset item. The text is read once, front to back,
+     * so offset items must be sorted by start offset, which this method does.
+     */
+    public static void writeHighlightedText(Reader text, List<OffsetItem> offsetItems, Writer out) throws IOException {
+        TextCursor textCursor = new TextCursor(text, out);
+        PriorityQueue<Long> endOffsets = new PriorityQueue<>();
+        for (OffsetItem offsetItem : removeOverlappingVertexOffsetItems(offsetItems)) {
+            long start = OffsetItem.getOffset(offsetItem.getStart());
+            long end = OffsetItem.getOffset(offsetItem.getEnd());
+            if (start < 0 || end < 0) {
                 continue;
             }
             if (!offsetItem.shouldHighlight()) {
                 continue;
             }
 
-            while (endOffsets.size() > 0 && endOffsets.peek() <= OffsetItem.getOffset(offsetItem.getStart())) {
-                int end = endOffsets.poll();
-                result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, end)));
-                result.append("</span>");
-                lastStart = end;
+            while (endOffsets.size() > 0 && endOffsets.peek() <= start) {
+                textCursor.copyTo(endOffsets.poll());
+                out.write("</span>");
             }
-            result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, (int) OffsetItem.getOffset(offsetItem.getStart()))));
+            textCursor.copyTo(start);
 
-            JSONObject infoJson = offsetItem.getInfoJson();
-
-            result.append("<span");
-            result.append(" class=\"");
-            result.append(StringUtils.join(offsetItem.getCssClasses(), " "));
-            result.append("\"");
+            out.write("<span");
+            out.write(" class=\"");
+            out.write(StringUtils.join(offsetItem.getCssClasses(), " "));
+            out.write("\"");
             if (offsetItem.getTitle() != null) {
-                result.append(" title=\"");
-                result.append(StringEscapeUtils.escapeHtml(offsetItem.getTitle()));
-                result.append("\"");
+                out.write(" title=\"");
+                writeEscapedHtml(out, offsetItem.getTitle());
+                out.write("\"");
             }
-            result.append(" data-info=\"");
-            result.append(StringEscapeUtils.escapeHtml(infoJson.toString()));
-            result.append("\"");
-            result.append(">");
-            endOffsets.add((int) OffsetItem.getOffset(offsetItem.getEnd()));
-            lastStart = (int) OffsetItem.getOffset(offsetItem.getStart());
+            out.write(" data-info=\"");
+            writeEscapedHtml(out, offsetItem.getInfoJson().toString());
+            out.write("\"");
+            out.write(">");
+            endOffsets.add(end);
         }
 
         while (endOffsets.size() > 0) {
-            int end = endOffsets.poll();
-            result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, end)));
-            result.append("</span>");
-            lastStart = end;
+            textCursor.copyTo(endOffsets.poll());
+            out.write("</span>");
+        }
+        textCursor.copyToEnd();
+    }
+
+    /**
+     * Sorts the offset items and drops each vertex offset item that overlaps or is contained by a vertex offset item
+     * kept before it. Because the items are sorted by start offset, the only kept interval that needs to be checked
+     * is the one reaching furthest right, so a single pass with the running maximum end offset is enough.
+     */
+    private static List<OffsetItem> removeOverlappingVertexOffsetItems(List<OffsetItem> offsetItems) {
+        Collections.sort(offsetItems);
+        List<OffsetItem> results = new ArrayList<>(offsetItems.size());
+        Long maxVertexOffsetItemEnd = null;
+        for (OffsetItem offsetItem : offsetItems) {
+            if (offsetItem instanceof VertexOffsetItem) {
+                long start = OffsetItem.getOffset(offsetItem.getStart());
+                long end = OffsetItem.getOffset(offsetItem.getEnd());
+                if (maxVertexOffsetItemEnd != null && (maxVertexOffsetItemEnd >= end || maxVertexOffsetItemEnd > start)) {
+                    continue;
+                }
+                maxVertexOffsetItemEnd = maxVertexOffsetItemEnd == null ? end : Math.max(maxVertexOffsetItemEnd, end);
+            }
+            results.add(offsetItem);
+        }
+        return results;
+    }
+
+    /**
+     * Non-breaking spaces are written as plain spaces to match what the client expects.
+     */
+    private static void writeEscapedHtml(Writer out, String str) throws IOException {
+        StringEscapeUtils.escapeHtml(out, str.replace(NON_BREAKING_SPACE, ' '));
+    }
+
+    /**
+     * Copies escaped text from the source to the output, tracking the current offset. Offsets past the end of the
+     * text are treated as the end of the text.
+     */
+    private static class TextCursor {
+        private final Reader text;
+        private final Writer out;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private long offset;
+        private boolean endOfText;
+
+        private TextCursor(Reader text, Writer out) {
+            this.text = text;
+            this.out = out;
         }
-        result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart)));
 
-        return result.toString().replaceAll("&nbsp;", " ");
+        public void copyTo(long endOffset) throws IOException {
+            while (!endOfText && offset < endOffset) {
+                int read = text.read(buffer, 0, (int) Math.min(buffer.length, endOffset - offset));
+                if (read < 0) {
+                    endOfText = true;
+                    break;
+                }
+                writeEscapedHtml(out, new String(buffer, 0, read));
+                offset += read;
+            }
+        }
+
+        public void copyToEnd() throws IOException {
+            copyTo(Long.MAX_VALUE);
+        }
     }
 
     public VideoTranscript getHighlightedVideoTranscript(VideoTranscript videoTranscript, Iterable<Vertex> termMentions, String workspaceId, Authorizations authorizations) {
@@ -148,17 +208,6 @@ public class EntityHighlighter {
         return videoTranscriptEntryIndex;
     }
 
-    private static String safeSubstring(String text, int beginIndex) {
-        beginIndex = Math.min(beginIndex, text.length());
-        return text.substring(beginIndex);
-    }
-
-    private static String safeSubstring(String text, int beginIndex, int endIndex) {
-        beginIndex = Math.min(beginIndex, text.length());
-        endIndex = Math.min(endIndex, text.length());
-        return text.substring(beginIndex, endIndex);
-    }
-
     public List<OffsetItem> convertTermMentionsToOffsetItems(Iterable<Vertex> termMentions, String workspaceId, Authorizations authorizations) {
         ArrayList<OffsetItem> termMetadataOffsetItems = new ArrayList<>();
         for (Vertex termMention : termMentions) {
@@ -16,6 +16,7 @@ import io.lumify.core.util.ServiceLoaderUtil;
 import io.lumify.core.util.TeeInputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.FileSystem;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.securegraph.*;
 import org.securegraph.property.StreamingPropertyValue;
@@ -23,10 +24,7 @@ import org.securegraph.util.IterableUtils;
 
 import java.io.*;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static org.securegraph.util.IterableUtils.toList;
 
@@ -123,6 +121,7 @@ public class GraphPropertyRunner {
         String propertyName = json.optString("propertyName");
         String workspaceId = json.optString("workspaceId");
         String visibilitySource = json.optString("visibilitySource");
+        JSONArray propertiesJson = json.optJSONArray("properties");
 
         String graphVertexId = json.optString("graphVertexId");
         if (graphVertexId != null && graphVertexId.length() > 0) {
@@ -130,7 +129,11 @@ public class GraphPropertyRunner {
             if (vertex == null) {
                 throw new LumifyException("Could not find vertex with id " + graphVertexId);
             }
-            safeExecute(vertex, propertyKey, propertyName, workspaceId, visibilitySource);
+            if (propertiesJson != null) {
+                safeExecute(vertex, propertiesJson, workspaceId, visibilitySource);
+            } else {
+                safeExecute(vertex, propertyKey, propertyName, workspaceId, visibilitySource);
+            }
             return;
         }
 
@@ -140,31 +143,81 @@ public class GraphPropertyRunner {
             if (edge == null) {
                 throw new LumifyException("Could not find edge with id " + graphEdgeId);
             }
-            safeExecute(edge, propertyKey, propertyName, workspaceId, visibilitySource);
+            if (propertiesJson != null) {
+                safeExecute(edge, propertiesJson, workspaceId, visibilitySource);
+            } else {
+                safeExecute(edge, propertyKey, propertyName, workspaceId, visibilitySource);
+            }
             return;
         }
 
         throw new LumifyException("Could not find graphVertexId or graphEdgeId");
     }
 
+    private void safeExecute(Element element, JSONArray propertiesJson, String workspaceId, String visibilitySource) throws Exception {
+        Map<GraphPropertyThreadedWrapper, List<GraphPropertyWorkData>> batches = new LinkedHashMap<>();
+        for (int i = 0; i < propertiesJson.length(); i++) {
+            JSONObject propertyJson = propertiesJson.getJSONObject(i);
+            Property property = findProperty(element, propertyJson.optString("propertyKey"), propertyJson.optString("propertyName"));
+            if (property == null) {
+                continue;
+            }
+
+            List<GraphPropertyThreadedWrapper> interestedWorkerWrappers = new ArrayList<>();
+            boolean batched = false;
+            for (GraphPropertyThreadedWrapper interestedWorkerWrapper : findInterestedWorkers(element, property)) {
+                if (interestedWorkerWrapper.getWorker().isBatchSupported()) {
+                    batched = true;
+                    List<GraphPropertyWorkData> batch = batches.get(interestedWorkerWrapper);
+                    if (batch == null) {
+                        batch = new ArrayList<>();
+                        batches.put(interestedWorkerWrapper, batch);
+                    }
+                    batch.add(new GraphPropertyWorkData(visibilityTranslator, element, property, workspaceId, visibilitySource));
+                } else {
+                    interestedWorkerWrappers.add(interestedWorkerWrapper);
+                }
+            }
+            if (interestedWorkerWrappers.size() > 0) {
+                safeExecute(element, property, interestedWorkerWrappers, workspaceId, visibilitySource);
+            } else if (!batched) {
+                LOGGER.info("Could not find interested workers for element %s property %s", element.getId(), property.getKey() + ":" + property.getName());
+            }
+        }
+
+        for (Map.Entry<GraphPropertyThreadedWrapper, List<GraphPropertyWorkData>> batch : batches.entrySet()) {
+            LOGGER.debug("Begin batch of %d properties on element %s: %s", batch.getValue().size(), element.getId(), batch.getKey().getWorker().getClass().getName());
+            batch.getKey().getWorker().executeBatch(batch.getValue());
+            this.graph.flush();
+        }
+    }
+
     private void safeExecute(Element element, String propertyKey, String propertyName, String workspaceId, String visibilitySource) throws Exception {
         Property property;
         if ((propertyKey == null || propertyKey.length() == 0) && (propertyName == null || propertyName.length() == 0)) {
             property = null;
         } else {
-            if (propertyKey == null) {
-                property = element.getProperty(propertyName);
-            } else {
-                property = element.getProperty(propertyKey, propertyName);
-            }
+            property = findProperty(element, propertyKey, propertyName);
             if (property == null) {
-                LOGGER.error("Could not find property [%s]:[%s] on vertex with id %s", propertyKey, propertyName, element.getId());
                 return;
             }
         }
         safeExecute(element, property, workspaceId, visibilitySource);
     }
 
+    private Property findProperty(Element element, String propertyKey, String propertyName) {
+        Property property;
+        if (propertyKey == null) {
+            property = element.getProperty(propertyName);
+        } else {
+            property = element.getProperty(propertyKey, propertyName);
+        }
+        if (property == null) {
+            LOGGER.error("Could not find property [%s]:[%s] on vertex with id %s", propertyKey, propertyName, element.getId());
+        }
+        return property;
+    }
+
     private void safeExecute(Element element, Property property, String workspaceId, String visibilitySource) throws Exception {
         String propertyText = property == null ? "[none]" : (property.getKey() + ":" + property.getName());
 
@@ -173,6 +226,11 @@ public class GraphPropertyRunner {
             LOGGER.info("Could not find interested workers for element %s property %s", element.getId(), propertyText);
             return;
         }
+        safeExecute(element, property, interestedWorkerWrappers, workspaceId, visibilitySource);
+    }
+
+    private void safeExecute(Element element, Property property, List<GraphPropertyThreadedWrapper> interestedWorkerWrappers, String workspaceId, String visibilitySource) throws Exception {
+        String propertyText = property == null ? "[none]" : (property.getKey() + ":" + property.getName());
         if (LOGGER.isDebugEnabled()) {
             for (GraphPropertyThreadedWrapper interestedWorkerWrapper : interestedWorkerWrappers) {
                 LOGGER.debug("interested worker for element %s property %s: %s", element.getId(), propertyText, interestedWorkerWrapper.getWorker().getClass().getName());
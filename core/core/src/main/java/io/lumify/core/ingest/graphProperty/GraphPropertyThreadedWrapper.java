@@ -91,6 +91,12 @@ public class GraphPropertyThreadedWrapper implements Runnable {
             }
         } catch (InterruptedException ex) {
             LOGGER.error("thread was interrupted", ex);
+        } finally {
+            try {
+                this.worker.close();
+            } catch (Exception ex) {
+                LOGGER.error("could not close worker (%s)", this.worker.getClass().getName(), ex);
+            }
         }
     }
 
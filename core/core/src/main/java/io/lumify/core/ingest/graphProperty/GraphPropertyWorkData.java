@@ -1,11 +1,18 @@
 package io.lumify.core.ingest.graphProperty;
 
+import io.lumify.core.exception.LumifyException;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.web.clientapi.model.VisibilityJson;
 import org.securegraph.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class GraphPropertyWorkData {
     private final VisibilityTranslator visibilityTranslator;
@@ -14,6 +21,7 @@ public class GraphPropertyWorkData {
     private final String workspaceId;
     private final String visibilitySource;
     private File localFile;
+    private FutureTask<TextAnalysis> textAnalysis;
 
     public GraphPropertyWorkData(VisibilityTranslator visibilityTranslator, Element element, Property property, String workspaceId, String visibilitySource) {
         this.visibilityTranslator = visibilityTranslator;
@@ -39,6 +47,52 @@ public class GraphPropertyWorkData {
         return localFile;
     }
 
+    /**
+     * Returns the analysis of the property's text, shared by all the workers handling this property. The first
+     * worker to ask decodes the text from its stream, the others close their stream and wait for the result.
+     *
+     * @param in the stream the worker was given, null for properties that are not streamed.
+     */
+    public TextAnalysis getTextAnalysis(final InputStream in) throws IOException {
+        FutureTask<TextAnalysis> task;
+        boolean owner = false;
+        synchronized (this) {
+            if (textAnalysis == null) {
+                textAnalysis = new FutureTask<>(new Callable<TextAnalysis>() {
+                    @Override
+                    public TextAnalysis call() throws Exception {
+                        if (in == null) {
+                            return new TextAnalysis(String.valueOf(getProperty().getValue()));
+                        }
+                        return TextAnalysis.read(in);
+                    }
+                });
+                owner = true;
+            }
+            task = textAnalysis;
+        }
+        if (owner) {
+            task.run();
+        } else if (in != null) {
+            in.close();
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for text analysis");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new LumifyException("Could not analyze text", e.getCause());
+        }
+    }
+
     public Visibility getVisibility() {
         return getElement().getVisibility();
     }
@@ -7,11 +7,13 @@ import io.lumify.core.model.audit.AuditRepository;
 import io.lumify.core.model.ontology.OntologyRepository;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.properties.MediaLumifyProperties;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
 import io.lumify.core.model.user.AuthorizationRepository;
 import io.lumify.core.model.workQueue.WorkQueueRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.core.util.RowKeyHelper;
@@ -21,6 +23,7 @@ import org.securegraph.property.StreamingPropertyValue;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.List;
 
 public abstract class GraphPropertyWorker {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(GraphPropertyWorker.class);
@@ -33,22 +36,35 @@ public abstract class GraphPropertyWorker {
     private GraphPropertyWorkerPrepareData workerPrepareData;
     private Configuration configuration;
     private WorkspaceRepository workspaceRepository;
+    private TermMentionIndexRepository termMentionIndexRepository;
+    private EdgeLabelSummary edgeLabelSummary;
+    private TermMentionResolutionWriter termMentionResolutionWriter;
 
     public void prepare(GraphPropertyWorkerPrepareData workerPrepareData) throws Exception {
         this.workerPrepareData = workerPrepareData;
     }
 
     protected void applyTermMentionFilters(Vertex sourceVertex, Iterable<Vertex> termMentions) {
+        TermMentionResolutions resolutions = new TermMentionResolutions();
         for (TermMentionFilter termMentionFilter : this.workerPrepareData.getTermMentionFilters()) {
             try {
+                termMentionFilter.resolve(sourceVertex, termMentions, resolutions, this.workerPrepareData.getAuthorizations());
                 termMentionFilter.apply(sourceVertex, termMentions, this.workerPrepareData.getAuthorizations());
             } catch (Exception e) {
                 LOGGER.error("Could not apply term mention filter", e);
             }
         }
+        getTermMentionResolutionWriter().write(sourceVertex, resolutions, getUser(), this.workerPrepareData.getAuthorizations());
         getGraph().flush();
     }
 
+    private TermMentionResolutionWriter getTermMentionResolutionWriter() {
+        if (termMentionResolutionWriter == null) {
+            termMentionResolutionWriter = new TermMentionResolutionWriter(getGraph(), getVisibilityTranslator(), getOntologyRepository(), getWorkspaceRepository(), getTermMentionIndexRepository(), getEdgeLabelSummary());
+        }
+        return termMentionResolutionWriter;
+    }
+
     protected void pushTextUpdated(GraphPropertyWorkData data) {
         if (data == null || data.getElement() == null) {
             return;
@@ -60,10 +76,42 @@ public abstract class GraphPropertyWorker {
 
     public abstract boolean isHandled(Element element, Property property);
 
+    /**
+     * Workers that return true are given every property they handle from a work item listing several properties
+     * of one element (the frames of a video for example) in a single call to {@link #executeBatch} instead of
+     * one {@link #execute} per property. Batch workers read the property values themselves.
+     */
+    public boolean isBatchSupported() {
+        return false;
+    }
+
+    public void executeBatch(List<GraphPropertyWorkData> workData) throws Exception {
+        for (GraphPropertyWorkData data : workData) {
+            Object value = data.getProperty() == null ? null : data.getProperty().getValue();
+            if (value instanceof StreamingPropertyValue) {
+                InputStream in = ((StreamingPropertyValue) value).getInputStream();
+                try {
+                    execute(in, data);
+                } finally {
+                    in.close();
+                }
+            } else {
+                execute(null, data);
+            }
+        }
+    }
+
     public boolean isLocalFileRequired() {
         return false;
     }
 
+    /**
+     * Called once the worker's thread has stopped taking work. Workers that start threads or hold native resources
+     * in {@link #prepare} release them here.
+     */
+    public void close() throws Exception {
+    }
+
     protected User getUser() {
         return this.workerPrepareData.getUser();
     }
@@ -144,6 +192,27 @@ public abstract class GraphPropertyWorker {
         return authorizationRepository;
     }
 
+    @Inject
+    public final void setTermMentionIndexRepository(TermMentionIndexRepository termMentionIndexRepository) {
+        this.termMentionIndexRepository = termMentionIndexRepository;
+    }
+
+    protected TermMentionIndexRepository getTermMentionIndexRepository() {
+        return termMentionIndexRepository;
+    }
+
+    @Inject
+    public final void setEdgeLabelSummary(EdgeLabelSummary edgeLabelSummary) {
+        this.edgeLabelSummary = edgeLabelSummary;
+    }
+
+    /**
+     * Workers add and remove edges through the summary so the edge labels of their vertices stay summarized.
+     */
+    protected EdgeLabelSummary getEdgeLabelSummary() {
+        return edgeLabelSummary;
+    }
+
     /**
      * Determines if this is a property that should be analyzed by text processing tools.
      */
@@ -1,7 +1,5 @@
 package io.lumify.core.ingest.graphProperty;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.CharStreams;
 import io.lumify.core.model.audit.AuditAction;
 import io.lumify.core.model.ontology.Concept;
 import io.lumify.core.model.properties.LumifyProperties;
@@ -13,7 +11,6 @@ import org.securegraph.Property;
 import org.securegraph.Vertex;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -39,7 +36,7 @@ public abstract class RegexGraphPropertyWorker extends GraphPropertyWorker {
     public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
         LOGGER.debug("Extracting pattern [%s] from provided text", pattern);
 
-        final String text = CharStreams.toString(new InputStreamReader(in, Charsets.UTF_8));
+        final String text = data.getTextAnalysis(in).getText();
 
         final Matcher matcher = pattern.matcher(text);
 
@@ -60,7 +57,7 @@ public abstract class RegexGraphPropertyWorker extends GraphPropertyWorker {
                     .conceptIri(getConcept().getIRI())
                     .visibilityJson(data.getVisibilityJson())
                     .process(getClass().getName())
-                    .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                    .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
             termMentions.add(termMention);
         }
         applyTermMentionFilters(sourceVertex, termMentions);
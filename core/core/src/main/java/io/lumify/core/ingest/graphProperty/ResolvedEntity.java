@@ -0,0 +1,55 @@
+package io.lumify.core.ingest.graphProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An entity a term mention filter resolved one or more term mentions to. The filter only describes the entity,
+ * {@link TermMentionResolutionWriter} decides when the vertex actually has to be written.
+ */
+public class ResolvedEntity {
+    private final String multiValueKey;
+    private final String vertexId;
+    private final String conceptIri;
+    private final String title;
+    private final String source;
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    public ResolvedEntity(String multiValueKey, String vertexId, String conceptIri, String title, String source) {
+        this.multiValueKey = multiValueKey;
+        this.vertexId = vertexId;
+        this.conceptIri = conceptIri;
+        this.title = title;
+        this.source = source;
+    }
+
+    public ResolvedEntity property(String propertyName, Object value) {
+        properties.put(propertyName, value);
+        return this;
+    }
+
+    public String getMultiValueKey() {
+        return multiValueKey;
+    }
+
+    public String getVertexId() {
+        return vertexId;
+    }
+
+    public String getConceptIri() {
+        return conceptIri;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Map<String, Object> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+}
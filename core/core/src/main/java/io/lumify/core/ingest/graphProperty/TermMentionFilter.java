@@ -2,6 +2,7 @@ package io.lumify.core.ingest.graphProperty;
 
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
 import io.lumify.core.security.VisibilityTranslator;
 import org.securegraph.Authorizations;
 import org.securegraph.Graph;
@@ -11,11 +12,23 @@ public abstract class TermMentionFilter {
     private Configuration configuration;
     private Graph graph;
     private VisibilityTranslator visibilityTranslator;
+    private TermMentionIndexRepository termMentionIndexRepository;
 
     public void prepare(TermMentionFilterPrepareData termMentionFilterPrepareData) throws Exception {
     }
 
-    public abstract void apply(Vertex artifactGraphVertex, Iterable<Vertex> termMentions, Authorizations authorizations) throws Exception;
+    /**
+     * Resolves term mentions by adding them to resolutions. The resolutions of every filter in the chain are
+     * written together after the chain, so filters implementing this should not save or flush anything.
+     */
+    public void resolve(Vertex artifactGraphVertex, Iterable<Vertex> termMentions, TermMentionResolutions resolutions, Authorizations authorizations) throws Exception {
+    }
+
+    /**
+     * For filters that need to write to the graph themselves. Called after {@link #resolve}.
+     */
+    public void apply(Vertex artifactGraphVertex, Iterable<Vertex> termMentions, Authorizations authorizations) throws Exception {
+    }
 
     @Inject
     public final void setConfiguration(Configuration configuration) {
@@ -43,4 +56,13 @@ public abstract class TermMentionFilter {
     public final void setVisibilityTranslator(VisibilityTranslator visibilityTranslator) {
         this.visibilityTranslator = visibilityTranslator;
     }
+
+    protected final TermMentionIndexRepository getTermMentionIndexRepository() {
+        return termMentionIndexRepository;
+    }
+
+    @Inject
+    public final void setTermMentionIndexRepository(TermMentionIndexRepository termMentionIndexRepository) {
+        this.termMentionIndexRepository = termMentionIndexRepository;
+    }
 }
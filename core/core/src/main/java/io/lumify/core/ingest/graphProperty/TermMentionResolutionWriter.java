@@ -0,0 +1,158 @@
+package io.lumify.core.ingest.graphProperty;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.termMention.TermMentionBuilder;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.core.util.RowKeyHelper;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import org.securegraph.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the resolutions of a term mention filter chain. Each resolved vertex and artifact edge is written once per
+ * document and vertices this writer already wrote with the same values are remembered, so documents resolving to
+ * the same entities don't rewrite them. Nothing is flushed, the caller flushes once after the chain.
+ */
+public class TermMentionResolutionWriter {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(TermMentionResolutionWriter.class);
+    private static final int EXISTING_ENTITY_VERTEX_CACHE_SIZE = 10000;
+    private final Graph graph;
+    private final VisibilityTranslator visibilityTranslator;
+    private final OntologyRepository ontologyRepository;
+    private final WorkspaceRepository workspaceRepository;
+    private final TermMentionIndexRepository termMentionIndexRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
+    private final Cache<String, Vertex> existingEntityVertexCache = CacheBuilder.newBuilder()
+            .maximumSize(EXISTING_ENTITY_VERTEX_CACHE_SIZE)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+    private String artifactHasEntityIri;
+
+    public TermMentionResolutionWriter(
+            Graph graph,
+            VisibilityTranslator visibilityTranslator,
+            OntologyRepository ontologyRepository,
+            WorkspaceRepository workspaceRepository,
+            TermMentionIndexRepository termMentionIndexRepository,
+            EdgeLabelSummary edgeLabelSummary) {
+        this.graph = graph;
+        this.visibilityTranslator = visibilityTranslator;
+        this.ontologyRepository = ontologyRepository;
+        this.workspaceRepository = workspaceRepository;
+        this.termMentionIndexRepository = termMentionIndexRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
+    }
+
+    public void write(Vertex sourceVertex, TermMentionResolutions resolutions, User user, Authorizations authorizations) {
+        if (resolutions.size() == 0) {
+            return;
+        }
+        if (artifactHasEntityIri == null) {
+            artifactHasEntityIri = ontologyRepository.getRequiredRelationshipIRIByIntent("artifactHasEntity");
+        }
+
+        Visibility visibility = sourceVertex.getVisibility();
+        VisibilityJson sourceVertexVisibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex);
+        Metadata metadata = new Metadata();
+        LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, sourceVertexVisibilityJson, visibilityTranslator.getDefaultVisibility());
+
+        Map<String, Vertex> resolvedVertices = new HashMap<>();
+        Map<String, Edge> resolvedEdges = new HashMap<>();
+        List<Edge> newEdges = new ArrayList<>();
+        for (ResolvedEntity resolvedEntity : resolutions.getEntities()) {
+            Vertex resolvedVertex = saveResolvedVertex(resolvedEntity, sourceVertexVisibilityJson, metadata, visibility, authorizations);
+            resolvedVertices.put(resolvedEntity.getVertexId(), resolvedVertex);
+
+            String edgeId = sourceVertex.getId() + "-" + artifactHasEntityIri + "-" + resolvedVertex.getId();
+            EdgeBuilder resolvedEdgeBuilder = graph.prepareEdge(edgeId, sourceVertex, resolvedVertex, artifactHasEntityIri, visibility);
+            LumifyProperties.VISIBILITY_JSON.addPropertyValue(resolvedEdgeBuilder, resolvedEntity.getMultiValueKey(), sourceVertexVisibilityJson, metadata, visibility);
+            boolean newEdge = graph.getEdge(edgeId, authorizations) == null;
+            Edge resolvedEdge = resolvedEdgeBuilder.save(authorizations);
+            if (newEdge) {
+                newEdges.add(resolvedEdge);
+            }
+            resolvedEdges.put(resolvedEntity.getVertexId(), resolvedEdge);
+        }
+        edgeLabelSummary.edgesAdded(newEdges, authorizations);
+
+        Map<String, Set<String>> vertexIdsByWorkspaceId = new HashMap<>();
+        for (TermMentionResolutions.Resolution resolution : resolutions.getResolutions()) {
+            Vertex termMention = resolution.getTermMention();
+            ResolvedEntity resolvedEntity = resolution.getResolvedEntity();
+            VisibilityJson termMentionVisibilityJson = LumifyProperties.TERM_MENTION_VISIBILITY_JSON.getPropertyValue(termMention);
+            if (termMentionVisibilityJson != null) {
+                for (String workspaceId : termMentionVisibilityJson.getWorkspaces()) {
+                    Set<String> vertexIds = vertexIdsByWorkspaceId.get(workspaceId);
+                    if (vertexIds == null) {
+                        vertexIds = new LinkedHashSet<>();
+                        vertexIdsByWorkspaceId.put(workspaceId, vertexIds);
+                    }
+                    vertexIds.add(resolvedEntity.getVertexId());
+                }
+            }
+
+            Vertex resolvedMention = new TermMentionBuilder(termMention, sourceVertex)
+                    .resolvedTo(resolvedVertices.get(resolvedEntity.getVertexId()), resolvedEdges.get(resolvedEntity.getVertexId()))
+                    .title(resolvedEntity.getTitle())
+                    .conceptIri(resolvedEntity.getConceptIri())
+                    .process(resolution.getProcess())
+                    .visibilityJson(termMentionVisibilityJson)
+                    .save(graph, visibilityTranslator, termMentionIndexRepository, authorizations);
+            LOGGER.debug("Resolved term mention [%s] to [%s] as [%s]", termMention.getId(), resolvedEntity.getVertexId(), resolvedMention.getId());
+        }
+
+        for (Map.Entry<String, Set<String>> workspaceVertexIds : vertexIdsByWorkspaceId.entrySet()) {
+            Workspace workspace = workspaceRepository.findById(workspaceVertexIds.getKey(), user);
+            List<WorkspaceRepository.Update> updates = new ArrayList<>();
+            for (String vertexId : workspaceVertexIds.getValue()) {
+                updates.add(new WorkspaceRepository.Update(vertexId, false, null));
+            }
+            workspaceRepository.updateEntitiesOnWorkspace(workspace, updates, user);
+        }
+    }
+
+    private Vertex saveResolvedVertex(ResolvedEntity resolvedEntity, VisibilityJson sourceVertexVisibilityJson, Metadata metadata, Visibility visibility, Authorizations authorizations) {
+        String cacheKey = getExistingEntityVertexCacheKey(resolvedEntity, sourceVertexVisibilityJson, visibility);
+        Vertex resolvedVertex = existingEntityVertexCache.getIfPresent(cacheKey);
+        if (resolvedVertex != null) {
+            return resolvedVertex;
+        }
+
+        String multiValueKey = resolvedEntity.getMultiValueKey();
+        ElementBuilder<Vertex> resolvedToVertexBuilder = graph.prepareVertex(resolvedEntity.getVertexId(), visibility);
+        for (Map.Entry<String, Object> property : resolvedEntity.getProperties().entrySet()) {
+            resolvedToVertexBuilder.addPropertyValue(multiValueKey, property.getKey(), property.getValue(), metadata, visibility);
+        }
+        LumifyProperties.CONCEPT_TYPE.addPropertyValue(resolvedToVertexBuilder, multiValueKey, resolvedEntity.getConceptIri(), metadata, visibility);
+        LumifyProperties.SOURCE.addPropertyValue(resolvedToVertexBuilder, multiValueKey, resolvedEntity.getSource(), metadata, visibility);
+        LumifyProperties.TITLE.addPropertyValue(resolvedToVertexBuilder, multiValueKey, resolvedEntity.getTitle(), metadata, visibility);
+        LumifyProperties.VISIBILITY_JSON.addPropertyValue(resolvedToVertexBuilder, multiValueKey, sourceVertexVisibilityJson, metadata, visibility);
+        resolvedVertex = resolvedToVertexBuilder.save(authorizations);
+        existingEntityVertexCache.put(cacheKey, resolvedVertex);
+        return resolvedVertex;
+    }
+
+    private static String getExistingEntityVertexCacheKey(ResolvedEntity resolvedEntity, VisibilityJson sourceVertexVisibilityJson, Visibility visibility) {
+        return RowKeyHelper.buildMinor(
+                resolvedEntity.getVertexId(),
+                visibility.getVisibilityString(),
+                String.valueOf(sourceVertexVisibilityJson),
+                resolvedEntity.getMultiValueKey(),
+                resolvedEntity.getConceptIri(),
+                resolvedEntity.getTitle(),
+                resolvedEntity.getProperties().toString()
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package io.lumify.core.ingest.graphProperty;
+
+import org.securegraph.Vertex;
+
+import java.util.*;
+
+/**
+ * The term mention resolutions collected from every filter in the chain for one artifact. Mentions resolving to
+ * the same vertex are grouped so the vertex and the artifact edge are written once per document.
+ */
+public class TermMentionResolutions {
+    private final Map<String, ResolvedEntity> entitiesByVertexId = new LinkedHashMap<>();
+    private final List<Resolution> resolutions = new ArrayList<>();
+
+    public void add(Vertex termMention, ResolvedEntity resolvedEntity, String process) {
+        entitiesByVertexId.put(resolvedEntity.getVertexId(), resolvedEntity);
+        resolutions.add(new Resolution(termMention, resolvedEntity, process));
+    }
+
+    public Collection<ResolvedEntity> getEntities() {
+        return Collections.unmodifiableCollection(entitiesByVertexId.values());
+    }
+
+    public List<Resolution> getResolutions() {
+        return Collections.unmodifiableList(resolutions);
+    }
+
+    public int size() {
+        return resolutions.size();
+    }
+
+    public static class Resolution {
+        private final Vertex termMention;
+        private final ResolvedEntity resolvedEntity;
+        private final String process;
+
+        public Resolution(Vertex termMention, ResolvedEntity resolvedEntity, String process) {
+            this.termMention = termMention;
+            this.resolvedEntity = resolvedEntity;
+            this.process = process;
+        }
+
+        public Vertex getTermMention() {
+            return termMention;
+        }
+
+        public ResolvedEntity getResolvedEntity() {
+            return resolvedEntity;
+        }
+
+        public String getProcess() {
+            return process;
+        }
+    }
+}
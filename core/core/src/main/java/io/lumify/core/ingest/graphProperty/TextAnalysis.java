@@ -0,0 +1,180 @@
+package io.lumify.core.ingest.graphProperty;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import io.lumify.core.exception.LumifyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * The text of a text property, decoded once and shared by every worker handling the property. Line offsets are
+ * computed up front, sentence boundaries and token spans on first use. Token spans depend on the tokenizer so they
+ * are cached by tokenizer name; workers using the same tokenizer model share them.
+ */
+public class TextAnalysis {
+    private static final String SENTENCES_ANNOTATION = "sentences";
+    private static final String TOKENS_ANNOTATION_PREFIX = "tokens:";
+    private final String text;
+    private final int[] lineStartOffsets;
+    private final ConcurrentMap<String, FutureTask<?>> annotations = new ConcurrentHashMap<>();
+
+    public TextAnalysis(String text) {
+        this.text = text;
+        this.lineStartOffsets = findLineStartOffsets(text);
+    }
+
+    public static TextAnalysis read(InputStream in) throws IOException {
+        return new TextAnalysis(CharStreams.toString(new InputStreamReader(in, Charsets.UTF_8)));
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getLineCount() {
+        return lineStartOffsets.length;
+    }
+
+    public int getLineStart(int lineIndex) {
+        return lineStartOffsets[lineIndex];
+    }
+
+    /**
+     * @return the offset of the end of the line, not including the line terminator.
+     */
+    public int getLineEnd(int lineIndex) {
+        int end = lineIndex + 1 < lineStartOffsets.length ? lineStartOffsets[lineIndex + 1] - 1 : text.length();
+        if (end > lineStartOffsets[lineIndex] && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    public String getLine(int lineIndex) {
+        return text.substring(getLineStart(lineIndex), getLineEnd(lineIndex));
+    }
+
+    /**
+     * @return the index of the line containing offset.
+     */
+    public int getLineIndex(int offset) {
+        int index = Arrays.binarySearch(lineStartOffsets, offset);
+        return index >= 0 ? index : -(index + 1) - 1;
+    }
+
+    /**
+     * Sentences never span lines, matching the line by line processing the extractors have always done.
+     */
+    public TextSpans getSentences() {
+        return getAnnotation(SENTENCES_ANNOTATION, new Callable<TextSpans>() {
+            @Override
+            public TextSpans call() {
+                return findSentences();
+            }
+        });
+    }
+
+    /**
+     * Tokenizes each line with the given tokenizer, the first time it is asked for under tokenizerName.
+     */
+    public TextSpans getTokens(String tokenizerName, final LineTokenizer tokenizer) {
+        return getAnnotation(TOKENS_ANNOTATION_PREFIX + tokenizerName, new Callable<TextSpans>() {
+            @Override
+            public TextSpans call() {
+                return findTokens(tokenizer);
+            }
+        });
+    }
+
+    /**
+     * Computes a value derived from the text once, even when several workers ask for it at the same time.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAnnotation(String name, Callable<T> loader) {
+        FutureTask<?> task = annotations.get(name);
+        if (task == null) {
+            FutureTask<T> newTask = new FutureTask<>(loader);
+            task = annotations.putIfAbsent(name, newTask);
+            if (task == null) {
+                task = newTask;
+                newTask.run();
+            }
+        }
+        try {
+            return (T) task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LumifyException("Interrupted waiting for text annotation " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new LumifyException("Could not compute text annotation " + name, e.getCause());
+        }
+    }
+
+    private TextSpans findSentences() {
+        TextSpans.Builder sentences = new TextSpans.Builder(text);
+        BreakIterator breakIterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        for (int lineIndex = 0; lineIndex < getLineCount(); lineIndex++) {
+            int lineStart = getLineStart(lineIndex);
+            breakIterator.setText(getLine(lineIndex));
+            int start = breakIterator.first();
+            for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+                int sentenceStart = lineStart + start;
+                int sentenceEnd = lineStart + end;
+                while (sentenceEnd > sentenceStart && Character.isWhitespace(text.charAt(sentenceEnd - 1))) {
+                    sentenceEnd--;
+                }
+                while (sentenceStart < sentenceEnd && Character.isWhitespace(text.charAt(sentenceStart))) {
+                    sentenceStart++;
+                }
+                if (sentenceEnd > sentenceStart) {
+                    sentences.add(sentenceStart, sentenceEnd);
+                }
+            }
+        }
+        return sentences.build();
+    }
+
+    private TextSpans findTokens(LineTokenizer tokenizer) {
+        TextSpans.Builder tokens = new TextSpans.Builder(text);
+        for (int lineIndex = 0; lineIndex < getLineCount(); lineIndex++) {
+            int lineStart = getLineStart(lineIndex);
+            int[][] lineTokens = tokenizer.tokenize(getLine(lineIndex));
+            for (int[] token : lineTokens) {
+                tokens.add(lineStart + token[0], lineStart + token[1]);
+            }
+        }
+        return tokens.build();
+    }
+
+    private static int[] findLineStartOffsets(String text) {
+        int[] offsets = new int[16];
+        int count = 0;
+        offsets[count++] = 0;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = i + 1;
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Splits a single line into tokens.
+     */
+    public static interface LineTokenizer {
+        /**
+         * @return [start, end) offsets of each token relative to the start of the line, in order.
+         */
+        int[][] tokenize(String line);
+    }
+}
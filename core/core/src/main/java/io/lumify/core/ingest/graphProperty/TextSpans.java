@@ -0,0 +1,102 @@
+package io.lumify.core.ingest.graphProperty;
+
+import java.util.Arrays;
+
+/**
+ * Ordered, non-overlapping character spans (tokens, sentences, ...) over a text, kept as two int arrays so
+ * large documents don't allocate an object per span. Offsets are absolute offsets into the analyzed text.
+ */
+public class TextSpans {
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    private TextSpans(String text, int[] starts, int[] ends, int size) {
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    public String getCoveredText(int index) {
+        return text.substring(getStart(index), getEnd(index));
+    }
+
+    /**
+     * @return the index of the first span starting at or after offset, or size() if there is none.
+     */
+    public int indexOfFirstStartingAtOrAfter(int offset) {
+        int index = Arrays.binarySearch(starts, 0, size, offset);
+        if (index < 0) {
+            return -(index + 1);
+        }
+        while (index > 0 && starts[index - 1] == offset) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * @return the covered text of the spans from startIndex (inclusive) to endIndex (exclusive).
+     */
+    public String[] getCoveredTexts(int startIndex, int endIndex) {
+        String[] results = new String[endIndex - startIndex];
+        for (int i = startIndex; i < endIndex; i++) {
+            results[i - startIndex] = getCoveredText(i);
+        }
+        return results;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    public static class Builder {
+        private final String text;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int size;
+
+        public Builder(String text) {
+            this.text = text;
+        }
+
+        public Builder add(int start, int end) {
+            if (start < 0 || end < start || end > text.length()) {
+                throw new IllegalArgumentException("Invalid span [" + start + ", " + end + ") for text of length " + text.length());
+            }
+            if (size > 0 && start < starts[size - 1]) {
+                throw new IllegalArgumentException("Spans must be added in order");
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+            return this;
+        }
+
+        public TextSpans build() {
+            return new TextSpans(text, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size), size);
+        }
+    }
+}
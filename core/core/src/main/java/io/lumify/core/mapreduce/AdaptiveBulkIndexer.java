@@ -0,0 +1,305 @@
+package io.lumify.core.mapreduce;
+
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.securegraph.Authorizations;
+import org.securegraph.Element;
+import org.securegraph.Graph;
+import org.securegraph.Property;
+import org.securegraph.property.StreamingPropertyValue;
+import org.securegraph.search.SearchIndex;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Adds elements to a search index in bulk from a mapper. Batches are sized by the estimated size of their elements
+ * rather than by count: the target batch size grows while the search index responds within
+ * {@link #CONFIG_TARGET_LATENCY_MILLIS} and shrinks when it is slower or rejects a batch. Up to
+ * {@link #CONFIG_MAX_IN_FLIGHT} batches are sent at once, {@link #add(Element)} blocks while that many are
+ * outstanding.
+ * <p/>
+ * A batch the search index rejects because it is overloaded is split in half and retried after an exponential
+ * backoff, so a batch holding an element too large for the search index only fails that element. An element that is
+ * still rejected on its own after {@link #CONFIG_MAX_RETRIES} retries is logged and counted in
+ * {@link BulkIndexCounters#FAILED_ELEMENTS}. Any other error is not retried: the batch's elements are counted as
+ * failed and the error is thrown from the next call to {@link #add}, {@link #flush} or {@link #close}.
+ */
+public class AdaptiveBulkIndexer implements Closeable {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(AdaptiveBulkIndexer.class);
+    public static final String CONFIG_INITIAL_BATCH_BYTES = "bulkIndex.initialBatchBytes";
+    public static final String CONFIG_MIN_BATCH_BYTES = "bulkIndex.minBatchBytes";
+    public static final String CONFIG_MAX_BATCH_BYTES = "bulkIndex.maxBatchBytes";
+    public static final String CONFIG_MAX_BATCH_ELEMENTS = "bulkIndex.maxBatchElements";
+    public static final String CONFIG_TARGET_LATENCY_MILLIS = "bulkIndex.targetLatencyMillis";
+    public static final String CONFIG_MAX_IN_FLIGHT = "bulkIndex.maxInFlight";
+    public static final String CONFIG_MAX_RETRIES = "bulkIndex.maxRetries";
+    public static final String CONFIG_INITIAL_BACKOFF_MILLIS = "bulkIndex.initialBackoffMillis";
+    public static final long DEFAULT_INITIAL_BATCH_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MIN_BATCH_BYTES = 16 * 1024;
+    public static final long DEFAULT_MAX_BATCH_BYTES = 10 * 1024 * 1024;
+    public static final int DEFAULT_MAX_BATCH_ELEMENTS = 5000;
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 1000;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    public static final int DEFAULT_MAX_RETRIES = 5;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 60 * 1000;
+    private static final int ELEMENT_OVERHEAD_BYTES = 64;
+    private static final int PROPERTY_OVERHEAD_BYTES = 32;
+    private static final int SCALAR_VALUE_BYTES = 8;
+
+    private final Graph graph;
+    private final SearchIndex searchIndex;
+    private final Authorizations authorizations;
+    private final TaskAttemptContext context;
+    private final long minBatchBytes;
+    private final long maxBatchBytes;
+    private final int maxBatchElements;
+    private final long targetLatencyMillis;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private long targetBatchBytes;
+    private List<Element> pending = new ArrayList<Element>();
+    private long pendingBytes;
+    private Enum<?> indexedElementsCounter;
+    private volatile Exception failure;
+
+    public AdaptiveBulkIndexer(Graph graph, SearchIndex searchIndex, Authorizations authorizations, TaskAttemptContext context) {
+        Configuration conf = context.getConfiguration();
+        this.graph = graph;
+        this.searchIndex = searchIndex;
+        this.authorizations = authorizations;
+        this.context = context;
+        this.minBatchBytes = conf.getLong(CONFIG_MIN_BATCH_BYTES, DEFAULT_MIN_BATCH_BYTES);
+        this.maxBatchBytes = Math.max(minBatchBytes, conf.getLong(CONFIG_MAX_BATCH_BYTES, DEFAULT_MAX_BATCH_BYTES));
+        this.maxBatchElements = conf.getInt(CONFIG_MAX_BATCH_ELEMENTS, DEFAULT_MAX_BATCH_ELEMENTS);
+        this.targetLatencyMillis = conf.getLong(CONFIG_TARGET_LATENCY_MILLIS, DEFAULT_TARGET_LATENCY_MILLIS);
+        this.maxInFlight = conf.getInt(CONFIG_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT);
+        this.maxRetries = conf.getInt(CONFIG_MAX_RETRIES, DEFAULT_MAX_RETRIES);
+        this.initialBackoffMillis = conf.getLong(CONFIG_INITIAL_BACKOFF_MILLIS, DEFAULT_INITIAL_BACKOFF_MILLIS);
+        this.targetBatchBytes = clamp(conf.getLong(CONFIG_INITIAL_BATCH_BYTES, DEFAULT_INITIAL_BATCH_BYTES));
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = Executors.newFixedThreadPool(maxInFlight);
+        LOGGER.info("bulk indexing with up to %d batches in flight, batch size %d-%d bytes (initially %d)", maxInFlight, minBatchBytes, maxBatchBytes, targetBatchBytes);
+    }
+
+    /**
+     * Queues element to be indexed, sending the queued elements as a batch once they reach the target batch size.
+     */
+    public void add(Element element) throws InterruptedException {
+        checkFailure();
+        pending.add(element);
+        pendingBytes += estimateSize(element);
+        if (pendingBytes >= getTargetBatchBytes() || pending.size() >= maxBatchElements) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the queued elements as a batch, waiting if {@link #CONFIG_MAX_IN_FLIGHT} batches are already outstanding.
+     */
+    public void flush() throws InterruptedException {
+        checkFailure();
+        if (pending.size() == 0) {
+            return;
+        }
+        final List<Element> batch = pending;
+        final long batchBytes = pendingBytes;
+        pending = new ArrayList<Element>();
+        pendingBytes = 0;
+
+        inFlight.acquire();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        index(batch, batchBytes, 0);
+                    } finally {
+                        inFlight.release();
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Sends the queued elements and waits for every outstanding batch to complete.
+     */
+    public void waitForCompletion() throws InterruptedException {
+        flush();
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        context.getCounter(BulkIndexCounters.TARGET_BATCH_BYTES).setValue(getTargetBatchBytes());
+        checkFailure();
+    }
+
+    @Override
+    public void close() {
+        try {
+            waitForCompletion();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("interrupted waiting for bulk index batches to complete", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized long getTargetBatchBytes() {
+        return targetBatchBytes;
+    }
+
+    /**
+     * A counter of the caller's to increment with the number of elements actually indexed, as each batch completes.
+     */
+    public void setIndexedElementsCounter(Enum<?> indexedElementsCounter) {
+        this.indexedElementsCounter = indexedElementsCounter;
+    }
+
+    private void checkFailure() {
+        Exception ex = failure;
+        if (ex != null) {
+            throw new LumifyException("Could not add elements to the search index", ex);
+        }
+    }
+
+    private void index(List<Element> batch, long batchBytes, int retry) {
+        long startTime = System.currentTimeMillis();
+        try {
+            searchIndex.addElements(graph, batch, authorizations);
+        } catch (Exception ex) {
+            if (!isRejection(ex)) {
+                LOGGER.error("Could not add batch of %d elements", batch.size(), ex);
+                context.getCounter(BulkIndexCounters.FAILED_ELEMENTS).increment(batch.size());
+                if (failure == null) {
+                    failure = ex;
+                }
+                return;
+            }
+            onRejected(batch, batchBytes, retry, ex);
+            return;
+        }
+        long latency = System.currentTimeMillis() - startTime;
+        onIndexed(batch.size(), batchBytes, latency);
+    }
+
+    private void onIndexed(int elementCount, long batchBytes, long latency) {
+        context.getCounter(BulkIndexCounters.BATCHES).increment(1);
+        context.getCounter(BulkIndexCounters.BATCH_ELEMENTS).increment(elementCount);
+        context.getCounter(BulkIndexCounters.BATCH_BYTES).increment(batchBytes);
+        context.getCounter(BulkIndexCounters.BATCH_LATENCY_MILLIS).increment(latency);
+        if (indexedElementsCounter != null) {
+            context.getCounter(indexedElementsCounter).increment(elementCount);
+        }
+        context.progress();
+
+        synchronized (this) {
+            if (latency > targetLatencyMillis) {
+                targetBatchBytes = clamp(targetBatchBytes / 2);
+            } else if (batchBytes >= targetBatchBytes / 2) {
+                // only grow on batches that filled the target, a trailing partial batch says little about capacity
+                targetBatchBytes = clamp(targetBatchBytes + targetBatchBytes / 4);
+            }
+        }
+    }
+
+    private void onRejected(List<Element> batch, long batchBytes, int retry, Exception ex) {
+        synchronized (this) {
+            targetBatchBytes = clamp(targetBatchBytes / 2);
+        }
+        if (batch.size() == 1 && retry >= maxRetries) {
+            LOGGER.error("Could not add element %s after %d retries", batch.get(0).getId(), retry, ex);
+            context.getCounter(BulkIndexCounters.FAILED_ELEMENTS).increment(1);
+            return;
+        }
+
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(retry, maxRetries));
+        LOGGER.warn("search index rejected batch of %d elements (%d bytes), retrying in %dms: %s", batch.size(), batchBytes, backoff, ex.getMessage());
+        context.getCounter(BulkIndexCounters.RETRIES).increment(1);
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.getCounter(BulkIndexCounters.FAILED_ELEMENTS).increment(batch.size());
+            return;
+        }
+
+        if (batch.size() == 1) {
+            index(batch, batchBytes, retry + 1);
+            return;
+        }
+        // split even once out of retries so the elements that can be indexed are not failed with the one that can't
+        int half = batch.size() / 2;
+        List<Element> first = new ArrayList<Element>(batch.subList(0, half));
+        List<Element> second = new ArrayList<Element>(batch.subList(half, batch.size()));
+        index(first, estimateSize(first), retry + 1);
+        index(second, estimateSize(second), retry + 1);
+    }
+
+    /**
+     * True if the search index turned the request away because it was overloaded or the request was too large, as
+     * opposed to failing on it. Elasticsearch reports a full bulk queue as an EsRejectedExecutionException, which
+     * reaches the client either as the exception itself or in the message of a bulk failure.
+     */
+    protected boolean isRejection(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException || cause.getClass().getSimpleName().equals("EsRejectedExecutionException")) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && (message.contains("EsRejectedExecutionException") || message.contains("rejected execution") || message.contains("REQUEST_ENTITY_TOO_LARGE"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long clamp(long batchBytes) {
+        return Math.max(minBatchBytes, Math.min(maxBatchBytes, batchBytes));
+    }
+
+    private static long estimateSize(List<Element> elements) {
+        long size = 0;
+        for (Element element : elements) {
+            size += estimateSize(element);
+        }
+        return size;
+    }
+
+    /**
+     * Estimates the size of the element's search index document from its property values without serializing it.
+     */
+    public static long estimateSize(Element element) {
+        long size = ELEMENT_OVERHEAD_BYTES + element.getId().length();
+        for (Property property : element.getProperties()) {
+            size += PROPERTY_OVERHEAD_BYTES + property.getName().length() + property.getKey().length();
+            Object value = property.getValue();
+            if (value instanceof String) {
+                size += ((String) value).length();
+            } else if (value instanceof StreamingPropertyValue) {
+                StreamingPropertyValue streamingPropertyValue = (StreamingPropertyValue) value;
+                if (streamingPropertyValue.isSearchIndex()) {
+                    size += streamingPropertyValue.getLength();
+                }
+            } else {
+                size += SCALAR_VALUE_BYTES;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,11 @@
+package io.lumify.core.mapreduce;
+
+public enum BulkIndexCounters {
+    BATCHES,
+    BATCH_ELEMENTS,
+    BATCH_BYTES,
+    BATCH_LATENCY_MILLIS,
+    TARGET_BATCH_BYTES,
+    RETRIES,
+    FAILED_ELEMENTS
+}
@@ -1,9 +1,14 @@
 package io.lumify.core.mapreduce;
 
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.hadoop.io.Text;
+import org.securegraph.Authorizations;
+import org.securegraph.Vertex;
+import org.securegraph.VertexBuilder;
+import org.securegraph.Visibility;
 import org.securegraph.accumulo.mapreduce.ElementMapper;
 import org.securegraph.id.IdGenerator;
 import org.securegraph.id.UUIDIdGenerator;
@@ -40,6 +45,20 @@ public abstract class LumifyElementMapperBase<KEYIN, VALUEIN> extends ElementMap
         context.write(getKey(context, verticesTableName, m), m);
     }
 
+    /**
+     * Mappers can't read the vertices they add edges to, so instead of counting an edge they mark the edge label
+     * summaries of both of its vertices stale. The vertex is rewritten with its own visibility.
+     */
+    protected void invalidateEdgeLabelSummary(String vertexId, Visibility vertexVisibility, Authorizations authorizations) {
+        VertexBuilder vertexBuilder = prepareVertex(vertexId, vertexVisibility);
+        EdgeLabelSummary.invalidate(vertexBuilder);
+        vertexBuilder.save(authorizations);
+    }
+
+    protected void invalidateEdgeLabelSummary(Vertex vertex, Authorizations authorizations) {
+        invalidateEdgeLabelSummary(vertex.getId(), vertex.getVisibility(), authorizations);
+    }
+
     protected Text getKey(Context context, Text tableName, Mutation m) {
         return tableName;
     }
@@ -1,16 +1,27 @@
 package io.lumify.core.model.artifactThumbnails;
 
+import java.util.Date;
+
 public class ArtifactThumbnail {
     private byte[] thumbnail;
     private int type;
     private String format;
+    private Date modifiedDate;
 
     public ArtifactThumbnail(byte[] thumbnail,
                              int type,
                              String format) {
+        this(thumbnail, type, format, new Date());
+    }
+
+    public ArtifactThumbnail(byte[] thumbnail,
+                             int type,
+                             String format,
+                             Date modifiedDate) {
         this.thumbnail = thumbnail;
         this.type = type;
         this.format = format;
+        this.modifiedDate = modifiedDate;
     }
 
     public byte[] getThumbnailData() {
@@ -36,4 +47,15 @@ public class ArtifactThumbnail {
     public void setFormat(String format) {
         this.format = format;
     }
+
+    /**
+     * @return when the thumbnail was generated, null for thumbnails stored before this was recorded.
+     */
+    public Date getModifiedDate() {
+        return modifiedDate;
+    }
+
+    public void setModifiedDate(Date modifiedDate) {
+        this.modifiedDate = modifiedDate;
+    }
 }
@@ -13,13 +13,20 @@ import io.lumify.core.util.LumifyLoggerFactory;
 import org.securegraph.Vertex;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 public abstract class ArtifactThumbnailRepository extends Repository<BigTableArtifactThumbnail> {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ArtifactThumbnailRepository.class);
@@ -55,63 +62,114 @@ public abstract class ArtifactThumbnailRepository extends Repository<BigTableArt
 
     public abstract ArtifactThumbnail createThumbnail(Vertex artifactVertex, String thumbnailType, InputStream in, int[] boundaryDims, User user) throws IOException;
 
+    /**
+     * Creates and stores one thumbnail per boundary dimension from a single decode of the image.
+     */
+    public abstract List<ArtifactThumbnail> createThumbnails(Vertex artifactVertex, String thumbnailType, InputStream in, List<int[]> boundaryDimsList, User user) throws IOException;
+
     public ArtifactThumbnail generateThumbnail(Vertex artifactVertex, InputStream in, int[] boundaryDims) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        String format;
-        int type;
+        return generateThumbnails(artifactVertex, in, Collections.singletonList(boundaryDims)).get(0);
+    }
+
+    /**
+     * Decodes the image once, subsampled as far as the largest requested thumbnail allows, then re-orients and
+     * scales it to each of the boundary dimensions with a single transform per thumbnail.
+     */
+    public List<ArtifactThumbnail> generateThumbnails(Vertex artifactVertex, InputStream in, List<int[]> boundaryDimsList) {
+        boolean yAxisFlipNeeded = isYAxisFlipNeeded(artifactVertex);
+        int cwRotationNeeded = getClockwiseRotationNeeded(artifactVertex);
+        List<ArtifactThumbnail> thumbnails = new ArrayList<>();
         try {
-            BufferedImage originalImage = ImageIO.read(in);
-            checkNotNull(originalImage, "Could not generateThumbnail: read original image for artifact " + artifactVertex.getId());
-            type = ImageUtils.thumbnailType(originalImage);
-            format = ImageUtils.thumbnailFormat(originalImage);
-
-            BufferedImage transformedImage = getTransformedImage(originalImage, artifactVertex);
-
-            //Get new image dimensions, which will be used for the icon.
-            int[] transformedImageDims = new int[]{transformedImage.getWidth(), transformedImage.getHeight()};
-            int[] newImageDims = getScaledDimension(transformedImageDims, boundaryDims);
-            if (newImageDims[0] >= transformedImageDims[0] || newImageDims[1] >= transformedImageDims[1]) {
-                LOGGER.info("Original image dimensions %d x %d are smaller "
-                                + "than requested dimensions %d x %d returning original.",
-                        transformedImageDims[0], transformedImageDims[1],
-                        newImageDims[0], newImageDims[1]);
+            int[] orientedImageDims = new int[2];
+            BufferedImage originalImage = readSubsampledImage(artifactVertex, in, cwRotationNeeded, boundaryDimsList, orientedImageDims);
+            int type = ImageUtils.thumbnailType(originalImage);
+            String format = ImageUtils.thumbnailFormat(originalImage);
+
+            for (int[] boundaryDims : boundaryDimsList) {
+                //Get new image dimensions, which will be used for the icon.
+                int[] newImageDims = getScaledDimension(orientedImageDims, boundaryDims);
+                if (newImageDims[0] >= orientedImageDims[0] || newImageDims[1] >= orientedImageDims[1]) {
+                    LOGGER.info("Original image dimensions %d x %d are smaller "
+                                    + "than requested dimensions %d x %d returning original.",
+                            orientedImageDims[0], orientedImageDims[1],
+                            newImageDims[0], newImageDims[1]);
+                }
+                BufferedImage resizedImage = ImageUtils.reOrientAndScaleImage(originalImage, yAxisFlipNeeded, cwRotationNeeded, newImageDims[0], newImageDims[1], type);
+
+                //Write the bufferedImage to a file.
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(resizedImage, format, out);
+                thumbnails.add(new ArtifactThumbnail(out.toByteArray(), type, format));
             }
-            //Resize the image.
-            BufferedImage resizedImage = new BufferedImage(newImageDims[0], newImageDims[1], type);
-            Graphics2D g = resizedImage.createGraphics();
-            if (transformedImage.getColorModel().getNumComponents() > 3) {
-                g.drawImage(transformedImage, 0, 0, resizedImage.getWidth(), resizedImage.getHeight(), null);
-            } else {
-                g.drawImage(transformedImage, 0, 0, resizedImage.getWidth(), resizedImage.getHeight(), Color.BLACK, null);
-            }
-            g.dispose();
-
-            //Write the bufferedImage to a file.
-            ImageIO.write(resizedImage, format, out);
         } catch (IOException e) {
             throw new LumifyResourceNotFoundException("Error reading inputstream");
         }
-        return new ArtifactThumbnail(out.toByteArray(), type, format);
+        return thumbnails;
+    }
+
+    /**
+     * Reads the image skipping source pixels the thumbnails don't need. The image is read with at least twice the
+     * resolution of the largest thumbnail so the scaling that follows still has pixels to filter.
+     *
+     * @param orientedImageDims filled in with the dimensions of the full size image after re-orienting.
+     */
+    private BufferedImage readSubsampledImage(Vertex artifactVertex, InputStream in, int cwRotationNeeded, List<int[]> boundaryDimsList, int[] orientedImageDims) throws IOException {
+        ImageInputStream imageIn = ImageIO.createImageInputStream(in);
+        checkNotNull(imageIn, "Could not generateThumbnail: read original image for artifact " + artifactVertex.getId());
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            checkState(readers.hasNext(), "Could not generateThumbnail: read original image for artifact " + artifactVertex.getId());
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int[] dims = ImageUtils.getOrientedDimensions(reader.getWidth(0), reader.getHeight(0), cwRotationNeeded);
+                orientedImageDims[0] = dims[0];
+                orientedImageDims[1] = dims[1];
+
+                int subsampling = Integer.MAX_VALUE;
+                for (int[] boundaryDims : boundaryDimsList) {
+                    int[] newImageDims = getScaledDimension(orientedImageDims, boundaryDims);
+                    int widthRatio = orientedImageDims[0] / Math.max(1, newImageDims[0]);
+                    int heightRatio = orientedImageDims[1] / Math.max(1, newImageDims[1]);
+                    subsampling = Math.min(subsampling, Math.min(widthRatio, heightRatio) / 2);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            imageIn.close();
+        }
     }
 
     public BufferedImage getTransformedImage(BufferedImage originalImage, Vertex artifactVertex) {
-        int cwRotationNeeded = 0;
+        //Rotate and flip image.
+        return ImageUtils.reOrientImage(originalImage, isYAxisFlipNeeded(artifactVertex), getClockwiseRotationNeeded(artifactVertex));
+    }
+
+    private int getClockwiseRotationNeeded(Vertex artifactVertex) {
         if (clockwiseRotationProperty != null) {
             Integer nullable = clockwiseRotationProperty.getPropertyValue(artifactVertex);
             if (nullable != null) {
-                cwRotationNeeded = nullable;
+                return nullable;
             }
         }
-        boolean yAxisFlipNeeded = false;
+        return 0;
+    }
+
+    private boolean isYAxisFlipNeeded(Vertex artifactVertex) {
         if (yAxisFlippedProperty != null) {
             Boolean nullable = yAxisFlippedProperty.getPropertyValue(artifactVertex);
             if (nullable != null) {
-                yAxisFlipNeeded = nullable;
+                return nullable;
             }
         }
-
-        //Rotate and flip image.
-        return ImageUtils.reOrientImage(originalImage, yAxisFlipNeeded, cwRotationNeeded);
+        return false;
     }
 
     public int[] getScaledDimension(int[] imgSize, int[] boundary) {
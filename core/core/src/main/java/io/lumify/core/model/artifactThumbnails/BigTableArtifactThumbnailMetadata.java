@@ -7,12 +7,14 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Date;
 
 public class BigTableArtifactThumbnailMetadata extends ColumnFamily {
     public static final String NAME = "metadata";
     private static final String DATA = "data";
     private static final String TYPE = "type";
     private static final String FORMAT = "format";
+    private static final String MODIFIED = "modified";
 
     public BigTableArtifactThumbnailMetadata() {
         super(NAME);
@@ -45,6 +47,19 @@ public class BigTableArtifactThumbnailMetadata extends ColumnFamily {
         return this;
     }
 
+    public Date getModifiedDate() {
+        Long modified = Value.toLong(get(MODIFIED));
+        if (modified == null) {
+            return null;
+        }
+        return new Date(modified);
+    }
+
+    public BigTableArtifactThumbnailMetadata setModifiedDate(Date modifiedDate) {
+        set(MODIFIED, modifiedDate.getTime());
+        return this;
+    }
+
     public BufferedImage getImage() {
         try {
             byte[] data = getData();
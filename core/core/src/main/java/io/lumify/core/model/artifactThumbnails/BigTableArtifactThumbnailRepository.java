@@ -12,7 +12,9 @@ import org.securegraph.Vertex;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class BigTableArtifactThumbnailRepository extends ArtifactThumbnailRepository {
     @Inject
@@ -52,7 +54,7 @@ public class BigTableArtifactThumbnailRepository extends ArtifactThumbnailReposi
         BigTableArtifactThumbnail thumbnail = findByRowKey(rowKey.toString(), user.getModelUserContext());
         if (thumbnail != null) {
             BigTableArtifactThumbnailMetadata metadata = thumbnail.getMetadata();
-            return new ArtifactThumbnail(metadata.getData(), metadata.getType(), metadata.getFormat());
+            return new ArtifactThumbnail(metadata.getData(), metadata.getType(), metadata.getFormat(), metadata.getModifiedDate());
         }
         return null;
     }
@@ -69,16 +71,28 @@ public class BigTableArtifactThumbnailRepository extends ArtifactThumbnailReposi
     @Override
     public ArtifactThumbnail createThumbnail(Vertex artifactVertex, String thumbnailType, InputStream in, int[] boundaryDims, User user) throws IOException {
         ArtifactThumbnail thumbnail = super.generateThumbnail(artifactVertex, in, boundaryDims);
-        saveThumbnail(artifactVertex, thumbnailType, boundaryDims, thumbnail.getThumbnailData(), thumbnail.getType(), thumbnail.getFormat());
+        save(toBigTableArtifactThumbnail(artifactVertex.getId(), thumbnailType, boundaryDims, thumbnail));
         return thumbnail;
     }
 
-    private void saveThumbnail(Object artifactVertexId, String thumbnailType, int[] boundaryDims, byte[] bytes, int type, String format) {
+    @Override
+    public List<ArtifactThumbnail> createThumbnails(Vertex artifactVertex, String thumbnailType, InputStream in, List<int[]> boundaryDimsList, User user) throws IOException {
+        List<ArtifactThumbnail> thumbnails = super.generateThumbnails(artifactVertex, in, boundaryDimsList);
+        List<BigTableArtifactThumbnail> rows = new ArrayList<>();
+        for (int i = 0; i < thumbnails.size(); i++) {
+            rows.add(toBigTableArtifactThumbnail(artifactVertex.getId(), thumbnailType, boundaryDimsList.get(i), thumbnails.get(i)));
+        }
+        saveMany(rows);
+        return thumbnails;
+    }
+
+    private BigTableArtifactThumbnail toBigTableArtifactThumbnail(Object artifactVertexId, String thumbnailType, int[] boundaryDims, ArtifactThumbnail thumbnail) {
         BigTableArtifactThumbnailRowKey artifactThumbnailRowKey = new BigTableArtifactThumbnailRowKey(artifactVertexId, thumbnailType, boundaryDims[0], boundaryDims[1]);
         BigTableArtifactThumbnail artifactThumbnail = new BigTableArtifactThumbnail(artifactThumbnailRowKey);
-        artifactThumbnail.getMetadata().setData(bytes);
-        artifactThumbnail.getMetadata().setType(type);
-        artifactThumbnail.getMetadata().setFormat(format);
-        save(artifactThumbnail);
+        artifactThumbnail.getMetadata().setData(thumbnail.getThumbnailData());
+        artifactThumbnail.getMetadata().setType(thumbnail.getType());
+        artifactThumbnail.getMetadata().setFormat(thumbnail.getFormat());
+        artifactThumbnail.getMetadata().setModifiedDate(thumbnail.getModifiedDate());
+        return artifactThumbnail;
     }
 }
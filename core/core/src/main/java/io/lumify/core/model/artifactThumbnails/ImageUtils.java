@@ -1,6 +1,7 @@
 package io.lumify.core.model.artifactThumbnails;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 public class ImageUtils {
@@ -11,41 +12,84 @@ public class ImageUtils {
      * is not the same as rotating the image 90 degrees CW and then flipping it over the y Axis.
      */
     public static BufferedImage reOrientImage(BufferedImage image, boolean yAxisFlipNeeded, int cwRotationNeeded) {
-        //If angle greater than 360 is entered, reduce this angle.
-        cwRotationNeeded = cwRotationNeeded % 360;
-
-        BufferedImage orientedImage = image;
-        if (!yAxisFlipNeeded && cwRotationNeeded == 0) {
-            //EXIF Orientation 1.
-            return image;
-        } else if (yAxisFlipNeeded && cwRotationNeeded == 0) {
-            //EXIF Orientation 2.
-            orientedImage = flipImageHorizontally(image);
-        } else if (!yAxisFlipNeeded && cwRotationNeeded == 180) {
-            //EXIF Orientation 3.
-            orientedImage = rotateImage(image, 180);
-        } else if (yAxisFlipNeeded && cwRotationNeeded == 180) {
-            //EXIF Orientation 4.
-            orientedImage = flipImageVertically(image);
-        } else if (yAxisFlipNeeded && cwRotationNeeded == 270) {
-            //EXIF Orientation 5.
-            orientedImage = flipImageVertically(image);
-            orientedImage = rotateImage(orientedImage, 90);
-        } else if (!yAxisFlipNeeded && cwRotationNeeded == 90) {
-            //EXIF Orientation 6.
-            orientedImage = rotateImage(image, 90);
-        } else if (yAxisFlipNeeded && cwRotationNeeded == 90) {
-            //EXIF Orientation 7.
-            orientedImage = flipImageVertically(image);
-            orientedImage = rotateImage(orientedImage, 270);
-        } else if (!yAxisFlipNeeded && cwRotationNeeded == 270) {
-            //EXIF Orientation 8.
-            orientedImage = rotateImage(image, 270);
-        } else {
+        if (!isReOrientNeeded(yAxisFlipNeeded, cwRotationNeeded)) {
             return image;
         }
+        int[] orientedDims = getOrientedDimensions(image.getWidth(), image.getHeight(), cwRotationNeeded);
+        BufferedImage result = new BufferedImage(orientedDims[0], orientedDims[1], thumbnailType(image));
+        Graphics2D g = result.createGraphics();
+        g.drawImage(image, getOrientationTransform(image.getWidth(), image.getHeight(), yAxisFlipNeeded, cwRotationNeeded), null);
+        g.dispose();
+        return result;
+    }
 
-        return orientedImage;
+    /**
+     * Re-orients and scales the image to width x height in a single pass.
+     */
+    public static BufferedImage reOrientAndScaleImage(BufferedImage image, boolean yAxisFlipNeeded, int cwRotationNeeded, int width, int height, int type) {
+        int[] orientedDims = getOrientedDimensions(image.getWidth(), image.getHeight(), cwRotationNeeded);
+        AffineTransform transform = AffineTransform.getScaleInstance((double) width / orientedDims[0], (double) height / orientedDims[1]);
+        transform.concatenate(getOrientationTransform(image.getWidth(), image.getHeight(), yAxisFlipNeeded, cwRotationNeeded));
+
+        BufferedImage result = new BufferedImage(width, height, type);
+        Graphics2D g = result.createGraphics();
+        if (image.getColorModel().getNumComponents() <= 3) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return result;
+    }
+
+    /**
+     * Only flips and multiples of 90 degrees are supported, other rotations leave the image as is.
+     */
+    public static boolean isReOrientNeeded(boolean yAxisFlipNeeded, int cwRotationNeeded) {
+        int rotation = cwRotationNeeded % 360;
+        if (rotation != 0 && rotation != 90 && rotation != 180 && rotation != 270) {
+            return false;
+        }
+        return yAxisFlipNeeded || rotation != 0;
+    }
+
+    public static int[] getOrientedDimensions(int width, int height, int cwRotationNeeded) {
+        int rotation = cwRotationNeeded % 360;
+        if (rotation == 90 || rotation == 270) {
+            return new int[]{height, width};
+        }
+        return new int[]{width, height};
+    }
+
+    /**
+     * @return the transform from a width x height image to the re-oriented image, flipping over the y axis first
+     * and then rotating clockwise.
+     */
+    public static AffineTransform getOrientationTransform(int width, int height, boolean yAxisFlipNeeded, int cwRotationNeeded) {
+        AffineTransform transform = new AffineTransform();
+        if (!isReOrientNeeded(yAxisFlipNeeded, cwRotationNeeded)) {
+            return transform;
+        }
+        switch (cwRotationNeeded % 360) {
+            case 90:
+                transform.translate(height, 0);
+                transform.quadrantRotate(1);
+                break;
+            case 180:
+                transform.translate(width, height);
+                transform.quadrantRotate(2);
+                break;
+            case 270:
+                transform.translate(0, width);
+                transform.quadrantRotate(3);
+                break;
+        }
+        if (yAxisFlipNeeded) {
+            transform.translate(width, 0);
+            transform.scale(-1, 1);
+        }
+        return transform;
     }
 
     public static BufferedImage flipImageHorizontally(BufferedImage image) {
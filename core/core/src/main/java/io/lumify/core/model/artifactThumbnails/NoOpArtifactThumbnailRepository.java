@@ -11,6 +11,7 @@ import org.securegraph.Vertex;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 public class NoOpArtifactThumbnailRepository extends ArtifactThumbnailRepository {
     @Inject
@@ -47,4 +48,9 @@ public class NoOpArtifactThumbnailRepository extends ArtifactThumbnailRepository
     public ArtifactThumbnail createThumbnail(Vertex artifactVertex, String thumbnailType, InputStream in, int[] boundaryDims, User user) throws IOException {
         return super.generateThumbnail(artifactVertex, in, boundaryDims);
     }
+
+    @Override
+    public List<ArtifactThumbnail> createThumbnails(Vertex artifactVertex, String thumbnailType, InputStream in, List<int[]> boundaryDimsList, User user) throws IOException {
+        return super.generateThumbnails(artifactVertex, in, boundaryDimsList);
+    }
 }
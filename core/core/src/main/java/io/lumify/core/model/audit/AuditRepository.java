@@ -1,5 +1,6 @@
 package io.lumify.core.model.audit;
 
+import com.altamiracorp.bigtable.model.FlushFlag;
 import com.altamiracorp.bigtable.model.ModelSession;
 import com.altamiracorp.bigtable.model.Repository;
 import com.altamiracorp.bigtable.model.Row;
@@ -7,13 +8,68 @@ import io.lumify.core.user.User;
 import org.securegraph.*;
 import org.securegraph.mutation.ElementMutation;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public abstract class AuditRepository extends Repository<Audit> {
+    private final ThreadLocal<List<Audit>> batch = new ThreadLocal<>();
+
     public AuditRepository(ModelSession modelSession) {
         super(modelSession);
     }
 
+    /**
+     * Holds the audits this thread saves until {@link #flushBatch()}, which saves them all at once, so an operation
+     * touching many elements writes its audits together rather than flushing each one. Batches don't nest.
+     */
+    public void startBatch() {
+        if (batch.get() == null) {
+            batch.set(new ArrayList<Audit>());
+        }
+    }
+
+    public void flushBatch() {
+        List<Audit> audits = batch.get();
+        batch.remove();
+        if (audits != null && audits.size() > 0) {
+            super.saveMany(audits);
+        }
+    }
+
+    @Override
+    public void save(Audit audit) {
+        if (!addToBatch(audit)) {
+            super.save(audit);
+        }
+    }
+
+    @Override
+    public void save(Audit audit, FlushFlag flushFlag) {
+        if (!addToBatch(audit)) {
+            super.save(audit, flushFlag);
+        }
+    }
+
+    @Override
+    public void saveMany(Collection<Audit> audits) {
+        List<Audit> batchAudits = batch.get();
+        if (batchAudits == null) {
+            super.saveMany(audits);
+        } else {
+            batchAudits.addAll(audits);
+        }
+    }
+
+    private boolean addToBatch(Audit audit) {
+        List<Audit> batchAudits = batch.get();
+        if (batchAudits == null) {
+            return false;
+        }
+        batchAudits.add(audit);
+        return true;
+    }
+
     public abstract Audit fromRow(Row row);
 
     public abstract Row toRow(Audit audit);
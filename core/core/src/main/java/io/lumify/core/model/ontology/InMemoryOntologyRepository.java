@@ -54,6 +54,7 @@ public class InMemoryOntologyRepository extends OntologyRepositoryBase {
     protected Concept importOntologyClass(OWLOntology o, OWLClass ontologyClass, File inDir, Authorizations authorizations) throws IOException {
         InMemoryConcept concept = (InMemoryConcept) super.importOntologyClass(o, ontologyClass, inDir, authorizations);
         conceptsCache.put(concept.getIRI(), concept);
+        incrementVersion();
         return concept;
     }
 
@@ -214,13 +215,15 @@ public class InMemoryOntologyRepository extends OntologyRepositoryBase {
             }
             property.setPossibleValues(possibleValues);
             propertiesCache.put(propertyIri, property);
+            incrementVersion();
         }
         return property;
     }
 
     @Override
     public void clearCache() {
-        // do nothing it's all in memory already.
+        // nothing is cached since it's all in memory already, but the caller may have changed the ontology
+        incrementVersion();
     }
 
     @Override
@@ -343,6 +346,7 @@ public class InMemoryOntologyRepository extends OntologyRepositoryBase {
         concept.setProperty(LumifyProperties.TITLE.getPropertyName(), conceptIRI, null);
         concept.setProperty(LumifyProperties.DISPLAY_NAME.getPropertyName(), displayName, null);
         conceptsCache.put(conceptIRI, concept);
+        incrementVersion();
 
         return concept;
     }
@@ -377,6 +381,7 @@ public class InMemoryOntologyRepository extends OntologyRepositoryBase {
 
         InMemoryRelationship inMemRelationship = new InMemoryRelationship(relationshipIRI, displayName, domainConceptIris, rangeConceptIris, intents, userVisible);
         relationshipsCache.put(relationshipIRI, inMemRelationship);
+        incrementVersion();
         return inMemRelationship;
     }
 
@@ -65,6 +65,12 @@ public interface OntologyRepository {
 
     ClientApiOntology getClientApiObject();
 
+    /**
+     * A number that changes whenever the ontology returned by {@link #getClientApiObject()} may have changed, so
+     * callers can cache what they derive from it without comparing the ontologies themselves.
+     */
+    long getVersion();
+
     String guessDocumentIRIFromPackage(File inFile) throws Exception;
 
     Concept getConceptByIntent(String intent);
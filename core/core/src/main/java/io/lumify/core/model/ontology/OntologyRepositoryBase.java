@@ -40,6 +40,7 @@ import org.semanticweb.owlapi.model.*;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,11 +51,21 @@ public abstract class OntologyRepositoryBase implements OntologyRepository {
     public static final String BASE_OWL_IRI = "http://lumify.io";
     public static final String COMMENT_OWL_IRI = "http://lumify.io/comment";
     private final Configuration configuration;
+    private final AtomicLong version = new AtomicLong();
 
     protected OntologyRepositoryBase(Configuration configuration) {
         this.configuration = configuration;
     }
 
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    protected void incrementVersion() {
+        version.incrementAndGet();
+    }
+
     public void loadOntologies(Configuration config, Authorizations authorizations) throws Exception {
         Concept rootConcept = getOrCreateConcept(null, OntologyRepository.ROOT_CONCEPT_IRI, "root", null);
         Concept entityConcept = getOrCreateConcept(rootConcept, OntologyRepository.ENTITY_CONCEPT_IRI, "thing", null);
@@ -1,7 +1,11 @@
 package io.lumify.core.model.properties;
 
+import com.google.common.collect.ImmutableSet;
 import io.lumify.core.model.properties.types.*;
 import io.lumify.core.model.termMention.TermMentionForProperty;
+import io.lumify.core.model.user.UserLumifyProperties;
+
+import java.util.Set;
 
 public class LumifyProperties {
     public static final String CONCEPT_TYPE_THING = "http://www.w3.org/2002/07/owl#Thing";
@@ -11,6 +15,7 @@ public class LumifyProperties {
     public static final StringLumifyProperty META_DATA_LANGUAGE = new StringLumifyProperty("http://lumify.io#language");
     public static final StringLumifyProperty META_DATA_TEXT_DESCRIPTION = new StringLumifyProperty("http://lumify.io#textDescription");
     public static final StringLumifyProperty META_DATA_MIME_TYPE = new StringLumifyProperty("http://lumify.io#mimeType");
+    public static final BooleanLumifyProperty META_DATA_TEXT_TRUNCATED = new BooleanLumifyProperty("http://lumify.io#textTruncated");
 
     public static final BooleanLumifyProperty SEARCHABLE = new BooleanLumifyProperty("http://lumify.io#searchable");
     public static final BooleanLumifyProperty ADDABLE = new BooleanLumifyProperty("http://lumify.io#addable");
@@ -20,6 +25,11 @@ public class LumifyProperties {
     public static final DateLumifyProperty MODIFIED_DATE = new DateLumifyProperty("http://lumify.io#modifiedDate");
     public static final DateLumifyProperty PUBLISHED_DATE = new DateLumifyProperty("http://lumify.io#publishedDate");
 
+    public static final IntegerLumifyProperty EDGE_LABEL_COUNT = new IntegerLumifyProperty("http://lumify.io#edgeLabelCount");
+    public static final DateLumifyProperty EDGE_LABEL_SUMMARY_DATE = new DateLumifyProperty("http://lumify.io#edgeLabelSummaryDate");
+    public static final BooleanLumifyProperty EDGE_LABEL_SUMMARY_STALE = new BooleanLumifyProperty("http://lumify.io#edgeLabelSummaryStale");
+    public static final StringLumifyProperty EDGE_LABEL_SUMMARY_HIDDEN = new StringLumifyProperty("http://lumify.io#edgeLabelSummaryHidden");
+
     public static final DoubleLumifyProperty BOOST = new DoubleLumifyProperty("http://lumify.io#boost");
     public static final DoubleLumifyProperty CONFIDENCE = new DoubleLumifyProperty("http://lumify.io#confidence");
 
@@ -89,7 +99,24 @@ public class LumifyProperties {
     public static final String TERM_MENTION_LABEL_HAS_TERM_MENTION = "http://lumify.io/termMention#hasTermMention";
     public static final String TERM_MENTION_LABEL_RESOLVED_TO = "http://lumify.io/termMention#resolvedTo";
 
+    /**
+     * The names of the properties, and metadata entries, whose values are stored as JSON text and are sent to clients
+     * as JSON rather than as strings.
+     */
+    private static final Set<String> JSON_PROPERTY_NAMES = ImmutableSet.of(
+            POSSIBLE_VALUES.getPropertyName(),
+            VISIBILITY_JSON.getPropertyName(),
+            JUSTIFICATION.getPropertyName(),
+            DETECTED_OBJECT.getPropertyName(),
+            TERM_MENTION_VISIBILITY_JSON.getPropertyName(),
+            UserLumifyProperties.UI_PREFERENCES.getPropertyName()
+    );
+
     private LumifyProperties() {
         throw new UnsupportedOperationException("do not construct utility class");
     }
+
+    public static boolean isJsonPropertyName(String propertyName) {
+        return JSON_PROPERTY_NAMES.contains(propertyName);
+    }
 }
@@ -157,6 +157,14 @@ public class TermMentionBuilder {
      * Vertex             Mention                    Vertex
      */
     public Vertex save(Graph graph, VisibilityTranslator visibilityTranslator, Authorizations authorizations) {
+        return save(graph, visibilityTranslator, null, authorizations);
+    }
+
+    /**
+     * Saves the term mention to the graph and adds it to the term mention index. Mentions saved without an index
+     * are only picked up by the index if the source vertex has not been indexed yet.
+     */
+    public Vertex save(Graph graph, VisibilityTranslator visibilityTranslator, TermMentionIndexRepository termMentionIndexRepository, Authorizations authorizations) {
         checkNotNull(sourceVertex, "sourceVertex cannot be null");
         checkNotNull(propertyKey, "propertyKey cannot be null");
         checkNotNull(title, "title cannot be null");
@@ -206,6 +214,13 @@ public class TermMentionBuilder {
             resolvedToEdgeBuilder.save(authorizations);
         }
 
+        if (termMentionIndexRepository != null) {
+            termMentionIndexRepository.add(this.sourceVertex.getId(), this.propertyKey, vertexId, this.start, this.end);
+            if (this.resolvedToVertex != null) {
+                termMentionIndexRepository.addResolvedTo(this.resolvedToVertex.getId(), this.resolvedToVertex.getId(), vertexId, null, null);
+            }
+        }
+
         return termMentionVertex;
     }
 
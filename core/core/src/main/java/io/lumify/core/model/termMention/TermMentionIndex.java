@@ -0,0 +1,122 @@
+package io.lumify.core.model.termMention;
+
+import com.altamiracorp.bigtable.model.Column;
+import com.altamiracorp.bigtable.model.ColumnFamily;
+import com.altamiracorp.bigtable.model.Row;
+import com.altamiracorp.bigtable.model.Value;
+import io.lumify.core.util.RowKeyHelper;
+import org.apache.commons.lang.StringUtils;
+
+public class TermMentionIndex extends Row<TermMentionIndexRowKey> {
+    public static final String TABLE_NAME = "lumify_termMentionIndex";
+    public static final String COLUMN_FAMILY_NAME = "";
+    public static final String LENGTH_COLUMN_FAMILY_NAME = "length";
+    public static final String END_OFFSET_COLUMN_NAME = "endOffset";
+    public static final String MAX_LENGTH_COLUMN_NAME = "maxLength";
+    public static final String INDEXED_COLUMN_NAME = "indexed";
+    public static final String REF_PROPERTY_KEY_COLUMN_NAME = "refPropertyKey";
+    public static final String REF_PROPERTY_NAME_COLUMN_NAME = "refPropertyName";
+
+    public TermMentionIndex(TermMentionIndexRowKey rowKey) {
+        super(TABLE_NAME, rowKey);
+    }
+
+    public String getTermMentionId() {
+        return getRowKey().getTermMentionId();
+    }
+
+    public long getStartOffset() {
+        return getRowKey().getStartOffset();
+    }
+
+    public long getEndOffset() {
+        return Value.toLong(getColumnFamily().get(END_OFFSET_COLUMN_NAME));
+    }
+
+    public TermMentionIndex setEndOffset(long endOffset) {
+        getColumnFamily().set(END_OFFSET_COLUMN_NAME, endOffset);
+        return this;
+    }
+
+    /**
+     * Only set on the indexed marker row. The length of the longest mention indexed for the text property, used to
+     * bound the scan when looking for mentions that overlap an offset window. Each mention adds its length as a
+     * column of the length column family, so the longest length is kept without reading the row first. Markers
+     * written before the length column family existed only have the max length column.
+     */
+    public long getMaxLength() {
+        Long maxLength = Value.toLong(getColumnFamily().get(MAX_LENGTH_COLUMN_NAME));
+        long result = maxLength == null ? 0 : maxLength;
+        ColumnFamily lengths = get(LENGTH_COLUMN_FAMILY_NAME);
+        if (lengths != null) {
+            for (Column column : lengths.getColumns()) {
+                result = Math.max(result, Long.parseLong(column.getName()));
+            }
+        }
+        return result;
+    }
+
+    public TermMentionIndex addLength(long length) {
+        ColumnFamily lengths = get(LENGTH_COLUMN_FAMILY_NAME);
+        if (lengths == null) {
+            lengths = new ColumnFamily(LENGTH_COLUMN_FAMILY_NAME);
+            addColumnFamily(lengths);
+        }
+        lengths.set(StringUtils.leftPad(Long.toString(Math.max(0, length)), RowKeyHelper.OFFSET_WIDTH, '0'), length);
+        return this;
+    }
+
+    /**
+     * True once every mention has been written to the index. Older artifact markers have the max length column
+     * instead of the indexed column.
+     */
+    public boolean isIndexed() {
+        return getColumnFamily().get(INDEXED_COLUMN_NAME) != null || getColumnFamily().get(MAX_LENGTH_COLUMN_NAME) != null;
+    }
+
+    public TermMentionIndex setIndexed() {
+        getColumnFamily().set(INDEXED_COLUMN_NAME, System.currentTimeMillis());
+        return this;
+    }
+
+    public String getForElementId() {
+        return getRowKey().getForElementId();
+    }
+
+    public TermMentionIndex setRefProperty(String propertyKey, String propertyName) {
+        getColumnFamily().set(REF_PROPERTY_KEY_COLUMN_NAME, propertyKey == null ? "" : propertyKey);
+        if (propertyName != null) {
+            getColumnFamily().set(REF_PROPERTY_NAME_COLUMN_NAME, propertyName);
+        }
+        return this;
+    }
+
+    /**
+     * True if the resolved to mention may justify the property. Null matches any property.
+     */
+    public boolean isForProperty(String propertyKey, String propertyName) {
+        if (propertyKey != null && !propertyKey.equals(Value.toString(getColumnFamily().get(REF_PROPERTY_KEY_COLUMN_NAME)))) {
+            return false;
+        }
+        if (propertyName != null && !propertyName.equals(Value.toString(getColumnFamily().get(REF_PROPERTY_NAME_COLUMN_NAME)))) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * True if the mention covers part of [start,end).
+     */
+    public boolean overlaps(long start, long end) {
+        return getStartOffset() < end && getEndOffset() > start;
+    }
+
+    private ColumnFamily getColumnFamily() {
+        ColumnFamily cf = get(COLUMN_FAMILY_NAME);
+        if (cf == null) {
+            cf = new ColumnFamily(COLUMN_FAMILY_NAME);
+            addColumnFamily(cf);
+        }
+        return cf;
+    }
+}
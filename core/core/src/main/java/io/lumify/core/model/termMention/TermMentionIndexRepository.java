@@ -0,0 +1,184 @@
+package io.lumify.core.model.termMention;
+
+import com.altamiracorp.bigtable.model.ColumnFamily;
+import com.altamiracorp.bigtable.model.FlushFlag;
+import com.altamiracorp.bigtable.model.ModelSession;
+import com.altamiracorp.bigtable.model.Repository;
+import com.altamiracorp.bigtable.model.Row;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
+import com.beust.jcommander.internal.Nullable;
+import com.google.inject.Inject;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.securegraph.Authorizations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Secondary index of term mentions keyed by artifact, text property key and start offset. The index only stores
+ * term mention vertex ids and offsets; the mention vertices themselves are always loaded from the graph so that
+ * visibility is still enforced there.
+ */
+public class TermMentionIndexRepository extends Repository<TermMentionIndex> {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(TermMentionIndexRepository.class);
+
+    @Inject
+    public TermMentionIndexRepository(@Nullable final ModelSession modelSession) {
+        super(modelSession);
+    }
+
+    @Override
+    public TermMentionIndex fromRow(Row row) {
+        TermMentionIndex termMentionIndex = new TermMentionIndex(new TermMentionIndexRowKey(row.getRowKey().toString()));
+        Collection<ColumnFamily> families = row.getColumnFamilies();
+        for (ColumnFamily columnFamily : families) {
+            termMentionIndex.addColumnFamily(columnFamily);
+        }
+        return termMentionIndex;
+    }
+
+    @Override
+    public Row toRow(TermMentionIndex termMentionIndex) {
+        return termMentionIndex;
+    }
+
+    @Override
+    public String getTableName() {
+        return TermMentionIndex.TABLE_NAME;
+    }
+
+    public ModelUserContext createModelUserContext(Authorizations authorizations) {
+        return getModelSession().createModelUserContext(authorizations.getAuthorizations());
+    }
+
+    /**
+     * Writes the mention row and adds the mention's length to the indexed marker row. Neither row is read first, so
+     * concurrent writers can't lose a longer length.
+     */
+    public void add(String artifactVertexId, String propertyKey, String termMentionId, long start, long end) {
+        TermMentionIndex termMentionIndex = new TermMentionIndex(new TermMentionIndexRowKey(artifactVertexId, propertyKey, start, termMentionId));
+        termMentionIndex.setEndOffset(end);
+        save(termMentionIndex);
+
+        TermMentionIndex marker = new TermMentionIndex(TermMentionIndexRowKey.buildIndexedMarker(artifactVertexId, propertyKey));
+        marker.addLength(end - start);
+        save(marker);
+    }
+
+    public void remove(String artifactVertexId, String propertyKey, String termMentionId, long start) {
+        delete(new TermMentionIndexRowKey(artifactVertexId, propertyKey, start, termMentionId));
+    }
+
+    public void addResolvedTo(String resolvedVertexId, String forElementId, String termMentionId, String refPropertyKey, String refPropertyName) {
+        TermMentionIndex termMentionIndex = new TermMentionIndex(TermMentionIndexRowKey.buildResolvedTo(resolvedVertexId, forElementId, termMentionId));
+        termMentionIndex.setRefProperty(refPropertyKey, refPropertyName);
+        save(termMentionIndex);
+    }
+
+    public void removeResolvedTo(String resolvedVertexId, String forElementId, String termMentionId) {
+        delete(TermMentionIndexRowKey.buildResolvedTo(resolvedVertexId, forElementId, termMentionId));
+    }
+
+    /**
+     * Records that every mention of the text property has been written to the index. Until the marker records this
+     * lookups index the artifact by walking its term mention edges first.
+     */
+    public void markIndexed(String artifactVertexId, String propertyKey, long maxLength) {
+        TermMentionIndex marker = new TermMentionIndex(TermMentionIndexRowKey.buildIndexedMarker(artifactVertexId, propertyKey));
+        marker.addLength(maxLength);
+        marker.setIndexed();
+        save(marker, FlushFlag.FLUSH);
+        LOGGER.debug("indexed term mentions for artifact %s property key %s", artifactVertexId, propertyKey);
+    }
+
+    public boolean isIndexed(String artifactVertexId, String propertyKey, ModelUserContext modelUserContext) {
+        TermMentionIndex marker = findIndexedMarker(artifactVertexId, propertyKey, modelUserContext);
+        return marker != null && marker.isIndexed();
+    }
+
+    public TermMentionIndex findIndexedMarker(String artifactVertexId, String propertyKey, ModelUserContext modelUserContext) {
+        return findByRowKey(TermMentionIndexRowKey.buildIndexedMarker(artifactVertexId, propertyKey).toString(), modelUserContext);
+    }
+
+    /**
+     * Records that every mention resolved to the vertex has been written to the index.
+     */
+    public void markResolvedToIndexed(String resolvedVertexId) {
+        TermMentionIndex marker = new TermMentionIndex(TermMentionIndexRowKey.buildResolvedToIndexedMarker(resolvedVertexId));
+        marker.setIndexed();
+        save(marker, FlushFlag.FLUSH);
+        LOGGER.debug("indexed term mentions resolved to %s", resolvedVertexId);
+    }
+
+    public boolean isResolvedToIndexed(String resolvedVertexId, ModelUserContext modelUserContext) {
+        TermMentionIndex marker = findByRowKey(TermMentionIndexRowKey.buildResolvedToIndexedMarker(resolvedVertexId).toString(), modelUserContext);
+        return marker != null && marker.isIndexed();
+    }
+
+    /**
+     * Finds the mentions resolved to the vertex that justify the element, or the element's property when the
+     * property key or name is given.
+     */
+    public List<TermMentionIndex> findResolvedTo(String resolvedVertexId, String forElementId, String refPropertyKey, String refPropertyName, ModelUserContext modelUserContext) {
+        List<TermMentionIndex> results = new ArrayList<>();
+        String prefix = TermMentionIndexRowKey.buildResolvedToPrefix(resolvedVertexId, forElementId);
+        for (TermMentionIndex termMentionIndex : findByRowStartsWith(prefix, modelUserContext)) {
+            if (termMentionIndex.getRowKey().isResolvedTo() && termMentionIndex.isForProperty(refPropertyKey, refPropertyName)) {
+                results.add(termMentionIndex);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds mentions whose start offset is within [startOffset,endOffset) ordered by start offset.
+     */
+    public List<TermMentionIndex> findByStartOffsetRange(String artifactVertexId, String propertyKey, long startOffset, long endOffset, ModelUserContext modelUserContext) {
+        List<TermMentionIndex> results = new ArrayList<>();
+        if (endOffset <= startOffset) {
+            return results;
+        }
+        String rowKeyStart = TermMentionIndexRowKey.buildOffsetKey(artifactVertexId, propertyKey, startOffset);
+        String rowKeyEnd = TermMentionIndexRowKey.buildOffsetKey(artifactVertexId, propertyKey, endOffset);
+        for (TermMentionIndex termMentionIndex : findByRowKeyRange(rowKeyStart, rowKeyEnd, modelUserContext)) {
+            if (!termMentionIndex.getRowKey().isMention()) {
+                continue;
+            }
+            long mentionStart = termMentionIndex.getStartOffset();
+            if (mentionStart >= startOffset && mentionStart < endOffset) {
+                results.add(termMentionIndex);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds mentions that cover any part of [start,end) ordered by start offset. The scan starts at
+     * start minus the longest indexed mention so mentions beginning before the window are still found.
+     */
+    public List<TermMentionIndex> findOverlapping(String artifactVertexId, String propertyKey, long start, long end, ModelUserContext modelUserContext) {
+        TermMentionIndex marker = findIndexedMarker(artifactVertexId, propertyKey, modelUserContext);
+        long scanStart = marker == null ? 0 : Math.max(0, start - marker.getMaxLength());
+        List<TermMentionIndex> results = new ArrayList<>();
+        for (TermMentionIndex termMentionIndex : findByStartOffsetRange(artifactVertexId, propertyKey, scanStart, end, modelUserContext)) {
+            if (termMentionIndex.overlaps(start, end)) {
+                results.add(termMentionIndex);
+            }
+        }
+        return results;
+    }
+
+    public List<TermMentionIndex> findByArtifactAndPropertyKey(String artifactVertexId, String propertyKey, ModelUserContext modelUserContext) {
+        return findByStartOffsetRange(artifactVertexId, propertyKey, 0, Long.MAX_VALUE, modelUserContext);
+    }
+
+    public static List<String> toTermMentionIds(Iterable<TermMentionIndex> termMentionIndexes) {
+        List<String> ids = new ArrayList<>();
+        for (TermMentionIndex termMentionIndex : termMentionIndexes) {
+            ids.add(termMentionIndex.getTermMentionId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,103 @@
+package io.lumify.core.model.termMention;
+
+import com.altamiracorp.bigtable.model.RowKey;
+import io.lumify.core.util.RowKeyHelper;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Row key for the term mention index. Mention rows are ordered by artifact, text property key, then start offset so
+ * that all of the mentions within an offset window of a single text property can be found with one range scan.
+ * Resolved to rows are ordered by resolved vertex then the element the mention justifies, so the justifications of
+ * one element can be found with one prefix scan. The kinds of row are told apart by their number of fields.
+ * <p/>
+ * The major field separator is used because video transcript property keys contain the minor field separator.
+ */
+public class TermMentionIndexRowKey extends RowKey {
+    private static final int RESOLVED_TO_INDEXED_MARKER_FIELD_COUNT = 1;
+    private static final int INDEXED_MARKER_FIELD_COUNT = 2;
+    private static final int RESOLVED_TO_FIELD_COUNT = 3;
+    private static final int MENTION_FIELD_COUNT = 4;
+
+    public TermMentionIndexRowKey(String rowKey) {
+        super(rowKey);
+    }
+
+    public TermMentionIndexRowKey(String artifactVertexId, String propertyKey, long startOffset, String termMentionId) {
+        super(RowKeyHelper.buildMajor(artifactVertexId, propertyKey, padOffset(startOffset), termMentionId));
+    }
+
+    /**
+     * The key of the row recording that every mention of the artifact's text property has been indexed.
+     */
+    public static TermMentionIndexRowKey buildIndexedMarker(String artifactVertexId, String propertyKey) {
+        return new TermMentionIndexRowKey(RowKeyHelper.buildMajor(artifactVertexId, propertyKey));
+    }
+
+    /**
+     * The smallest row key for a mention starting at or after the given offset.
+     */
+    public static String buildOffsetKey(String artifactVertexId, String propertyKey, long offset) {
+        return RowKeyHelper.buildMajor(artifactVertexId, propertyKey, padOffset(Math.max(0, offset)));
+    }
+
+    /**
+     * The key of the row for a mention resolved to a vertex, or justifying one of the vertex's elements.
+     */
+    public static TermMentionIndexRowKey buildResolvedTo(String resolvedVertexId, String forElementId, String termMentionId) {
+        return new TermMentionIndexRowKey(RowKeyHelper.buildMajor(resolvedVertexId, forElementId, termMentionId));
+    }
+
+    /**
+     * The prefix of the resolved to rows of the mentions for an element.
+     */
+    public static String buildResolvedToPrefix(String resolvedVertexId, String forElementId) {
+        return RowKeyHelper.buildMajor(resolvedVertexId, forElementId, "");
+    }
+
+    /**
+     * The key of the row recording that every mention resolved to the vertex has been indexed.
+     */
+    public static TermMentionIndexRowKey buildResolvedToIndexedMarker(String resolvedVertexId) {
+        return new TermMentionIndexRowKey(resolvedVertexId);
+    }
+
+    private static String padOffset(long offset) {
+        return StringUtils.leftPad(Long.toString(offset), RowKeyHelper.OFFSET_WIDTH, '0');
+    }
+
+    public boolean isIndexedMarker() {
+        return getFields().length == INDEXED_MARKER_FIELD_COUNT;
+    }
+
+    public boolean isResolvedToIndexedMarker() {
+        return getFields().length == RESOLVED_TO_INDEXED_MARKER_FIELD_COUNT;
+    }
+
+    public boolean isResolvedTo() {
+        return getFields().length == RESOLVED_TO_FIELD_COUNT;
+    }
+
+    public boolean isMention() {
+        return getFields().length == MENTION_FIELD_COUNT;
+    }
+
+    public long getStartOffset() {
+        return Long.parseLong(getFields()[2]);
+    }
+
+    public String getForElementId() {
+        return getFields()[1];
+    }
+
+    public String getTermMentionId() {
+        String[] fields = getFields();
+        return fields[fields.length - 1];
+    }
+
+    /**
+     * Keeps trailing empty fields so an empty property key still counts as a field.
+     */
+    private String[] getFields() {
+        return StringUtils.splitPreserveAllTokens(getRowKey(), RowKeyHelper.MAJOR_FIELD_SEPARATOR);
+    }
+}
@@ -1,5 +1,6 @@
 package io.lumify.core.model.termMention;
 
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
 import com.google.inject.Inject;
 import io.lumify.core.model.PropertyJustificationMetadata;
 import io.lumify.core.model.SourceInfo;
@@ -13,6 +14,9 @@ import org.securegraph.mutation.ExistingElementMutation;
 import org.securegraph.util.FilterIterable;
 import org.securegraph.util.JoinIterable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.securegraph.util.IterableUtils.single;
 import static org.securegraph.util.IterableUtils.singleOrDefault;
 
@@ -22,17 +26,138 @@ public class TermMentionRepository {
     public static final String OWL_IRI = "http://lumify.io/termMention";
     private final Graph graph;
     private final AuthorizationRepository authorizationRepository;
+    private final TermMentionIndexRepository termMentionIndexRepository;
 
-    @Inject
     public TermMentionRepository(Graph graph, AuthorizationRepository authorizationRepository) {
+        this(graph, authorizationRepository, null);
+    }
+
+    @Inject
+    public TermMentionRepository(Graph graph, AuthorizationRepository authorizationRepository, TermMentionIndexRepository termMentionIndexRepository) {
         this.graph = graph;
         this.authorizationRepository = authorizationRepository;
+        this.termMentionIndexRepository = termMentionIndexRepository;
         authorizationRepository.addAuthorizationToGraph(VISIBILITY_STRING);
     }
 
+    public TermMentionIndexRepository getTermMentionIndexRepository() {
+        return termMentionIndexRepository;
+    }
+
     public Iterable<Vertex> findBySourceGraphVertexAndPropertyKey(String sourceVertexId, final String propertyKey, Authorizations authorizations) {
         authorizations = getAuthorizations(authorizations);
-        return new FilterIterable<Vertex>(findBySourceGraphVertex(sourceVertexId, authorizations)) {
+        if (termMentionIndexRepository != null) {
+            List<TermMentionIndex> termMentionIndexes = findIndexedTermMentions(sourceVertexId, propertyKey, authorizations);
+            return graph.getVertices(TermMentionIndexRepository.toTermMentionIds(termMentionIndexes), authorizations);
+        }
+        return filterByPropertyKey(findBySourceGraphVertex(sourceVertexId, authorizations), propertyKey);
+    }
+
+    /**
+     * Finds term mentions of the text property that cover any part of [start,end).
+     */
+    public Iterable<Vertex> findOverlapping(String sourceVertexId, String propertyKey, final long start, final long end, Authorizations authorizations) {
+        authorizations = getAuthorizations(authorizations);
+        if (termMentionIndexRepository != null) {
+            ModelUserContext modelUserContext = termMentionIndexRepository.createModelUserContext(authorizations);
+            ensureIndexed(sourceVertexId, propertyKey, modelUserContext);
+            List<TermMentionIndex> termMentionIndexes = termMentionIndexRepository.findOverlapping(sourceVertexId, propertyKey, start, end, modelUserContext);
+            return graph.getVertices(TermMentionIndexRepository.toTermMentionIds(termMentionIndexes), authorizations);
+        }
+        return new FilterIterable<Vertex>(findBySourceGraphVertexAndPropertyKey(sourceVertexId, propertyKey, authorizations)) {
+            @Override
+            protected boolean isIncluded(Vertex termMention) {
+                long mentionStart = LumifyProperties.TERM_MENTION_START_OFFSET.getPropertyValue(termMention, -1);
+                long mentionEnd = LumifyProperties.TERM_MENTION_END_OFFSET.getPropertyValue(termMention, -1);
+                return mentionStart < end && mentionEnd > start;
+            }
+        };
+    }
+
+    private List<TermMentionIndex> findIndexedTermMentions(String sourceVertexId, String propertyKey, Authorizations authorizations) {
+        ModelUserContext modelUserContext = termMentionIndexRepository.createModelUserContext(authorizations);
+        ensureIndexed(sourceVertexId, propertyKey, modelUserContext);
+        return termMentionIndexRepository.findByArtifactAndPropertyKey(sourceVertexId, propertyKey, modelUserContext);
+    }
+
+    /**
+     * Artifacts whose mentions were written before the index existed are indexed on first read. The term mention
+     * edges are walked with every graph authorization so the index is complete for all users.
+     */
+    private void ensureIndexed(String sourceVertexId, String propertyKey, ModelUserContext modelUserContext) {
+        if (termMentionIndexRepository.isIndexed(sourceVertexId, propertyKey, modelUserContext)) {
+            return;
+        }
+        Authorizations allAuthorizations = getAllAuthorizations();
+        Vertex sourceVertex = graph.getVertex(sourceVertexId, allAuthorizations);
+        if (sourceVertex == null) {
+            return;
+        }
+        long maxLength = 0;
+        Iterable<Vertex> termMentions = sourceVertex.getVertices(Direction.OUT, LumifyProperties.TERM_MENTION_LABEL_HAS_TERM_MENTION, allAuthorizations);
+        for (Vertex termMention : filterByPropertyKey(termMentions, propertyKey)) {
+            long start = LumifyProperties.TERM_MENTION_START_OFFSET.getPropertyValue(termMention, 0);
+            long end = LumifyProperties.TERM_MENTION_END_OFFSET.getPropertyValue(termMention, 0);
+            termMentionIndexRepository.add(sourceVertexId, propertyKey, termMention.getId(), start, end);
+            maxLength = Math.max(maxLength, end - start);
+        }
+        termMentionIndexRepository.markIndexed(sourceVertexId, propertyKey, maxLength);
+    }
+
+    /**
+     * Finds the mentions resolved to the vertex that justify the element, using the index when there is one.
+     */
+    private Iterable<Vertex> findResolvedTo(String vertexId, String forElementId, String propertyKey, String propertyName, Authorizations authorizations) {
+        Authorizations authorizationsWithTermMention = getAuthorizations(authorizations);
+        if (termMentionIndexRepository == null || forElementId == null) {
+            Vertex vertex = graph.getVertex(vertexId, authorizationsWithTermMention);
+            if (vertex == null) {
+                return new ArrayList<Vertex>();
+            }
+            return vertex.getVertices(Direction.IN, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, authorizationsWithTermMention);
+        }
+        ModelUserContext modelUserContext = termMentionIndexRepository.createModelUserContext(authorizationsWithTermMention);
+        ensureResolvedToIndexed(vertexId, modelUserContext);
+        List<TermMentionIndex> termMentionIndexes = termMentionIndexRepository.findResolvedTo(vertexId, forElementId, propertyKey, propertyName, modelUserContext);
+        return graph.getVertices(TermMentionIndexRepository.toTermMentionIds(termMentionIndexes), authorizationsWithTermMention);
+    }
+
+    /**
+     * Vertices whose mentions were resolved before the index existed are indexed on first read, the same way as
+     * artifacts.
+     */
+    private void ensureResolvedToIndexed(String vertexId, ModelUserContext modelUserContext) {
+        if (termMentionIndexRepository.isResolvedToIndexed(vertexId, modelUserContext)) {
+            return;
+        }
+        Authorizations allAuthorizations = getAllAuthorizations();
+        Vertex vertex = graph.getVertex(vertexId, allAuthorizations);
+        if (vertex == null) {
+            return;
+        }
+        for (Vertex termMention : vertex.getVertices(Direction.IN, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, allAuthorizations)) {
+            String forElementId = LumifyProperties.TERM_MENTION_FOR_ELEMENT_ID.getPropertyValue(termMention);
+            if (forElementId == null) {
+                continue;
+            }
+            termMentionIndexRepository.addResolvedTo(
+                    vertexId,
+                    forElementId,
+                    termMention.getId(),
+                    LumifyProperties.TERM_MENTION_REF_PROPERTY_KEY.getPropertyValue(termMention),
+                    LumifyProperties.TERM_MENTION_REF_PROPERTY_NAME.getPropertyValue(termMention)
+            );
+        }
+        termMentionIndexRepository.markResolvedToIndexed(vertexId);
+    }
+
+    private Authorizations getAllAuthorizations() {
+        List<String> graphAuthorizations = authorizationRepository.getGraphAuthorizations();
+        return authorizationRepository.createAuthorizations(graphAuthorizations.toArray(new String[graphAuthorizations.size()]));
+    }
+
+    private static Iterable<Vertex> filterByPropertyKey(Iterable<Vertex> termMentions, final String propertyKey) {
+        return new FilterIterable<Vertex>(termMentions) {
             @Override
             protected boolean isIncluded(Vertex v) {
                 String vertexPropertyKey = LumifyProperties.TERM_MENTION_PROPERTY_KEY.getPropertyValue(v);
@@ -124,7 +249,7 @@ public class TermMentionRepository {
      * Finds all term mentions connected to a vertex that match propertyKey, propertyName, and propertyVisibility.
      */
     public Iterable<Vertex> findByVertexIdAndProperty(final String vertexId, final String propertyKey, final String propertyName, final Visibility propertyVisibility, Authorizations authorizations) {
-        return new FilterIterable<Vertex>(findByVertexId(vertexId, authorizations)) {
+        return new FilterIterable<Vertex>(findResolvedTo(vertexId, vertexId, propertyKey, propertyName, authorizations)) {
             @Override
             protected boolean isIncluded(Vertex termMention) {
                 String forElementId = LumifyProperties.TERM_MENTION_FOR_ELEMENT_ID.getPropertyValue(termMention);
@@ -140,7 +265,11 @@ public class TermMentionRepository {
      * Finds all term mentions connected to either side of an edge that match propertyKey, propertyName, and propertyVisibility.
      */
     public Iterable<Vertex> findByEdgeIdAndProperty(final Edge edge, final String propertyKey, final String propertyName, final Visibility propertyVisibility, Authorizations authorizations) {
-        return new FilterIterable<Vertex>(findByEdge(edge, authorizations)) {
+        Iterable<Vertex> termMentions = new JoinIterable<>(
+                findResolvedTo(edge.getVertexId(Direction.IN), edge.getId(), propertyKey, propertyName, authorizations),
+                findResolvedTo(edge.getVertexId(Direction.OUT), edge.getId(), propertyKey, propertyName, authorizations)
+        );
+        return new FilterIterable<Vertex>(termMentions) {
             @Override
             protected boolean isIncluded(Vertex termMention) {
                 String forElementId = LumifyProperties.TERM_MENTION_FOR_ELEMENT_ID.getPropertyValue(termMention);
@@ -212,9 +341,29 @@ public class TermMentionRepository {
 
     public void delete(Vertex termMention, Authorizations authorizations) {
         Authorizations authorizationsWithTermMention = getAuthorizations(authorizations);
+        removeFromIndex(termMention, authorizationsWithTermMention);
         graph.removeVertex(termMention, authorizationsWithTermMention);
     }
 
+    private void removeFromIndex(Vertex termMention, Authorizations authorizationsWithTermMention) {
+        if (termMentionIndexRepository == null) {
+            return;
+        }
+        String propertyKey = LumifyProperties.TERM_MENTION_PROPERTY_KEY.getPropertyValue(termMention);
+        Long start = LumifyProperties.TERM_MENTION_START_OFFSET.getPropertyValue(termMention);
+        if (propertyKey != null && start != null) {
+            for (String sourceVertexId : termMention.getVertexIds(Direction.IN, LumifyProperties.TERM_MENTION_LABEL_HAS_TERM_MENTION, authorizationsWithTermMention)) {
+                termMentionIndexRepository.remove(sourceVertexId, propertyKey, termMention.getId(), start);
+            }
+        }
+        String forElementId = LumifyProperties.TERM_MENTION_FOR_ELEMENT_ID.getPropertyValue(termMention);
+        if (forElementId != null) {
+            for (String resolvedVertexId : termMention.getVertexIds(Direction.OUT, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, authorizationsWithTermMention)) {
+                termMentionIndexRepository.removeResolvedTo(resolvedVertexId, forElementId, termMention.getId());
+            }
+        }
+    }
+
     public void markHidden(Vertex termMention, Visibility hiddenVisibility, Authorizations authorizations) {
         Authorizations authorizationsWithTermMention = getAuthorizations(authorizations);
         graph.markVertexHidden(termMention, hiddenVisibility, authorizationsWithTermMention);
@@ -241,6 +390,9 @@ public class TermMentionRepository {
         return authorizationRepository.createAuthorizations(authorizations, VISIBILITY_STRING);
     }
 
+    /**
+     * Does not flush the graph, so that many new vertices can be justified with one flush. The caller flushes.
+     */
     public void addJustification(
             Vertex vertex,
             String justificationText,
@@ -255,7 +407,7 @@ public class TermMentionRepository {
         } else if (sourceInfo != null) {
             Vertex sourceVertex = graph.getVertex(sourceInfo.getVertexId(), authorizations);
             LumifyProperties.JUSTIFICATION.removeProperty(vertex, authorizations);
-            addSourceInfoToVertex(
+            saveSourceInfoToVertex(
                     vertex,
                     sourceInfo.getVertexId(),
                     TermMentionFor.VERTEX,
@@ -337,6 +489,40 @@ public class TermMentionRepository {
             Vertex sourceVertex,
             Visibility visibility,
             Authorizations authorizations
+    ) {
+        Vertex termMention = saveSourceInfoToVertex(
+                vertex,
+                forElementId,
+                forType,
+                propertyKey,
+                propertyName,
+                propertyVisibility,
+                snippet,
+                textPropertyKey,
+                startOffset,
+                endOffset,
+                sourceVertex,
+                visibility,
+                authorizations
+        );
+        graph.flush();
+        LOGGER.debug("added source info: %s", termMention.getId());
+    }
+
+    private Vertex saveSourceInfoToVertex(
+            Vertex vertex,
+            String forElementId,
+            TermMentionFor forType,
+            String propertyKey,
+            String propertyName,
+            Visibility propertyVisibility,
+            String snippet,
+            String textPropertyKey,
+            long startOffset,
+            long endOffset,
+            Vertex sourceVertex,
+            Visibility visibility,
+            Authorizations authorizations
     ) {
         visibility = LumifyVisibility.and(visibility, VISIBILITY_STRING);
         String termMentionVertexId = vertex.getId() + "hasSource" + sourceVertex.getId();
@@ -369,9 +555,15 @@ public class TermMentionRepository {
 
         graph.addEdge(LumifyProperties.TERM_MENTION_LABEL_HAS_TERM_MENTION + termMentionVertexId, sourceVertex, termMention, LumifyProperties.TERM_MENTION_LABEL_HAS_TERM_MENTION, visibility, authorizations);
         graph.addEdge(LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO + termMentionVertexId, termMention, vertex, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, visibility, authorizations);
-
-        graph.flush();
-        LOGGER.debug("added source info: %s", termMention.getId());
+        if (termMentionIndexRepository != null) {
+            if (textPropertyKey != null) {
+                termMentionIndexRepository.add(sourceVertex.getId(), textPropertyKey, termMention.getId(), startOffset, endOffset);
+            }
+            if (forElementId != null) {
+                termMentionIndexRepository.addResolvedTo(vertex.getId(), forElementId, termMention.getId(), propertyKey, propertyName);
+            }
+        }
+        return termMention;
     }
 
     public void addSourceInfoEdgeToEdge(
@@ -434,6 +626,7 @@ public class TermMentionRepository {
     public void removeSourceInfoEdgeFromVertex(String vertexId, String sourceInfoElementId, String propertyKey, String propertyName, LumifyVisibility lumifyVisibility, Authorizations authorizations) {
         Vertex termMention = findTermMention(vertexId, sourceInfoElementId, propertyKey, propertyName, lumifyVisibility.getVisibility(), authorizations);
         if (termMention != null) {
+            removeFromIndex(termMention, getAuthorizations(authorizations));
             graph.removeVertex(termMention, authorizations);
         }
     }
@@ -446,9 +639,7 @@ public class TermMentionRepository {
     }
 
     private Vertex findTermMention(String vertexId, String forElementId, String propertyKey, String propertyName, Visibility propertyVisibility, Authorizations authorizations) {
-        Authorizations authorizationsWithTermMentions = getAuthorizations(authorizations);
-        Vertex vertex = graph.getVertex(vertexId, authorizationsWithTermMentions);
-        Iterable<Vertex> termMentions = vertex.getVertices(Direction.IN, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, authorizationsWithTermMentions);
+        Iterable<Vertex> termMentions = findResolvedTo(vertexId, forElementId, propertyKey, propertyName, authorizations);
         for (Vertex termMention : termMentions) {
             if (forElementId != null && !forElementId.equals(LumifyProperties.TERM_MENTION_FOR_ELEMENT_ID.getPropertyValue(termMention))) {
                 continue;
@@ -100,6 +100,37 @@ public abstract class WorkQueueRepository {
         broadcastPropertyChange(element, propertyKey, propertyName, workspaceId);
     }
 
+    /**
+     * Queues many properties of the same element as a single message, with a single property change broadcast.
+     */
+    public void pushGraphPropertiesQueue(final Element element, final String propertyName, final Iterable<String> propertyKeys) {
+        getGraph().flush();
+        checkNotNull(element);
+        JSONObject data = new JSONObject();
+        if (element instanceof Vertex) {
+            data.put("graphVertexId", element.getId());
+        } else if (element instanceof Edge) {
+            data.put("graphEdgeId", element.getId());
+        } else {
+            throw new LumifyException("Unexpected element type: " + element.getClass().getName());
+        }
+
+        JSONArray propertiesJson = new JSONArray();
+        for (String propertyKey : propertyKeys) {
+            JSONObject propertyJson = new JSONObject();
+            propertyJson.put("propertyKey", propertyKey);
+            propertyJson.put("propertyName", propertyName);
+            propertiesJson.put(propertyJson);
+        }
+        if (propertiesJson.length() == 0) {
+            return;
+        }
+        data.put("properties", propertiesJson);
+        pushOnQueue(GRAPH_PROPERTY_QUEUE_NAME, FlushFlag.DEFAULT, data);
+
+        broadcastPropertyChange(element, null, propertyName, null);
+    }
+
     public void pushLongRunningProcessQueue(JSONObject queueItem) {
         broadcastLongRunningProcessChange(queueItem);
         pushOnQueue(LONG_RUNNING_PROCESS_QUEUE_NAME, FlushFlag.DEFAULT, queueItem);
@@ -130,6 +161,37 @@ public abstract class WorkQueueRepository {
         pushGraphPropertyQueue(element, null, null);
     }
 
+    /**
+     * Queues each element as {@link #pushElement(Element)} does, flushing the graph and the queue once for all of
+     * them and broadcasting one change message for the whole batch.
+     */
+    public void pushElements(Iterable<? extends Element> elements) {
+        getGraph().flush();
+        JSONArray elementsJson = new JSONArray();
+        for (Element element : elements) {
+            checkNotNull(element);
+            pushOnQueue(GRAPH_PROPERTY_QUEUE_NAME, FlushFlag.NO_FLUSH, getElementIdJson(element));
+            elementsJson.put(getElementIdJson(element));
+        }
+        if (elementsJson.length() == 0) {
+            return;
+        }
+        flush();
+        broadcastPropertiesChange(elementsJson);
+    }
+
+    private static JSONObject getElementIdJson(Element element) {
+        JSONObject data = new JSONObject();
+        if (element instanceof Vertex) {
+            data.put("graphVertexId", element.getId());
+        } else if (element instanceof Edge) {
+            data.put("graphEdgeId", element.getId());
+        } else {
+            throw new LumifyException("Unexpected element type: " + element.getClass().getName());
+        }
+        return data;
+    }
+
     public void pushEdgeDeletion(Edge edge) {
         broadcastEdgeDeletion(edge);
     }
@@ -339,6 +401,18 @@ public abstract class WorkQueueRepository {
         }
     }
 
+    protected void broadcastPropertiesChange(JSONArray elementsJson) {
+        // TODO: only broadcast to workspace users if sandboxStatus is PRIVATE
+        JSONObject json = new JSONObject();
+        json.put("type", "propertiesChange");
+
+        JSONObject dataJson = new JSONObject();
+        dataJson.put("elements", elementsJson);
+
+        json.put("data", dataJson);
+        broadcastJson(json);
+    }
+
     protected void broadcastEntityImage(Element element, String propertyKey, String propertyName) {
         try {
             JSONObject json = getBroadcastEntityImageJson((Vertex) element);
@@ -9,6 +9,7 @@ import io.lumify.core.model.workspace.Workspace;
 import io.lumify.core.model.workspace.WorkspaceEntity;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.JSONUtil;
 import io.lumify.core.util.JsonSerializer;
@@ -19,8 +20,6 @@ import org.securegraph.*;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.securegraph.util.IterableUtils.toList;
-
 public class WorkspaceDiffHelper {
     private final Graph graph;
     private final UserRepository userRepository;
@@ -139,7 +138,12 @@ public class WorkspaceDiffHelper {
     }
 
     private void diffProperties(Workspace workspace, Element element, List<ClientApiWorkspaceDiff.Item> result, Authorizations hiddenAuthorizations) {
-        List<Property> properties = toList(element.getProperties());
+        List<Property> properties = new ArrayList<>();
+        for (Property property : element.getProperties()) {
+            if (!EdgeLabelSummary.isSummaryProperty(property)) {
+                properties.add(property);
+            }
+        }
         SandboxStatus[] propertyStatuses = GraphUtil.getPropertySandboxStatuses(properties, workspace.getWorkspaceId());
         for (int i = 0; i < properties.size(); i++) {
             Property property = properties.get(i);
@@ -5,6 +5,7 @@ import io.lumify.core.ingest.video.VideoPropertyHelper;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.properties.MediaLumifyProperties;
 import io.lumify.web.clientapi.model.*;
+import io.lumify.web.clientapi.model.util.RawJsonValue;
 import org.securegraph.*;
 import org.securegraph.property.StreamingPropertyValue;
 import org.securegraph.util.IterableUtils;
@@ -12,10 +13,13 @@ import org.securegraph.util.IterableUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class ClientApiConverter extends io.lumify.web.clientapi.model.util.ClientApiConverter {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ClientApiConverter.class);
+
     public static ClientApiTermMentionsResponse toTermMentionsResponse(Iterable<Vertex> termMentions, String workspaceId, Authorizations authorizations) {
         ClientApiTermMentionsResponse termMentionsResponse = new ClientApiTermMentionsResponse();
         for (ClientApiElement element : toClientApi(termMentions, workspaceId, authorizations)) {
@@ -32,10 +36,22 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
         return clientApiElements;
     }
 
+    /**
+     * Converts the vertices, reading each one's edge labels from its {@link EdgeLabelSummary}. Vertices without a
+     * summary are counted and logged so a page of them, which walks every edge of each, is visible.
+     */
     public static List<ClientApiVertex> toClientApiVertices(Iterable<? extends Vertex> vertices, String workspaceId, Authorizations authorizations) {
         List<ClientApiVertex> clientApiElements = new ArrayList<>();
+        int unsummarizedCount = 0;
         for (Vertex v : vertices) {
-            clientApiElements.add(toClientApiVertex(v, workspaceId, authorizations));
+            ClientApiVertex clientApiVertex = toClientApiVertex(v, workspaceId, authorizations);
+            if (authorizations != null && clientApiVertex.getEdgeLabelCounts().size() == 0 && clientApiVertex.getEdgeLabels().size() > 0) {
+                unsummarizedCount++;
+            }
+            clientApiElements.add(clientApiVertex);
+        }
+        if (unsummarizedCount > 0) {
+            LOGGER.debug("read the edge labels of %d of %d vertices from their edges", unsummarizedCount, clientApiElements.size());
         }
         return clientApiElements;
     }
@@ -51,24 +67,59 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
         throw new RuntimeException("Unexpected element type: " + element.getClass().getName());
     }
 
+    /**
+     * Converts the vertex, reading its edge labels from its {@link EdgeLabelSummary} rather than its edges.
+     */
     public static ClientApiVertex toClientApiVertex(Vertex vertex, String workspaceId, Authorizations authorizations) {
         ClientApiVertex v = new ClientApiVertex();
 
-        List<String> vertexEdgeLabels = getVertexEdgeLabels(vertex, authorizations);
-        if (vertexEdgeLabels != null) {
-            v.getEdgeLabels().addAll(vertexEdgeLabels);
+        if (authorizations != null) {
+            Map<String, Integer> edgeLabelCounts = EdgeLabelSummary.getEdgeLabelCounts(vertex);
+            if (edgeLabelCounts != null) {
+                v.getEdgeLabels().addAll(edgeLabelCounts.keySet());
+                v.getEdgeLabelCounts().putAll(edgeLabelCounts);
+            } else {
+                v.getEdgeLabels().addAll(IterableUtils.toList(vertex.getEdgeLabels(Direction.BOTH, authorizations)));
+            }
         }
 
         populateClientApiElement(v, vertex, workspaceId);
         return v;
     }
 
-    private static List<String> getVertexEdgeLabels(Vertex vertex, Authorizations authorizations) {
-        if (authorizations == null) {
-            return null;
+    /**
+     * Converts the part of the vertex in the projection. The vertex has to have been read with the projection's fetch
+     * hints. Edge labels of a projected vertex come from its {@link EdgeLabelSummary}, its edges are only read when
+     * the summary isn't trusted.
+     */
+    public static ClientApiVertex toClientApiVertex(Vertex vertex, String workspaceId, ElementProjection projection, Authorizations authorizations) {
+        if (projection.isAll()) {
+            return toClientApiVertex(vertex, workspaceId, authorizations);
+        }
+        ClientApiVertex v = new ClientApiVertex();
+        v.setId(vertex.getId());
+        if (projection.isExistenceOnly()) {
+            return v;
+        }
+
+        Map<String, Integer> edgeLabelCounts = EdgeLabelSummary.getEdgeLabelCounts(vertex);
+        if (edgeLabelCounts != null) {
+            v.getEdgeLabels().addAll(edgeLabelCounts.keySet());
+            v.getEdgeLabelCounts().putAll(edgeLabelCounts);
+        } else {
+            Vertex vertexWithEdges = vertex.getGraph().getVertex(vertex.getId(), FetchHint.ALL, authorizations);
+            if (vertexWithEdges != null) {
+                v.getEdgeLabels().addAll(IterableUtils.toList(vertexWithEdges.getEdgeLabels(Direction.BOTH, authorizations)));
+            }
         }
-        Iterable<String> edgeLabels = vertex.getEdgeLabels(Direction.BOTH, authorizations);
-        return IterableUtils.toList(edgeLabels);
+        populateClientApiElement(v, vertex, workspaceId, projection);
+        return v;
+    }
+
+    public static ClientApiEdge toClientApiEdge(Edge edge, String workspaceId, ElementProjection projection) {
+        ClientApiEdge e = new ClientApiEdge();
+        populateClientApiEdge(e, edge, workspaceId, projection);
+        return e;
     }
 
     public static ClientApiEdge toClientApiEdge(Edge edge, String workspaceId) {
@@ -85,6 +136,22 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
         return e;
     }
 
+    /**
+     * Converts the part of the edge and of its vertices in the projection. Vertices the user can't see may be null
+     * and are left out.
+     */
+    public static ClientApiEdgeWithVertexData toClientApiEdgeWithVertexData(Edge edge, Vertex source, Vertex target, String workspaceId, ElementProjection projection, Authorizations authorizations) {
+        ClientApiEdgeWithVertexData e = new ClientApiEdgeWithVertexData();
+        if (source != null) {
+            e.setSource(toClientApiVertex(source, workspaceId, projection, authorizations));
+        }
+        if (target != null) {
+            e.setTarget(toClientApiVertex(target, workspaceId, projection, authorizations));
+        }
+        populateClientApiEdge(e, edge, workspaceId, projection);
+        return e;
+    }
+
     public static void populateClientApiEdge(ClientApiEdge e, Edge edge, String workspaceId) {
         e.setLabel(edge.getLabel());
         e.setSourceVertexId(edge.getVertexId(Direction.OUT));
@@ -93,9 +160,32 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
         populateClientApiElement(e, edge, workspaceId);
     }
 
+    private static void populateClientApiEdge(ClientApiEdge e, Edge edge, String workspaceId, ElementProjection projection) {
+        e.setLabel(edge.getLabel());
+        e.setSourceVertexId(edge.getVertexId(Direction.OUT));
+        e.setDestVertexId(edge.getVertexId(Direction.IN));
+        if (projection.isExistenceOnly()) {
+            e.setId(edge.getId());
+        } else {
+            populateClientApiElement(e, edge, workspaceId, projection);
+        }
+    }
+
     private static void populateClientApiElement(ClientApiElement clientApiElement, org.securegraph.Element element, String workspaceId) {
+        populateClientApiElement(clientApiElement, element, workspaceId, ElementProjection.ALL);
+    }
+
+    private static void populateClientApiElement(ClientApiElement clientApiElement, org.securegraph.Element element, String workspaceId, ElementProjection projection) {
         clientApiElement.setId(element.getId());
-        clientApiElement.getProperties().addAll(toClientApiProperties(element.getProperties(), workspaceId));
+        List<Property> propertiesList = new ArrayList<>();
+        for (Property property : element.getProperties()) {
+            if (!EdgeLabelSummary.isSummaryProperty(property) && projection.includes(property)) {
+                propertiesList.add(property);
+            }
+        }
+        Collections.sort(propertiesList, new ConfidencePropertyComparator());
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(propertiesList, workspaceId);
+        clientApiElement.getProperties().addAll(toClientApiProperties(propertiesList, sandboxStatuses));
         clientApiElement.setSandboxStatus(GraphUtil.getSandboxStatus(element, workspaceId));
 
         VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(element);
@@ -105,10 +195,14 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
     }
 
     public static List<ClientApiProperty> toClientApiProperties(Iterable<Property> properties, String workspaceId) {
-        List<ClientApiProperty> clientApiProperties = new ArrayList<>();
         List<Property> propertiesList = IterableUtils.toList(properties);
         Collections.sort(propertiesList, new ConfidencePropertyComparator());
         SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(propertiesList, workspaceId);
+        return toClientApiProperties(propertiesList, sandboxStatuses);
+    }
+
+    private static List<ClientApiProperty> toClientApiProperties(List<Property> propertiesList, SandboxStatus[] sandboxStatuses) {
+        List<ClientApiProperty> clientApiProperties = new ArrayList<>();
         for (int i = 0; i < propertiesList.size(); i++) {
             Property property = propertiesList.get(i);
             SandboxStatus sandboxStatus = sandboxStatuses[i];
@@ -134,16 +228,28 @@ public class ClientApiConverter extends io.lumify.web.clientapi.model.util.Clien
         if (propertyValue instanceof StreamingPropertyValue) {
             clientApiProperty.setStreamingPropertyValue(true);
         } else {
-            clientApiProperty.setValue(toClientApiValue(propertyValue));
+            clientApiProperty.setValue(toClientApiValue(property.getName(), propertyValue));
         }
 
         for (Metadata.Entry entry : property.getMetadata().entrySet()) {
-            clientApiProperty.getMetadata().put(entry.getKey(), toClientApiValue(entry.getValue()));
+            clientApiProperty.getMetadata().put(entry.getKey(), toClientApiValue(entry.getKey(), entry.getValue()));
         }
 
         return clientApiProperty;
     }
 
+    /**
+     * Converts a property or metadata value using the type of the property it is stored under. Values of properties
+     * stored as JSON text are sent as JSON, copied token by token when the response is written, and any other string
+     * is sent as it is without being parsed.
+     */
+    public static Object toClientApiValue(String propertyName, Object value) {
+        if (value instanceof String && LumifyProperties.isJsonPropertyName(propertyName)) {
+            return new RawJsonValue((String) value);
+        }
+        return toClientApiValue(value);
+    }
+
     private static void addVideoFramePropertyToResults(List<ClientApiProperty> clientApiProperties, String propertyKey, String textDescription, SandboxStatus sandboxStatus) {
         ClientApiProperty clientApiProperty = findProperty(clientApiProperties, MediaLumifyProperties.VIDEO_TRANSCRIPT.getPropertyName(), propertyKey);
         if (clientApiProperty == null) {
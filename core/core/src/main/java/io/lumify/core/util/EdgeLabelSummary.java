@@ -0,0 +1,631 @@
+package io.lumify.core.util;
+
+import com.google.inject.Inject;
+import io.lumify.core.model.lock.LockRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.user.AuthorizationRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import org.securegraph.*;
+import org.securegraph.mutation.ElementMutation;
+import org.securegraph.mutation.ExistingElementMutation;
+import org.securegraph.util.IterableUtils;
+
+import java.util.*;
+
+/**
+ * Keeps a summary of the labels of a vertex's edges, with the number of edges for each label, on the vertex itself so
+ * converting a vertex doesn't walk every one of its edges.
+ * <p/>
+ * The summary is one {@link LumifyProperties#EDGE_LABEL_COUNT} value for each label and edge visibility, stored with
+ * the visibility of the edges it counts, so a user only sees the labels of edges they can see. Edges are added,
+ * removed, hidden and unhidden through this class so the summaries of their vertices are kept up to date. Writers
+ * that can't read the vertices they write to, such as map reduce jobs, mark the vertices' summaries stale with
+ * {@link #invalidate} instead.
+ * <p/>
+ * A summary is only trusted once {@link #rebuild} has counted it from the edges visible with the graph's
+ * authorizations, and until it is marked stale. Summaries are read, changed and written under a lock on the vertex,
+ * and edges added with their vertices or removed are written under the same lock. A count that would go below zero
+ * marks the summary stale. The next write to a vertex whose summary is untrusted, or older than a day, rebuilds it,
+ * which repairs an edge saved from a builder being counted by a rebuild as well as by its writer.
+ * <p/>
+ * An edge hidden in a workspace is still counted, with a marker in the workspace's visibility. Readers who can see a
+ * marker, or whose vertex has no trusted summary, read the vertex's edges instead.
+ * <p/>
+ * Workspace and term mention edges are not counted, users' authorizations don't include their visibilities.
+ */
+public class EdgeLabelSummary {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(EdgeLabelSummary.class);
+    private static final Set<String> UNSUMMARIZED_LABELS = new HashSet<>(Arrays.asList(
+            LumifyProperties.TERM_MENTION_LABEL_HAS_TERM_MENTION,
+            LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO,
+            WorkspaceRepository.WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI,
+            WorkspaceRepository.WORKSPACE_TO_USER_RELATIONSHIP_IRI
+    ));
+    private static final Visibility MARKER_VISIBILITY = new Visibility("");
+    private static final String LOCK_NAME_PREFIX = "edgeLabelSummary-";
+    private static final int LOCK_STRIPES = 64;
+    private static final long MAX_SUMMARY_AGE_MILLIS = 24 * 60 * 60 * 1000;
+    private final Graph graph;
+    private final AuthorizationRepository authorizationRepository;
+    private final LockRepository lockRepository;
+
+    @Inject
+    public EdgeLabelSummary(Graph graph, AuthorizationRepository authorizationRepository, LockRepository lockRepository) {
+        this.graph = graph;
+        this.authorizationRepository = authorizationRepository;
+        this.lockRepository = lockRepository;
+    }
+
+    /**
+     * Saves a new edge, one with an id that wasn't used before.
+     */
+    public Edge saveEdge(ElementBuilder<Edge> edgeBuilder, Authorizations authorizations) {
+        Edge edge = edgeBuilder.save(authorizations);
+        edgeAdded(edge, authorizations);
+        return edge;
+    }
+
+    /**
+     * Saves an edge that may already exist, it is only counted if it doesn't.
+     */
+    public Edge saveEdge(String edgeId, ElementBuilder<Edge> edgeBuilder, Authorizations authorizations) {
+        boolean newEdge = graph.getEdge(edgeId, authorizations) == null;
+        Edge edge = edgeBuilder.save(authorizations);
+        if (newEdge) {
+            edgeAdded(edge, authorizations);
+        }
+        return edge;
+    }
+
+    public Edge addEdge(String edgeId, Vertex outVertex, Vertex inVertex, String label, Visibility visibility, Authorizations authorizations) {
+        return saveEdge(edgeId, outVertex, inVertex, graph.prepareEdge(edgeId, outVertex, inVertex, label, visibility), label, authorizations);
+    }
+
+    public Edge addEdge(Vertex outVertex, Vertex inVertex, String label, Visibility visibility, Authorizations authorizations) {
+        return saveEdge(null, outVertex, inVertex, graph.prepareEdge(outVertex, inVertex, label, visibility), label, authorizations);
+    }
+
+    /**
+     * Saves the edge and counts it, if it is new, under the lock of its vertices.
+     */
+    private Edge saveEdge(final String edgeId, Vertex outVertex, Vertex inVertex, final ElementBuilder<Edge> edgeBuilder, String label, final Authorizations authorizations) {
+        if (!isSummarized(label)) {
+            return edgeBuilder.save(authorizations);
+        }
+        final List<Edge> savedEdges = new ArrayList<>(1);
+        final SummaryChanges changes = new SummaryChanges();
+        updateSummaries(new LinkedHashSet<>(Arrays.asList(outVertex.getId(), inVertex.getId())), new SummaryUpdate() {
+            @Override
+            public void before() {
+                boolean newEdge = edgeId == null || graph.getEdge(edgeId, authorizations) == null;
+                Edge edge = edgeBuilder.save(authorizations);
+                savedEdges.add(edge);
+                if (newEdge) {
+                    changes.add(edge, edge.getVisibility(), 1);
+                }
+            }
+
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                if (changes.contains(vertex.getId())) {
+                    addCounts(vertex, changes, graphAuthorizations);
+                }
+            }
+        });
+        return savedEdges.get(0);
+    }
+
+    /**
+     * Removes the edge and uncounts it under the lock of its vertices.
+     */
+    public void removeEdge(final Edge edge, final Authorizations authorizations) {
+        if (!isSummarized(edge.getLabel())) {
+            graph.removeEdge(edge, authorizations);
+            return;
+        }
+        removeEdges(Collections.singletonList(edge), null, new Runnable() {
+            @Override
+            public void run() {
+                graph.removeEdge(edge, authorizations);
+            }
+        });
+    }
+
+    /**
+     * Removes the edge if it exists.
+     */
+    public void removeEdge(String edgeId, Authorizations authorizations) {
+        Edge edge = graph.getEdge(edgeId, authorizations);
+        if (edge != null) {
+            removeEdge(edge, authorizations);
+        }
+    }
+
+    /**
+     * Removes the vertex, which removes its edges, and uncounts them from the vertices at their other ends.
+     */
+    public void removeVertex(final Vertex vertex, final Authorizations authorizations) {
+        List<Edge> edges = IterableUtils.toList(vertex.getEdges(Direction.BOTH, authorizations));
+        removeEdges(edges, vertex.getId(), new Runnable() {
+            @Override
+            public void run() {
+                graph.removeVertex(vertex, authorizations);
+            }
+        });
+    }
+
+    /**
+     * Hides the edge from users with the visibility, the edge stays counted for everyone else.
+     */
+    public void hideEdge(final Edge edge, final Visibility visibility, final Authorizations authorizations) {
+        if (!isSummarized(edge.getLabel())) {
+            graph.markEdgeHidden(edge, visibility, authorizations);
+            return;
+        }
+        final String key = createKey(edge.getLabel(), edge.getVisibility());
+        updateSummaries(getVertexIds(edge), new SummaryUpdate() {
+            @Override
+            public void before() {
+                graph.markEdgeHidden(edge, visibility, authorizations);
+            }
+
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+                LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.addPropertyValue(m, edge.getId(), key, visibility);
+                m.save(graphAuthorizations);
+            }
+        });
+    }
+
+    public void unhideEdge(final Edge edge, final Visibility visibility, final Authorizations authorizations) {
+        if (!isSummarized(edge.getLabel())) {
+            graph.markEdgeVisible(edge, visibility, authorizations);
+            return;
+        }
+        updateSummaries(getVertexIds(edge), new SummaryUpdate() {
+            @Override
+            public void before() {
+                graph.markEdgeVisible(edge, visibility, authorizations);
+            }
+
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+                LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.removeProperty(m, edge.getId(), visibility);
+                m.save(graphAuthorizations);
+            }
+        });
+    }
+
+    public void edgeAdded(Edge edge, Authorizations authorizations) {
+        edgesAdded(Collections.singletonList(edge), authorizations);
+    }
+
+    /**
+     * Counts many edges already saved, with one read and one write for each of their vertices rather than one for
+     * each edge.
+     */
+    public void edgesAdded(Iterable<Edge> edges, Authorizations authorizations) {
+        final SummaryChanges changes = new SummaryChanges();
+        for (Edge edge : edges) {
+            changes.add(edge, edge.getVisibility(), 1);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        updateSummaries(changes.getVertexIds(), new SummaryUpdate() {
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                addCounts(vertex, changes, graphAuthorizations);
+            }
+        });
+    }
+
+    private void addCounts(Vertex vertex, SummaryChanges changes, Authorizations graphAuthorizations) {
+        if (needsRebuild(vertex)) {
+            rebuild(vertex, changes.getEdges(vertex.getId()), Collections.<String>emptySet(), graphAuthorizations);
+            return;
+        }
+        ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+        changes.updateCounts(vertex, m);
+        m.save(graphAuthorizations);
+    }
+
+    /**
+     * Uncounts an edge already removed from the graph.
+     */
+    public void edgeRemoved(Edge edge, Authorizations authorizations) {
+        removeEdges(Collections.singletonList(edge), null, null);
+    }
+
+    /**
+     * @param removedVertexId a vertex being removed with the edges, whose summary is left alone, or null.
+     * @param remove          removes the edges from the graph under the lock, or null if they have already been
+     *                        removed.
+     */
+    private void removeEdges(Iterable<Edge> edges, String removedVertexId, final Runnable remove) {
+        final SummaryChanges changes = new SummaryChanges();
+        for (Edge edge : edges) {
+            changes.add(edge, edge.getVisibility(), -1);
+        }
+        changes.remove(removedVertexId);
+        if (changes.isEmpty()) {
+            if (remove != null) {
+                remove.run();
+            }
+            return;
+        }
+        updateSummaries(changes.getVertexIds(), new SummaryUpdate() {
+            @Override
+            public void before() {
+                if (remove != null) {
+                    remove.run();
+                }
+            }
+
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                Set<String> removedEdgeIds = changes.getEdgeIds(vertex.getId());
+                if (needsRebuild(vertex)) {
+                    rebuild(vertex, Collections.<Edge>emptyList(), removedEdgeIds, graphAuthorizations);
+                    return;
+                }
+                ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+                for (Property property : LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getProperties(vertex)) {
+                    if (removedEdgeIds.contains(property.getKey())) {
+                        LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.removeProperty(m, property.getKey(), property.getVisibility());
+                    }
+                }
+                changes.updateCounts(vertex, m);
+                m.save(graphAuthorizations);
+            }
+        });
+    }
+
+    public void edgeVisibilityChanged(final Edge edge, Visibility oldVisibility, Visibility newVisibility, Authorizations authorizations) {
+        if (!isSummarized(edge.getLabel()) || oldVisibility.getVisibilityString().equals(newVisibility.getVisibilityString())) {
+            return;
+        }
+        final SummaryChanges changes = new SummaryChanges();
+        changes.add(edge, oldVisibility, -1);
+        changes.add(edge, newVisibility, 1);
+        final String key = createKey(edge.getLabel(), newVisibility);
+        updateSummaries(changes.getVertexIds(), new SummaryUpdate() {
+            @Override
+            public void update(Vertex vertex, Authorizations graphAuthorizations) {
+                if (needsRebuild(vertex)) {
+                    rebuild(vertex, Collections.singletonList(edge), Collections.<String>emptySet(), graphAuthorizations);
+                    return;
+                }
+                ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+                for (Property property : LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getProperties(vertex)) {
+                    if (edge.getId().equals(property.getKey())) {
+                        LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.addPropertyValue(m, property.getKey(), key, property.getVisibility());
+                    }
+                }
+                changes.updateCounts(vertex, m);
+                m.save(graphAuthorizations);
+            }
+        });
+    }
+
+    /**
+     * Replaces the vertex's summary with one counted from every edge of the vertex, whatever the authorizations it
+     * was read with, and marks the summary trusted.
+     */
+    public void rebuild(Vertex vertex) {
+        updateSummaries(Collections.singletonList(vertex.getId()), new SummaryUpdate() {
+            @Override
+            public void update(Vertex graphVertex, Authorizations graphAuthorizations) {
+                rebuild(graphVertex, Collections.<Edge>emptyList(), Collections.<String>emptySet(), graphAuthorizations);
+            }
+        });
+    }
+
+    /**
+     * @param changedEdges    edges just added to the vertex or changed, which are counted as they are even if they
+     *                        aren't flushed yet.
+     * @param removedEdgeIds  edges just removed from the vertex, which aren't counted even if they aren't flushed yet.
+     */
+    private void rebuild(Vertex vertex, List<Edge> changedEdges, Set<String> removedEdgeIds, Authorizations graphAuthorizations) {
+        Date summaryDate = new Date();
+        Map<String, Edge> changedEdgesById = new HashMap<>();
+        for (Edge edge : changedEdges) {
+            changedEdgesById.put(edge.getId(), edge);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Visibility> visibilities = new HashMap<>();
+        Set<String> edgeIds = new HashSet<>(removedEdgeIds);
+        for (Edge edge : vertex.getEdges(Direction.BOTH, graphAuthorizations)) {
+            if (edgeIds.add(edge.getId())) {
+                Edge changedEdge = changedEdgesById.get(edge.getId());
+                count(counts, visibilities, changedEdge == null ? edge : changedEdge);
+            }
+        }
+        for (Edge edge : changedEdges) {
+            if (edgeIds.add(edge.getId())) {
+                count(counts, visibilities, edge);
+            }
+        }
+
+        ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+        // hidden edges aren't visible with the graph's authorizations, which include every workspace's
+        for (Property property : LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getProperties(vertex)) {
+            String hiddenEdgeId = property.getKey();
+            if (removedEdgeIds.contains(hiddenEdgeId) || graph.getEdge(hiddenEdgeId, FetchHint.ALL_INCLUDING_HIDDEN, graphAuthorizations) == null) {
+                LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.removeProperty(m, hiddenEdgeId, property.getVisibility());
+            } else if (edgeIds.add(hiddenEdgeId)) {
+                String key = LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getPropertyValue(property);
+                Integer count = counts.get(key);
+                counts.put(key, count == null ? 1 : count + 1);
+                visibilities.put(key, new Visibility(getVisibilityString(key)));
+            }
+        }
+        for (Property property : LumifyProperties.EDGE_LABEL_COUNT.getProperties(vertex)) {
+            if (!counts.containsKey(property.getKey())) {
+                LumifyProperties.EDGE_LABEL_COUNT.removeProperty(m, property.getKey(), property.getVisibility());
+            }
+        }
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            LumifyProperties.EDGE_LABEL_COUNT.addPropertyValue(m, count.getKey(), count.getValue(), visibilities.get(count.getKey()));
+        }
+        Property staleProperty = LumifyProperties.EDGE_LABEL_SUMMARY_STALE.getProperty(vertex);
+        if (staleProperty != null) {
+            LumifyProperties.EDGE_LABEL_SUMMARY_STALE.removeProperty(m, staleProperty.getKey(), staleProperty.getVisibility());
+        }
+        LumifyProperties.EDGE_LABEL_SUMMARY_DATE.setProperty(m, summaryDate, MARKER_VISIBILITY);
+        m.save(graphAuthorizations);
+        LOGGER.debug("summarized %d edge labels of vertex %s", counts.size(), vertex.getId());
+    }
+
+    private static void count(Map<String, Integer> counts, Map<String, Visibility> visibilities, Edge edge) {
+        if (!isSummarized(edge.getLabel())) {
+            return;
+        }
+        String key = createKey(edge.getLabel(), edge.getVisibility());
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+        visibilities.put(key, edge.getVisibility());
+    }
+
+    /**
+     * Locks the vertices, reads them with the graph's authorizations, updates their summaries and flushes the graph
+     * before the locks are released. Locks are taken in order so writers of overlapping vertices can't deadlock.
+     */
+    private void updateSummaries(final Collection<String> vertexIds, final SummaryUpdate summaryUpdate) {
+        SortedSet<String> lockNames = new TreeSet<>();
+        for (String vertexId : vertexIds) {
+            lockNames.add(LOCK_NAME_PREFIX + ((vertexId.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES));
+        }
+        lock(lockNames.iterator(), new Runnable() {
+            @Override
+            public void run() {
+                summaryUpdate.before();
+                Authorizations graphAuthorizations = getGraphAuthorizations();
+                for (Vertex vertex : graph.getVertices(vertexIds, graphAuthorizations)) {
+                    summaryUpdate.update(vertex, graphAuthorizations);
+                }
+                graph.flush();
+            }
+        });
+    }
+
+    private void lock(final Iterator<String> lockNames, final Runnable runnable) {
+        if (!lockNames.hasNext()) {
+            runnable.run();
+            return;
+        }
+        lockRepository.lock(lockNames.next(), new Runnable() {
+            @Override
+            public void run() {
+                lock(lockNames, runnable);
+            }
+        });
+    }
+
+    private Authorizations getGraphAuthorizations() {
+        List<String> graphAuthorizations = authorizationRepository.getGraphAuthorizations();
+        return authorizationRepository.createAuthorizations(graphAuthorizations.toArray(new String[graphAuthorizations.size()]));
+    }
+
+    /**
+     * Marks the summary of the vertex being written stale, for writers that add edges to a vertex without reading it.
+     */
+    public static void invalidate(ElementMutation<Vertex> vertexMutation) {
+        LumifyProperties.EDGE_LABEL_SUMMARY_STALE.setProperty(vertexMutation, true, MARKER_VISIBILITY);
+    }
+
+    /**
+     * @return true if the vertex has a summary that can be trusted by the user the vertex was read for, one that
+     * counts none of the edges hidden from them.
+     */
+    public static boolean hasSummary(Vertex vertex) {
+        return isTrusted(vertex) && LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getProperty(vertex) == null;
+    }
+
+    private static boolean isTrusted(Vertex vertex) {
+        return LumifyProperties.EDGE_LABEL_SUMMARY_DATE.getProperty(vertex) != null
+                && LumifyProperties.EDGE_LABEL_SUMMARY_STALE.getProperty(vertex) == null;
+    }
+
+    private static boolean needsRebuild(Vertex vertex) {
+        if (!isTrusted(vertex)) {
+            return true;
+        }
+        Date summaryDate = LumifyProperties.EDGE_LABEL_SUMMARY_DATE.getPropertyValue(vertex);
+        return System.currentTimeMillis() - summaryDate.getTime() > MAX_SUMMARY_AGE_MILLIS;
+    }
+
+    public static boolean isSummaryProperty(Property property) {
+        return isSummaryPropertyName(property.getName());
+    }
+
+    public static boolean isSummaryPropertyName(String propertyName) {
+        return LumifyProperties.EDGE_LABEL_COUNT.getPropertyName().equals(propertyName)
+                || LumifyProperties.EDGE_LABEL_SUMMARY_DATE.getPropertyName().equals(propertyName)
+                || LumifyProperties.EDGE_LABEL_SUMMARY_STALE.getPropertyName().equals(propertyName)
+                || LumifyProperties.EDGE_LABEL_SUMMARY_HIDDEN.getPropertyName().equals(propertyName);
+    }
+
+    public static boolean isSummarized(String label) {
+        return !UNSUMMARIZED_LABELS.contains(label);
+    }
+
+    /**
+     * @return the number of edges of the vertex with each label, ordered by label, or null if the vertex has no
+     * trusted summary.
+     */
+    public static Map<String, Integer> getEdgeLabelCounts(Vertex vertex) {
+        if (!hasSummary(vertex)) {
+            return null;
+        }
+        Map<String, Integer> edgeLabelCounts = new TreeMap<>();
+        for (Property property : LumifyProperties.EDGE_LABEL_COUNT.getProperties(vertex)) {
+            Integer count = LumifyProperties.EDGE_LABEL_COUNT.getPropertyValue(property);
+            if (count == null || count <= 0) {
+                continue;
+            }
+            String label = getLabel(property.getKey());
+            Integer existingCount = edgeLabelCounts.get(label);
+            edgeLabelCounts.put(label, existingCount == null ? count : existingCount + count);
+        }
+        return edgeLabelCounts;
+    }
+
+    /**
+     * @return the labels of the vertex's edges from its summary, or read from its edges if it has no trusted summary.
+     * The vertex has to have been read with its edges for the fallback.
+     */
+    public static Collection<String> getEdgeLabels(Vertex vertex, Authorizations authorizations) {
+        Map<String, Integer> edgeLabelCounts = getEdgeLabelCounts(vertex);
+        if (edgeLabelCounts != null) {
+            return edgeLabelCounts.keySet();
+        }
+        List<String> edgeLabels = new ArrayList<>();
+        for (String edgeLabel : vertex.getEdgeLabels(Direction.BOTH, authorizations)) {
+            edgeLabels.add(edgeLabel);
+        }
+        return edgeLabels;
+    }
+
+    /**
+     * Changes the count of the label, marking the summary stale instead if the count would go below zero, as the
+     * summary has drifted from the edges.
+     */
+    private static void updateCount(Vertex vertex, ExistingElementMutation<Vertex> m, String key, Visibility visibility, int delta) {
+        Integer count = LumifyProperties.EDGE_LABEL_COUNT.getPropertyValue(vertex, key);
+        int newCount = (count == null ? 0 : count) + delta;
+        if (newCount < 0) {
+            LOGGER.warn("edge label summary of vertex %s has drifted, marking it stale", vertex.getId());
+            invalidate(m);
+        } else if (newCount > 0) {
+            LumifyProperties.EDGE_LABEL_COUNT.addPropertyValue(m, key, newCount, visibility);
+        } else if (count != null) {
+            LumifyProperties.EDGE_LABEL_COUNT.removeProperty(m, key, visibility);
+        }
+    }
+
+    private static List<String> getVertexIds(Edge edge) {
+        String outVertexId = edge.getVertexId(Direction.OUT);
+        String inVertexId = edge.getVertexId(Direction.IN);
+        return outVertexId.equals(inVertexId) ? Collections.singletonList(outVertexId) : Arrays.asList(outVertexId, inVertexId);
+    }
+
+    private static String createKey(String label, Visibility visibility) {
+        return RowKeyHelper.buildMinor(label, visibility.getVisibilityString());
+    }
+
+    private static String getLabel(String key) {
+        int separator = key.indexOf(RowKeyHelper.MINOR_FIELD_SEPARATOR);
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    private static String getVisibilityString(String key) {
+        int separator = key.indexOf(RowKeyHelper.MINOR_FIELD_SEPARATOR);
+        return separator < 0 ? "" : key.substring(separator + 1);
+    }
+
+    private static abstract class SummaryUpdate {
+        /**
+         * Runs under the lock before the vertices are read.
+         */
+        public void before() {
+        }
+
+        public abstract void update(Vertex vertex, Authorizations graphAuthorizations);
+    }
+
+    /**
+     * The count changes and edges of a write, grouped by vertex.
+     */
+    private static class SummaryChanges {
+        private final Map<String, Map<String, Integer>> deltasByVertexId = new LinkedHashMap<>();
+        private final Map<String, List<Edge>> edgesByVertexId = new HashMap<>();
+        private final Map<String, Visibility> visibilities = new HashMap<>();
+
+        private void add(Edge edge, Visibility visibility, int delta) {
+            if (!isSummarized(edge.getLabel())) {
+                return;
+            }
+            String key = createKey(edge.getLabel(), visibility);
+            visibilities.put(key, visibility);
+            for (String vertexId : getVertexIds(edge)) {
+                Map<String, Integer> deltas = deltasByVertexId.get(vertexId);
+                if (deltas == null) {
+                    deltas = new HashMap<>();
+                    deltasByVertexId.put(vertexId, deltas);
+                }
+                Integer existingDelta = deltas.get(key);
+                deltas.put(key, existingDelta == null ? delta : existingDelta + delta);
+
+                List<Edge> edges = edgesByVertexId.get(vertexId);
+                if (edges == null) {
+                    edges = new ArrayList<>();
+                    edgesByVertexId.put(vertexId, edges);
+                }
+                if (!edges.contains(edge)) {
+                    edges.add(edge);
+                }
+            }
+        }
+
+        private void remove(String vertexId) {
+            deltasByVertexId.remove(vertexId);
+            edgesByVertexId.remove(vertexId);
+        }
+
+        private boolean contains(String vertexId) {
+            return deltasByVertexId.containsKey(vertexId);
+        }
+
+        private boolean isEmpty() {
+            return deltasByVertexId.size() == 0;
+        }
+
+        private Set<String> getVertexIds() {
+            return deltasByVertexId.keySet();
+        }
+
+        private List<Edge> getEdges(String vertexId) {
+            List<Edge> edges = edgesByVertexId.get(vertexId);
+            return edges == null ? Collections.<Edge>emptyList() : edges;
+        }
+
+        private Set<String> getEdgeIds(String vertexId) {
+            Set<String> edgeIds = new HashSet<>();
+            for (Edge edge : getEdges(vertexId)) {
+                edgeIds.add(edge.getId());
+            }
+            return edgeIds;
+        }
+
+        private void updateCounts(Vertex vertex, ExistingElementMutation<Vertex> m) {
+            for (Map.Entry<String, Integer> delta : deltasByVertexId.get(vertex.getId()).entrySet()) {
+                if (delta.getValue() != 0) {
+                    updateCount(vertex, m, delta.getKey(), visibilities.get(delta.getKey()), delta.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.lumify.core.util;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import org.securegraph.*;
+
+import java.util.*;
+
+/**
+ * The part of an element a caller needs: only whether it exists, only some of its properties, or all of it.
+ * <p/>
+ * Elements are read with the fetch hints of the projection. Existence and property projections both read properties
+ * but not edge references, which are most of the row of a well connected vertex. The graph reads all of an element's
+ * properties or none, so the property names trim the conversion and the response rather than the read, and callers
+ * that need nothing but whether ids exist should use {@link Graph#doVerticesExist} or {@link Graph#doEdgesExist}.
+ */
+public class ElementProjection {
+    public static final ElementProjection ALL = new ElementProjection(false, null);
+    public static final ElementProjection EXISTENCE = new ElementProjection(true, null);
+    private static final int FETCH_BATCH_SIZE = 500;
+    private final boolean existenceOnly;
+    private final Set<String> propertyNames;
+
+    private ElementProjection(boolean existenceOnly, Set<String> propertyNames) {
+        this.existenceOnly = existenceOnly;
+        this.propertyNames = propertyNames;
+    }
+
+    public static ElementProjection properties(Collection<String> propertyNames) {
+        return new ElementProjection(false, Collections.unmodifiableSet(new HashSet<>(propertyNames)));
+    }
+
+    /**
+     * @param existenceOnly true if only existence is needed
+     * @param propertyNames the properties needed, or null or empty for all of them
+     */
+    public static ElementProjection create(boolean existenceOnly, String[] propertyNames) {
+        if (existenceOnly) {
+            return EXISTENCE;
+        }
+        if (propertyNames == null || propertyNames.length == 0) {
+            return ALL;
+        }
+        return properties(Arrays.asList(propertyNames));
+    }
+
+    public boolean isExistenceOnly() {
+        return existenceOnly;
+    }
+
+    public boolean isAll() {
+        return !existenceOnly && propertyNames == null;
+    }
+
+    /**
+     * @return the names of the properties of the projection, or null if it has all of them.
+     */
+    public Set<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    public EnumSet<FetchHint> getFetchHints() {
+        if (!existenceOnly && propertyNames == null) {
+            return FetchHint.ALL;
+        }
+        return EnumSet.of(FetchHint.PROPERTIES, FetchHint.PROPERTY_METADATA);
+    }
+
+    /**
+     * @return true if the property is one the caller asked for.
+     */
+    public boolean includes(Property property) {
+        if (existenceOnly) {
+            return false;
+        }
+        return propertyNames == null || propertyNames.contains(property.getName());
+    }
+
+    /**
+     * Reads the vertices with the projection's fetch hints, one batch of ids at a time as the result is iterated.
+     */
+    public Iterable<Vertex> getVertices(final Graph graph, Iterable<String> vertexIds, final Authorizations authorizations) {
+        return Iterables.concat(Iterables.transform(Iterables.partition(vertexIds, FETCH_BATCH_SIZE), new Function<List<String>, Iterable<Vertex>>() {
+            @Override
+            public Iterable<Vertex> apply(List<String> batchVertexIds) {
+                return graph.getVertices(batchVertexIds, getFetchHints(), authorizations);
+            }
+        }));
+    }
+
+    /**
+     * Reads the edges with the projection's fetch hints, one batch of ids at a time as the result is iterated.
+     */
+    public Iterable<Edge> getEdges(final Graph graph, Iterable<String> edgeIds, final Authorizations authorizations) {
+        return Iterables.concat(Iterables.transform(Iterables.partition(edgeIds, FETCH_BATCH_SIZE), new Function<List<String>, Iterable<Edge>>() {
+            @Override
+            public Iterable<Edge> apply(List<String> batchEdgeIds) {
+                return graph.getEdges(batchEdgeIds, getFetchHints(), authorizations);
+            }
+        }));
+    }
+
+    @Override
+    public String toString() {
+        if (existenceOnly) {
+            return "ElementProjection{existence}";
+        }
+        return "ElementProjection{" + (propertyNames == null ? "all" : propertyNames.toString()) + "}";
+    }
+}
@@ -1,5 +1,7 @@
 package io.lumify.core.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.lumify.core.exception.LumifyException;
 import io.lumify.core.model.PropertyJustificationMetadata;
 import io.lumify.core.model.SourceInfo;
@@ -16,15 +18,18 @@ import org.json.JSONObject;
 import org.securegraph.*;
 import org.securegraph.mutation.ExistingElementMutation;
 
-import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 public class GraphUtil {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(GraphUtil.class);
     public static final String LUMIFY_VERSION_KEY = "lumify.version";
     public static final int LUMIFY_VERSION = 3;
     public static final double SET_PROPERTY_CONFIDENCE = 0.5;
+    private static final Cache<String, VisibilityJson> PARSED_VISIBILITY_JSON_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .build();
 
     public static void verifyVersion(Graph graph) {
         verifyVersion(graph, LUMIFY_VERSION);
@@ -84,37 +89,92 @@ public class GraphUtil {
         return SandboxStatus.PRIVATE;
     }
 
+    /**
+     * A property private to the workspace is PUBLIC_CHANGED when a public property with the same key and name exists
+     * and either one has no visibility json or both have the same visibility source.
+     */
     public static SandboxStatus[] getPropertySandboxStatuses(List<Property> properties, String workspaceId) {
         SandboxStatus[] sandboxStatuses = new SandboxStatus[properties.size()];
+        VisibilityJson[] visibilityJsons = new VisibilityJson[properties.size()];
+        Map<String, PublicPropertyVersions> publicPropertyVersionsByKeyAndName = new HashMap<>();
         for (int i = 0; i < properties.size(); i++) {
             Property property = properties.get(i);
-            VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(property.getMetadata());
-            sandboxStatuses[i] = getSandboxStatusFromVisibilityJsonString(visibilityJson, workspaceId);
+            visibilityJsons[i] = getVisibilityJson(property);
+            sandboxStatuses[i] = getSandboxStatusFromVisibilityJsonString(visibilityJsons[i], workspaceId);
+            if (sandboxStatuses[i] == SandboxStatus.PUBLIC) {
+                String keyAndName = getPropertyKeyAndName(property);
+                PublicPropertyVersions publicPropertyVersions = publicPropertyVersionsByKeyAndName.get(keyAndName);
+                if (publicPropertyVersions == null) {
+                    publicPropertyVersions = new PublicPropertyVersions();
+                    publicPropertyVersionsByKeyAndName.put(keyAndName, publicPropertyVersions);
+                }
+                publicPropertyVersions.add(visibilityJsons[i]);
+            }
         }
 
+        if (publicPropertyVersionsByKeyAndName.size() == 0) {
+            return sandboxStatuses;
+        }
         for (int i = 0; i < properties.size(); i++) {
-            Property property = properties.get(i);
             if (sandboxStatuses[i] != SandboxStatus.PRIVATE) {
                 continue;
             }
-            VisibilityJson propertyVisibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(property.getMetadata());
-            for (int j = 0; j < properties.size(); j++) {
-                Property p = properties.get(j);
-                VisibilityJson pVisibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(p.getMetadata());
-                if (i == j) {
-                    continue;
-                }
+            PublicPropertyVersions publicPropertyVersions = publicPropertyVersionsByKeyAndName.get(getPropertyKeyAndName(properties.get(i)));
+            if (publicPropertyVersions != null && publicPropertyVersions.isChangedBy(visibilityJsons[i])) {
+                sandboxStatuses[i] = SandboxStatus.PUBLIC_CHANGED;
+            }
+        }
 
-                if (sandboxStatuses[j] == SandboxStatus.PUBLIC &&
-                        property.getName().equals(p.getName()) &&
-                        property.getKey().equals(p.getKey()) &&
-                        (propertyVisibilityJson == null || pVisibilityJson == null || (propertyVisibilityJson.getSource().equals(pVisibilityJson.getSource())))) {
-                    sandboxStatuses[i] = SandboxStatus.PUBLIC_CHANGED;
+        return sandboxStatuses;
+    }
+
+    private static String getPropertyKeyAndName(Property property) {
+        return property.getKey() + RowKeyHelper.MINOR_FIELD_SEPARATOR + property.getName();
+    }
+
+    private static String getVisibilityJsonString(Property property) {
+        Object value = property.getMetadata().getValue(LumifyProperties.VISIBILITY_JSON.getPropertyName());
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Properties of an element usually share a handful of visibility json values so each distinct value is only
+     * parsed once. The parsed values are shared and must not be modified.
+     */
+    private static VisibilityJson getVisibilityJson(Property property) {
+        final String visibilityJsonString = getVisibilityJsonString(property);
+        if (visibilityJsonString == null) {
+            return null;
+        }
+        try {
+            return PARSED_VISIBILITY_JSON_CACHE.get(visibilityJsonString, new Callable<VisibilityJson>() {
+                @Override
+                public VisibilityJson call() throws Exception {
+                    return LumifyProperties.VISIBILITY_JSON.unwrap(visibilityJsonString);
                 }
+            });
+        } catch (ExecutionException e) {
+            throw new LumifyException("Could not parse visibility json: " + visibilityJsonString, e.getCause());
+        }
+    }
+
+    private static class PublicPropertyVersions {
+        private boolean hasVersionWithoutVisibilityJson;
+        private final Set<String> visibilitySources = new HashSet<>();
+
+        public void add(VisibilityJson visibilityJson) {
+            if (visibilityJson == null) {
+                hasVersionWithoutVisibilityJson = true;
+            } else {
+                visibilitySources.add(visibilityJson.getSource());
             }
         }
 
-        return sandboxStatuses;
+        public boolean isChangedBy(VisibilityJson privateVisibilityJson) {
+            return privateVisibilityJson == null
+                    || hasVersionWithoutVisibilityJson
+                    || visibilitySources.contains(privateVisibilityJson.getSource());
+        }
     }
 
     public static Metadata metadataStringToMap(String metadataString, Visibility visibility) {
@@ -318,6 +378,7 @@ public class GraphUtil {
             String workspaceId,
             VisibilityTranslator visibilityTranslator,
             TermMentionRepository termMentionRepository,
+            EdgeLabelSummary edgeLabelSummary,
             User user,
             Authorizations authorizations) {
         Date now = new Date();
@@ -338,7 +399,7 @@ public class GraphUtil {
             LumifyProperties.JUSTIFICATION.removeProperty(edgeBuilder, lumifyVisibility.getVisibility());
         }
 
-        Edge edge = edgeBuilder.save(authorizations);
+        Edge edge = edgeLabelSummary.saveEdge(edgeBuilder, authorizations);
 
         if (justificationText != null) {
             termMentionRepository.removeSourceInfoEdgeFromEdge(edge, null, null, lumifyVisibility, authorizations);
@@ -17,6 +17,7 @@ import org.securegraph.property.StreamingPropertyValue;
 import org.securegraph.type.GeoPoint;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -61,7 +62,7 @@ public class JsonSerializer {
         if (authorizations == null) {
             return null;
         }
-        Iterable<String> edgeLabels = vertex.getEdgeLabels(Direction.BOTH, authorizations);
+        Iterable<String> edgeLabels = EdgeLabelSummary.getEdgeLabels(vertex, authorizations);
         JSONArray result = new JSONArray();
         for (String edgeLabel : edgeLabels) {
             result.put(edgeLabel);
@@ -84,7 +85,15 @@ public class JsonSerializer {
     public static JSONObject toJsonElement(Element element, String workspaceId) {
         JSONObject json = new JSONObject();
         json.put("id", element.getId());
-        json.put("properties", toJsonProperties(element.getProperties(), workspaceId));
+        List<Property> propertiesList = new ArrayList<>();
+        for (Property property : element.getProperties()) {
+            if (!EdgeLabelSummary.isSummaryProperty(property)) {
+                propertiesList.add(property);
+            }
+        }
+        Collections.sort(propertiesList, new ConfidencePropertyComparator());
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(propertiesList, workspaceId);
+        json.put("properties", toJsonProperties(propertiesList, sandboxStatuses));
         json.put("sandboxStatus", GraphUtil.getSandboxStatus(element, workspaceId).toString());
         VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(element);
         if (visibilityJson != null) {
@@ -95,10 +104,14 @@ public class JsonSerializer {
     }
 
     public static JSONArray toJsonProperties(Iterable<Property> properties, String workspaceId) {
-        JSONArray resultsJson = new JSONArray();
         List<Property> propertiesList = toList(properties);
         Collections.sort(propertiesList, new ConfidencePropertyComparator());
         SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(propertiesList, workspaceId);
+        return toJsonProperties(propertiesList, sandboxStatuses);
+    }
+
+    private static JSONArray toJsonProperties(List<Property> propertiesList, SandboxStatus[] sandboxStatuses) {
+        JSONArray resultsJson = new JSONArray();
         for (int i = 0; i < propertiesList.size(); i++) {
             Property property = propertiesList.get(i);
             String sandboxStatus = sandboxStatuses[i].toString();
@@ -175,17 +188,17 @@ public class JsonSerializer {
         if (propertyValue instanceof StreamingPropertyValue) {
             result.put("streamingPropertyValue", true);
         } else {
-            result.put("value", toJsonValue(propertyValue));
+            result.put("value", toJsonValue(property.getName(), propertyValue));
         }
 
         for (Metadata.Entry metadataEntry : property.getMetadata().entrySet()) {
-            result.put(metadataEntry.getKey(), toJsonValue(metadataEntry.getValue()));
+            result.put(metadataEntry.getKey(), toJsonValue(metadataEntry.getKey(), metadataEntry.getValue()));
         }
 
         return result;
     }
 
-    private static Object toJsonValue(Object value) {
+    private static Object toJsonValue(String propertyName, Object value) {
         if (value instanceof GeoPoint) {
             GeoPoint geoPoint = (GeoPoint) value;
             JSONObject result = new JSONObject();
@@ -202,15 +215,12 @@ public class JsonSerializer {
             return ((Date) value).getTime();
         } else if (value instanceof PropertyJustificationMetadata) {
             return ((PropertyJustificationMetadata) value).toJson();
-        } else if (value instanceof String) {
+        } else if (value instanceof String && LumifyProperties.isJsonPropertyName(propertyName)) {
             try {
-                String valueString = (String) value;
-                valueString = valueString.trim();
-                if (valueString.startsWith("{") && valueString.endsWith("}")) {
-                    return new JSONObject(valueString);
-                }
-            } catch (Exception ex) {
-                // ignore this exception it just mean the string wasn't really json
+                return new JSONObject((String) value);
+            } catch (JSONException e) {
+                // values written before the property stored JSON text are sent as they are
+                return value;
             }
         }
         return value;
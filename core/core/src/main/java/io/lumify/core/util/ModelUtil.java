@@ -3,6 +3,7 @@ package io.lumify.core.util;
 import com.altamiracorp.bigtable.model.ModelSession;
 import io.lumify.core.model.artifactThumbnails.BigTableArtifactThumbnail;
 import io.lumify.core.model.audit.Audit;
+import io.lumify.core.model.termMention.TermMentionIndex;
 import io.lumify.core.user.User;
 
 import java.util.Arrays;
@@ -14,6 +15,7 @@ public class ModelUtil {
     private static final List<String> tables = Arrays.asList(
             BigTableArtifactThumbnail.TABLE_NAME,
             Audit.TABLE_NAME,
+            TermMentionIndex.TABLE_NAME,
             // TODO refactor to config file info. But since this is only for development this is low priority
             "lumify_securegraph_d",
             "lumify_securegraph_v",
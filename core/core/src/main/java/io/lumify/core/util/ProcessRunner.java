@@ -4,6 +4,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
@@ -14,29 +15,8 @@ public class ProcessRunner {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ProcessRunner.class);
 
     public Process execute(final String programName, final String[] programArgs, OutputStream out, final String logPrefix) throws IOException, InterruptedException {
-        final List<String> arguments = Lists.newArrayList(programName);
-        for (String programArg : programArgs) {
-            if (programArg == null) {
-                throw new NullPointerException("Argument was null in argument list [ " + Joiner.on(", ").useForNull("null").join(programArgs) + " ]");
-            }
-            arguments.add(programArg);
-        }
-
-        final ProcessBuilder procBuilder = new ProcessBuilder(arguments);
-        final Map<String, String> sortedEnv = new TreeMap<String, String>(procBuilder.environment());
-
-        LOGGER.info("%s Running: %s", logPrefix, arrayToString(arguments));
-
-        if (!sortedEnv.isEmpty()) {
-            LOGGER.info("%s Spawned program environment: ", logPrefix);
-            for (final Map.Entry<String, String> entry : sortedEnv.entrySet()) {
-                LOGGER.info("%s %s:%s", logPrefix, entry.getKey(), entry.getValue());
-            }
-        } else {
-            LOGGER.info("%s Running program environment is empty", logPrefix);
-        }
-
-        final Process proc = procBuilder.start();
+        final List<String> arguments = toArguments(programName, programArgs);
+        final Process proc = start(arguments, logPrefix);
 
         StreamHelper errStreamHelper = new StreamHelper(proc.getErrorStream(), LOGGER, logPrefix + programName + "(stderr): ");
         errStreamHelper.start();
@@ -79,11 +59,7 @@ public class ProcessRunner {
         proc.getInputStream().close(); // stdout
         proc.getErrorStream().close();
 
-        LOGGER.info(logPrefix + programName + "(returncode): " + proc.exitValue());
-
-        if (proc.exitValue() != 0) {
-            throw new RuntimeException("unexpected return code: " + proc.exitValue() + " for command " + arrayToString(arguments));
-        }
+        checkExitValue(proc, arguments, programName, logPrefix);
         if (pipeException[0] != null) {
             throw new RuntimeException("pipe exception", pipeException[0]);
         }
@@ -91,6 +67,78 @@ public class ProcessRunner {
         return proc;
     }
 
+    /**
+     * Runs the program handing its stdout to the reader on the calling thread as it is produced, so large
+     * outputs never have to be written to disk or buffered in full.
+     */
+    public Process executeReadingOutput(final String programName, final String[] programArgs, OutputReader outputReader, final String logPrefix) throws IOException, InterruptedException {
+        final List<String> arguments = toArguments(programName, programArgs);
+        final Process proc = start(arguments, logPrefix);
+
+        StreamHelper errStreamHelper = new StreamHelper(proc.getErrorStream(), LOGGER, logPrefix + programName + "(stderr): ");
+        errStreamHelper.start();
+
+        try (InputStream in = proc.getInputStream()) {
+            outputReader.read(in);
+            byte[] remaining = new byte[64 * 1024];
+            while (in.read(remaining) >= 0) {
+                // drain anything the reader did not consume so the process can exit
+            }
+        } catch (IOException | RuntimeException ex) {
+            proc.destroy();
+            throw ex;
+        }
+
+        proc.waitFor();
+        errStreamHelper.join(10000);
+        proc.getOutputStream().close(); // stdin
+        proc.getErrorStream().close();
+
+        checkExitValue(proc, arguments, programName, logPrefix);
+        return proc;
+    }
+
+    public static interface OutputReader {
+        void read(InputStream in) throws IOException;
+    }
+
+    private static List<String> toArguments(String programName, String[] programArgs) {
+        final List<String> arguments = Lists.newArrayList(programName);
+        for (String programArg : programArgs) {
+            if (programArg == null) {
+                throw new NullPointerException("Argument was null in argument list [ " + Joiner.on(", ").useForNull("null").join(programArgs) + " ]");
+            }
+            arguments.add(programArg);
+        }
+        return arguments;
+    }
+
+    private static Process start(List<String> arguments, String logPrefix) throws IOException {
+        final ProcessBuilder procBuilder = new ProcessBuilder(arguments);
+        final Map<String, String> sortedEnv = new TreeMap<String, String>(procBuilder.environment());
+
+        LOGGER.info("%s Running: %s", logPrefix, arrayToString(arguments));
+
+        if (!sortedEnv.isEmpty()) {
+            LOGGER.info("%s Spawned program environment: ", logPrefix);
+            for (final Map.Entry<String, String> entry : sortedEnv.entrySet()) {
+                LOGGER.info("%s %s:%s", logPrefix, entry.getKey(), entry.getValue());
+            }
+        } else {
+            LOGGER.info("%s Running program environment is empty", logPrefix);
+        }
+
+        return procBuilder.start();
+    }
+
+    private static void checkExitValue(Process proc, List<String> arguments, String programName, String logPrefix) {
+        LOGGER.info(logPrefix + programName + "(returncode): " + proc.exitValue());
+
+        if (proc.exitValue() != 0) {
+            throw new RuntimeException("unexpected return code: " + proc.exitValue() + " for command " + arrayToString(arguments));
+        }
+    }
+
     private static String arrayToString(List<String> arr) {
         StringBuilder result = new StringBuilder();
         for (String s : arr) {
@@ -0,0 +1,127 @@
+package io.lumify.core.util;
+
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+import org.securegraph.property.StreamingPropertyValue;
+
+import java.io.*;
+
+/**
+ * Reads ranges of a {@link StreamingPropertyValue} without reading the bytes in front of them. HDFS and local file
+ * system streams are seeked or read with positioned reads, file streams are positioned through their channel and
+ * values held in memory are skipped. Any other stream is skipped forward, or reopened to move backwards.
+ * <p/>
+ * One underlying stream is kept open between ranges, so several ranges of the same value can be read in any order.
+ */
+public class SeekableStreamingPropertyValue implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    private final StreamingPropertyValue value;
+    private final byte[] buffer;
+    private InputStream in;
+    private long position;
+
+    public SeekableStreamingPropertyValue(StreamingPropertyValue value) {
+        this(value, DEFAULT_BUFFER_SIZE);
+    }
+
+    public SeekableStreamingPropertyValue(StreamingPropertyValue value, int bufferSize) {
+        this.value = value;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public long getLength() {
+        return value.getLength();
+    }
+
+    /**
+     * @return the underlying stream positioned at offset. The stream is owned by this object and is closed with it.
+     */
+    public InputStream getInputStream(long offset) throws IOException {
+        seek(offset);
+        return in;
+    }
+
+    /**
+     * Copies length bytes starting at start to out.
+     */
+    public void copyRange(long start, long length, OutputStream out) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+
+        if (in == null) {
+            open();
+        }
+        // a single positioned read doesn't disturb the stream, so short ranges don't pay for a seek
+        if (in instanceof PositionedReadable && length <= buffer.length) {
+            ((PositionedReadable) in).readFully(start, buffer, 0, (int) length);
+            out.write(buffer, 0, (int) length);
+            return;
+        }
+
+        seek(start);
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read < 0) {
+                throw new EOFException("Unexpected end of stream at " + position + " reading " + length + " bytes from " + start);
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+            position += read;
+        }
+    }
+
+    public void seek(long offset) throws IOException {
+        if (in == null) {
+            open();
+        }
+        if (offset == position) {
+            return;
+        }
+
+        if (in instanceof Seekable) {
+            ((Seekable) in).seek(offset);
+        } else if (in instanceof FileInputStream) {
+            ((FileInputStream) in).getChannel().position(offset);
+        } else {
+            if (offset < position) {
+                if (in instanceof ByteArrayInputStream) {
+                    in.reset();
+                } else {
+                    in.close();
+                    open();
+                }
+                position = 0;
+            }
+            skipFully(in, offset - position);
+        }
+        position = offset;
+    }
+
+    private void open() throws IOException {
+        in = value.getInputStream();
+        position = 0;
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of stream skipping " + count + " bytes");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+}
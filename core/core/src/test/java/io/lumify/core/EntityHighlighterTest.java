@@ -7,6 +7,8 @@ import io.lumify.core.model.textHighlighting.VertexOffsetItem;
 import io.lumify.core.security.DirectVisibilityTranslator;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,9 +21,9 @@ import org.securegraph.Visibility;
 import org.securegraph.inmemory.InMemoryAuthorizations;
 import org.securegraph.inmemory.InMemoryGraph;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -167,6 +169,112 @@ public class EntityHighlighterTest {
                 highlightText);
     }
 
+    @Test
+    public void testGetHighlightedTextMatchesPreviousOutput() throws Exception {
+        Vertex sourceVertex = graph.addVertex("1", visibility, authorizations);
+        Random random = new Random(1234);
+        StringBuilder textBuilder = new StringBuilder();
+        String[] words = new String[]{"Joe", "Ferner", "<b>", "&amp;", "caf\u00e9", "\u00a0", "a\u00a0b", "\"quoted\"", "US"};
+        for (int i = 0; i < 2000; i++) {
+            textBuilder.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        String text = textBuilder.toString();
+
+        List<Vertex> terms = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(text.length() + 10);
+            int end = start + random.nextInt(30);
+            terms.add(createTermMention(sourceVertex, "term\u00a0" + i, PERSON_IRI, start, end, "golden" + i));
+        }
+        terms.add(createTermMention(sourceVertex, "negativeStart", PERSON_IRI, -1, 5, "goldenNegativeStart"));
+        terms.add(createTermMention(sourceVertex, "negativeEnd", PERSON_IRI, 40, -1, "goldenNegativeEnd"));
+
+        EntityHighlighter entityHighlighter = new EntityHighlighter();
+        String expected = getHighlightedTextPreviousImplementation(text, entityHighlighter.convertTermMentionsToOffsetItems(terms, "", authorizations));
+        String highlightText = EntityHighlighter.getHighlightedText(text, entityHighlighter.convertTermMentionsToOffsetItems(terms, "", authorizations));
+        assertEquals(expected, highlightText);
+
+        StringWriter out = new StringWriter();
+        entityHighlighter.writeHighlightedText(new ByteArrayInputStream(text.getBytes("UTF-8")), terms, "", authorizations, out);
+        assertEquals(expected, out.toString());
+    }
+
+    /**
+     * The string based implementation the streaming highlighter replaced, kept to check the output is unchanged.
+     */
+    private static String getHighlightedTextPreviousImplementation(String text, List<OffsetItem> offsetItems) {
+        Collections.sort(offsetItems);
+        StringBuilder result = new StringBuilder();
+        PriorityQueue<Integer> endOffsets = new PriorityQueue<>();
+        int lastStart = 0;
+        for (int i = 0; i < offsetItems.size(); i++) {
+            OffsetItem offsetItem = offsetItems.get(i);
+
+            boolean overlapsPreviousItem = false;
+            if (offsetItem instanceof VertexOffsetItem) {
+                for (int j = 0; j < i; j++) {
+                    OffsetItem compareItem = offsetItems.get(j);
+                    if (compareItem instanceof VertexOffsetItem
+                            && (OffsetItem.getOffset(compareItem.getEnd()) >= OffsetItem.getOffset(offsetItem.getEnd())
+                            || OffsetItem.getOffset(compareItem.getEnd()) > OffsetItem.getOffset(offsetItem.getStart()))) {
+                        overlapsPreviousItem = true;
+                        offsetItems.remove(i--);
+                        break;
+                    }
+                }
+            }
+            if (overlapsPreviousItem) {
+                continue;
+            }
+            if (OffsetItem.getOffset(offsetItem.getStart()) < 0 || OffsetItem.getOffset(offsetItem.getEnd()) < 0) {
+                continue;
+            }
+            if (!offsetItem.shouldHighlight()) {
+                continue;
+            }
+
+            while (endOffsets.size() > 0 && endOffsets.peek() <= OffsetItem.getOffset(offsetItem.getStart())) {
+                int end = endOffsets.poll();
+                result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, end)));
+                result.append("</span>");
+                lastStart = end;
+            }
+            result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, (int) OffsetItem.getOffset(offsetItem.getStart()))));
+
+            result.append("<span");
+            result.append(" class=\"");
+            result.append(StringUtils.join(offsetItem.getCssClasses(), " "));
+            result.append("\"");
+            if (offsetItem.getTitle() != null) {
+                result.append(" title=\"");
+                result.append(StringEscapeUtils.escapeHtml(offsetItem.getTitle()));
+                result.append("\"");
+            }
+            result.append(" data-info=\"");
+            result.append(StringEscapeUtils.escapeHtml(offsetItem.getInfoJson().toString()));
+            result.append("\"");
+            result.append(">");
+            endOffsets.add((int) OffsetItem.getOffset(offsetItem.getEnd()));
+            lastStart = (int) OffsetItem.getOffset(offsetItem.getStart());
+        }
+
+        while (endOffsets.size() > 0) {
+            int end = endOffsets.poll();
+            result.append(StringEscapeUtils.escapeHtml(safeSubstring(text, lastStart, end)));
+            result.append("</span>");
+            lastStart = end;
+        }
+        result.append(StringEscapeUtils.escapeHtml(text.substring(Math.min(lastStart, text.length()))));
+
+        return result.toString().replaceAll("&nbsp;", " ");
+    }
+
+    private static String safeSubstring(String text, int beginIndex, int endIndex) {
+        beginIndex = Math.min(beginIndex, text.length());
+        endIndex = Math.min(endIndex, text.length());
+        return text.substring(beginIndex, endIndex);
+    }
+
     private List<String> asList(String[] strings) {
         List<String> results = new ArrayList<String>();
         Collections.addAll(results, strings);
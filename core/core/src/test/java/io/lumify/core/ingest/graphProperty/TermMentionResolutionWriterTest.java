@@ -0,0 +1,180 @@
+package io.lumify.core.ingest.graphProperty;
+
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.model.lock.LocalLockRepository;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.termMention.TermMentionBuilder;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
+import io.lumify.core.model.termMention.TermMentionRepository;
+import io.lumify.core.model.user.InMemoryAuthorizationRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.security.DirectVisibilityTranslator;
+import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.Authorizations;
+import org.securegraph.Direction;
+import org.securegraph.Edge;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+import static org.securegraph.util.IterableUtils.count;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TermMentionResolutionWriterTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private static final String ARTIFACT_HAS_ENTITY_IRI = "http://lumify.io/test#artifactHasEntity";
+    private static final String LOCATION_IRI = "http://lumify.io/test#location";
+    private static final String GEO_LOCATION_IRI = "http://lumify.io/test#geoLocation";
+
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private VisibilityTranslator visibilityTranslator = new DirectVisibilityTranslator();
+    private TermMentionResolutionWriter writer;
+
+    @Mock
+    private OntologyRepository ontologyRepository;
+
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    @Mock
+    private TermMentionIndexRepository termMentionIndexRepository;
+
+    @Mock
+    private Workspace workspace;
+
+    @Mock
+    private User user;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(TermMentionRepository.VISIBILITY_STRING, WORKSPACE_ID);
+        when(ontologyRepository.getRequiredRelationshipIRIByIntent("artifactHasEntity")).thenReturn(ARTIFACT_HAS_ENTITY_IRI);
+        when(workspaceRepository.findById(WORKSPACE_ID, user)).thenReturn(workspace);
+        InMemoryAuthorizationRepository authorizationRepository = new InMemoryAuthorizationRepository();
+        authorizationRepository.addAuthorizationToGraph(TermMentionRepository.VISIBILITY_STRING, WORKSPACE_ID);
+        writer = new TermMentionResolutionWriter(graph, visibilityTranslator, ontologyRepository, workspaceRepository, termMentionIndexRepository,
+                new EdgeLabelSummary(graph, authorizationRepository, new LocalLockRepository(new HashMapConfigurationLoader(new HashMap()).createConfiguration())));
+    }
+
+    @Test
+    public void testWriteGroupsMentionsByResolvedEntity() {
+        Vertex sourceVertex = createSourceVertex("artifact1");
+        Vertex mention1 = createTermMention(sourceVertex, "boston", 0, 6);
+        Vertex mention2 = createTermMention(sourceVertex, "Boston", 20, 26);
+
+        TermMentionResolutions resolutions = new TermMentionResolutions();
+        resolutions.add(mention1, createBoston(), "test");
+        resolutions.add(mention2, createBoston(), "test");
+        assertEquals(1, resolutions.getEntities().size());
+        assertEquals(2, resolutions.getResolutions().size());
+
+        writer.write(sourceVertex, resolutions, user, authorizations);
+        graph.flush();
+
+        Vertex resolvedVertex = graph.getVertex("LOC-BOSTON", authorizations);
+        assertNotNull(resolvedVertex);
+        assertEquals("Boston, MA", LumifyProperties.TITLE.getPropertyValue(resolvedVertex));
+        assertEquals(LOCATION_IRI, LumifyProperties.CONCEPT_TYPE.getPropertyValue(resolvedVertex));
+        assertNotNull(resolvedVertex.getPropertyValue(GEO_LOCATION_IRI));
+
+        Edge edge = graph.getEdge("artifact1-" + ARTIFACT_HAS_ENTITY_IRI + "-LOC-BOSTON", authorizations);
+        assertNotNull(edge);
+        assertNotNull(LumifyProperties.VISIBILITY_JSON.getPropertyValue(edge));
+        assertEquals(2, count(resolvedVertex.getVertices(Direction.IN, LumifyProperties.TERM_MENTION_LABEL_RESOLVED_TO, authorizations)));
+
+        ArgumentCaptor<Collection> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(workspaceRepository, times(1)).updateEntitiesOnWorkspace(eq(workspace), updates.capture(), eq(user));
+        assertEquals(1, updates.getValue().size());
+    }
+
+    @Test
+    public void testWriteSkipsUnchangedEntityVertices() {
+        Vertex sourceVertex1 = createSourceVertex("artifact1");
+        TermMentionResolutions resolutions1 = new TermMentionResolutions();
+        resolutions1.add(createTermMention(sourceVertex1, "boston", 0, 6), createBoston(), "test");
+        writer.write(sourceVertex1, resolutions1, user, authorizations);
+        graph.flush();
+
+        graph.removeVertex(graph.getVertex("LOC-BOSTON", authorizations), authorizations);
+
+        Vertex sourceVertex2 = createSourceVertex("artifact2");
+        TermMentionResolutions resolutions2 = new TermMentionResolutions();
+        resolutions2.add(createTermMention(sourceVertex2, "boston", 0, 6), createBoston(), "test");
+        writer.write(sourceVertex2, resolutions2, user, authorizations);
+        graph.flush();
+
+        // the cached vertex is reused, so the removed vertex isn't rewritten
+        assertNull(graph.getVertex("LOC-BOSTON", authorizations));
+        assertNotNull(graph.getEdge("artifact2-" + ARTIFACT_HAS_ENTITY_IRI + "-LOC-BOSTON", authorizations));
+
+        TermMentionResolutions resolutions3 = new TermMentionResolutions();
+        resolutions3.add(createTermMention(sourceVertex2, "boston", 0, 6), createBoston().property("population", 1), "test");
+        writer.write(sourceVertex2, resolutions3, user, authorizations);
+        graph.flush();
+        assertNotNull(graph.getVertex("LOC-BOSTON", authorizations));
+    }
+
+    @Test
+    public void testWriteNothing() {
+        Vertex sourceVertex = createSourceVertex("artifact1");
+        writer.write(sourceVertex, new TermMentionResolutions(), user, authorizations);
+        verify(ontologyRepository, never()).getRequiredRelationshipIRIByIntent(any(String.class));
+        verify(workspaceRepository, never()).updateEntitiesOnWorkspace(any(Workspace.class), any(Collection.class), any(User.class));
+    }
+
+    private ResolvedEntity createBoston() {
+        List<Double> geoPoint = new ArrayList<>();
+        geoPoint.add(42.36);
+        geoPoint.add(-71.06);
+        return new ResolvedEntity("test", "LOC-BOSTON", LOCATION_IRI, "Boston, MA", "test source")
+                .property(GEO_LOCATION_IRI, geoPoint.toString());
+    }
+
+    private Vertex createSourceVertex(String id) {
+        VisibilityJson visibilityJson = new VisibilityJson();
+        visibilityJson.addWorkspace(WORKSPACE_ID);
+        Vertex sourceVertex = graph.addVertex(id, new Visibility(""), authorizations);
+        LumifyProperties.VISIBILITY_JSON.setProperty(sourceVertex, visibilityJson, new Visibility(""), authorizations);
+        return sourceVertex;
+    }
+
+    private Vertex createTermMention(Vertex sourceVertex, String sign, int start, int end) {
+        VisibilityJson visibilityJson = new VisibilityJson();
+        visibilityJson.addWorkspace(WORKSPACE_ID);
+        return new TermMentionBuilder()
+                .sourceVertex(sourceVertex)
+                .propertyKey("")
+                .conceptIri(LOCATION_IRI)
+                .start(start)
+                .end(end)
+                .title(sign)
+                .visibilityJson(visibilityJson)
+                .process("extractor")
+                .save(graph, visibilityTranslator, authorizations);
+    }
+}
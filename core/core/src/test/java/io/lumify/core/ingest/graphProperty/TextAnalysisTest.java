@@ -0,0 +1,120 @@
+package io.lumify.core.ingest.graphProperty;
+
+import io.lumify.core.security.DirectVisibilityTranslator;
+import io.lumify.core.util.TeeInputStream;
+import org.junit.Test;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TextAnalysisTest {
+    @Test
+    public void testLines() {
+        TextAnalysis textAnalysis = new TextAnalysis("line one\r\nline two\n\nlast");
+        assertEquals(4, textAnalysis.getLineCount());
+        assertEquals("line one", textAnalysis.getLine(0));
+        assertEquals("line two", textAnalysis.getLine(1));
+        assertEquals("", textAnalysis.getLine(2));
+        assertEquals("last", textAnalysis.getLine(3));
+        assertEquals(10, textAnalysis.getLineStart(1));
+        assertEquals(0, textAnalysis.getLineIndex(3));
+        assertEquals(1, textAnalysis.getLineIndex(10));
+        assertEquals(3, textAnalysis.getLineIndex(textAnalysis.getText().length()));
+    }
+
+    @Test
+    public void testSentencesDoNotSpanLines() {
+        String text = "Bob went home. He slept\nwell. Then he woke up.  ";
+        TextSpans sentences = new TextAnalysis(text).getSentences();
+        assertEquals(4, sentences.size());
+        assertEquals("Bob went home.", sentences.getCoveredText(0));
+        assertEquals("He slept", sentences.getCoveredText(1));
+        assertEquals("well.", sentences.getCoveredText(2));
+        assertEquals("Then he woke up.", sentences.getCoveredText(3));
+    }
+
+    @Test
+    public void testTokensAreComputedOncePerTokenizer() {
+        final AtomicInteger tokenizeCount = new AtomicInteger();
+        TextAnalysis.LineTokenizer whitespaceTokenizer = new TextAnalysis.LineTokenizer() {
+            @Override
+            public int[][] tokenize(String line) {
+                tokenizeCount.incrementAndGet();
+                List<int[]> tokens = new ArrayList<>();
+                int start = -1;
+                for (int i = 0; i <= line.length(); i++) {
+                    boolean whitespace = i == line.length() || Character.isWhitespace(line.charAt(i));
+                    if (whitespace && start >= 0) {
+                        tokens.add(new int[]{start, i});
+                        start = -1;
+                    } else if (!whitespace && start < 0) {
+                        start = i;
+                    }
+                }
+                return tokens.toArray(new int[tokens.size()][]);
+            }
+        };
+
+        TextAnalysis textAnalysis = new TextAnalysis("Joe Ferner lives\nin Boston");
+        TextSpans tokens = textAnalysis.getTokens("whitespace", whitespaceTokenizer);
+        assertSame(tokens, textAnalysis.getTokens("whitespace", whitespaceTokenizer));
+        assertEquals(2, tokenizeCount.get());
+
+        assertEquals(5, tokens.size());
+        assertEquals("lives", tokens.getCoveredText(2));
+        assertEquals(17, tokens.getStart(3));
+        assertEquals("Boston", tokens.getCoveredText(4));
+        assertEquals(3, tokens.indexOfFirstStartingAtOrAfter(textAnalysis.getLineStart(1)));
+        assertEquals(5, tokens.indexOfFirstStartingAtOrAfter(textAnalysis.getText().length()));
+    }
+
+    @Test
+    public void testWorkersShareTextAnalysis() throws Exception {
+        InMemoryGraph graph = InMemoryGraph.create();
+        Vertex vertex = graph.addVertex("v1", new Visibility(""), new InMemoryAuthorizations());
+        final GraphPropertyWorkData workData = new GraphPropertyWorkData(new DirectVisibilityTranslator(), vertex, null, null, null);
+
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3 * 1024 * 1024) {
+            text.append("Line of text number ").append(text.length()).append(".\n");
+        }
+        final int workerCount = 4;
+        TeeInputStream teeInputStream = new TeeInputStream(new ByteArrayInputStream(text.toString().getBytes("UTF-8")), workerCount);
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        try {
+            List<Future<TextAnalysis>> results = new ArrayList<>();
+            for (final InputStream tee : teeInputStream.getTees()) {
+                results.add(executor.submit(new Callable<TextAnalysis>() {
+                    @Override
+                    public TextAnalysis call() throws Exception {
+                        try {
+                            return workData.getTextAnalysis(tee);
+                        } finally {
+                            tee.close();
+                        }
+                    }
+                }));
+            }
+            teeInputStream.loopUntilTeesAreClosed();
+
+            TextAnalysis first = results.get(0).get(10, TimeUnit.SECONDS);
+            assertEquals(text.toString(), first.getText());
+            for (Future<TextAnalysis> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package io.lumify.core.mapreduce;
+
+import io.lumify.core.exception.LumifyException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.securegraph.Authorizations;
+import org.securegraph.Element;
+import org.securegraph.Graph;
+import org.securegraph.Property;
+import org.securegraph.search.SearchIndex;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveBulkIndexerTest {
+    @Mock
+    private Graph graph;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Mock
+    private Authorizations authorizations;
+
+    @Mock
+    private TaskAttemptContext context;
+
+    private Configuration configuration;
+    private Counters counters;
+    private InMemorySearchIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        configuration = new Configuration(false);
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_INITIAL_BACKOFF_MILLIS, 1);
+        counters = new Counters();
+        index = new InMemorySearchIndex();
+
+        when(context.getConfiguration()).thenReturn(configuration);
+        when(context.getCounter(any(Enum.class))).thenAnswer(new Answer<Counter>() {
+            @Override
+            public Counter answer(InvocationOnMock invocation) throws Throwable {
+                synchronized (counters) {
+                    return counters.findCounter((Enum<?>) invocation.getArguments()[0]);
+                }
+            }
+        });
+        doAnswer(index).when(searchIndex).addElements(any(Graph.class), (Iterable<Element>) any(Iterable.class), any(Authorizations.class));
+    }
+
+    @Test
+    public void testBatchesBySize() throws Exception {
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_INITIAL_BATCH_BYTES, 10000);
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_MIN_BATCH_BYTES, 10000);
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_MAX_BATCH_BYTES, 10000);
+
+        List<Element> small = createElements("small", 200, 10);
+        List<Element> large = createElements("large", 20, 4000);
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        addAll(bulkIndexer, small);
+        addAll(bulkIndexer, large);
+        bulkIndexer.close();
+
+        assertEquals(220, index.getElementIds().size());
+        assertEquals(220, getCounter(BulkIndexCounters.BATCH_ELEMENTS));
+        assertEquals(index.getBatchSizes().size(), getCounter(BulkIndexCounters.BATCHES));
+        long largeElementSize = AdaptiveBulkIndexer.estimateSize(large.get(0));
+        for (int batchSize : index.getBatchSizes()) {
+            assertTrue("batch of " + batchSize, batchSize <= 10000 / AdaptiveBulkIndexer.estimateSize(small.get(0)) + 1);
+        }
+        assertTrue(index.getBatchSizes().contains((int) (10000 / largeElementSize) + 1));
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception {
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_IN_FLIGHT, 3);
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_BATCH_ELEMENTS, 5);
+        index.setLatencyMillis(20);
+
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        addAll(bulkIndexer, createElements("v", 100, 10));
+        bulkIndexer.close();
+
+        assertEquals(100, index.getElementIds().size());
+        assertEquals(20, index.getBatchSizes().size());
+        assertTrue("max concurrent " + index.getMaxConcurrent(), index.getMaxConcurrent() > 1);
+        assertTrue("max concurrent " + index.getMaxConcurrent(), index.getMaxConcurrent() <= 3);
+    }
+
+    @Test
+    public void testRejectedBatchesAreSplitAndRetried() throws Exception {
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_BATCH_ELEMENTS, 40);
+        index.setMaxBatchSize(10);
+
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        long initialTarget = bulkIndexer.getTargetBatchBytes();
+        List<Element> elements = createElements("v", 80, 10);
+        addAll(bulkIndexer, elements);
+        bulkIndexer.close();
+
+        assertEquals(toIds(elements), new TreeSet<String>(index.getElementIds()));
+        assertEquals(80, index.getElementIds().size());
+        assertTrue(getCounter(BulkIndexCounters.RETRIES) > 0);
+        assertEquals(0, getCounter(BulkIndexCounters.FAILED_ELEMENTS));
+        assertTrue(bulkIndexer.getTargetBatchBytes() < initialTarget);
+        for (int batchSize : index.getBatchSizes()) {
+            assertTrue(batchSize <= 10);
+        }
+    }
+
+    @Test
+    public void testElementsFailingAfterRetriesAreCounted() throws Exception {
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_RETRIES, 2);
+        index.setRejectedId("v5");
+
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        addAll(bulkIndexer, createElements("v", 10, 10));
+        bulkIndexer.close();
+
+        assertEquals(9, index.getElementIds().size());
+        assertFalse(index.getElementIds().contains("v5"));
+        assertEquals(1, getCounter(BulkIndexCounters.FAILED_ELEMENTS));
+    }
+
+    @Test
+    public void testOtherErrorsAreNotRetried() throws Exception {
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_BATCH_ELEMENTS, 5);
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_IN_FLIGHT, 1);
+        index.setFailedId("v2");
+
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        bulkIndexer.setIndexedElementsCounter(TestCounters.INDEXED);
+        addAll(bulkIndexer, createElements("v", 5, 10));
+        try {
+            bulkIndexer.close();
+            fail("expected the search index error to be thrown");
+        } catch (LumifyException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+
+        assertEquals(0, index.getElementIds().size());
+        assertEquals(0, getCounter(BulkIndexCounters.RETRIES));
+        assertEquals(5, getCounter(BulkIndexCounters.FAILED_ELEMENTS));
+        assertEquals(0, counters.findCounter(TestCounters.INDEXED).getValue());
+    }
+
+    @Test
+    public void testIndexedElementsCounterCountsOnlyIndexedElements() throws Exception {
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_RETRIES, 2);
+        index.setRejectedId("v5");
+
+        AdaptiveBulkIndexer bulkIndexer = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        bulkIndexer.setIndexedElementsCounter(TestCounters.INDEXED);
+        addAll(bulkIndexer, createElements("v", 10, 10));
+        bulkIndexer.close();
+
+        assertEquals(9, counters.findCounter(TestCounters.INDEXED).getValue());
+    }
+
+    @Test
+    public void testTargetBatchSizeFollowsLatency() throws Exception {
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_INITIAL_BATCH_BYTES, 1000);
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_MIN_BATCH_BYTES, 500);
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_MAX_BATCH_BYTES, 4000);
+        configuration.setInt(AdaptiveBulkIndexer.CONFIG_MAX_IN_FLIGHT, 1);
+
+        AdaptiveBulkIndexer fast = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        addAll(fast, createElements("fast", 200, 10));
+        fast.close();
+        assertEquals(4000, fast.getTargetBatchBytes());
+
+        configuration.setLong(AdaptiveBulkIndexer.CONFIG_TARGET_LATENCY_MILLIS, 5);
+        index.setLatencyMillis(20);
+        AdaptiveBulkIndexer slow = new AdaptiveBulkIndexer(graph, searchIndex, authorizations, context);
+        addAll(slow, createElements("slow", 50, 10));
+        slow.close();
+        assertEquals(500, slow.getTargetBatchBytes());
+        assertEquals(500, getCounter(BulkIndexCounters.TARGET_BATCH_BYTES));
+    }
+
+    private enum TestCounters {
+        INDEXED
+    }
+
+    private long getCounter(BulkIndexCounters counter) {
+        return counters.findCounter(counter).getValue();
+    }
+
+    private static void addAll(AdaptiveBulkIndexer bulkIndexer, List<Element> elements) throws InterruptedException {
+        for (Element element : elements) {
+            bulkIndexer.add(element);
+        }
+    }
+
+    private static List<Element> createElements(String prefix, int count, int valueLength) {
+        char[] value = new char[valueLength];
+        Arrays.fill(value, 'x');
+        List<Element> elements = new ArrayList<Element>();
+        for (int i = 0; i < count; i++) {
+            Property property = mock(Property.class);
+            when(property.getName()).thenReturn("title");
+            when(property.getKey()).thenReturn("");
+            when(property.getValue()).thenReturn(new String(value));
+
+            Element element = mock(Element.class);
+            when(element.getId()).thenReturn(prefix + i);
+            when(element.getProperties()).thenReturn(Collections.singletonList(property));
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    private static Set<String> toIds(List<Element> elements) {
+        Set<String> ids = new TreeSet<String>();
+        for (Element element : elements) {
+            ids.add(element.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Records the ids of the elements it is given, optionally rejecting batches that are too large or contain a
+     * given element the way a search index rejects requests over its limits.
+     */
+    private static class InMemorySearchIndex implements Answer<Void> {
+        private final List<String> elementIds = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private volatile long latencyMillis;
+        private volatile int maxBatchSize = Integer.MAX_VALUE;
+        private volatile String rejectedId;
+        private volatile String failedId;
+
+        @Override
+        public Void answer(InvocationOnMock invocation) throws Throwable {
+            int current = concurrent.incrementAndGet();
+            try {
+                synchronized (maxConcurrent) {
+                    maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+                }
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+
+                List<String> ids = new ArrayList<String>();
+                for (Object element : (Iterable<?>) invocation.getArguments()[1]) {
+                    ids.add(((Element) element).getId());
+                }
+                if (ids.size() > maxBatchSize) {
+                    throw new RejectedExecutionException("too many elements: " + ids.size());
+                }
+                if (rejectedId != null && ids.contains(rejectedId)) {
+                    throw new RuntimeException("Failed to add elements", new RejectedExecutionException("rejected execution: " + rejectedId));
+                }
+                if (failedId != null && ids.contains(failedId)) {
+                    throw new IllegalStateException("mapping conflict: " + failedId);
+                }
+                elementIds.addAll(ids);
+                batchSizes.add(ids.size());
+                return null;
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        public List<String> getElementIds() {
+            return elementIds;
+        }
+
+        public List<Integer> getBatchSizes() {
+            return batchSizes;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent.get();
+        }
+
+        public void setLatencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public void setRejectedId(String rejectedId) {
+            this.rejectedId = rejectedId;
+        }
+
+        public void setFailedId(String failedId) {
+            this.failedId = failedId;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.lumify.core.model.artifactThumbnails;
+
+import io.lumify.core.model.ontology.OntologyRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.securegraph.Authorizations;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class ArtifactThumbnailRepositoryTest {
+    private static final String Y_AXIS_FLIPPED_IRI = "http://lumify.io/test#yAxisFlipped";
+    private static final String CLOCKWISE_ROTATION_IRI = "http://lumify.io/test#clockwiseRotation";
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private ArtifactThumbnailRepository artifactThumbnailRepository;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations();
+        OntologyRepository ontologyRepository = mock(OntologyRepository.class);
+        when(ontologyRepository.getPropertyIRIByIntent("media.yAxisFlipped")).thenReturn(Y_AXIS_FLIPPED_IRI);
+        when(ontologyRepository.getPropertyIRIByIntent("media.clockwiseRotation")).thenReturn(CLOCKWISE_ROTATION_IRI);
+        artifactThumbnailRepository = new NoOpArtifactThumbnailRepository(null, ontologyRepository);
+    }
+
+    @Test
+    public void testReOrientImageMatchesExifOrientations() {
+        BufferedImage image = createQuadrantImage(4, 2);
+        // corners: top left, top right, bottom right, bottom left
+        assertCorners(ImageUtils.reOrientImage(image, false, 0), Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+        assertCorners(ImageUtils.reOrientImage(image, true, 0), Color.GREEN, Color.RED, Color.YELLOW, Color.BLUE);
+        assertCorners(ImageUtils.reOrientImage(image, false, 180), Color.BLUE, Color.YELLOW, Color.RED, Color.GREEN);
+        assertCorners(ImageUtils.reOrientImage(image, true, 180), Color.YELLOW, Color.BLUE, Color.GREEN, Color.RED);
+        assertCorners(ImageUtils.reOrientImage(image, false, 90), Color.YELLOW, Color.RED, Color.GREEN, Color.BLUE);
+        assertCorners(ImageUtils.reOrientImage(image, true, 90), Color.BLUE, Color.GREEN, Color.RED, Color.YELLOW);
+        assertCorners(ImageUtils.reOrientImage(image, false, 270), Color.GREEN, Color.BLUE, Color.YELLOW, Color.RED);
+        assertCorners(ImageUtils.reOrientImage(image, true, 270), Color.RED, Color.YELLOW, Color.BLUE, Color.GREEN);
+        assertCorners(ImageUtils.reOrientImage(image, true, 45), Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+
+        assertEquals(2, ImageUtils.reOrientImage(image, false, 90).getWidth());
+        assertEquals(4, ImageUtils.reOrientImage(image, false, 90).getHeight());
+    }
+
+    @Test
+    public void testGenerateThumbnailsFromOneDecode() throws IOException {
+        Vertex vertex = graph.addVertex("v1", new Visibility(""), authorizations);
+        byte[] imageData = toPng(createQuadrantImage(1600, 1200));
+
+        List<ArtifactThumbnail> thumbnails = artifactThumbnailRepository.generateThumbnails(vertex, new ByteArrayInputStream(imageData), Arrays.asList(new int[]{150, 150}, new int[]{800, 800}));
+        assertEquals(2, thumbnails.size());
+        BufferedImage small = readImage(thumbnails.get(0));
+        assertEquals(150, small.getWidth());
+        assertEquals(112, small.getHeight());
+        assertCorners(small, Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+        BufferedImage large = readImage(thumbnails.get(1));
+        assertEquals(800, large.getWidth());
+        assertEquals(600, large.getHeight());
+        assertCorners(large, Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW);
+    }
+
+    @Test
+    public void testGenerateThumbnailReOrients() throws IOException {
+        Vertex vertex = graph.prepareVertex("v1", new Visibility(""))
+                .setProperty(Y_AXIS_FLIPPED_IRI, true, new Visibility(""))
+                .setProperty(CLOCKWISE_ROTATION_IRI, 90, new Visibility(""))
+                .save(authorizations);
+        byte[] imageData = toPng(createQuadrantImage(1600, 1200));
+
+        ArtifactThumbnail thumbnail = artifactThumbnailRepository.generateThumbnail(vertex, new ByteArrayInputStream(imageData), new int[]{200, 200});
+        BufferedImage image = readImage(thumbnail);
+        assertEquals(150, image.getWidth());
+        assertEquals(200, image.getHeight());
+        assertCorners(image, Color.BLUE, Color.GREEN, Color.RED, Color.YELLOW);
+    }
+
+    private static BufferedImage createQuadrantImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width / 2, height / 2);
+        g.setColor(Color.GREEN);
+        g.fillRect(width / 2, 0, width - width / 2, height / 2);
+        g.setColor(Color.BLUE);
+        g.fillRect(width / 2, height / 2, width - width / 2, height - height / 2);
+        g.setColor(Color.YELLOW);
+        g.fillRect(0, height / 2, width / 2, height - height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertCorners(BufferedImage image, Color topLeft, Color topRight, Color bottomRight, Color bottomLeft) {
+        int right = image.getWidth() - 1;
+        int bottom = image.getHeight() - 1;
+        assertEquals("top left", topLeft.getRGB(), image.getRGB(0, 0));
+        assertEquals("top right", topRight.getRGB(), image.getRGB(right, 0));
+        assertEquals("bottom right", bottomRight.getRGB(), image.getRGB(right, bottom));
+        assertEquals("bottom left", bottomLeft.getRGB(), image.getRGB(0, bottom));
+    }
+
+    private static byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage readImage(ArtifactThumbnail thumbnail) throws IOException {
+        assertEquals("png", thumbnail.getFormat());
+        return ImageIO.read(new ByteArrayInputStream(thumbnail.getThumbnailData()));
+    }
+}
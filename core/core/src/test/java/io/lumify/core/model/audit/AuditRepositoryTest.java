@@ -0,0 +1,163 @@
+package io.lumify.core.model.audit;
+
+import com.altamiracorp.bigtable.model.FlushFlag;
+import com.altamiracorp.bigtable.model.ModelSession;
+import com.altamiracorp.bigtable.model.Row;
+import io.lumify.core.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.*;
+import org.securegraph.mutation.ElementMutation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditRepositoryTest {
+    @Mock
+    private ModelSession modelSession;
+
+    private AuditRepository auditRepository;
+
+    @Before
+    public void setUp() {
+        auditRepository = new TestAuditRepository(modelSession);
+    }
+
+    @Test
+    public void testBatchIsSavedOnFlush() {
+        Audit audit1 = new Audit("a1");
+        Audit audit2 = new Audit("a2");
+        Audit audit3 = new Audit("a3");
+
+        auditRepository.startBatch();
+        auditRepository.save(audit1);
+        auditRepository.save(audit2, FlushFlag.NO_FLUSH);
+        auditRepository.saveMany(Arrays.asList(audit3));
+        verifyZeroInteractions(modelSession);
+
+        auditRepository.flushBatch();
+        List<Collection> savedRows = getSavedRows(1);
+        assertEquals(Arrays.<Object>asList(audit1, audit2, audit3), new ArrayList<Object>(savedRows.get(0)));
+    }
+
+    @Test
+    public void testEmptyBatchSavesNothing() {
+        auditRepository.startBatch();
+        auditRepository.flushBatch();
+
+        verifyZeroInteractions(modelSession);
+    }
+
+    @Test
+    public void testBatchIsClearedAfterException() {
+        Audit audit1 = new Audit("a1");
+        Audit audit2 = new Audit("a2");
+        Audit audit3 = new Audit("a3");
+
+        try {
+            auditRepository.startBatch();
+            try {
+                auditRepository.save(audit1);
+                throw new RuntimeException("failed");
+            } finally {
+                auditRepository.flushBatch();
+            }
+        } catch (RuntimeException ex) {
+            assertEquals("failed", ex.getMessage());
+        }
+
+        auditRepository.startBatch();
+        auditRepository.save(audit2);
+        auditRepository.flushBatch();
+
+        auditRepository.saveMany(Arrays.asList(audit3));
+
+        List<Collection> savedRows = getSavedRows(3);
+        assertEquals(Arrays.<Object>asList(audit1), new ArrayList<Object>(savedRows.get(0)));
+        assertEquals(Arrays.<Object>asList(audit2), new ArrayList<Object>(savedRows.get(1)));
+        assertEquals(Arrays.<Object>asList(audit3), new ArrayList<Object>(savedRows.get(2)));
+    }
+
+    private List<Collection> getSavedRows(int saveCount) {
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(modelSession, times(saveCount)).saveMany(anyString(), rows.capture());
+        return rows.getAllValues();
+    }
+
+    private static class TestAuditRepository extends AuditRepository {
+        public TestAuditRepository(ModelSession modelSession) {
+            super(modelSession);
+        }
+
+        @Override
+        public Audit fromRow(Row row) {
+            return (Audit) row;
+        }
+
+        @Override
+        public Row toRow(Audit audit) {
+            return audit;
+        }
+
+        @Override
+        public String getTableName() {
+            return Audit.TABLE_NAME;
+        }
+
+        @Override
+        public Iterable<Audit> getAudits(String vertexId, String workspaceId, Authorizations authorizations) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Audit auditVertex(AuditAction auditAction, Object vertexId, String process, String comment, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Audit auditEntityProperty(AuditAction action, Object id, String propertyKey, String propertyName, Object oldValue, Object newValue, String process, String comment, Metadata metadata, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Audit> auditRelationship(AuditAction action, Vertex sourceVertex, Vertex destVertex, Edge edge, String process, String comment, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Audit> auditRelationshipProperty(AuditAction action, String sourceId, String destId, String propertyKey, String propertyName, Object oldValue, Object newValue, Edge edge, String process, String comment, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Audit auditAnalyzedBy(AuditAction action, Vertex vertex, String process, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void auditVertexElementMutation(AuditAction action, ElementMutation<Vertex> vertexElementMutation, Vertex vertex, String process, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void auditEdgeElementMutation(AuditAction action, ElementMutation<Edge> edgeElementMutation, Edge edge, Vertex sourceVertex, Vertex destVertex, String process, User user, Visibility visibility) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateColumnVisibility(Audit audit, Visibility originalEdgeVisibility, String visibilityString) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.lumify.core.model.termMention;
+
+import io.lumify.core.util.RowKeyHelper;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TermMentionIndexRowKeyTest {
+    @Test
+    public void testParts() {
+        TermMentionIndexRowKey rowKey = new TermMentionIndexRowKey("v1", "key1", 42, "TM_-key1-42-50-test");
+        assertFalse(rowKey.isIndexedMarker());
+        assertEquals(42, rowKey.getStartOffset());
+        assertEquals("TM_-key1-42-50-test", rowKey.getTermMentionId());
+    }
+
+    @Test
+    public void testIndexedMarker() {
+        TermMentionIndexRowKey marker = TermMentionIndexRowKey.buildIndexedMarker("v1", "key1");
+        assertTrue(marker.isIndexedMarker());
+        assertTrue(marker.toString().compareTo(TermMentionIndexRowKey.buildOffsetKey("v1", "key1", 0)) < 0);
+    }
+
+    @Test
+    public void testIndexedMarkerWithEmptyPropertyKey() {
+        TermMentionIndexRowKey marker = TermMentionIndexRowKey.buildIndexedMarker("v1", "");
+        assertTrue(marker.isIndexedMarker());
+        assertFalse(marker.isResolvedToIndexedMarker());
+        assertTrue(new TermMentionIndexRowKey("v1", "", 42, "a").isMention());
+    }
+
+    @Test
+    public void testResolvedTo() {
+        TermMentionIndexRowKey rowKey = TermMentionIndexRowKey.buildResolvedTo("v1", "e1", "tm1");
+        assertTrue(rowKey.isResolvedTo());
+        assertFalse(rowKey.isMention());
+        assertEquals("e1", rowKey.getForElementId());
+        assertEquals("tm1", rowKey.getTermMentionId());
+        assertTrue(rowKey.toString().startsWith(TermMentionIndexRowKey.buildResolvedToPrefix("v1", "e1")));
+        assertFalse(TermMentionIndexRowKey.buildResolvedTo("v1", "e10", "tm1").toString().startsWith(TermMentionIndexRowKey.buildResolvedToPrefix("v1", "e1")));
+        assertTrue(TermMentionIndexRowKey.buildResolvedToIndexedMarker("v1").isResolvedToIndexedMarker());
+    }
+
+    @Test
+    public void testOrderedByStartOffset() {
+        String first = new TermMentionIndexRowKey("v1", "key1", 9, "b").toString();
+        String second = new TermMentionIndexRowKey("v1", "key1", 10, "a").toString();
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(TermMentionIndexRowKey.buildOffsetKey("v1", "key1", 10).compareTo(second) < 0);
+        assertTrue(TermMentionIndexRowKey.buildOffsetKey("v1", "key1", 11).compareTo(second) > 0);
+    }
+
+    @Test
+    public void testVideoTranscriptPropertyKeysDoNotOverlap() {
+        String videoPropertyKey = RowKeyHelper.buildMinor("key1", "videoFrame", "00000000", "00001000");
+        String textRow = new TermMentionIndexRowKey("v1", videoPropertyKey, 0, "a").toString();
+        assertFalse(textRow.startsWith(TermMentionIndexRowKey.buildOffsetKey("v1", "key1", 0)));
+    }
+}
@@ -0,0 +1,95 @@
+package io.lumify.core.util;
+
+import io.lumify.core.model.PropertyJustificationMetadata;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.web.clientapi.model.ClientApiProperty;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import io.lumify.web.clientapi.model.util.ObjectMapperFactory;
+import io.lumify.web.clientapi.model.util.RawJsonValue;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ClientApiConverterTest {
+    private static final String TEXT_PROPERTY_NAME = "http://lumify.io/test#text";
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private Visibility visibility;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations();
+        visibility = new Visibility("");
+    }
+
+    @Test
+    public void testStringThatLooksLikeJsonIsNotParsed() throws Exception {
+        String value = " {\"a\": 1} ";
+        Vertex v = graph.prepareVertex("v1", visibility)
+                .addPropertyValue("k1", TEXT_PROPERTY_NAME, value, visibility)
+                .save(authorizations);
+
+        ClientApiProperty clientApiProperty = ClientApiConverter.toClientApiProperty(v.getProperty("k1", TEXT_PROPERTY_NAME));
+        assertEquals(value, clientApiProperty.getValue());
+        assertEquals(value, toJson(clientApiProperty).getString("value"));
+    }
+
+    @Test
+    public void testJsonPropertyValueIsWrittenAsJson() throws Exception {
+        VisibilityJson visibilityJson = new VisibilityJson();
+        visibilityJson.setSource("a");
+        visibilityJson.addWorkspace("ws1");
+        Vertex v = graph.prepareVertex("v1", visibility)
+                .setProperty(LumifyProperties.VISIBILITY_JSON.getPropertyName(), LumifyProperties.VISIBILITY_JSON.wrap(visibilityJson), visibility)
+                .save(authorizations);
+
+        ClientApiProperty clientApiProperty = ClientApiConverter.toClientApiProperty(LumifyProperties.VISIBILITY_JSON.getProperty(v));
+        JSONObject json = toJson(clientApiProperty).getJSONObject("value");
+        assertEquals("a", json.getString("source"));
+        assertEquals("ws1", json.getJSONArray("workspaces").getString(0));
+
+        VisibilityJson value = (VisibilityJson) clientApiProperty.getValue();
+        assertEquals("a", value.getSource());
+        assertTrue(value.getWorkspaces().contains("ws1"));
+    }
+
+    @Test
+    public void testMetadataConvertedByName() throws Exception {
+        Metadata metadata = new Metadata();
+        LumifyProperties.JUSTIFICATION.setMetadata(metadata, new PropertyJustificationMetadata("because"), visibility);
+        LumifyProperties.META_DATA_TEXT_DESCRIPTION.setMetadata(metadata, "{not json", visibility);
+        metadata.add("http://lumify.io/test#date", new Date(1000L), visibility);
+        Vertex v = graph.prepareVertex("v1", visibility)
+                .addPropertyValue("k1", TEXT_PROPERTY_NAME, "text", metadata, visibility)
+                .save(authorizations);
+
+        ClientApiProperty clientApiProperty = ClientApiConverter.toClientApiProperty(v.getProperty("k1", TEXT_PROPERTY_NAME));
+        Map<String, Object> clientApiMetadata = clientApiProperty.getMetadata();
+        assertTrue(clientApiMetadata.get(LumifyProperties.JUSTIFICATION.getPropertyName()) instanceof RawJsonValue);
+        assertEquals("{not json", clientApiMetadata.get(LumifyProperties.META_DATA_TEXT_DESCRIPTION.getPropertyName()));
+        assertEquals(1000L, clientApiMetadata.get("http://lumify.io/test#date"));
+
+        JSONObject json = toJson(clientApiProperty).getJSONObject("metadata");
+        assertEquals("because", json.getJSONObject(LumifyProperties.JUSTIFICATION.getPropertyName()).getString("justificationText"));
+    }
+
+    @Test
+    public void testJsonPropertyNamesDoNotDependOnClassLoading() {
+        assertTrue(LumifyProperties.isJsonPropertyName("http://lumify.io/user#uiPreferences"));
+        assertTrue(LumifyProperties.isJsonPropertyName(LumifyProperties.VISIBILITY_JSON.getPropertyName()));
+        assertFalse(LumifyProperties.isJsonPropertyName(TEXT_PROPERTY_NAME));
+    }
+
+    private static JSONObject toJson(ClientApiProperty clientApiProperty) throws Exception {
+        return new JSONObject(ObjectMapperFactory.getInstance().writeValueAsString(clientApiProperty));
+    }
+}
@@ -0,0 +1,265 @@
+package io.lumify.core.util;
+
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.model.lock.LocalLockRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.user.InMemoryAuthorizationRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.web.clientapi.model.ClientApiProperty;
+import io.lumify.web.clientapi.model.ClientApiVertex;
+import org.junit.Before;
+import org.junit.Test;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+import org.securegraph.mutation.ExistingElementMutation;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EdgeLabelSummaryTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private static final String OTHER_WORKSPACE_ID = "ws2";
+    private InMemoryGraph graph;
+    private EdgeLabelSummary edgeLabelSummary;
+    private Authorizations authorizations;
+    private Authorizations otherAuthorizations;
+    private Authorizations publicAuthorizations;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        InMemoryAuthorizationRepository authorizationRepository = new InMemoryAuthorizationRepository();
+        authorizationRepository.addAuthorizationToGraph(WORKSPACE_ID, OTHER_WORKSPACE_ID);
+        LocalLockRepository lockRepository = new LocalLockRepository(new HashMapConfigurationLoader(new HashMap()).createConfiguration());
+        edgeLabelSummary = new EdgeLabelSummary(graph, authorizationRepository, lockRepository);
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID);
+        otherAuthorizations = new InMemoryAuthorizations(OTHER_WORKSPACE_ID);
+        publicAuthorizations = new InMemoryAuthorizations();
+        graph.addVertex("v1", new Visibility(""), authorizations);
+        graph.addVertex("v2", new Visibility(""), authorizations);
+        graph.addVertex("v3", new Visibility(""), authorizations);
+    }
+
+    @Test
+    public void testEdgeAdded() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v1", "v3", "knows", "");
+        addEdge("e3", "v2", "v1", "worksFor", WORKSPACE_ID);
+
+        assertEquals(counts("knows", 2, "worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+        assertEquals(counts("knows", 2), getEdgeLabelCounts("v1", publicAuthorizations));
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v2", authorizations));
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v3", authorizations));
+    }
+
+    @Test
+    public void testEdgesAdded() {
+        addEdge("e1", "v1", "v2", "knows", "");
+
+        List<Edge> edges = new ArrayList<>();
+        edges.add(graph.addEdge("e2", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations));
+        edges.add(graph.addEdge("e3", graph.getVertex("v1", authorizations), graph.getVertex("v3", authorizations), "knows", new Visibility(""), authorizations));
+        edges.add(graph.addEdge("e4", graph.getVertex("v1", authorizations), graph.getVertex("v3", authorizations), "worksFor", new Visibility(WORKSPACE_ID), authorizations));
+        edgeLabelSummary.edgesAdded(edges, authorizations);
+
+        assertEquals(counts("knows", 3, "worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+        assertEquals(counts("knows", 3), getEdgeLabelCounts("v1", publicAuthorizations));
+        assertEquals(counts("knows", 2), getEdgeLabelCounts("v2", authorizations));
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v3", authorizations));
+    }
+
+    @Test
+    public void testSaveExistingEdgeIsNotCountedTwice() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        edgeLabelSummary.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testRemoveEdge() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v1", "v3", "knows", "");
+        addEdge("e3", "v1", "v2", "worksFor", "");
+
+        edgeLabelSummary.removeEdge("e2", authorizations);
+        assertNull(graph.getEdge("e2", authorizations));
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+        assertEquals(counts(), getEdgeLabelCounts("v3", authorizations));
+
+        edgeLabelSummary.removeEdge(graph.getEdge("e1", authorizations), authorizations);
+        assertEquals(counts("worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testEdgeVisibilityChanged() {
+        addEdge("e1", "v1", "v2", "knows", WORKSPACE_ID);
+        assertEquals(counts(), getEdgeLabelCounts("v1", publicAuthorizations));
+
+        Edge edge = graph.getEdge("e1", authorizations);
+        Visibility originalVisibility = edge.getVisibility();
+        ExistingElementMutation<Edge> m = edge.prepareMutation();
+        m.alterElementVisibility(new Visibility(""));
+        edge = m.save(authorizations);
+        edgeLabelSummary.edgeVisibilityChanged(edge, originalVisibility, edge.getVisibility(), authorizations);
+
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", publicAuthorizations));
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testFallBackToEdgesWithoutSummary() {
+        graph.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+        Vertex v1 = graph.getVertex("v1", authorizations);
+
+        assertFalse(EdgeLabelSummary.hasSummary(v1));
+        assertNull(EdgeLabelSummary.getEdgeLabelCounts(v1));
+        assertEquals(Arrays.asList("knows"), EdgeLabelSummary.getEdgeLabels(v1, authorizations));
+
+        addEdge("e2", "v1", "v3", "worksFor", "");
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testRebuildCountsTheEdgesOfEveryWorkspace() {
+        graph.addEdge("e1", graph.getVertex("v1", otherAuthorizations), graph.getVertex("v2", otherAuthorizations), "knows", new Visibility(OTHER_WORKSPACE_ID), otherAuthorizations);
+
+        addEdge("e2", "v1", "v3", "worksFor", WORKSPACE_ID);
+
+        assertEquals(counts("worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", otherAuthorizations));
+    }
+
+    @Test
+    public void testRemoveEdgeFromVertexWithoutSummary() {
+        graph.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+        graph.addEdge("e2", graph.getVertex("v1", authorizations), graph.getVertex("v3", authorizations), "worksFor", new Visibility(""), authorizations);
+
+        edgeLabelSummary.removeEdge("e1", authorizations);
+
+        assertEquals(counts("worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+        assertEquals(counts(), getEdgeLabelCounts("v2", authorizations));
+    }
+
+    @Test
+    public void testRemoveVertex() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v3", "v2", "knows", "");
+
+        edgeLabelSummary.removeVertex(graph.getVertex("v1", authorizations), authorizations);
+
+        assertNull(graph.getVertex("v1", authorizations));
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v2", authorizations));
+    }
+
+    @Test
+    public void testHideEdge() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v1", "v3", "worksFor", "");
+
+        edgeLabelSummary.hideEdge(graph.getEdge("e1", authorizations), new Visibility(WORKSPACE_ID), authorizations);
+
+        Vertex v1 = graph.getVertex("v1", authorizations);
+        assertNull(EdgeLabelSummary.getEdgeLabelCounts(v1));
+        assertEquals(Arrays.asList("worksFor"), EdgeLabelSummary.getEdgeLabels(v1, authorizations));
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v1", otherAuthorizations));
+
+        edgeLabelSummary.rebuild(v1);
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v1", otherAuthorizations));
+
+        edgeLabelSummary.unhideEdge(graph.getEdge("e1", FetchHint.ALL_INCLUDING_HIDDEN, authorizations), new Visibility(WORKSPACE_ID), authorizations);
+        assertEquals(counts("knows", 1, "worksFor", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testDriftMarksSummaryStale() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        LumifyProperties.EDGE_LABEL_COUNT.removeProperty(graph.getVertex("v1", authorizations), RowKeyHelper.buildMinor("knows", ""), authorizations);
+
+        edgeLabelSummary.removeEdge("e1", authorizations);
+
+        Vertex v1 = graph.getVertex("v1", authorizations);
+        assertFalse(EdgeLabelSummary.hasSummary(v1));
+        assertEquals(0, EdgeLabelSummary.getEdgeLabels(v1, authorizations).size());
+        assertEquals(counts(), getEdgeLabelCounts("v2", authorizations));
+    }
+
+    @Test
+    public void testInvalidate() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        graph.addEdge("e2", graph.getVertex("v1", authorizations), graph.getVertex("v3", authorizations), "worksFor", new Visibility(""), authorizations);
+
+        ExistingElementMutation<Vertex> m = graph.getVertex("v1", authorizations).prepareMutation();
+        EdgeLabelSummary.invalidate(m);
+        m.save(authorizations);
+
+        Vertex v1 = graph.getVertex("v1", authorizations);
+        assertFalse(EdgeLabelSummary.hasSummary(v1));
+        assertNull(EdgeLabelSummary.getEdgeLabelCounts(v1));
+        assertEquals(new HashSet<>(Arrays.asList("knows", "worksFor")), new HashSet<>(EdgeLabelSummary.getEdgeLabels(v1, authorizations)));
+
+        addEdge("e3", "v1", "v3", "worksFor", "");
+        assertEquals(counts("knows", 1, "worksFor", 2), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testWorkspaceEdgesAreNotCounted() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v2", "v1", WorkspaceRepository.WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, "");
+
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testRebuild() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        Vertex v1 = graph.getVertex("v1", authorizations);
+        LumifyProperties.EDGE_LABEL_COUNT.addPropertyValue(v1, "stale", 5, new Visibility(""), authorizations);
+        assertEquals(counts("knows", 1, "stale", 5), getEdgeLabelCounts("v1", authorizations));
+
+        edgeLabelSummary.rebuild(graph.getVertex("v1", authorizations));
+        assertEquals(counts("knows", 1), getEdgeLabelCounts("v1", authorizations));
+    }
+
+    @Test
+    public void testClientApiVertex() {
+        addEdge("e1", "v1", "v2", "knows", "");
+        addEdge("e2", "v1", "v3", "knows", "");
+
+        ClientApiVertex v = ClientApiConverter.toClientApiVertex(graph.getVertex("v1", authorizations), WORKSPACE_ID, authorizations);
+        assertEquals(Arrays.asList("knows"), v.getEdgeLabels());
+        assertEquals(counts("knows", 2), v.getEdgeLabelCounts());
+        for (ClientApiProperty property : v.getProperties()) {
+            assertFalse(EdgeLabelSummary.isSummaryPropertyName(property.getName()));
+        }
+    }
+
+    @Test
+    public void testProjectedClientApiVertexWithoutSummary() {
+        graph.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+        ElementProjection projection = ElementProjection.properties(Arrays.asList(LumifyProperties.TITLE.getPropertyName()));
+        Vertex v1 = graph.getVertex("v1", projection.getFetchHints(), authorizations);
+
+        ClientApiVertex v = ClientApiConverter.toClientApiVertex(v1, WORKSPACE_ID, projection, authorizations);
+        assertEquals(Arrays.asList("knows"), v.getEdgeLabels());
+        assertEquals(0, v.getEdgeLabelCounts().size());
+    }
+
+    private void addEdge(String edgeId, String outVertexId, String inVertexId, String label, String visibility) {
+        edgeLabelSummary.addEdge(edgeId, graph.getVertex(outVertexId, authorizations), graph.getVertex(inVertexId, authorizations), label, new Visibility(visibility), authorizations);
+    }
+
+    private Map<String, Integer> getEdgeLabelCounts(String vertexId, Authorizations authorizations) {
+        return EdgeLabelSummary.getEdgeLabelCounts(graph.getVertex(vertexId, authorizations));
+    }
+
+    private static Map<String, Integer> counts(Object... labelsAndCounts) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < labelsAndCounts.length; i += 2) {
+            counts.put((String) labelsAndCounts[i], (Integer) labelsAndCounts[i + 1]);
+        }
+        return counts;
+    }
+}
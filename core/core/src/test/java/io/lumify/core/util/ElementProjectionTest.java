@@ -0,0 +1,90 @@
+package io.lumify.core.util;
+
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.web.clientapi.model.ClientApiProperty;
+import io.lumify.web.clientapi.model.ClientApiVertex;
+import org.junit.Before;
+import org.junit.Test;
+import org.securegraph.Authorizations;
+import org.securegraph.FetchHint;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ElementProjectionTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID);
+        Vertex v1 = graph.addVertex("v1", new Visibility(""), authorizations);
+        LumifyProperties.TITLE.setProperty(v1, "Vertex 1", new Visibility(""), authorizations);
+        LumifyProperties.CONCEPT_TYPE.setProperty(v1, "person", new Visibility(""), authorizations);
+        graph.addVertex("v2", new Visibility(""), authorizations);
+        graph.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+    }
+
+    @Test
+    public void testCreate() {
+        assertSame(ElementProjection.EXISTENCE, ElementProjection.create(true, new String[]{"title"}));
+        assertSame(ElementProjection.ALL, ElementProjection.create(false, null));
+        assertSame(ElementProjection.ALL, ElementProjection.create(false, new String[0]));
+
+        ElementProjection projection = ElementProjection.create(false, new String[]{"title"});
+        assertFalse(projection.isAll());
+        assertFalse(projection.isExistenceOnly());
+        assertEquals(Collections.singleton("title"), projection.getPropertyNames());
+    }
+
+    @Test
+    public void testFetchHints() {
+        assertEquals(FetchHint.ALL, ElementProjection.ALL.getFetchHints());
+        assertEquals(EnumSet.of(FetchHint.PROPERTIES, FetchHint.PROPERTY_METADATA), ElementProjection.EXISTENCE.getFetchHints());
+        assertEquals(EnumSet.of(FetchHint.PROPERTIES, FetchHint.PROPERTY_METADATA), ElementProjection.properties(Arrays.asList("title")).getFetchHints());
+    }
+
+    @Test
+    public void testGetVerticesInBatches() {
+        List<String> vertexIds = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            vertexIds.add("missing" + i);
+        }
+        vertexIds.add(0, "v1");
+        vertexIds.add("v2");
+
+        Set<String> found = new HashSet<>();
+        for (Vertex vertex : ElementProjection.EXISTENCE.getVertices(graph, vertexIds, authorizations)) {
+            found.add(vertex.getId());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("v1", "v2")), found);
+    }
+
+    @Test
+    public void testExistenceConversion() {
+        Vertex v1 = ElementProjection.EXISTENCE.getVertices(graph, Arrays.asList("v1"), authorizations).iterator().next();
+        ClientApiVertex clientApiVertex = ClientApiConverter.toClientApiVertex(v1, WORKSPACE_ID, ElementProjection.EXISTENCE, authorizations);
+        assertEquals("v1", clientApiVertex.getId());
+        assertEquals(0, clientApiVertex.getProperties().size());
+        assertEquals(0, clientApiVertex.getEdgeLabels().size());
+    }
+
+    @Test
+    public void testPropertyConversion() {
+        ElementProjection projection = ElementProjection.properties(Arrays.asList(LumifyProperties.TITLE.getPropertyName()));
+        Vertex v1 = projection.getVertices(graph, Arrays.asList("v1"), authorizations).iterator().next();
+        ClientApiVertex clientApiVertex = ClientApiConverter.toClientApiVertex(v1, WORKSPACE_ID, projection, authorizations);
+        assertEquals("v1", clientApiVertex.getId());
+        assertEquals(1, clientApiVertex.getProperties().size());
+        ClientApiProperty property = clientApiVertex.getProperties().get(0);
+        assertEquals(LumifyProperties.TITLE.getPropertyName(), property.getName());
+        assertEquals("Vertex 1", property.getValue());
+    }
+}
@@ -0,0 +1,142 @@
+package io.lumify.core.util;
+
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.web.clientapi.model.SandboxStatus;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import org.junit.Before;
+import org.junit.Test;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.securegraph.util.IterableUtils.toList;
+
+public class GraphUtilTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private static final String OTHER_WORKSPACE_ID = "ws2";
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID, OTHER_WORKSPACE_ID);
+    }
+
+    @Test
+    public void testGetPropertySandboxStatusesPublic() {
+        Vertex v = graph.prepareVertex("v1", new Visibility(""))
+                .addPropertyValue("k1", "name", "value1", createMetadata("source", null), new Visibility(""))
+                .save(authorizations);
+        List<Property> properties = toList(v.getProperties());
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, WORKSPACE_ID);
+        assertArrayEquals(new SandboxStatus[]{SandboxStatus.PUBLIC}, sandboxStatuses);
+    }
+
+    @Test
+    public void testGetPropertySandboxStatusesPrivateAndPublicChanged() {
+        Vertex v = graph.prepareVertex("v1", new Visibility(""))
+                .addPropertyValue("k1", "name", "public", createMetadata("source", null), new Visibility(""))
+                .addPropertyValue("k1", "name", "changed", createMetadata("source", WORKSPACE_ID), new Visibility(WORKSPACE_ID))
+                .addPropertyValue("k1", "name", "otherSource", createMetadata("otherSource", WORKSPACE_ID), new Visibility(WORKSPACE_ID + "|" + OTHER_WORKSPACE_ID))
+                .addPropertyValue("k2", "name", "private", createMetadata("source", WORKSPACE_ID), new Visibility(WORKSPACE_ID))
+                .save(authorizations);
+        List<Property> properties = toList(v.getProperties());
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, WORKSPACE_ID);
+        for (int i = 0; i < properties.size(); i++) {
+            Object value = properties.get(i).getValue();
+            if ("public".equals(value)) {
+                assertEquals(SandboxStatus.PUBLIC, sandboxStatuses[i]);
+            } else if ("changed".equals(value)) {
+                assertEquals(SandboxStatus.PUBLIC_CHANGED, sandboxStatuses[i]);
+            } else {
+                assertEquals(value.toString(), SandboxStatus.PRIVATE, sandboxStatuses[i]);
+            }
+        }
+
+        sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, OTHER_WORKSPACE_ID);
+        for (SandboxStatus sandboxStatus : sandboxStatuses) {
+            assertEquals(SandboxStatus.PUBLIC, sandboxStatus);
+        }
+    }
+
+    @Test
+    public void testGetPropertySandboxStatusesPublicWithoutVisibilityJson() {
+        Vertex v = graph.prepareVertex("v1", new Visibility(""))
+                .addPropertyValue("k1", "name", "public", new Metadata(), new Visibility(""))
+                .addPropertyValue("k1", "name", "changed", createMetadata("otherSource", WORKSPACE_ID), new Visibility(WORKSPACE_ID))
+                .save(authorizations);
+        List<Property> properties = toList(v.getProperties());
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, WORKSPACE_ID);
+        for (int i = 0; i < properties.size(); i++) {
+            SandboxStatus expected = "public".equals(properties.get(i).getValue()) ? SandboxStatus.PUBLIC : SandboxStatus.PUBLIC_CHANGED;
+            assertEquals(expected, sandboxStatuses[i]);
+        }
+    }
+
+    @Test
+    public void testGetPropertySandboxStatusesMatchesPairwiseComparison() {
+        Random random = new Random(1234);
+        String[] sources = new String[]{"a", "b", "c"};
+        String[] visibilities = new String[]{"", WORKSPACE_ID, OTHER_WORKSPACE_ID, WORKSPACE_ID + "|" + OTHER_WORKSPACE_ID};
+        for (int elementIndex = 0; elementIndex < 50; elementIndex++) {
+            ElementBuilder<Vertex> vertexBuilder = graph.prepareVertex("v" + elementIndex, new Visibility(""));
+            for (int propertyIndex = 0; propertyIndex < 30; propertyIndex++) {
+                String visibility = visibilities[random.nextInt(visibilities.length)];
+                String workspaceId = visibility.length() == 0 ? null : visibility.split("\\|")[0];
+                Metadata metadata = random.nextInt(5) == 0 ? new Metadata() : createMetadata(sources[random.nextInt(sources.length)], workspaceId);
+                vertexBuilder.addPropertyValue("k" + random.nextInt(3), "name" + random.nextInt(2), "value" + propertyIndex, metadata, new Visibility(visibility));
+            }
+            List<Property> properties = toList(vertexBuilder.save(authorizations).getProperties());
+            assertArrayEquals(
+                    getPropertySandboxStatusesPairwise(properties, WORKSPACE_ID),
+                    GraphUtil.getPropertySandboxStatuses(properties, WORKSPACE_ID)
+            );
+        }
+    }
+
+    private static Metadata createMetadata(String source, String workspaceId) {
+        VisibilityJson visibilityJson = new VisibilityJson();
+        visibilityJson.setSource(source);
+        if (workspaceId != null) {
+            visibilityJson.addWorkspace(workspaceId);
+        }
+        Metadata metadata = new Metadata();
+        LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, visibilityJson, new Visibility(""));
+        return metadata;
+    }
+
+    private static SandboxStatus[] getPropertySandboxStatusesPairwise(List<Property> properties, String workspaceId) {
+        SandboxStatus[] sandboxStatuses = new SandboxStatus[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(properties.get(i).getMetadata());
+            sandboxStatuses[i] = GraphUtil.getSandboxStatusFromVisibilityJsonString(visibilityJson, workspaceId);
+        }
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            if (sandboxStatuses[i] != SandboxStatus.PRIVATE) {
+                continue;
+            }
+            VisibilityJson propertyVisibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(property.getMetadata());
+            for (int j = 0; j < properties.size(); j++) {
+                Property p = properties.get(j);
+                VisibilityJson pVisibilityJson = LumifyProperties.VISIBILITY_JSON.getMetadataValue(p.getMetadata());
+                if (i == j) {
+                    continue;
+                }
+                if (sandboxStatuses[j] == SandboxStatus.PUBLIC &&
+                        property.getName().equals(p.getName()) &&
+                        property.getKey().equals(p.getKey()) &&
+                        (propertyVisibilityJson == null || pVisibilityJson == null || (propertyVisibilityJson.getSource().equals(pVisibilityJson.getSource())))) {
+                    sandboxStatuses[i] = SandboxStatus.PUBLIC_CHANGED;
+                }
+            }
+        }
+        return sandboxStatuses;
+    }
+}
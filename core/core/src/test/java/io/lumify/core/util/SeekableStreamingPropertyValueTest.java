@@ -0,0 +1,135 @@
+package io.lumify.core.util;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.securegraph.property.StreamingPropertyValue;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class SeekableStreamingPropertyValueTest {
+    private static final int LENGTH = 1024 * 1024;
+    private static final int BUFFER_SIZE = 4096;
+    private byte[] data;
+    private int openCount;
+    private long bytesRead;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        data = new byte[LENGTH];
+        new Random(42).nextBytes(data);
+        file = File.createTempFile("seekableStreamingPropertyValueTest", ".bin");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testInMemoryRangeDoesNotReadPrecedingBytes() throws IOException {
+        try (SeekableStreamingPropertyValue value = new SeekableStreamingPropertyValue(createInMemoryValue(), BUFFER_SIZE)) {
+            assertRange(value, LENGTH - 10, 10);
+            assertEquals(10, bytesRead);
+
+            assertRange(value, 100, 2 * BUFFER_SIZE + 1);
+            assertRange(value, LENGTH / 2, 10);
+            assertEquals(10 + 2 * BUFFER_SIZE + 1 + 10, bytesRead);
+            assertEquals("moving backwards doesn't reopen the value", 1, openCount);
+
+            assertEquals(data[500] & 0xff, value.getInputStream(500).read());
+        }
+    }
+
+    @Test
+    public void testLocalFileSystemRanges() throws IOException {
+        try (SeekableStreamingPropertyValue value = new SeekableStreamingPropertyValue(createLocalFileSystemValue(), BUFFER_SIZE)) {
+            assertRange(value, LENGTH - 10, 10);
+            assertRange(value, 0, 3 * BUFFER_SIZE);
+            assertRange(value, LENGTH - 3 * BUFFER_SIZE - 7, 3 * BUFFER_SIZE + 7);
+            assertRange(value, 12345, 1);
+            assertRange(value, 1000, 20 * BUFFER_SIZE);
+            assertEquals(1, openCount);
+
+            assertEquals(data[LENGTH - 1] & 0xff, value.getInputStream(LENGTH - 1).read());
+        }
+    }
+
+    @Test
+    public void testUnseekableStreamIsReopened() throws IOException {
+        StreamingPropertyValue streamingPropertyValue = mock(StreamingPropertyValue.class);
+        when(streamingPropertyValue.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                openCount++;
+                return new BufferedInputStream(new FileInputStream(file));
+            }
+        });
+
+        try (SeekableStreamingPropertyValue value = new SeekableStreamingPropertyValue(streamingPropertyValue, BUFFER_SIZE)) {
+            assertRange(value, 5000, 10);
+            assertRange(value, 6000, 10);
+            assertEquals(1, openCount);
+            assertRange(value, 10, 10);
+            assertEquals(2, openCount);
+        }
+    }
+
+    private void assertRange(SeekableStreamingPropertyValue value, long start, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        value.copyRange(start, length, out);
+        assertArrayEquals(Arrays.copyOfRange(data, (int) start, (int) start + length), out.toByteArray());
+    }
+
+    private StreamingPropertyValue createInMemoryValue() {
+        StreamingPropertyValue value = mock(StreamingPropertyValue.class);
+        when(value.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                openCount++;
+                return new ByteArrayInputStream(data) {
+                    @Override
+                    public synchronized int read(byte[] b, int off, int len) {
+                        int read = super.read(b, off, len);
+                        bytesRead += Math.max(0, read);
+                        return read;
+                    }
+                };
+            }
+        });
+        return value;
+    }
+
+    private StreamingPropertyValue createLocalFileSystemValue() throws IOException {
+        final FileSystem fs = FileSystem.getLocal(new Configuration());
+        final Path path = new Path(file.getAbsolutePath());
+        StreamingPropertyValue value = mock(StreamingPropertyValue.class);
+        when(value.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                openCount++;
+                return fs.open(path);
+            }
+        });
+        return value;
+    }
+}
@@ -23,6 +23,7 @@ public class BigTableSystemNotification extends Row<SystemNotificationRowKey> im
     public static final String ACTION_PAYLOAD_COLUMN_NAME = "actionPayload";
     public static final String START_DATE_COLUMN_NAME = "startDate";
     public static final String END_DATE_COLUMN_NAME = "endDate";
+    public static final String INDEX_KEY_COLUMN_NAME = "indexKey";
 
     public BigTableSystemNotification(SystemNotificationRowKey rowKey) {
         super(TABLE_NAME, rowKey);
@@ -34,7 +35,33 @@ public class BigTableSystemNotification extends Row<SystemNotificationRowKey> im
 
     @Override
     public String getId() {
-        return getRowKey().getRowKey();
+        return getRowKey().getNotificationId();
+    }
+
+    /**
+     * Sets the row key of the index row copying this notification, so the index row can be removed when the end date
+     * moves it to another bucket.
+     */
+    public void setIndexKey(String indexKey) {
+        getColumnFamily().set(INDEX_KEY_COLUMN_NAME, indexKey);
+    }
+
+    public String getIndexKey() {
+        return Value.toString(getColumnFamily().get(INDEX_KEY_COLUMN_NAME));
+    }
+
+    /**
+     * Copies this notification to a row with the given key, such as its index row or, from an index row, its data row.
+     */
+    public BigTableSystemNotification copy(SystemNotificationRowKey rowKey) {
+        BigTableSystemNotification copy = new BigTableSystemNotification(rowKey);
+        ColumnFamily copyColumnFamily = copy.getColumnFamily();
+        for (Column column : getColumnFamily().getColumns()) {
+            if (column.getValue() != null) {
+                copyColumnFamily.set(column.getName(), column.getValue().toBytes());
+            }
+        }
+        return copy;
     }
 
     public void setSeverity(SystemNotificationSeverity severity) {
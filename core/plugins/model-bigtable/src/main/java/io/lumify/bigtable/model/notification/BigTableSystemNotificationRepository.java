@@ -2,6 +2,7 @@ package io.lumify.bigtable.model.notification;
 
 import com.altamiracorp.bigtable.model.FlushFlag;
 import com.altamiracorp.bigtable.model.ModelSession;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
 import com.google.inject.Inject;
 import io.lumify.bigtable.model.notification.model.SystemNotificationRowKey;
 import io.lumify.core.model.lock.LockRepository;
@@ -15,14 +16,21 @@ import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Each notification is stored under its id and copied to an index row keyed by the day it ends (see
+ * {@link SystemNotificationRowKey}), so the active and future notifications are read with one range scan over the
+ * notifications that haven't ended instead of a scan of every notification ever sent. Notifications that ended
+ * before the current day are deleted the first time a query runs in a new day.
+ */
 public class BigTableSystemNotificationRepository extends SystemNotificationRepository {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(BigTableSystemNotificationRepository.class);
     private io.lumify.bigtable.model.notification.model.SystemNotificationRepository repository;
+    private final AtomicBoolean indexed = new AtomicBoolean();
+    private final AtomicLong compactedBucket = new AtomicLong();
 
     @Inject
     public BigTableSystemNotificationRepository(ModelSession modelSession,
@@ -37,7 +45,7 @@ public class BigTableSystemNotificationRepository extends SystemNotificationRepo
     public List<SystemNotification> getActiveNotifications(User user) {
         Date now = new Date();
         List<SystemNotification> activeNotifications = new ArrayList<SystemNotification>();
-        for (SystemNotification notification : repository.findAll(user.getModelUserContext())) {
+        for (SystemNotification notification : findNotEnded(now, user.getModelUserContext())) {
             if (notification.getStartDate().before(now)) {
                 if (notification.getEndDate() == null || notification.getEndDate().after(now)) {
                     activeNotifications.add(notification);
@@ -52,7 +60,7 @@ public class BigTableSystemNotificationRepository extends SystemNotificationRepo
     public List<SystemNotification> getFutureNotifications(Date maxDate, User user) {
         Date now = new Date();
         List<SystemNotification> futureNotifications = new ArrayList<SystemNotification>();
-        for (SystemNotification notification : repository.findAll(user.getModelUserContext())) {
+        for (SystemNotification notification : findNotEnded(now, user.getModelUserContext())) {
             if (notification.getStartDate().after(now) && notification.getStartDate().before(maxDate)) {
                 futureNotifications.add(notification);
             }
@@ -61,6 +69,61 @@ public class BigTableSystemNotificationRepository extends SystemNotificationRepo
         return futureNotifications;
     }
 
+    private Collection<BigTableSystemNotification> findNotEnded(Date now, ModelUserContext modelUserContext) {
+        indexExisting(modelUserContext);
+        compactEnded(now.getTime(), modelUserContext);
+
+        // an update writes the new index row before removing the old one, so a notification may be seen twice
+        Map<String, BigTableSystemNotification> notifications = new LinkedHashMap<String, BigTableSystemNotification>();
+        for (BigTableSystemNotification notification : repository.findIndexedNotEnded(now.getTime(), modelUserContext)) {
+            notifications.put(notification.getId(), notification);
+        }
+        return notifications.values();
+    }
+
+    /**
+     * Indexes the notifications written before notifications were indexed by end date, once per process.
+     */
+    private void indexExisting(ModelUserContext modelUserContext) {
+        if (indexed.get()) {
+            return;
+        }
+        synchronized (indexed) {
+            if (indexed.get()) {
+                return;
+            }
+            int count = 0;
+            for (BigTableSystemNotification notification : repository.findAll(modelUserContext)) {
+                if (!notification.getRowKey().isIndexKey() && notification.getIndexKey() == null) {
+                    save(notification, null);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                LOGGER.info("indexed %d existing system notifications", count);
+            }
+            indexed.set(true);
+        }
+    }
+
+    /**
+     * Deletes the notifications that ended before the current bucket, once per bucket.
+     */
+    private void compactEnded(long now, ModelUserContext modelUserContext) {
+        long bucket = now - (now % SystemNotificationRowKey.BUCKET_MILLIS);
+        long lastBucket = compactedBucket.get();
+        if (lastBucket >= bucket || !compactedBucket.compareAndSet(lastBucket, bucket)) {
+            return;
+        }
+        int count = 0;
+        for (BigTableSystemNotification notification : repository.findIndexedEnded(now, modelUserContext)) {
+            repository.delete(new SystemNotificationRowKey(notification.getId()));
+            repository.delete(notification.getRowKey());
+            count++;
+        }
+        LOGGER.debug("deleted %d ended system notifications", count);
+    }
+
     @Override
     public SystemNotification getNotification(String rowKey, User user) {
         return repository.findByRowKey(rowKey, user.getModelUserContext());
@@ -71,7 +134,7 @@ public class BigTableSystemNotificationRepository extends SystemNotificationRepo
         if (startDate == null) {
             startDate = new Date();
         }
-        String rowKey = Long.toString(startDate.getTime()) + ":" + UUID.randomUUID().toString();
+        String rowKey = UUID.randomUUID().toString();
         BigTableSystemNotification notification = new BigTableSystemNotification(new SystemNotificationRowKey(rowKey));
         notification.setSeverity(severity);
         notification.setTitle(title);
@@ -84,19 +147,38 @@ public class BigTableSystemNotificationRepository extends SystemNotificationRepo
         if (actionPayload != null) {
             notification.setActionPayload(actionPayload);
         }
-        repository.save(notification, FlushFlag.FLUSH);
-        return notification;
+        return save(notification, null);
     }
 
     @Override
     public SystemNotification updateNotification(SystemNotification notification) {
-        repository.save((BigTableSystemNotification) notification, FlushFlag.FLUSH);
-        return notification;
+        return save((BigTableSystemNotification) notification, ((BigTableSystemNotification) notification).getIndexKey());
     }
 
     @Override
     public void endNotification(SystemNotification notification) {
         notification.setEndDate(new Date());
-        repository.save((BigTableSystemNotification) notification, FlushFlag.FLUSH);
+        save((BigTableSystemNotification) notification, ((BigTableSystemNotification) notification).getIndexKey());
+    }
+
+    /**
+     * Writes the notification's index row before its data row so a reader never finds a data row whose index row is
+     * missing, then deletes the index row it replaced when the end date moved it to another bucket.
+     */
+    private BigTableSystemNotification save(BigTableSystemNotification notification, String oldIndexKey) {
+        Date endDate = notification.getEndDate();
+        SystemNotificationRowKey indexKey = SystemNotificationRowKey.buildIndexKey(endDate == null ? null : endDate.getTime(), notification.getId());
+        notification.setIndexKey(indexKey.getRowKey());
+        BigTableSystemNotification dataRow = notification;
+        if (notification.getRowKey().isIndexKey()) {
+            dataRow = notification.copy(new SystemNotificationRowKey(notification.getId()));
+        }
+
+        repository.save(dataRow.copy(indexKey), FlushFlag.NO_FLUSH);
+        repository.save(dataRow, FlushFlag.FLUSH);
+        if (oldIndexKey != null && !oldIndexKey.equals(indexKey.getRowKey())) {
+            repository.delete(new SystemNotificationRowKey(oldIndexKey));
+        }
+        return dataRow;
     }
-}
\ No newline at end of file
+}
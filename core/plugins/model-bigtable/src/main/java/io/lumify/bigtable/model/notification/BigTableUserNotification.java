@@ -136,9 +136,9 @@ public class BigTableUserNotification extends Row<UserNotificationRowKey> implem
     @Override
     public ExpirationAge getExpirationAge() {
         Integer amount = Value.toInteger(getColumnFamily().get(EXPIRATION_AGE_AMOUNT_COLUMN_NAME));
-        ExpirationAgeUnit unit = ExpirationAgeUnit.valueOf(Value.toString(getColumnFamily().get(EXPIRATION_AGE_UNIT_COLUMN_NAME)));
+        String unit = Value.toString(getColumnFamily().get(EXPIRATION_AGE_UNIT_COLUMN_NAME));
         if (unit != null && amount != null) {
-            return new ExpirationAge(amount, unit);
+            return new ExpirationAge(amount, ExpirationAgeUnit.valueOf(unit));
         }
         return null;
     }
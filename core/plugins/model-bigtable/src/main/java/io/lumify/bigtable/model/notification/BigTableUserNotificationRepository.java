@@ -2,6 +2,7 @@ package io.lumify.bigtable.model.notification;
 
 import com.altamiracorp.bigtable.model.FlushFlag;
 import com.altamiracorp.bigtable.model.ModelSession;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
 import com.google.inject.Inject;
 import io.lumify.bigtable.model.notification.model.UserNotificationRowKey;
 import io.lumify.core.exception.LumifyException;
@@ -27,32 +28,101 @@ public class BigTableUserNotificationRepository extends UserNotificationReposito
         this.workQueueRepository = workQueueRepository;
     }
 
+    /**
+     * Scans only the user's rows. Rows are ordered by expiration, so the expired ones met at the start of the scan are
+     * deleted as they are read rather than filtered on every request.
+     */
     @Override
     public List<UserNotification> getActiveNotifications(User user) {
         Date now = new Date();
         List<UserNotification> activeNotifications = new ArrayList<UserNotification>();
-        for (UserNotification notification : repository.findAll(user.getModelUserContext())) {
-            if (user.getUserId().equals(notification.getUserId()) &&
-                    notification.getSentDate().before(now) &&
-                    notification.isActive()) {
+        List<BigTableUserNotification> expiredNotifications = new ArrayList<BigTableUserNotification>();
+        for (BigTableUserNotification notification : repository.findByUserId(user.getUserId(), user.getModelUserContext())) {
+            if (notification.getRowKey().getExpirationTime() < now.getTime()) {
+                expiredNotifications.add(notification);
+                continue;
+            }
+            if (!notification.getSentDate().after(now) && notification.isActive()) {
                 activeNotifications.add(notification);
             }
         }
-        LOGGER.debug("returning %d active user notifications", activeNotifications.size());
+        for (BigTableUserNotification expiredNotification : expiredNotifications) {
+            repository.delete(expiredNotification.getRowKey());
+        }
+        LOGGER.debug("returning %d active user notifications (%d expired removed)", activeNotifications.size(), expiredNotifications.size());
         return activeNotifications;
     }
 
+    /**
+     * Rewrites the notifications written before notifications were keyed by user under their user keyed row. The old
+     * row key does not hold the user, so the old rows can only be found by scanning the table, which is left to
+     * {@link MigrateUserNotifications} rather than done on a user's request.
+     *
+     * @return the number of notifications migrated
+     */
+    public int migrateLegacyNotifications(ModelUserContext modelUserContext) {
+        List<BigTableUserNotification> legacyNotifications = new ArrayList<BigTableUserNotification>();
+        for (BigTableUserNotification notification : repository.findAll(modelUserContext)) {
+            if (notification.getRowKey().getUserId() == null) {
+                legacyNotifications.add(notification);
+            }
+        }
+        for (BigTableUserNotification legacyNotification : legacyNotifications) {
+            repository.save(toUserKeyedNotification(legacyNotification), FlushFlag.FLUSH);
+            repository.delete(legacyNotification.getRowKey());
+        }
+        return legacyNotifications.size();
+    }
+
+    private static BigTableUserNotification toUserKeyedNotification(BigTableUserNotification legacyNotification) {
+        String legacyRowKey = legacyNotification.getRowKey().getRowKey();
+        String notificationId = legacyRowKey.substring(legacyRowKey.indexOf(':') + 1);
+        ExpirationAge expirationAge = legacyNotification.getExpirationAge();
+        UserNotificationRowKey rowKey = new UserNotificationRowKey(
+                legacyNotification.getUserId(),
+                getExpirationTime(legacyNotification.getSentDate(), expirationAge),
+                notificationId
+        );
+        BigTableUserNotification notification = new BigTableUserNotification(rowKey);
+        notification.setUserId(legacyNotification.getUserId());
+        notification.setSentDate(legacyNotification.getSentDate());
+        notification.setTitle(legacyNotification.getTitle());
+        notification.setMessage(legacyNotification.getMessage());
+        if (legacyNotification.getActionEvent() != null) {
+            notification.setActionEvent(legacyNotification.getActionEvent());
+        }
+        if (legacyNotification.getActionPayload() != null) {
+            notification.setActionPayload(legacyNotification.getActionPayload());
+        }
+        notification.setMarkedRead(legacyNotification.isMarkedRead());
+        notification.setExpirationAge(expirationAge);
+        return notification;
+    }
+
     @Override
     public void markRead(String[] rowKeys, User user) {
         Collection<BigTableUserNotification> toSave = new ArrayList<BigTableUserNotification>();
         for (String rowKey : rowKeys) {
-            UserNotification notification = getNotification(rowKey, user);
-            if (notification.getUserId().equals(user.getUserId())) {
+            String keyUserId = new UserNotificationRowKey(rowKey).getUserId();
+            if (keyUserId != null && !keyUserId.equals(user.getUserId())) {
+                throw new LumifyException("User cannot mark notifications read that aren't issued to them");
+            }
+            BigTableUserNotification notification = repository.findByRowKey(rowKey, user.getModelUserContext());
+            if (notification == null) {
+                LOGGER.debug("notification %s no longer exists", rowKey);
+                continue;
+            }
+            if (!user.getUserId().equals(notification.getUserId())) {
+                throw new LumifyException("User cannot mark notifications read that aren't issued to them");
+            }
+            if (!notification.isMarkedRead()) {
                 notification.setMarkedRead(true);
-                toSave.add((BigTableUserNotification) notification);
-            } else throw new LumifyException("User cannot mark notifications read that aren't issued to them");
+                toSave.add(notification);
+            }
+        }
+        if (toSave.size() > 0) {
+            repository.saveMany(toSave);
         }
-        repository.saveMany(toSave);
     }
 
     @Override
@@ -63,12 +133,12 @@ public class BigTableUserNotificationRepository extends UserNotificationReposito
     @Override
     public BigTableUserNotification createNotification(String user, String title, String message, String actionEvent, JSONObject actionPayload, ExpirationAge expirationAge) {
         Date now = new Date();
-        String rowKey = Long.toString(now.getTime()) + ":" + UUID.randomUUID().toString();
-        BigTableUserNotification notification = new BigTableUserNotification(new UserNotificationRowKey(rowKey));
+        UserNotificationRowKey rowKey = new UserNotificationRowKey(user, getExpirationTime(now, expirationAge), UUID.randomUUID().toString());
+        BigTableUserNotification notification = new BigTableUserNotification(rowKey);
         notification.setUserId(user);
+        notification.setSentDate(now);
         notification.setTitle(title);
         notification.setMessage(message);
-        notification.setSentDate(now);
         if (actionEvent != null) {
             notification.setActionEvent(actionEvent);
         }
@@ -84,4 +154,14 @@ public class BigTableUserNotificationRepository extends UserNotificationReposito
         workQueueRepository.pushUserNotification(notification);
         return notification;
     }
-}
\ No newline at end of file
+
+    private static long getExpirationTime(Date sentDate, ExpirationAge expirationAge) {
+        if (expirationAge == null) {
+            return Long.MAX_VALUE;
+        }
+        Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.setTime(sentDate);
+        cal.add(expirationAge.getExpirationAgeUnit().getCalendarUnit(), expirationAge.getAmount());
+        return cal.getTimeInMillis();
+    }
+}
@@ -0,0 +1,34 @@
+package io.lumify.bigtable.model.notification;
+
+import com.altamiracorp.bigtable.model.ModelSession;
+import com.google.inject.Inject;
+import io.lumify.core.cmdline.CommandLineBase;
+import org.apache.commons.cli.CommandLine;
+
+/**
+ * Moves the user notifications written before notifications were keyed by user to user keyed rows, with the system
+ * user's context. Run it once after upgrading; notifications left in the old rows aren't shown to their users.
+ */
+public class MigrateUserNotifications extends CommandLineBase {
+    private ModelSession modelSession;
+
+    public static void main(String[] args) throws Exception {
+        int res = new MigrateUserNotifications().run(args);
+        if (res != 0) {
+            System.exit(res);
+        }
+    }
+
+    @Override
+    protected int run(CommandLine cmd) throws Exception {
+        BigTableUserNotificationRepository userNotificationRepository = new BigTableUserNotificationRepository(modelSession, getWorkQueueRepository());
+        int migratedCount = userNotificationRepository.migrateLegacyNotifications(getModelUserContext());
+        LOGGER.info("migrated %d user notifications", migratedCount);
+        return 0;
+    }
+
+    @Inject
+    public void setModelSession(ModelSession modelSession) {
+        this.modelSession = modelSession;
+    }
+}
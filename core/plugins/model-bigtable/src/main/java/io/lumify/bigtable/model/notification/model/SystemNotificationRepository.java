@@ -1,6 +1,7 @@
 package io.lumify.bigtable.model.notification.model;
 
 import com.altamiracorp.bigtable.model.*;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
 import io.lumify.bigtable.model.notification.BigTableSystemNotification;
 import io.lumify.core.model.notification.SystemNotificationSeverity;
 import org.json.JSONObject;
@@ -12,6 +13,20 @@ public class SystemNotificationRepository extends Repository<BigTableSystemNotif
         super(modelSession);
     }
 
+    /**
+     * @return the index rows of notifications that haven't ended or ended in the current bucket.
+     */
+    public Iterable<BigTableSystemNotification> findIndexedNotEnded(long now, ModelUserContext modelUserContext) {
+        return findByRowKeyRange(SystemNotificationRowKey.buildBucketStartKey(now), SystemNotificationRowKey.buildIndexEndKey(), modelUserContext);
+    }
+
+    /**
+     * @return the index rows of notifications that ended before the current bucket.
+     */
+    public Iterable<BigTableSystemNotification> findIndexedEnded(long now, ModelUserContext modelUserContext) {
+        return findByRowKeyRange(SystemNotificationRowKey.buildIndexStartKey(), SystemNotificationRowKey.buildBucketStartKey(now), modelUserContext);
+    }
+
     @Override
     public BigTableSystemNotification fromRow(Row row) {
         BigTableSystemNotification notification = new BigTableSystemNotification(new SystemNotificationRowKey(row.getRowKey().getRowKey()));
@@ -19,7 +34,10 @@ public class SystemNotificationRepository extends Repository<BigTableSystemNotif
         notification.setSeverity(SystemNotificationSeverity.valueOf(Value.toString(cf.get(BigTableSystemNotification.SEVERITY_COLUMN_NAME))));
         notification.setTitle(Value.toString(cf.get(BigTableSystemNotification.TITLE_COLUMN_NAME)));
         notification.setMessage(Value.toString(cf.get(BigTableSystemNotification.MESSAGE_COLUMN_NAME)));
-        notification.setActionEvent(Value.toString(cf.get(BigTableSystemNotification.ACTION_EVENT_COLUMN_NAME)));
+        String actionEvent = Value.toString(cf.get(BigTableSystemNotification.ACTION_EVENT_COLUMN_NAME));
+        if (actionEvent != null) {
+            notification.setActionEvent(actionEvent);
+        }
 
         String payloadData = Value.toString(cf.get(BigTableSystemNotification.ACTION_PAYLOAD_COLUMN_NAME));
         if (payloadData != null) {
@@ -31,6 +49,10 @@ public class SystemNotificationRepository extends Repository<BigTableSystemNotif
         if (endDate != null) {
             notification.setEndDate(new Date(endDate));
         }
+        String indexKey = Value.toString(cf.get(BigTableSystemNotification.INDEX_KEY_COLUMN_NAME));
+        if (indexKey != null) {
+            notification.setIndexKey(indexKey);
+        }
         return notification;
     }
 
@@ -1,10 +1,69 @@
 package io.lumify.bigtable.model.notification.model;
 
 import com.altamiracorp.bigtable.model.RowKey;
+import io.lumify.core.util.RowKeyHelper;
 
+/**
+ * Row key for a system notification. A notification is stored under its id and copied to an index row ordered by
+ * the time bucket it ends in, so the notifications that haven't ended are one range scan starting at the current
+ * bucket. Index row keys start with the major field separator, which sorts them before every id.
+ */
 public class SystemNotificationRowKey extends RowKey {
+    public static final long BUCKET_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long NO_END_BUCKET = Long.MAX_VALUE;
 
     public SystemNotificationRowKey(String rowKey) {
         super(rowKey);
     }
+
+    public static SystemNotificationRowKey buildIndexKey(Long endTime, String notificationId) {
+        return new SystemNotificationRowKey(buildBucketKey(getBucket(endTime)) + RowKeyHelper.MAJOR_FIELD_SEPARATOR + notificationId);
+    }
+
+    /**
+     * The smallest index row key of notifications ending in the bucket holding time.
+     */
+    public static String buildBucketStartKey(long time) {
+        return buildBucketKey(getBucket(time));
+    }
+
+    /**
+     * A row key less than every index row key.
+     */
+    public static String buildIndexStartKey() {
+        return "" + RowKeyHelper.MAJOR_FIELD_SEPARATOR;
+    }
+
+    /**
+     * A row key greater than every index row key.
+     */
+    public static String buildIndexEndKey() {
+        return RowKeyHelper.MAJOR_FIELD_SEPARATOR + "~";
+    }
+
+    private static String buildBucketKey(long bucket) {
+        return RowKeyHelper.MAJOR_FIELD_SEPARATOR + UserNotificationRowKey.padTime(bucket);
+    }
+
+    private static long getBucket(Long time) {
+        if (time == null) {
+            return NO_END_BUCKET;
+        }
+        return time - (time % BUCKET_MILLIS);
+    }
+
+    public boolean isIndexKey() {
+        return getRowKey().charAt(0) == RowKeyHelper.MAJOR_FIELD_SEPARATOR;
+    }
+
+    /**
+     * @return the id of the notification this row is stored under or indexes.
+     */
+    public String getNotificationId() {
+        if (isIndexKey()) {
+            String rowKey = getRowKey();
+            return rowKey.substring(rowKey.lastIndexOf(RowKeyHelper.MAJOR_FIELD_SEPARATOR) + 1);
+        }
+        return getRowKey();
+    }
 }
@@ -1,6 +1,7 @@
 package io.lumify.bigtable.model.notification.model;
 
 import com.altamiracorp.bigtable.model.*;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
 import io.lumify.bigtable.model.notification.BigTableUserNotification;
 import io.lumify.core.model.notification.ExpirationAge;
 import io.lumify.core.model.notification.ExpirationAgeUnit;
@@ -13,6 +14,13 @@ public class UserNotificationRepository extends Repository<BigTableUserNotificat
         super(modelSession);
     }
 
+    /**
+     * @return the user's notifications ordered by the time they expire.
+     */
+    public Iterable<BigTableUserNotification> findByUserId(String userId, ModelUserContext modelUserContext) {
+        return findByRowKeyRange(UserNotificationRowKey.buildUserStartKey(userId), UserNotificationRowKey.buildUserEndKey(userId), modelUserContext);
+    }
+
     @Override
     public BigTableUserNotification fromRow(Row row) {
         BigTableUserNotification notification = new BigTableUserNotification(new UserNotificationRowKey(row.getRowKey().getRowKey()));
@@ -1,10 +1,52 @@
 package io.lumify.bigtable.model.notification.model;
 
 import com.altamiracorp.bigtable.model.RowKey;
+import io.lumify.core.util.RowKeyHelper;
+import org.apache.commons.lang.StringUtils;
 
+/**
+ * Row key for a user notification. Rows are ordered by user and then by the time the notification expires, so a
+ * user's notifications are one range scan and the expired ones are at the start of it.
+ */
 public class UserNotificationRowKey extends RowKey {
+    private static final int TIME_WIDTH = 19;
 
     public UserNotificationRowKey(String rowKey) {
         super(rowKey);
     }
+
+    public UserNotificationRowKey(String userId, long expirationTime, String notificationId) {
+        super(RowKeyHelper.buildMajor(userId, padTime(expirationTime), notificationId));
+    }
+
+    /**
+     * The smallest row key of the user's notifications.
+     */
+    public static String buildUserStartKey(String userId) {
+        return userId + RowKeyHelper.MAJOR_FIELD_SEPARATOR;
+    }
+
+    /**
+     * A row key greater than all of the user's notifications.
+     */
+    public static String buildUserEndKey(String userId) {
+        return userId + (char) (RowKeyHelper.MAJOR_FIELD_SEPARATOR + 1);
+    }
+
+    static String padTime(long time) {
+        return StringUtils.leftPad(Long.toString(Math.max(0, time)), TIME_WIDTH, '0');
+    }
+
+    /**
+     * @return the user the notification was sent to or null if the row key was written before notifications were
+     * keyed by user.
+     */
+    public String getUserId() {
+        String[] parts = RowKeyHelper.splitOnMajorFieldSeperator(getRowKey());
+        return parts.length == 3 ? parts[0] : null;
+    }
+
+    public long getExpirationTime() {
+        return Long.parseLong(RowKeyHelper.splitOnMajorFieldSeperator(getRowKey())[1]);
+    }
 }
@@ -0,0 +1,223 @@
+package io.lumify.bigtable.model;
+
+import com.altamiracorp.bigtable.model.*;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
+
+import java.util.*;
+
+/**
+ * A model session holding each table in a sorted map, ordered the way a big table orders row keys. Rows are copied
+ * in and out so callers can't change stored rows without saving them.
+ */
+public class InMemoryModelSession extends ModelSession {
+    private final Map<String, TreeMap<String, Row>> tables = new HashMap<String, TreeMap<String, Row>>();
+    private int scanCount;
+    private int scannedRowCount;
+    private int readCount;
+    private int saveCount;
+
+    @Override
+    public void init(Map<String, Object> properties) {
+    }
+
+    @Override
+    public synchronized void save(Row row, FlushFlag flushFlag) {
+        saveCount++;
+        Row existing = getTable(row.getTableName()).get(row.getRowKey().getRowKey());
+        if (existing == null) {
+            getTable(row.getTableName()).put(row.getRowKey().getRowKey(), copy(row));
+        } else {
+            copyColumns(row, existing);
+        }
+    }
+
+    @Override
+    public synchronized void saveMany(String tableName, Collection<Row> rows) {
+        for (Row row : rows) {
+            save(row, FlushFlag.NO_FLUSH);
+        }
+    }
+
+    @Override
+    public synchronized Iterable<Row> findByRowKeyRange(String tableName, String keyStart, String keyEnd, ModelUserContext modelUserContext) {
+        return scan(getTable(tableName).subMap(keyStart, true, keyEnd, true).values());
+    }
+
+    @Override
+    public synchronized Iterable<Row> findByRowStartsWith(String tableName, String rowKeyPrefix, ModelUserContext modelUserContext) {
+        List<Row> rows = new ArrayList<Row>();
+        for (Map.Entry<String, Row> entry : getTable(tableName).tailMap(rowKeyPrefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(rowKeyPrefix)) {
+                break;
+            }
+            rows.add(entry.getValue());
+        }
+        return scan(rows);
+    }
+
+    @Override
+    public synchronized Iterable<Row> findByRowKeyRegex(String tableName, String rowKeyRegex, ModelUserContext modelUserContext) {
+        List<Row> rows = new ArrayList<Row>();
+        for (Map.Entry<String, Row> entry : getTable(tableName).entrySet()) {
+            if (entry.getKey().matches(rowKeyRegex)) {
+                rows.add(entry.getValue());
+            }
+        }
+        return scan(rows);
+    }
+
+    @Override
+    public synchronized Iterable<Row> findAll(String tableName, ModelUserContext modelUserContext) {
+        return scan(getTable(tableName).values());
+    }
+
+    @Override
+    public synchronized long rowCount(String tableName, ModelUserContext modelUserContext) {
+        return getTable(tableName).size();
+    }
+
+    @Override
+    public synchronized Row findByRowKey(String tableName, String rowKey, ModelUserContext modelUserContext) {
+        readCount++;
+        Row row = getTable(tableName).get(rowKey);
+        return row == null ? null : copy(row);
+    }
+
+    @Override
+    public Row findByRowKey(String tableName, String rowKey, Map<String, String> columnsToReturn, ModelUserContext modelUserContext) {
+        return findByRowKey(tableName, rowKey, modelUserContext);
+    }
+
+    @Override
+    public synchronized void initializeTable(String tableName, ModelUserContext modelUserContext) {
+        getTable(tableName);
+    }
+
+    @Override
+    public synchronized void deleteTable(String tableName, ModelUserContext modelUserContext) {
+        tables.remove(tableName);
+    }
+
+    @Override
+    public synchronized void deleteRow(String tableName, RowKey rowKey) {
+        getTable(tableName).remove(rowKey.getRowKey());
+    }
+
+    @Override
+    public synchronized void deleteColumn(Row row, String tableName, String columnFamily, String columnQualifier, String columnVisibility) {
+        Row existing = getTable(tableName).get(row.getRowKey().getRowKey());
+        if (existing == null || existing.get(columnFamily) == null) {
+            return;
+        }
+        ColumnFamily cf = existing.get(columnFamily);
+        ColumnFamily newColumnFamily = new ColumnFamily(columnFamily);
+        for (Object c : cf.getColumns()) {
+            Column column = (Column) c;
+            if (!column.getName().equals(columnQualifier) && column.getValue() != null) {
+                newColumnFamily.set(column.getName(), column.getValue().toBytes());
+            }
+        }
+        Row newRow = new Row(tableName, new RowKey(row.getRowKey().getRowKey()));
+        for (Object f : existing.getColumnFamilies()) {
+            ColumnFamily family = (ColumnFamily) f;
+            newRow.addColumnFamily(family.getColumnFamilyName().equals(columnFamily) ? newColumnFamily : family);
+        }
+        getTable(tableName).put(row.getRowKey().getRowKey(), newRow);
+    }
+
+    @Override
+    public synchronized List<String> getTableList(ModelUserContext modelUserContext) {
+        return new ArrayList<String>(tables.keySet());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public ModelUserContext createModelUserContext(String... authorizations) {
+        return null;
+    }
+
+    @Override
+    public void alterColumnsVisibility(Row row, String originalEdgeVisibility, String visibilityString, FlushFlag flushFlag) {
+    }
+
+    /**
+     * @return the number of scans run, to check that a query is one range scan.
+     */
+    public synchronized int getScanCount() {
+        return scanCount;
+    }
+
+    /**
+     * @return the number of rows returned by scans, to check that a query reads only the rows it needs.
+     */
+    public synchronized int getScannedRowCount() {
+        return scannedRowCount;
+    }
+
+    /**
+     * @return the number of rows looked up by row key.
+     */
+    public synchronized int getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * @return the number of rows saved, including each row of a saveMany.
+     */
+    public synchronized int getSaveCount() {
+        return saveCount;
+    }
+
+    public synchronized Set<String> getRowKeys(String tableName) {
+        return new TreeSet<String>(getTable(tableName).keySet());
+    }
+
+    private Iterable<Row> scan(Collection<Row> rows) {
+        scanCount++;
+        scannedRowCount += rows.size();
+        List<Row> results = new ArrayList<Row>();
+        for (Row row : rows) {
+            results.add(copy(row));
+        }
+        return results;
+    }
+
+    private TreeMap<String, Row> getTable(String tableName) {
+        TreeMap<String, Row> table = tables.get(tableName);
+        if (table == null) {
+            table = new TreeMap<String, Row>();
+            tables.put(tableName, table);
+        }
+        return table;
+    }
+
+    private static Row copy(Row row) {
+        Row copy = new Row(row.getTableName(), new RowKey(row.getRowKey().getRowKey()));
+        copyColumns(row, copy);
+        return copy;
+    }
+
+    private static void copyColumns(Row source, Row destination) {
+        for (Object f : source.getColumnFamilies()) {
+            ColumnFamily family = (ColumnFamily) f;
+            ColumnFamily destinationFamily = destination.get(family.getColumnFamilyName());
+            if (destinationFamily == null) {
+                destinationFamily = new ColumnFamily(family.getColumnFamilyName());
+                destination.addColumnFamily(destinationFamily);
+            }
+            for (Object c : family.getColumns()) {
+                Column column = (Column) c;
+                if (column.getValue() != null) {
+                    destinationFamily.set(column.getName(), column.getValue().toBytes());
+                }
+            }
+        }
+    }
+}
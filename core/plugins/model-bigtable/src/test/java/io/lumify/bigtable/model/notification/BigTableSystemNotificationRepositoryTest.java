@@ -0,0 +1,142 @@
+package io.lumify.bigtable.model.notification;
+
+import com.altamiracorp.bigtable.model.FlushFlag;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
+import io.lumify.bigtable.model.InMemoryModelSession;
+import io.lumify.bigtable.model.notification.model.SystemNotificationRowKey;
+import io.lumify.core.model.lock.LockRepository;
+import io.lumify.core.model.notification.SystemNotification;
+import io.lumify.core.model.notification.SystemNotificationSeverity;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.user.User;
+import org.apache.commons.lang.time.DateUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BigTableSystemNotificationRepositoryTest {
+    @Mock
+    private LockRepository lockRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkQueueRepository workQueueRepository;
+
+    @Mock
+    private ModelUserContext modelUserContext;
+
+    @Mock
+    private User user;
+
+    private InMemoryModelSession modelSession;
+    private Date now;
+
+    @Before
+    public void setUp() {
+        modelSession = new InMemoryModelSession();
+        now = new Date();
+        when(user.getModelUserContext()).thenReturn(modelUserContext);
+    }
+
+    @Test
+    public void testActiveAndFutureNotifications() {
+        BigTableSystemNotificationRepository repository = createRepository();
+        SystemNotification active = create(repository, "active", DateUtils.addHours(now, -1), null);
+        SystemNotification future = create(repository, "future", DateUtils.addSeconds(now, 30), DateUtils.addDays(now, 1));
+        create(repository, "later", DateUtils.addDays(now, 1), null);
+        create(repository, "ended", DateUtils.addHours(now, -2), DateUtils.addSeconds(now, -1));
+
+        List<SystemNotification> activeNotifications = repository.getActiveNotifications(user);
+        assertEquals(1, activeNotifications.size());
+        assertEquals(active.getId(), activeNotifications.get(0).getId());
+        assertEquals("active", activeNotifications.get(0).getTitle());
+
+        List<SystemNotification> futureNotifications = repository.getFutureNotifications(DateUtils.addMinutes(now, 1), user);
+        assertEquals(1, futureNotifications.size());
+        assertEquals(future.getId(), futureNotifications.get(0).getId());
+    }
+
+    @Test
+    public void testEndedNotificationsAreCompactedAndNotScanned() {
+        BigTableSystemNotificationRepository repository = createRepository();
+        for (int i = 0; i < 20; i++) {
+            create(repository, "old" + i, DateUtils.addDays(now, -3), DateUtils.addDays(now, -2));
+        }
+        SystemNotification active = create(repository, "active", DateUtils.addHours(now, -1), null);
+
+        assertEquals(1, repository.getActiveNotifications(user).size());
+        assertEquals(2, modelSession.getRowKeys(BigTableSystemNotification.TABLE_NAME).size());
+        assertNull(repository.getNotification(active.getId(), user).getEndDate());
+
+        int scannedRowCount = modelSession.getScannedRowCount();
+        assertEquals(1, repository.getActiveNotifications(user).size());
+        assertEquals(1, modelSession.getScannedRowCount() - scannedRowCount);
+    }
+
+    @Test
+    public void testEndNotificationMovesIndexRow() {
+        BigTableSystemNotificationRepository repository = createRepository();
+        SystemNotification active = create(repository, "active", DateUtils.addHours(now, -1), null);
+        SystemNotification fromQuery = repository.getActiveNotifications(user).get(0);
+
+        repository.endNotification(fromQuery);
+
+        assertEquals(0, repository.getActiveNotifications(user).size());
+        assertEquals(2, modelSession.getRowKeys(BigTableSystemNotification.TABLE_NAME).size());
+        SystemNotification ended = repository.getNotification(active.getId(), user);
+        assertEquals(active.getId(), ended.getId());
+        assertNotNull(ended.getEndDate());
+        assertEquals(SystemNotificationRowKey.buildIndexKey(ended.getEndDate().getTime(), active.getId()).getRowKey(),
+                ((BigTableSystemNotification) ended).getIndexKey());
+    }
+
+    @Test
+    public void testUpdateKeepsId() {
+        BigTableSystemNotificationRepository repository = createRepository();
+        BigTableSystemNotification notification = create(repository, "title", DateUtils.addHours(now, -1), null);
+        notification.setTitle("new title");
+        notification.setEndDate(DateUtils.addDays(now, 3));
+        repository.updateNotification(notification);
+
+        List<SystemNotification> activeNotifications = repository.getActiveNotifications(user);
+        assertEquals(1, activeNotifications.size());
+        assertEquals(notification.getId(), activeNotifications.get(0).getId());
+        assertEquals("new title", activeNotifications.get(0).getTitle());
+        assertEquals(2, modelSession.getRowKeys(BigTableSystemNotification.TABLE_NAME).size());
+    }
+
+    @Test
+    public void testExistingNotificationsAreIndexed() {
+        BigTableSystemNotification existing = new BigTableSystemNotification(new SystemNotificationRowKey(now.getTime() + ":existing"));
+        existing.setSeverity(SystemNotificationSeverity.INFORMATIONAL);
+        existing.setTitle("existing");
+        existing.setMessage("message");
+        existing.setStartDate(DateUtils.addHours(now, -1));
+        modelSession.save(existing, FlushFlag.FLUSH);
+
+        BigTableSystemNotificationRepository repository = createRepository();
+        List<SystemNotification> activeNotifications = repository.getActiveNotifications(user);
+        assertEquals(1, activeNotifications.size());
+        assertEquals(now.getTime() + ":existing", activeNotifications.get(0).getId());
+    }
+
+    private BigTableSystemNotificationRepository createRepository() {
+        return new BigTableSystemNotificationRepository(modelSession, lockRepository, userRepository, workQueueRepository);
+    }
+
+    private static BigTableSystemNotification create(BigTableSystemNotificationRepository repository, String title, Date startDate, Date endDate) {
+        return repository.createNotification(SystemNotificationSeverity.INFORMATIONAL, title, "message", null, null, startDate, endDate);
+    }
+}
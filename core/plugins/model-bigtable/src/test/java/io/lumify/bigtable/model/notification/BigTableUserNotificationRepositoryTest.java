@@ -0,0 +1,124 @@
+package io.lumify.bigtable.model.notification;
+
+import com.altamiracorp.bigtable.model.FlushFlag;
+import com.altamiracorp.bigtable.model.user.ModelUserContext;
+import io.lumify.bigtable.model.InMemoryModelSession;
+import io.lumify.bigtable.model.notification.model.UserNotificationRowKey;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.notification.ExpirationAge;
+import io.lumify.core.model.notification.ExpirationAgeUnit;
+import io.lumify.core.model.notification.UserNotification;
+import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BigTableUserNotificationRepositoryTest {
+    @Mock
+    private WorkQueueRepository workQueueRepository;
+
+    @Mock
+    private ModelUserContext modelUserContext;
+
+    @Mock
+    private User user1;
+
+    @Mock
+    private User user2;
+
+    private InMemoryModelSession modelSession;
+    private BigTableUserNotificationRepository userNotificationRepository;
+
+    @Before
+    public void setUp() {
+        modelSession = new InMemoryModelSession();
+        userNotificationRepository = new BigTableUserNotificationRepository(modelSession, workQueueRepository);
+        when(user1.getUserId()).thenReturn("user1");
+        when(user1.getModelUserContext()).thenReturn(modelUserContext);
+        when(user2.getUserId()).thenReturn("user2");
+        when(user2.getModelUserContext()).thenReturn(modelUserContext);
+    }
+
+    @Test
+    public void testGetActiveNotificationsScansOnlyTheUsersRows() {
+        ExpirationAge hour = new ExpirationAge(1, ExpirationAgeUnit.HOUR);
+        for (int i = 0; i < 50; i++) {
+            userNotificationRepository.createNotification("user2", "title" + i, "message" + i, hour);
+        }
+        UserNotification notification = userNotificationRepository.createNotification("user1", "title", "message", hour);
+        userNotificationRepository.createNotification("user1", "title", "message", new ExpirationAge(1, ExpirationAgeUnit.DAY));
+
+        int scannedRowCount = modelSession.getScannedRowCount();
+        List<UserNotification> activeNotifications = userNotificationRepository.getActiveNotifications(user1);
+        assertEquals(2, activeNotifications.size());
+        assertEquals(notification.getId(), activeNotifications.get(0).getId());
+        assertEquals(2, modelSession.getScannedRowCount() - scannedRowCount);
+        assertEquals(50, userNotificationRepository.getActiveNotifications(user2).size());
+    }
+
+    @Test
+    public void testGetActiveNotificationsDeletesExpired() {
+        BigTableUserNotification expired = new BigTableUserNotification(new UserNotificationRowKey("user1", System.currentTimeMillis() - 1000, "expired"));
+        expired.setUserId("user1");
+        expired.setTitle("title");
+        expired.setMessage("message");
+        expired.setSentDate(new Date(System.currentTimeMillis() - 61000));
+        expired.setExpirationAge(new ExpirationAge(1, ExpirationAgeUnit.MINUTE));
+        expired.setMarkedRead(false);
+        modelSession.save(expired, FlushFlag.FLUSH);
+        userNotificationRepository.createNotification("user1", "title", "message", new ExpirationAge(1, ExpirationAgeUnit.HOUR));
+
+        assertEquals(1, userNotificationRepository.getActiveNotifications(user1).size());
+        assertEquals(1, modelSession.getRowKeys(BigTableUserNotification.TABLE_NAME).size());
+        assertNull(userNotificationRepository.getNotification(expired.getId(), user1));
+    }
+
+    @Test
+    public void testMigrateLegacyNotifications() {
+        BigTableUserNotification legacy = new BigTableUserNotification(new UserNotificationRowKey(System.currentTimeMillis() + ":legacy"));
+        legacy.setUserId("user1");
+        legacy.setTitle("title");
+        legacy.setMessage("message");
+        legacy.setSentDate(new Date(System.currentTimeMillis() - 1000));
+        legacy.setMarkedRead(false);
+        modelSession.save(legacy, FlushFlag.FLUSH);
+        userNotificationRepository.createNotification("user1", "title", "message", new ExpirationAge(1, ExpirationAgeUnit.HOUR));
+
+        assertEquals(1, userNotificationRepository.getActiveNotifications(user1).size());
+        assertEquals(1, userNotificationRepository.migrateLegacyNotifications(modelUserContext));
+        assertEquals(0, userNotificationRepository.migrateLegacyNotifications(modelUserContext));
+
+        List<UserNotification> activeNotifications = userNotificationRepository.getActiveNotifications(user1);
+        assertEquals(2, activeNotifications.size());
+        UserNotification migrated = activeNotifications.get(0).getExpirationAge() == null ? activeNotifications.get(0) : activeNotifications.get(1);
+        assertEquals("user1", new UserNotificationRowKey(migrated.getId()).getUserId());
+        assertNull(userNotificationRepository.getNotification(legacy.getId(), user1));
+        assertEquals(2, modelSession.getRowKeys(BigTableUserNotification.TABLE_NAME).size());
+        assertEquals(0, userNotificationRepository.getActiveNotifications(user2).size());
+    }
+
+    @Test
+    public void testMarkRead() {
+        UserNotification notification = userNotificationRepository.createNotification("user1", "title", "message", new ExpirationAge(1, ExpirationAgeUnit.HOUR));
+        userNotificationRepository.markRead(new String[]{notification.getId()}, user1);
+
+        assertTrue(userNotificationRepository.getNotification(notification.getId(), user1).isMarkedRead());
+        assertEquals(0, userNotificationRepository.getActiveNotifications(user1).size());
+    }
+
+    @Test(expected = LumifyException.class)
+    public void testMarkReadOtherUsersNotification() {
+        UserNotification notification = userNotificationRepository.createNotification("user1", "title", "message", new ExpirationAge(1, ExpirationAgeUnit.HOUR));
+        userNotificationRepository.markRead(new String[]{notification.getId()}, user2);
+    }
+}
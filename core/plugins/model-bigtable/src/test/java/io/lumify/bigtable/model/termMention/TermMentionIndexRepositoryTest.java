@@ -0,0 +1,126 @@
+package io.lumify.bigtable.model.termMention;
+
+import io.lumify.bigtable.model.InMemoryModelSession;
+import io.lumify.core.model.termMention.TermMentionIndex;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TermMentionIndexRepositoryTest {
+    private InMemoryModelSession modelSession;
+    private TermMentionIndexRepository termMentionIndexRepository;
+
+    @Before
+    public void setUp() {
+        modelSession = new InMemoryModelSession();
+        termMentionIndexRepository = new TermMentionIndexRepository(modelSession);
+    }
+
+    @Test
+    public void testFindByStartOffsetRange() {
+        termMentionIndexRepository.add("v1", "key1", "tm0", 0, 3);
+        termMentionIndexRepository.add("v1", "key1", "tm10", 10, 13);
+        termMentionIndexRepository.add("v1", "key1", "tm5", 5, 8);
+        termMentionIndexRepository.add("v1", "key1", "tm20", 20, 23);
+        termMentionIndexRepository.add("v1", "key2", "other1", 6, 9);
+        termMentionIndexRepository.add("v2", "key1", "other2", 6, 9);
+        termMentionIndexRepository.addResolvedTo("v1", "key1", "0000000000000007x", null, null);
+        termMentionIndexRepository.markIndexed("v1", "key1", 3);
+
+        int scanCount = modelSession.getScanCount();
+        List<TermMentionIndex> results = termMentionIndexRepository.findByStartOffsetRange("v1", "key1", 5, 20, null);
+        assertEquals(scanCount + 1, modelSession.getScanCount());
+        assertEquals(Arrays.asList("tm5", "tm10"), TermMentionIndexRepository.toTermMentionIds(results));
+        assertEquals(13, results.get(1).getEndOffset());
+
+        assertEquals(0, termMentionIndexRepository.findByStartOffsetRange("v1", "key1", 20, 20, null).size());
+        assertEquals(Arrays.asList("tm0", "tm5", "tm10", "tm20"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findByArtifactAndPropertyKey("v1", "key1", null)));
+    }
+
+    @Test
+    public void testFindByStartOffsetRangeWithEmptyPropertyKey() {
+        termMentionIndexRepository.add("v1", "", "tm1", 1, 4);
+        termMentionIndexRepository.markIndexed("v1", "", 3);
+
+        assertTrue(termMentionIndexRepository.isIndexed("v1", "", null));
+        assertEquals(Arrays.asList("tm1"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findByStartOffsetRange("v1", "", 0, 10, null)));
+    }
+
+    @Test
+    public void testFindOverlapping() {
+        termMentionIndexRepository.add("v1", "key1", "long", 0, 30);
+        termMentionIndexRepository.add("v1", "key1", "tm40", 40, 45);
+        termMentionIndexRepository.add("v1", "key1", "tm50", 50, 55);
+        termMentionIndexRepository.add("v1", "key1", "tm60", 60, 65);
+        termMentionIndexRepository.markIndexed("v1", "key1", 0);
+
+        assertEquals(Arrays.asList("tm40", "tm50"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findOverlapping("v1", "key1", 42, 51, null)));
+        assertEquals(Arrays.asList("long"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findOverlapping("v1", "key1", 20, 25, null)));
+        assertEquals(Arrays.asList("long"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findOverlapping("v1", "key1", 29, 40, null)));
+        assertEquals(0, termMentionIndexRepository.findOverlapping("v1", "key1", 30, 40, null).size());
+        assertEquals(0, termMentionIndexRepository.findOverlapping("v1", "key1", 45, 50, null).size());
+    }
+
+    @Test
+    public void testAddKeepsTheLongestLengthWithoutReading() {
+        int readCount = modelSession.getReadCount();
+        termMentionIndexRepository.add("v1", "key1", "tm1", 0, 30);
+        termMentionIndexRepository.add("v1", "key1", "tm2", 40, 45);
+        assertEquals(readCount, modelSession.getReadCount());
+
+        TermMentionIndex marker = termMentionIndexRepository.findIndexedMarker("v1", "key1", null);
+        assertEquals(30, marker.getMaxLength());
+        assertFalse(marker.isIndexed());
+        assertFalse(termMentionIndexRepository.isIndexed("v1", "key1", null));
+
+        termMentionIndexRepository.markIndexed("v1", "key1", 5);
+        marker = termMentionIndexRepository.findIndexedMarker("v1", "key1", null);
+        assertTrue(marker.isIndexed());
+        assertEquals(30, marker.getMaxLength());
+    }
+
+    @Test
+    public void testRemove() {
+        termMentionIndexRepository.add("v1", "key1", "tm1", 0, 3);
+        termMentionIndexRepository.add("v1", "key1", "tm2", 0, 3);
+        termMentionIndexRepository.remove("v1", "key1", "tm1", 0);
+
+        assertEquals(Arrays.asList("tm2"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findByArtifactAndPropertyKey("v1", "key1", null)));
+    }
+
+    @Test
+    public void testFindResolvedTo() {
+        termMentionIndexRepository.addResolvedTo("v1", "v1", "tm1", null, null);
+        termMentionIndexRepository.addResolvedTo("v1", "v1", "tm2", "k1", "name1");
+        termMentionIndexRepository.addResolvedTo("v1", "e1", "tm3", null, null);
+        termMentionIndexRepository.addResolvedTo("v2", "v1", "tm4", null, null);
+        termMentionIndexRepository.add("v1", "v1", "tm5", 0, 3);
+
+        assertEquals(Arrays.asList("tm1", "tm2"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findResolvedTo("v1", "v1", null, null, null)));
+        assertEquals(Arrays.asList("tm2"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findResolvedTo("v1", "v1", "k1", "name1", null)));
+        assertEquals(0, termMentionIndexRepository.findResolvedTo("v1", "v1", "k1", "name2", null).size());
+        assertEquals(Arrays.asList("tm3"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findResolvedTo("v1", "e1", null, null, null)));
+
+        assertFalse(termMentionIndexRepository.isResolvedToIndexed("v1", null));
+        termMentionIndexRepository.markResolvedToIndexed("v1");
+        assertTrue(termMentionIndexRepository.isResolvedToIndexed("v1", null));
+
+        termMentionIndexRepository.removeResolvedTo("v1", "v1", "tm1");
+        assertEquals(Arrays.asList("tm2"),
+                TermMentionIndexRepository.toTermMentionIds(termMentionIndexRepository.findResolvedTo("v1", "v1", null, null, null)));
+    }
+}
@@ -105,6 +105,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
         LOGGER.info("clearing ontology cache");
         graph.flush();
         this.clientApiCache.invalidateAll();
+        incrementVersion();
         this.allConceptsWithPropertiesCache.invalidateAll();
         this.allPropertiesCache.invalidateAll();
         this.relationshipLabelsCache.invalidateAll();
@@ -116,6 +117,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
         raw.searchIndex(false);
         entityConcept.setProperty(LumifyProperties.GLYPH_ICON.getPropertyName(), raw, authorizations);
         graph.flush();
+        incrementVersion();
     }
 
     @Override
@@ -398,6 +400,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
         }
 
         graph.flush();
+        incrementVersion();
         return concept;
     }
 
@@ -459,6 +462,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
         }
 
         graph.flush();
+        incrementVersion();
         return property;
     }
 
@@ -478,6 +482,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
 
         findOrAddEdge(fromVertex, inverseVertex, LabelName.INVERSE_OF.toString());
         findOrAddEdge(inverseVertex, fromVertex, LabelName.INVERSE_OF.toString());
+        incrementVersion();
     }
 
     @Override
@@ -515,6 +520,7 @@ public class SecureGraphOntologyRepository extends OntologyRepositoryBase {
         List<String> inverseOfIRIs = new ArrayList<>(); // no inverse of because this relationship is new
 
         graph.flush();
+        incrementVersion();
 
         List<String> domainConceptIris = toList(new ConvertingIterable<Concept, String>(domainConcepts) {
             @Override
@@ -2,6 +2,7 @@ package io.lumify.securegraph.model.workspace;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.lumify.core.exception.LumifyAccessDeniedException;
@@ -23,20 +24,16 @@ import io.lumify.securegraph.model.user.SecureGraphUserRepository;
 import io.lumify.web.clientapi.model.ClientApiWorkspaceDiff;
 import io.lumify.web.clientapi.model.GraphPosition;
 import io.lumify.web.clientapi.model.WorkspaceAccess;
-import org.elasticsearch.common.base.Function;
-import org.elasticsearch.common.collect.ImmutableMap;
-import org.elasticsearch.common.collect.Maps;
 import org.securegraph.*;
 import org.securegraph.mutation.ElementMutation;
 import org.securegraph.mutation.ExistingEdgeMutation;
 import org.securegraph.util.ConvertingIterable;
-import org.securegraph.util.FilterIterable;
 import org.securegraph.util.VerticesToEdgeIdsIterable;
 
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.securegraph.util.IterableUtils.toList;
@@ -45,6 +42,7 @@ import static org.securegraph.util.IterableUtils.toSet;
 @Singleton
 public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(SecureGraphWorkspaceRepository.class);
+    private static final long MAX_CACHED_WORKSPACE_ENTITIES = 1000000;
     private UserRepository userRepository;
     private AuthorizationRepository authorizationRepository;
     private WorkspaceDiffHelper workspaceDiff;
@@ -64,6 +62,17 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
     private Cache<String, Vertex> userWorkspaceVertexCache = CacheBuilder.newBuilder()
             .expireAfterWrite(15, TimeUnit.SECONDS)
             .build();
+    private Cache<String, WorkspaceEntitiesSnapshot> workspaceEntitiesSnapshotCache = CacheBuilder.newBuilder()
+            .expireAfterWrite(15, TimeUnit.SECONDS)
+            .maximumWeight(MAX_CACHED_WORKSPACE_ENTITIES)
+            .weigher(new Weigher<String, WorkspaceEntitiesSnapshot>() {
+                @Override
+                public int weigh(String cacheKey, WorkspaceEntitiesSnapshot snapshot) {
+                    return snapshot.size() + 1;
+                }
+            })
+            .build();
+    private final AtomicLong workspaceEntitiesSnapshotVersion = new AtomicLong();
 
     public void clearCache() {
         usersWithReadAccessCache.invalidateAll();
@@ -71,6 +80,56 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
         usersWithWriteAccessCache.invalidateAll();
         usersWithAccessCache.invalidateAll();
         userWorkspaceVertexCache.invalidateAll();
+        workspaceEntitiesSnapshotCache.invalidateAll();
+    }
+
+    /**
+     * Drops the snapshots of the workspace loaded with every set of authorizations.
+     */
+    private void invalidateWorkspaceEntities(String workspaceId) {
+        Iterator<WorkspaceEntitiesSnapshot> snapshots = workspaceEntitiesSnapshotCache.asMap().values().iterator();
+        while (snapshots.hasNext()) {
+            if (snapshots.next().getWorkspaceId().equals(workspaceId)) {
+                snapshots.remove();
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the workspace lock after the graph has been flushed. If no snapshot is
+     * published the next reader loads one from the graph.
+     */
+    private void publishWorkspaceEntities(WorkspaceEntitiesSnapshot snapshot, Authorizations authorizations) {
+        workspaceEntitiesSnapshotCache.put(getWorkspaceEntitiesCacheKey(snapshot.getWorkspaceId(), authorizations), snapshot);
+    }
+
+    /**
+     * A snapshot only holds the entities visible with the authorizations it was loaded with, so it is cached for
+     * those authorizations.
+     */
+    private static String getWorkspaceEntitiesCacheKey(String workspaceId, Authorizations authorizations) {
+        String[] authorizationStrings = authorizations.getAuthorizations().clone();
+        Arrays.sort(authorizationStrings);
+        StringBuilder cacheKey = new StringBuilder(workspaceId);
+        for (String authorization : authorizationStrings) {
+            cacheKey.append(',').append(authorization);
+        }
+        return cacheKey.toString();
+    }
+
+    /**
+     * Must be called while holding the workspace lock after the graph has been flushed. The snapshot is read back
+     * from the graph rather than derived from the cached one, so it also picks up writes made on other nodes and
+     * entities removed outside of this repository.
+     */
+    private void reloadWorkspaceEntities(Workspace workspace, User user) {
+        invalidateWorkspaceEntities(workspace.getWorkspaceId());
+        Authorizations authorizations = getWorkspaceEntitiesAuthorizations(workspace, user);
+        publishWorkspaceEntities(new WorkspaceEntitiesSnapshot(workspace.getWorkspaceId(), nextWorkspaceEntitiesSnapshotVersion(), findEntitiesNoLock(workspace, false, authorizations)), authorizations);
+    }
+
+    private long nextWorkspaceEntitiesSnapshotVersion() {
+        return workspaceEntitiesSnapshotVersion.incrementAndGet();
     }
 
     @Inject
@@ -104,6 +163,7 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
                 Vertex workspaceVertex = getVertexFromWorkspace(workspace, true, authorizations);
                 getGraph().removeVertex(workspaceVertex, authorizations);
                 getGraph().flush();
+                invalidateWorkspaceEntities(workspace.getWorkspaceId());
 
                 authorizationRepository.removeAuthorizationFromGraph(workspace.getWorkspaceId());
             }
@@ -247,16 +307,43 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
             throw new LumifyAccessDeniedException("user " + user.getUserId() + " does not have read access to workspace " + workspace.getWorkspaceId(), user, workspace.getWorkspaceId());
         }
 
-        return lockRepository.lock(getLockName(workspace), new Callable<List<WorkspaceEntity>>() {
+        return findEntitiesSnapshot(workspace, user).getEntities();
+    }
+
+    /**
+     * Returns the last committed entities of the workspace visible to the user. Only a workspace without a published
+     * snapshot for the user's authorizations takes the workspace lock, to load one from the graph.
+     */
+    public WorkspaceEntitiesSnapshot findEntitiesSnapshot(final Workspace workspace, final User user) {
+        final Authorizations authorizations = getWorkspaceEntitiesAuthorizations(workspace, user);
+        final String cacheKey = getWorkspaceEntitiesCacheKey(workspace.getWorkspaceId(), authorizations);
+        WorkspaceEntitiesSnapshot snapshot = workspaceEntitiesSnapshotCache.getIfPresent(cacheKey);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        return lockRepository.lock(getLockName(workspace), new Callable<WorkspaceEntitiesSnapshot>() {
             @Override
-            public List<WorkspaceEntity> call() throws Exception {
-                return findEntitiesNoLock(workspace, false, user);
+            public WorkspaceEntitiesSnapshot call() throws Exception {
+                WorkspaceEntitiesSnapshot snapshot = workspaceEntitiesSnapshotCache.getIfPresent(cacheKey);
+                if (snapshot == null) {
+                    snapshot = new WorkspaceEntitiesSnapshot(workspace.getWorkspaceId(), nextWorkspaceEntitiesSnapshotVersion(), findEntitiesNoLock(workspace, false, authorizations));
+                    publishWorkspaceEntities(snapshot, authorizations);
+                }
+                return snapshot;
             }
         });
     }
 
+    private Authorizations getWorkspaceEntitiesAuthorizations(Workspace workspace, User user) {
+        return userRepository.getAuthorizations(user, VISIBILITY_STRING, workspace.getWorkspaceId());
+    }
+
     public List<WorkspaceEntity> findEntitiesNoLock(final Workspace workspace, boolean includeHidden, User user) {
-        Authorizations authorizations = userRepository.getAuthorizations(user, VISIBILITY_STRING, workspace.getWorkspaceId());
+        return findEntitiesNoLock(workspace, includeHidden, getWorkspaceEntitiesAuthorizations(workspace, user));
+    }
+
+    private List<WorkspaceEntity> findEntitiesNoLock(final Workspace workspace, boolean includeHidden, Authorizations authorizations) {
         Vertex workspaceVertex = getVertexFromWorkspace(workspace, includeHidden, authorizations);
         Iterable<Edge> entityEdges = workspaceVertex.getEdges(Direction.BOTH, WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, authorizations);
         return toList(new ConvertingIterable<Edge, WorkspaceEntity>(entityEdges) {
@@ -289,34 +376,40 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
     }
 
     @Override
-    public void softDeleteEntitiesFromWorkspace(Workspace workspace, List<String> entityIdsToDelete, User user) {
+    public void softDeleteEntitiesFromWorkspace(final Workspace workspace, final List<String> entityIdsToDelete, final User user) {
         if (!hasWritePermissions(workspace.getWorkspaceId(), user)) {
             throw new LumifyAccessDeniedException("user " + user.getUserId() + " does not have write access to workspace " + workspace.getWorkspaceId(), user, workspace.getWorkspaceId());
         }
-        Authorizations authorizations = userRepository.getAuthorizations(user, VISIBILITY_STRING, workspace.getWorkspaceId());
-        final Vertex workspaceVertex = getVertexFromWorkspace(workspace, true, authorizations);
-        List<Edge> allEdges = toList(workspaceVertex.getEdges(Direction.BOTH, authorizations));
 
-        for (final String vertexId : entityIdsToDelete) {
-            LOGGER.debug("workspace delete (%s): %s", workspace.getWorkspaceId(), vertexId);
+        lockRepository.lock(getLockName(workspace), new Runnable() {
+            @Override
+            public void run() {
+                Authorizations authorizations = userRepository.getAuthorizations(user, VISIBILITY_STRING, workspace.getWorkspaceId());
+                Vertex workspaceVertex = getVertexFromWorkspace(workspace, true, authorizations);
 
-            Iterable<Edge> edges = new FilterIterable<Edge>(allEdges) {
-                @Override
-                protected boolean isIncluded(Edge o) {
-                    String entityVertexId = o.getOtherVertexId(workspaceVertex.getId());
-                    return entityVertexId.equalsIgnoreCase(vertexId);
+                Set<String> normalizedEntityIdsToDelete = new HashSet<>();
+                for (String vertexId : entityIdsToDelete) {
+                    LOGGER.debug("workspace delete (%s): %s", workspace.getWorkspaceId(), vertexId);
+                    normalizedEntityIdsToDelete.add(vertexId.toLowerCase());
+                }
+
+                for (Edge edge : workspaceVertex.getEdges(Direction.BOTH, WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, authorizations)) {
+                    String entityVertexId = edge.getOtherVertexId(workspaceVertex.getId());
+                    if (!normalizedEntityIdsToDelete.contains(entityVertexId.toLowerCase())) {
+                        continue;
+                    }
+                    ExistingEdgeMutation m = edge.prepareMutation();
+                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_VISIBLE.setProperty(m, false, VISIBILITY.getVisibility());
+                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_LAYOUT_JSON.removeProperty(m, VISIBILITY.getVisibility());
+                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_X.removeProperty(m, VISIBILITY.getVisibility());
+                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_Y.removeProperty(m, VISIBILITY.getVisibility());
+                    m.save(authorizations);
                 }
-            };
-            for (Edge edge : edges) {
-                ExistingEdgeMutation m = edge.prepareMutation();
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_VISIBLE.setProperty(m, false, VISIBILITY.getVisibility());
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_LAYOUT_JSON.removeProperty(m, VISIBILITY.getVisibility());
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_X.removeProperty(m, VISIBILITY.getVisibility());
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_Y.removeProperty(m, VISIBILITY.getVisibility());
-                m.save(authorizations);
+                getGraph().flush();
+
+                reloadWorkspaceEntities(workspace, user);
             }
-        }
-        getGraph().flush();
+        });
     }
 
     @Override
@@ -335,60 +428,92 @@ public class SecureGraphWorkspaceRepository extends WorkspaceRepository {
                     throw new LumifyResourceNotFoundException("Could not find workspace vertex: " + workspace.getWorkspaceId(), workspace.getWorkspaceId());
                 }
 
-                Iterable<String> vertexIds = new ConvertingIterable<Update, String>(updates) {
-                    @Override
-                    protected String convert(Update o) {
-                        return o.getVertexId();
+                Map<String, Update> updatesByVertexId = mergeUpdatesByVertexId(updates);
+                if (updatesByVertexId.size() == 0) {
+                    return;
+                }
+                Map<String, List<Edge>> existingEdgesByVertexId = findEntityEdgesByVertexId(workspaceVertex, authorizations);
+
+                List<String> vertexIdsToInsert = new ArrayList<>();
+                for (Update update : updatesByVertexId.values()) {
+                    List<Edge> existingEdges = existingEdgesByVertexId.get(update.getVertexId());
+                    if (existingEdges == null) {
+                        vertexIdsToInsert.add(update.getVertexId());
+                        continue;
                     }
-                };
-                Iterable<Vertex> vertices = getGraph().getVertices(vertexIds, authorizations);
-                ImmutableMap<String, Vertex> verticesMap = Maps.uniqueIndex(vertices, new Function<Vertex, String>() {
-                    @Override
-                    public String apply(Vertex vertex) {
-                        return vertex.getId();
+                    for (Edge existingEdge : existingEdges) {
+                        ElementMutation<Edge> m = existingEdge.prepareMutation();
+                        setEntityEdgeProperties(m, update);
+                        m.save(authorizations);
                     }
-                });
+                }
 
-                for (Update update : updates) {
-                    Vertex otherVertex = verticesMap.get(update.getVertexId());
-                    checkNotNull(otherVertex, "Could not find vertex with id: " + update.getVertexId());
-                    createEdge(workspaceVertex, otherVertex, update.getGraphPosition(), update.getGraphLayoutJson(), update.getVisible(), authorizations);
+                if (vertexIdsToInsert.size() > 0) {
+                    Map<String, Vertex> verticesToInsert = new HashMap<>();
+                    for (Vertex vertex : getGraph().getVertices(vertexIdsToInsert, authorizations)) {
+                        verticesToInsert.put(vertex.getId(), vertex);
+                    }
+                    for (String vertexId : vertexIdsToInsert) {
+                        Vertex otherVertex = verticesToInsert.get(vertexId);
+                        checkNotNull(otherVertex, "Could not find vertex with id: " + vertexId);
+                        EdgeBuilder edgeBuilder = getGraph().prepareEdge(workspaceVertex, otherVertex, WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, VISIBILITY.getVisibility());
+                        setEntityEdgeProperties(edgeBuilder, updatesByVertexId.get(vertexId));
+                        edgeBuilder.save(authorizations);
+                    }
                 }
                 getGraph().flush();
+
+                reloadWorkspaceEntities(workspace, user);
             }
         });
     }
 
-    private void createEdge(Vertex workspaceVertex, Vertex otherVertex, GraphPosition graphPosition, String graphLayoutJson, Boolean visible, Authorizations authorizations) {
-        List<Edge> existingEdges = toList(workspaceVertex.getEdges(otherVertex, Direction.BOTH, authorizations));
-        if (existingEdges.size() > 0) {
-            for (Edge existingEdge : existingEdges) {
-                ElementMutation<Edge> m = existingEdge.prepareMutation();
-                if (graphPosition != null) {
-                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_X.setProperty(m, graphPosition.getX(), VISIBILITY.getVisibility());
-                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_Y.setProperty(m, graphPosition.getY(), VISIBILITY.getVisibility());
-                }
-                if (graphLayoutJson != null) {
-                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_LAYOUT_JSON.setProperty(m, graphLayoutJson, VISIBILITY.getVisibility());
-                }
-                if (visible != null) {
-                    WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_VISIBLE.setProperty(m, visible, VISIBILITY.getVisibility());
-                }
-                m.save(authorizations);
-            }
-        } else {
-            EdgeBuilder edgeBuilder = getGraph().prepareEdge(workspaceVertex, otherVertex, WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, VISIBILITY.getVisibility());
-            if (graphPosition != null) {
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_X.setProperty(edgeBuilder, graphPosition.getX(), VISIBILITY.getVisibility());
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_Y.setProperty(edgeBuilder, graphPosition.getY(), VISIBILITY.getVisibility());
+    /**
+     * Collapses repeated updates for the same vertex into one, later non-null values winning, so each
+     * workspace-to-entity edge is written at most once per batch.
+     */
+    private static Map<String, Update> mergeUpdatesByVertexId(Iterable<Update> updates) {
+        Map<String, Update> updatesByVertexId = new LinkedHashMap<>();
+        for (Update update : updates) {
+            Update previous = updatesByVertexId.get(update.getVertexId());
+            if (previous != null) {
+                update = new Update(
+                        update.getVertexId(),
+                        update.getVisible() != null ? update.getVisible() : previous.getVisible(),
+                        update.getGraphPosition() != null ? update.getGraphPosition() : previous.getGraphPosition(),
+                        update.getGraphLayoutJson() != null ? update.getGraphLayoutJson() : previous.getGraphLayoutJson()
+                );
             }
-            if (graphLayoutJson != null) {
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_LAYOUT_JSON.setProperty(edgeBuilder, graphLayoutJson, VISIBILITY.getVisibility());
-            }
-            if (visible != null) {
-                WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_VISIBLE.setProperty(edgeBuilder, visible, VISIBILITY.getVisibility());
+            updatesByVertexId.put(update.getVertexId(), update);
+        }
+        return updatesByVertexId;
+    }
+
+    private Map<String, List<Edge>> findEntityEdgesByVertexId(Vertex workspaceVertex, Authorizations authorizations) {
+        Map<String, List<Edge>> edgesByVertexId = new HashMap<>();
+        for (Edge edge : workspaceVertex.getEdges(Direction.BOTH, WORKSPACE_TO_ENTITY_RELATIONSHIP_IRI, authorizations)) {
+            String entityVertexId = edge.getOtherVertexId(workspaceVertex.getId());
+            List<Edge> edges = edgesByVertexId.get(entityVertexId);
+            if (edges == null) {
+                edges = new ArrayList<>();
+                edgesByVertexId.put(entityVertexId, edges);
             }
-            edgeBuilder.save(authorizations);
+            edges.add(edge);
+        }
+        return edgesByVertexId;
+    }
+
+    private void setEntityEdgeProperties(ElementMutation<Edge> m, Update update) {
+        GraphPosition graphPosition = update.getGraphPosition();
+        if (graphPosition != null) {
+            WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_X.setProperty(m, graphPosition.getX(), VISIBILITY.getVisibility());
+            WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_POSITION_Y.setProperty(m, graphPosition.getY(), VISIBILITY.getVisibility());
+        }
+        if (update.getGraphLayoutJson() != null) {
+            WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_GRAPH_LAYOUT_JSON.setProperty(m, update.getGraphLayoutJson(), VISIBILITY.getVisibility());
+        }
+        if (update.getVisible() != null) {
+            WorkspaceLumifyProperties.WORKSPACE_TO_ENTITY_VISIBLE.setProperty(m, update.getVisible(), VISIBILITY.getVisibility());
         }
     }
 
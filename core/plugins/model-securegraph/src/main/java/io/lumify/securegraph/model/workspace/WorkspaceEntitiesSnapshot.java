@@ -0,0 +1,40 @@
+package io.lumify.securegraph.model.workspace;
+
+import io.lumify.core.model.workspace.WorkspaceEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable view of the entities on a workspace as of a committed write. Writers read the next
+ * snapshot back from the graph while holding the workspace lock and publish it by replacing the
+ * reference, so readers can use whichever snapshot they find without locking.
+ */
+public final class WorkspaceEntitiesSnapshot {
+    private final String workspaceId;
+    private final long version;
+    private final List<WorkspaceEntity> entities;
+
+    public WorkspaceEntitiesSnapshot(String workspaceId, long version, List<WorkspaceEntity> entities) {
+        this.workspaceId = workspaceId;
+        this.version = version;
+        this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<WorkspaceEntity> getEntities() {
+        return entities;
+    }
+
+    public int size() {
+        return entities.size();
+    }
+}
@@ -28,9 +28,16 @@ import org.securegraph.inmemory.InMemoryGraph;
 import org.securegraph.inmemory.InMemoryGraphConfiguration;
 import org.securegraph.search.DefaultSearchIndex;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.*;
@@ -272,4 +279,167 @@ public class SecureGraphWorkspaceRepositoryTest {
         }
         assertTrue(foundRemovedEdge);
     }
+
+    @Test
+    public void testUpdateEntitiesOnWorkspaceBatch() {
+        String workspaceId = "testWorkspaceId";
+        idGenerator.push(workspaceId);
+        idGenerator.push(workspaceId + "_to_" + user1.getUserId());
+        Workspace workspace = workspaceRepository.add("workspace1", user1);
+
+        idGenerator.push(workspaceId + "_to_" + entity1Vertex.getId());
+        workspaceRepository.updateEntityOnWorkspace(workspace, entity1Vertex.getId(), true, new GraphPosition(1, 1), user1);
+        int startingEdgeCount = graph.getAllEdges().size();
+
+        List<WorkspaceRepository.Update> updates = new ArrayList<>();
+        updates.add(new WorkspaceRepository.Update(entity1Vertex.getId(), null, new GraphPosition(10, 20)));
+        for (int i = 0; i < 50; i++) {
+            String vertexId = "entity" + i + "Batch";
+            graph.addVertex(vertexId, new LumifyVisibility().getVisibility(), new InMemoryAuthorizations());
+            idGenerator.push(workspaceId + "_to_" + vertexId);
+            updates.add(new WorkspaceRepository.Update(vertexId, true, new GraphPosition(i, i)));
+        }
+        updates.add(new WorkspaceRepository.Update("entity0Batch", null, new GraphPosition(100, 200), "{}"));
+        workspaceRepository.updateEntitiesOnWorkspace(workspace, updates, user1);
+
+        assertEquals(startingEdgeCount + 50, graph.getAllEdges().size());
+        Map<String, WorkspaceEntity> entitiesById = new HashMap<>();
+        for (WorkspaceEntity entity : workspaceRepository.findEntities(workspace, user1)) {
+            entitiesById.put(entity.getEntityVertexId(), entity);
+        }
+        assertEquals(51, entitiesById.size());
+        assertEquals(10, entitiesById.get(entity1Vertex.getId()).getGraphPositionX().intValue());
+        assertEquals(20, entitiesById.get(entity1Vertex.getId()).getGraphPositionY().intValue());
+        assertTrue(entitiesById.get(entity1Vertex.getId()).isVisible());
+        assertEquals(100, entitiesById.get("entity0Batch").getGraphPositionX().intValue());
+        assertEquals(200, entitiesById.get("entity0Batch").getGraphPositionY().intValue());
+        assertEquals("{}", entitiesById.get("entity0Batch").getGraphLayoutJson());
+        assertTrue(entitiesById.get("entity0Batch").isVisible());
+
+        workspaceRepository.softDeleteEntitiesFromWorkspace(workspace, Lists.newArrayList("ENTITY1BATCH", "entity2Batch"), user1);
+        entitiesById.clear();
+        for (WorkspaceEntity entity : workspaceRepository.findEntities(workspace, user1)) {
+            entitiesById.put(entity.getEntityVertexId(), entity);
+        }
+        assertFalse(entitiesById.get("entity1Batch").isVisible());
+        assertNull(entitiesById.get("entity1Batch").getGraphPositionX());
+        assertFalse(entitiesById.get("entity2Batch").isVisible());
+        assertTrue(entitiesById.get("entity3Batch").isVisible());
+    }
+
+    @Test
+    public void testEntitySnapshotSeesEntitiesRemovedOutsideTheRepository() {
+        String workspaceId = "testWorkspaceId";
+        idGenerator.push(workspaceId);
+        idGenerator.push(workspaceId + "_to_" + user1.getUserId());
+        Workspace workspace = workspaceRepository.add("workspace1", user1);
+
+        Vertex entity2Vertex = graph.addVertex("entity2Id", new LumifyVisibility().getVisibility(), new InMemoryAuthorizations());
+        idGenerator.push(workspaceId + "_to_" + entity1Vertex.getId());
+        workspaceRepository.updateEntityOnWorkspace(workspace, entity1Vertex.getId(), true, new GraphPosition(1, 1), user1);
+        assertEquals(1, workspaceRepository.findEntities(workspace, user1).size());
+
+        InMemoryAuthorizations authorizations = new InMemoryAuthorizations(WorkspaceRepository.VISIBILITY_STRING, workspaceId);
+        graph.removeEdge(graph.getAllEdges().get(workspaceId + "_to_" + entity1Vertex.getId()), authorizations);
+        graph.flush();
+
+        idGenerator.push(workspaceId + "_to_" + entity2Vertex.getId());
+        workspaceRepository.updateEntityOnWorkspace(workspace, entity2Vertex.getId(), true, new GraphPosition(2, 2), user1);
+        List<WorkspaceEntity> entities = workspaceRepository.findEntities(workspace, user1);
+        assertEquals(1, entities.size());
+        assertEquals(entity2Vertex.getId(), entities.get(0).getEntityVertexId());
+    }
+
+    @Test
+    public void testConcurrentEntitySnapshotReadsAndWrites() throws Exception {
+        String workspaceId = "testWorkspaceId";
+        idGenerator.push(workspaceId);
+        idGenerator.push(workspaceId + "_to_" + user1.getUserId());
+        final Workspace workspace = workspaceRepository.add("workspace1", user1);
+        final SecureGraphWorkspaceRepository secureGraphWorkspaceRepository = (SecureGraphWorkspaceRepository) workspaceRepository;
+
+        final int writerCount = 4;
+        final int batchesPerWriter = 20;
+        final int entitiesPerBatch = 5;
+        for (int i = 0; i < writerCount * batchesPerWriter * entitiesPerBatch; i++) {
+            String vertexId = "concurrentEntity" + i;
+            graph.addVertex(vertexId, new LumifyVisibility().getVisibility(), new InMemoryAuthorizations());
+            idGenerator.push(workspaceId + "_to_" + vertexId);
+        }
+        WorkspaceEntitiesSnapshot initialSnapshot = secureGraphWorkspaceRepository.findEntitiesSnapshot(workspace, user1);
+        assertEquals(0, initialSnapshot.size());
+
+        final AtomicBoolean writersDone = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(writerCount * 2);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            final int writer = w;
+            writers.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int b = 0; b < batchesPerWriter; b++) {
+                        List<WorkspaceRepository.Update> updates = new ArrayList<>();
+                        for (int e = 0; e < entitiesPerBatch; e++) {
+                            int entity = (writer * batchesPerWriter + b) * entitiesPerBatch + e;
+                            updates.add(new WorkspaceRepository.Update("concurrentEntity" + entity, true, new GraphPosition(entity, entity)));
+                        }
+                        workspaceRepository.updateEntitiesOnWorkspace(workspace, updates, user1);
+                    }
+                }
+            }));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < writerCount; r++) {
+            readers.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long lastVersion = -1;
+                        int lastSize = 0;
+                        while (!writersDone.get()) {
+                            WorkspaceEntitiesSnapshot snapshot = secureGraphWorkspaceRepository.findEntitiesSnapshot(workspace, user1);
+                            assertTrue("versions must not go backwards", snapshot.getVersion() >= lastVersion);
+                            assertTrue("committed entities must not disappear", snapshot.size() >= lastSize);
+                            assertEquals("snapshots are written in whole batches", 0, snapshot.size() % entitiesPerBatch);
+                            for (WorkspaceEntity entity : snapshot.getEntities()) {
+                                assertTrue(entity.isVisible());
+                            }
+                            lastVersion = snapshot.getVersion();
+                            lastSize = snapshot.size();
+                        }
+                    } catch (Throwable ex) {
+                        failure.set(ex);
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writersDone.set(true);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        WorkspaceEntitiesSnapshot finalSnapshot = secureGraphWorkspaceRepository.findEntitiesSnapshot(workspace, user1);
+        assertEquals(writerCount * batchesPerWriter + initialSnapshot.getVersion(), finalSnapshot.getVersion());
+        assertEquals(writerCount * batchesPerWriter * entitiesPerBatch, finalSnapshot.size());
+
+        Map<String, WorkspaceEntity> entitiesFromGraph = new HashMap<>();
+        for (WorkspaceEntity entity : secureGraphWorkspaceRepository.findEntitiesNoLock(workspace, false, user1)) {
+            entitiesFromGraph.put(entity.getEntityVertexId(), entity);
+        }
+        for (WorkspaceEntity entity : finalSnapshot.getEntities()) {
+            WorkspaceEntity entityFromGraph = entitiesFromGraph.get(entity.getEntityVertexId());
+            assertNotNull(entityFromGraph);
+            assertEquals(entityFromGraph.isVisible(), entity.isVisible());
+            assertEquals(entityFromGraph.getGraphPositionX(), entity.getGraphPositionX());
+            assertEquals(entityFromGraph.getGraphPositionY(), entity.getGraphPositionY());
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package io.lumify.mapping;
 
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
+import io.lumify.core.util.EdgeLabelSummary;
 import org.securegraph.Authorizations;
 import org.securegraph.Graph;
 import org.securegraph.Vertex;
@@ -22,6 +23,11 @@ public interface MappingState {
      */
     Graph getGraph();
 
+    /**
+     * @return the edge label summary mapped edges are saved through
+     */
+    EdgeLabelSummary getEdgeLabelSummary();
+
     /**
      * @return the ingest authorization tokens
      */
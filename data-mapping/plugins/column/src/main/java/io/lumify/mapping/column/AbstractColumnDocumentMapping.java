@@ -137,7 +137,7 @@ public abstract class AbstractColumnDocumentMapping implements DocumentMapping {
                             String edgeId = String.format("%s_%s_%s", relDef.getSource().getId(), relDef.getLabel(), relDef.getTarget().getId());
                             EdgeBuilder builder = graph.prepareEdge(edgeId, relDef.getSource(), relDef.getTarget(), relDef.getLabel(), visibility);
                             state.getData().setVisibilityJsonOnElement(builder);
-                            builder.save(auths);
+                            state.getEdgeLabelSummary().saveEdge(edgeId, builder, auths);
                         } catch (Exception ex) {
                             throw new LumifyColumnMappingException(row, edgeMapping, ex);
                         }
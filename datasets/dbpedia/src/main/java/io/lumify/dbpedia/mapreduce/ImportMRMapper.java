@@ -9,6 +9,7 @@ import io.lumify.core.model.user.AuthorizationRepository;
 import io.lumify.core.model.user.InMemoryAuthorizationRepository;
 import io.lumify.core.security.DirectVisibilityTranslator;
 import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.dbpedia.mapreduce.model.LineData;
 import io.lumify.dbpedia.mapreduce.model.LinkValue;
 import io.lumify.wikipedia.WikipediaConstants;
@@ -90,6 +91,7 @@ public class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text>
     private void createLinkToDbpediaEntity(LineData lineData, Vertex pageVertex, LinkValue linkValue) {
         String linkedPageVertexId = WikipediaConstants.getWikipediaPageVertexId(linkValue.getPageTitle());
         VertexBuilder linkedPageVertexBuilder = prepareVertex(linkedPageVertexId, visibility);
+        EdgeLabelSummary.invalidate(linkedPageVertexBuilder);
         LumifyProperties.CONCEPT_TYPE.setProperty(linkedPageVertexBuilder, WikipediaConstants.WIKIPEDIA_PAGE_CONCEPT_URI, visibility);
 
         Metadata linkedTitleMetadata = new Metadata();
@@ -108,6 +110,7 @@ public class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text>
 
         String dbpediaEntityVertexId = getDbpediaEntityVertexId(lineData.getPageTitle());
         VertexBuilder entityVertexBuilder = prepareVertex(dbpediaEntityVertexId, visibility);
+        EdgeLabelSummary.invalidate(entityVertexBuilder);
 
         Metadata conceptTypeMetadata = new Metadata();
         LumifyProperties.CONFIDENCE.setMetadata(conceptTypeMetadata, 0.1, defaultVisibility);
@@ -137,6 +140,7 @@ public class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text>
     private Vertex createPageVertex(LineData lineData) {
         String wikipediaPageVertexId = WikipediaConstants.getWikipediaPageVertexId(lineData.getPageTitle());
         VertexBuilder pageVertexBuilder = prepareVertex(wikipediaPageVertexId, visibility);
+        EdgeLabelSummary.invalidate(pageVertexBuilder);
         LumifyProperties.CONCEPT_TYPE.setProperty(pageVertexBuilder, WikipediaConstants.WIKIPEDIA_PAGE_CONCEPT_URI, visibility);
 
         Metadata titleMetadata = new Metadata();
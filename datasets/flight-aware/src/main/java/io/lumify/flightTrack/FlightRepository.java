@@ -4,6 +4,7 @@ import com.google.inject.Inject;
 import io.lumify.core.exception.LumifyException;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.json.JSONArray;
@@ -30,6 +31,7 @@ public class FlightRepository {
     private static final String SOURCE_NAME = "FlightAware.com";
     private Graph graph;
     private WorkQueueRepository workQueueRepository;
+    private EdgeLabelSummary edgeLabelSummary;
     private Map<String, Airport> airportCodeMap = new HashMap<String, Airport>();
     private Map<String, Airline> identPrefixMap = new HashMap<String, Airline>();
     private Map<String, Vertex> identToVertex = new HashMap<String, Vertex>();
@@ -127,9 +129,9 @@ public class FlightRepository {
         if (currentDestinations.size() == 0 || !currentDestinations.get(0).equals(destinationVertex.getId())) {
             LOGGER.debug("airplane %s changed destinations to %s", airplaneVertex.getId(), destinationVertex.getId());
             for (Object currentDestinationEdgeId : airplaneVertex.getEdgeIds(Direction.BOTH, FlightTrackOntology.EDGE_LABEL_HAS_DESTINATION, authorizations)) {
-                graph.removeEdge((String) currentDestinationEdgeId, authorizations);
+                edgeLabelSummary.removeEdge((String) currentDestinationEdgeId, authorizations);
             }
-            Edge e = graph.addEdge(toDestinationEdgeId(airplaneVertex, destinationVertex), airplaneVertex, destinationVertex, FlightTrackOntology.EDGE_LABEL_HAS_DESTINATION, visibility, authorizations);
+            Edge e = edgeLabelSummary.addEdge(toDestinationEdgeId(airplaneVertex, destinationVertex), airplaneVertex, destinationVertex, FlightTrackOntology.EDGE_LABEL_HAS_DESTINATION, visibility, authorizations);
             graph.flush();
             workQueueRepository.pushElement(e);
             return true;
@@ -142,9 +144,9 @@ public class FlightRepository {
         if (currentOrigins.size() == 0 || !currentOrigins.get(0).equals(originVertex.getId())) {
             LOGGER.debug("airplane %s changed origin to %s", airplaneVertex.getId(), originVertex.getId());
             for (Object currentOriginEdgeId : airplaneVertex.getEdgeIds(Direction.BOTH, FlightTrackOntology.EDGE_LABEL_HAS_ORIGIN, authorizations)) {
-                graph.removeEdge((String) currentOriginEdgeId, authorizations);
+                edgeLabelSummary.removeEdge((String) currentOriginEdgeId, authorizations);
             }
-            Edge e = graph.addEdge(toOriginEdgeId(airplaneVertex, originVertex), airplaneVertex, originVertex, FlightTrackOntology.EDGE_LABEL_HAS_ORIGIN, visibility, authorizations);
+            Edge e = edgeLabelSummary.addEdge(toOriginEdgeId(airplaneVertex, originVertex), airplaneVertex, originVertex, FlightTrackOntology.EDGE_LABEL_HAS_ORIGIN, visibility, authorizations);
             graph.flush();
             workQueueRepository.pushElement(e);
             return true;
@@ -221,7 +223,7 @@ public class FlightRepository {
             String airlineHasAirplaneId = toAirlineHasAirplaneId(airlineVertex, airplaneVertex);
 
             if (graph.getEdge(airlineHasAirplaneId, authorizations) == null) {
-                Edge e = graph.addEdge(airlineHasAirplaneId, airlineVertex, airplaneVertex, FlightTrackOntology.EDGE_LABEL_HAS_AIRPLANE, visibility, authorizations);
+                Edge e = edgeLabelSummary.addEdge(airlineHasAirplaneId, airlineVertex, airplaneVertex, FlightTrackOntology.EDGE_LABEL_HAS_AIRPLANE, visibility, authorizations);
                 graph.flush();
                 workQueueRepository.pushElement(e);
             }
@@ -313,6 +315,11 @@ public class FlightRepository {
         this.workQueueRepository = workQueueRepository;
     }
 
+    @Inject
+    public void setEdgeLabelSummary(EdgeLabelSummary edgeLabelSummary) {
+        this.edgeLabelSummary = edgeLabelSummary;
+    }
+
     private static class Airport {
         private final String airportCode;
         private final String title;
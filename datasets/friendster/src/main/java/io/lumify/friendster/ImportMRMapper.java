@@ -8,6 +8,7 @@ import io.lumify.core.model.audit.AuditAction;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.user.SystemUser;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.core.version.VersionService;
@@ -104,6 +105,7 @@ public class ImportMRMapper extends ElementMapper<LongWritable, Text, Text, Muta
     private Vertex createUserVertex(long userId) {
         String userVertexId = ImportMR.getUserVertexId(userId);
         VertexBuilder userVertexBuilder = prepareVertex(userVertexId, visibility);
+        EdgeLabelSummary.invalidate(userVertexBuilder);
         LumifyProperties.CONCEPT_TYPE.setProperty(userVertexBuilder, FriendsterOntology.CONCEPT_TYPE_USER, visibility);
         Metadata titleMetadata = new Metadata();
         LumifyProperties.TITLE.addPropertyValue(userVertexBuilder, ImportMR.MULTI_VALUE_KEY, "Friendster User " + userId, titleMetadata, visibility);
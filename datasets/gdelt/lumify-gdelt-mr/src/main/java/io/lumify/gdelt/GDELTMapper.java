@@ -8,6 +8,7 @@ import io.lumify.core.model.audit.AuditAction;
 import io.lumify.core.model.properties.types.LumifyProperty;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.user.SystemUser;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.core.version.VersionService;
@@ -75,6 +76,8 @@ public class GDELTMapper extends ElementMapper<LongWritable, Text, Text, Mutatio
 
         // event vertex
         VertexBuilder eventVertexBuilder = prepareVertex(generateEventId(event), visibility);
+        // the actor edges are added without reading the event
+        EdgeLabelSummary.invalidate(eventVertexBuilder);
         GDELTProperties.CONCEPT_TYPE.setProperty(eventVertexBuilder, GDELTConstants.EVENT_CONCEPT_URI, visibility);
         GDELTProperties.GLOBAL_EVENT_ID.setProperty(eventVertexBuilder, event.getGlobalEventId(), visibility);
         GDELTProperties.EVENT_DATE_OF_OCCURRENCE.setProperty(eventVertexBuilder, event.getDateOfOccurrence(), visibility);
@@ -174,6 +177,7 @@ public class GDELTMapper extends ElementMapper<LongWritable, Text, Text, Mutatio
         context.getCounter(GDELTImportCounters.ACTORS_ATTEMPTED).increment(1);
 
         VertexBuilder vertexBuilder = prepareVertex(generateActorId(actor), visibility);
+        EdgeLabelSummary.invalidate(vertexBuilder);
         GDELTProperties.CONCEPT_TYPE.setProperty(vertexBuilder, GDELTConstants.ACTOR_CONCEPT_URI, visibility);
         GDELTProperties.ACTOR_CODE.setProperty(vertexBuilder, actor.getCode(), visibility);
         setOptionalProperty(GDELTProperties.ACTOR_NAME, vertexBuilder, actor.getName());
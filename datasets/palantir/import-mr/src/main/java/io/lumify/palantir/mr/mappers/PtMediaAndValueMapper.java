@@ -2,6 +2,7 @@ package io.lumify.palantir.mr.mappers;
 
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.security.LumifyVisibility;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.palantir.model.PtMediaAndValue;
 import io.lumify.palantir.util.TryInflaterInputStream;
 import io.lumify.web.clientapi.model.VisibilityJson;
@@ -52,6 +53,7 @@ public class PtMediaAndValueMapper extends PalantirMapperBase<LongWritable, PtMe
             }
 
             VertexBuilder vertexBuilder = prepareVertex(getMediaId(ptMediaAndValue), visibility);
+            EdgeLabelSummary.invalidate(vertexBuilder);
             LumifyProperties.RAW.addPropertyValue(vertexBuilder, propertyKey, propertyValue, visibility);
             LumifyProperties.TITLE.setProperty(vertexBuilder, title, visibility);
             LumifyProperties.CREATED_BY.setProperty(vertexBuilder, PtUserMapper.getUserVertexId(ptMediaAndValue.getCreatedBy()), visibility);
@@ -72,6 +74,7 @@ public class PtMediaAndValueMapper extends PalantirMapperBase<LongWritable, PtMe
             LumifyProperties.MODIFIED_DATE.setProperty(edgeBuilder, new Date(ptMediaAndValue.getLastModified()), visibility);
             LumifyProperties.VISIBILITY_JSON.setProperty(edgeBuilder, visibilityJson, visibility);
             edgeBuilder.save(getAuthorizations());
+            invalidateEdgeLabelSummary(sourceVertexId, visibility, getAuthorizations());
         }
     }
 
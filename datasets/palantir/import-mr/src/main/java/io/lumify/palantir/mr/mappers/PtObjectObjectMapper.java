@@ -50,6 +50,10 @@ public class PtObjectObjectMapper extends PalantirMapperBase<LongWritable, PtObj
         LumifyProperties.MODIFIED_DATE.setProperty(m, new Date(ptObjectObject.getLastModified()), visibility);
         LumifyProperties.VISIBILITY_JSON.setProperty(m, visibilityJson, visibility);
         m.save(getAuthorizations());
+
+        // objects are written with the same visibility as their links
+        invalidateEdgeLabelSummary(sourceVertexId, visibility, getAuthorizations());
+        invalidateEdgeLabelSummary(destVertexId, visibility, getAuthorizations());
     }
 
     protected String getLinkTypeUri(String uri) {
@@ -3,6 +3,7 @@ package io.lumify.themoviedb;
 import io.lumify.core.exception.LumifyException;
 import io.lumify.core.mapreduce.LumifyElementMapperBase;
 import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.util.EdgeLabelSummary;
 import org.apache.hadoop.io.BytesWritable;
 import org.securegraph.Vertex;
 import org.securegraph.VertexBuilder;
@@ -58,6 +59,7 @@ public class ImportImgMRMapper extends LumifyElementMapperBase<SequenceFileKey,
         String title = key.getTitle();
         String vertexId = TheMovieDbOntology.getImageVertexId(key.getImagePath());
         VertexBuilder m = prepareVertex(vertexId, visibility);
+        EdgeLabelSummary.invalidate(m);
         LumifyProperties.CONCEPT_TYPE.addPropertyValue(m, MULTI_VALUE_KEY, conceptType, visibility);
         LumifyProperties.SOURCE.addPropertyValue(m, MULTI_VALUE_KEY, SOURCE, visibility);
         StreamingPropertyValue rawValue = new StreamingPropertyValue(new ByteArrayInputStream(value.getBytes()), byte[].class);
@@ -68,6 +70,7 @@ public class ImportImgMRMapper extends LumifyElementMapperBase<SequenceFileKey,
         Vertex profileImageVertex = m.save(authorizations);
 
         VertexBuilder sourceVertexMutation = prepareVertex(sourceVertexId, visibility);
+        EdgeLabelSummary.invalidate(sourceVertexMutation);
         LumifyProperties.ENTITY_IMAGE_VERTEX_ID.addPropertyValue(sourceVertexMutation, MULTI_VALUE_KEY, profileImageVertex.getId(), visibility);
         Vertex sourceVertex = sourceVertexMutation.save(authorizations);
 
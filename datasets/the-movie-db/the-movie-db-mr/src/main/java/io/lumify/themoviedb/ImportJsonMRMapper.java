@@ -4,6 +4,7 @@ import io.lumify.core.mapreduce.LumifyElementMapperBase;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.security.DirectVisibilityTranslator;
 import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.util.EdgeLabelSummary;
 import org.apache.hadoop.io.Text;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -77,6 +78,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
         String vertexId = TheMovieDbOntology.getPersonVertexId(personId);
 
         VertexBuilder m = prepareVertex(vertexId, visibility);
+        EdgeLabelSummary.invalidate(m);
         LumifyProperties.CONCEPT_TYPE.addPropertyValue(m, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_PERSON, visibility);
         LumifyProperties.SOURCE.addPropertyValue(m, MULTI_VALUE_KEY, SOURCE, visibility);
         StreamingPropertyValue rawValue = new StreamingPropertyValue(new ByteArrayInputStream(personJson.toString().getBytes()), byte[].class);
@@ -132,6 +134,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
             }
             int movieId = movieJson.getInt("id");
             VertexBuilder movieMutation = prepareVertex(TheMovieDbOntology.getMovieVertexId(movieId), visibility);
+            EdgeLabelSummary.invalidate(movieMutation);
             LumifyProperties.CONCEPT_TYPE.addPropertyValue(movieMutation, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_MOVIE, visibility);
             LumifyProperties.SOURCE.addPropertyValue(movieMutation, MULTI_VALUE_KEY, SOURCE, visibility);
             String title = movieJson.optString("title");
@@ -150,6 +153,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
         String sourceUrl = "http://www.themoviedb.org/movie/" + movieId;
 
         VertexBuilder m = prepareVertex(vertexId, visibility);
+        EdgeLabelSummary.invalidate(m);
         LumifyProperties.CONCEPT_TYPE.addPropertyValue(m, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_MOVIE, visibility);
         LumifyProperties.SOURCE.addPropertyValue(m, MULTI_VALUE_KEY, SOURCE, visibility);
         LumifyProperties.SOURCE_URL.addPropertyValue(m, MULTI_VALUE_KEY, sourceUrl, visibility);
@@ -220,6 +224,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
                 int productionCompanyId = productionCompany.getInt("id");
                 String sourceUrl = "http://www.themoviedb.org/company/" + productionCompanyId;
                 VertexBuilder productionCompanyMutation = prepareVertex(TheMovieDbOntology.getProductionCompanyVertexId(productionCompanyId), visibility);
+                EdgeLabelSummary.invalidate(productionCompanyMutation);
                 LumifyProperties.CONCEPT_TYPE.addPropertyValue(productionCompanyMutation, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_PRODUCTION_COMPANY, visibility);
                 LumifyProperties.SOURCE.addPropertyValue(productionCompanyMutation, MULTI_VALUE_KEY, SOURCE, visibility);
                 LumifyProperties.SOURCE_URL.addPropertyValue(productionCompanyMutation, MULTI_VALUE_KEY, sourceUrl, visibility);
@@ -241,6 +246,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
             int personId = castJson.getInt("id");
             String sourceUrl = "http://www.themoviedb.org/person/" + personId;
             VertexBuilder personMutation = prepareVertex(TheMovieDbOntology.getPersonVertexId(personId), visibility);
+            EdgeLabelSummary.invalidate(personMutation);
             LumifyProperties.CONCEPT_TYPE.addPropertyValue(personMutation, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_PERSON, visibility);
             LumifyProperties.SOURCE.addPropertyValue(personMutation, MULTI_VALUE_KEY, SOURCE, visibility);
             LumifyProperties.SOURCE_URL.addPropertyValue(personMutation, MULTI_VALUE_KEY, sourceUrl, visibility);
@@ -255,6 +261,7 @@ public class ImportJsonMRMapper extends LumifyElementMapperBase<SequenceFileKey,
             if (character != null && character.length() > 0) {
                 String roleId = TheMovieDbOntology.getRoleId(personId, movieId);
                 VertexBuilder roleMutation = prepareVertex(TheMovieDbOntology.getRoleVertexId(roleId), visibility);
+                EdgeLabelSummary.invalidate(roleMutation);
                 LumifyProperties.CONCEPT_TYPE.addPropertyValue(roleMutation, MULTI_VALUE_KEY, TheMovieDbOntology.CONCEPT_TYPE_ROLE, visibility);
                 LumifyProperties.SOURCE.addPropertyValue(roleMutation, MULTI_VALUE_KEY, SOURCE, visibility);
                 LumifyProperties.TITLE.addPropertyValue(roleMutation, MULTI_VALUE_KEY, character, visibility);
@@ -59,7 +59,7 @@ public class TwitterProfileImageDownloadGraphPropertyWorker extends GraphPropert
             profileImageVertex = v.save(getAuthorizations());
             LOGGER.debug("created vertex: %s", profileImageVertex.getId());
 
-            getGraph().addEdge((Vertex) data.getElement(), profileImageVertex, entityHasImageIri, data.getVisibility(), getAuthorizations());
+            getEdgeLabelSummary().addEdge((Vertex) data.getElement(), profileImageVertex, entityHasImageIri, data.getVisibility(), getAuthorizations());
             LumifyProperties.ENTITY_IMAGE_VERTEX_ID.setProperty(data.getElement(), profileImageVertex.getId(), data.getVisibility(), getAuthorizations());
             getGraph().flush();
 
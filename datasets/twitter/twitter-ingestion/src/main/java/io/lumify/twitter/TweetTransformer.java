@@ -3,9 +3,11 @@ package io.lumify.twitter;
 import static com.google.common.base.Preconditions.checkNotNull;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.termMention.TermMentionBuilder;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workQueue.WorkQueueRepository;
 import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.twitter.loaders.LoaderConstants;
 import io.lumify.twitter.loaders.TweetVertexLoader;
 import io.lumify.twitter.loaders.UserVertexDetails;
@@ -40,6 +42,8 @@ public final class TweetTransformer {
     private final WorkQueueRepository workQueueRepository;
     private final UserRepository userRepository;
     private final VisibilityTranslator visibilityTranslator;
+    private final TermMentionIndexRepository termMentionIndexRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
     private final Authorizations authorizations;
     private final UserVertexLoader userLoader;
     private final TweetVertexLoader tweetLoader;
@@ -55,17 +59,22 @@ public final class TweetTransformer {
      * @param translator The visibility expression translator, not null
      * @param userVertexLoader The loader used for storing user vertices, not null
      * @param tweetVertexLoader The loader used for storing tweet status vertices, not null
+     * @param termMentionIndexRepo The index the term mentions of tweets are added to, not null
+     * @param summary The edge label summary the tweet edges are added through, not null
      */
     @Inject
     public TweetTransformer(final Graph secureGraph, final WorkQueueRepository workQueueRepo,
                                final UserRepository userRepo, final VisibilityTranslator translator,
-                               final UserVertexLoader userVertexLoader, final TweetVertexLoader tweetVertexLoader) {
+                               final UserVertexLoader userVertexLoader, final TweetVertexLoader tweetVertexLoader,
+                               final TermMentionIndexRepository termMentionIndexRepo, final EdgeLabelSummary summary) {
         graph = checkNotNull(secureGraph);
         workQueueRepository = checkNotNull(workQueueRepo);
         userRepository = checkNotNull(userRepo);
         visibilityTranslator = checkNotNull(translator);
         userLoader = checkNotNull(userVertexLoader);
         tweetLoader = checkNotNull(tweetVertexLoader);
+        termMentionIndexRepository = checkNotNull(termMentionIndexRepo);
+        edgeLabelSummary = checkNotNull(summary);
 
         authorizations = userRepository.getAuthorizations(userRepository.getSystemUser());
     }
@@ -94,7 +103,7 @@ public final class TweetTransformer {
     private void createTweetedEdge(final Vertex userVertex, final Vertex tweetVertex) {
         final String tweetedEdgeId = userVertex.getId() + "_TWEETED_" + tweetVertex.getId();
 
-        graph.addEdge(tweetedEdgeId, userVertex, tweetVertex, TwitterOntology.EDGE_LABEL_TWEETED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
+        edgeLabelSummary.addEdge(tweetedEdgeId, userVertex, tweetVertex, TwitterOntology.EDGE_LABEL_TWEETED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
         graph.flush();
     }
 
@@ -110,7 +119,7 @@ public final class TweetTransformer {
         final Vertex retweetedTweet = transformTweetStatus(retweetedStatus);
         final String retweetEdgeId = tweetVertex.getId() + "_RETWEET_" + retweetedTweet.getId();
 
-        graph.addEdge(retweetEdgeId, retweetedTweet, tweetVertex, TwitterOntology.EDGE_LABEL_RETWEET, LoaderConstants.EMPTY_VISIBILITY, authorizations);
+        edgeLabelSummary.addEdge(retweetEdgeId, retweetedTweet, tweetVertex, TwitterOntology.EDGE_LABEL_RETWEET, LoaderConstants.EMPTY_VISIBILITY, authorizations);
         graph.flush();
     }
 
@@ -166,7 +175,7 @@ public final class TweetTransformer {
 
     private Edge createReferencesUrlEdge(Vertex tweetVertex, Vertex urlVertex) {
         final String mentionedEdgeId = tweetVertex.getId() + "_REFURL_" + urlVertex.getId();
-        final Edge edge = graph.addEdge(mentionedEdgeId, tweetVertex, urlVertex, TwitterOntology.EDGE_LABEL_REFERENCED_URL, LoaderConstants.EMPTY_VISIBILITY, authorizations);
+        final Edge edge = edgeLabelSummary.addEdge(mentionedEdgeId, tweetVertex, urlVertex, TwitterOntology.EDGE_LABEL_REFERENCED_URL, LoaderConstants.EMPTY_VISIBILITY, authorizations);
         graph.flush();
 
         return edge;
@@ -187,7 +196,7 @@ public final class TweetTransformer {
 
     private Edge createMentionedEdge(Vertex tweetVertex, Vertex userVertex) {
         final String mentionedEdgeId = tweetVertex.getId() + "_MENTIONED_" + userVertex.getId();
-        final Edge edge = graph.addEdge(mentionedEdgeId, tweetVertex, userVertex, TwitterOntology.EDGE_LABEL_MENTIONED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
+        final Edge edge = edgeLabelSummary.addEdge(mentionedEdgeId, tweetVertex, userVertex, TwitterOntology.EDGE_LABEL_MENTIONED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
         graph.flush();
 
         return edge;
@@ -236,7 +245,7 @@ public final class TweetTransformer {
 
     private Edge createTaggedEdge(Vertex tweetVertex, Vertex hashtagVertex) {
         final String mentionedEdgeId = tweetVertex.getId() + "_TAGGED_" + hashtagVertex.getId();
-        final Edge edge = graph.addEdge(mentionedEdgeId, tweetVertex, hashtagVertex, TwitterOntology.EDGE_LABEL_TAGGED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
+        final Edge edge = edgeLabelSummary.addEdge(mentionedEdgeId, tweetVertex, hashtagVertex, TwitterOntology.EDGE_LABEL_TAGGED, LoaderConstants.EMPTY_VISIBILITY, authorizations);
         graph.flush();
 
         return edge;
@@ -257,6 +266,6 @@ public final class TweetTransformer {
             .conceptIri(conceptUri)
             .visibilityJson(visibilitySource)
             .resolvedTo(vertex, edge)
-            .save(graph, visibilityTranslator, authorizations);
+            .save(graph, visibilityTranslator, termMentionIndexRepository, authorizations);
     }
 }
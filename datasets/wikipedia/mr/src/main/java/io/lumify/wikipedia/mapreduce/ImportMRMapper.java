@@ -1,19 +1,24 @@
 package io.lumify.wikipedia.mapreduce;
 
+import com.altamiracorp.bigtable.model.FlushFlag;
 import com.altamiracorp.bigtable.model.accumulo.AccumuloSession;
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
 import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.exception.LumifyException;
 import io.lumify.core.mapreduce.LumifyElementMapperBase;
 import io.lumify.core.model.audit.Audit;
 import io.lumify.core.model.audit.AuditAction;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.termMention.TermMentionBuilder;
+import io.lumify.core.model.termMention.TermMentionIndex;
+import io.lumify.core.model.termMention.TermMentionIndexRepository;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.security.DirectVisibilityTranslator;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.SystemUser;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.core.version.VersionService;
@@ -78,6 +83,7 @@ class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text> {
     private VisibilityJson visibilityJson;
     private VisibilityTranslator visibilityTranslator;
     private Visibility defaultVisibility;
+    private TermMentionIndexRepository termMentionIndexRepository;
 
     public ImportMRMapper() {
         this.textXPath = XPathFactory.instance().compile(TEXT_XPATH, Filters.text());
@@ -99,6 +105,7 @@ class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text> {
         Configuration configuration = new HashMapConfigurationLoader(configurationMap).createConfiguration();
         this.auditRepository = new SecureGraphAuditRepository(null, versionService, configuration, null, userRepository);
         this.sourceFileName = context.getConfiguration().get(CONFIG_SOURCE_FILE_NAME);
+        this.termMentionIndexRepository = new ContextTermMentionIndexRepository(context);
 
         try {
             config = DefaultConfigEnWp.generate();
@@ -174,6 +181,7 @@ class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text> {
         StreamingPropertyValue textPropertyValue = new StreamingPropertyValue(new ByteArrayInputStream(parsePage.getWikitext().getBytes()), String.class);
 
         VertexBuilder pageVertexBuilder = prepareVertex(wikipediaPageVertexId, visibility);
+        EdgeLabelSummary.invalidate(pageVertexBuilder);
         LumifyProperties.CONCEPT_TYPE.setProperty(pageVertexBuilder, WikipediaConstants.WIKIPEDIA_PAGE_CONCEPT_URI, visibility);
         LumifyProperties.MIME_TYPE.setProperty(pageVertexBuilder, ImportMR.WIKIPEDIA_MIME_TYPE, visibility);
         LumifyProperties.FILE_NAME.setProperty(pageVertexBuilder, sourceFileName, visibility);
@@ -238,6 +246,7 @@ class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text> {
         String linkVertexId = WikipediaConstants.getWikipediaPageVertexId(linkTarget);
         context.setStatus(pageVertex.getId() + " [" + linkVertexId + "]");
         VertexBuilder linkedPageVertexBuilder = prepareVertex(linkVertexId, visibility);
+        EdgeLabelSummary.invalidate(linkedPageVertexBuilder);
         LumifyProperties.CONCEPT_TYPE.setProperty(linkedPageVertexBuilder, WikipediaConstants.WIKIPEDIA_PAGE_CONCEPT_URI, visibility);
         LumifyProperties.MIME_TYPE.setProperty(linkedPageVertexBuilder, ImportMR.WIKIPEDIA_MIME_TYPE, visibility);
         LumifyProperties.SOURCE.setProperty(linkedPageVertexBuilder, WikipediaConstants.WIKIPEDIA_SOURCE, visibility);
@@ -266,7 +275,34 @@ class ImportMRMapper extends LumifyElementMapperBase<LongWritable, Text> {
                 .visibilityJson(visibilityJson)
                 .process(WIKIPEDIA_PROCESS)
                 .resolvedTo(linkedPageVertex, edge)
-                .save(getGraph(), visibilityTranslator, authorizations);
+                .save(getGraph(), visibilityTranslator, termMentionIndexRepository, authorizations);
+    }
+
+    /**
+     * Writes the term mention index rows to the job output, like the audit rows, instead of to a model session.
+     */
+    private class ContextTermMentionIndexRepository extends TermMentionIndexRepository {
+        private final Text tableNameText = new Text(TermMentionIndex.TABLE_NAME);
+        private final Context context;
+
+        public ContextTermMentionIndexRepository(Context context) {
+            super(null);
+            this.context = context;
+        }
+
+        @Override
+        public void save(TermMentionIndex termMentionIndex) {
+            save(termMentionIndex, FlushFlag.DEFAULT);
+        }
+
+        @Override
+        public void save(TermMentionIndex termMentionIndex, FlushFlag flushFlag) {
+            try {
+                context.write(tableNameText, AccumuloSession.createMutationFromRow(termMentionIndex));
+            } catch (IOException | InterruptedException ex) {
+                throw new LumifyException("Could not write term mention index row " + termMentionIndex.getRowKey(), ex);
+            }
+        }
     }
 
     private Iterable<LinkWithOffsets> getLinks(TextConverter textConverter) {
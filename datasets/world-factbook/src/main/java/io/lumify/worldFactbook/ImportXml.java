@@ -6,6 +6,7 @@ import io.lumify.core.ingest.FileImport;
 import io.lumify.core.model.ontology.OntologyRepository;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.util.EdgeLabelSummary;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
@@ -37,6 +38,7 @@ public class ImportXml extends CommandLineBase {
     private Visibility visibility = new Visibility("");
     private VisibilityTranslator visibilityTranslator;
     private FileImport fileImport;
+    private EdgeLabelSummary edgeLabelSummary;
     private String visibilitySource = "";
     private String entityHasImageIri;
 
@@ -128,7 +130,7 @@ public class ImportXml extends CommandLineBase {
         LumifyProperties.CONFIDENCE.setMetadata(flagImageMetadata, 0.5, visibilityTranslator.getDefaultVisibility());
         LumifyProperties.TITLE.addPropertyValue(flagVertex, MULTI_VALUE_KEY, flagTitle, flagImageMetadata, visibility, getAuthorizations());
 
-        getGraph().addEdge(FLAG_EDGE_ID_PREFIX + countryId, countryVertex, flagVertex, entityHasImageIri, visibility, getAuthorizations());
+        edgeLabelSummary.addEdge(FLAG_EDGE_ID_PREFIX + countryId, countryVertex, flagVertex, entityHasImageIri, visibility, getAuthorizations());
         LumifyProperties.ENTITY_IMAGE_VERTEX_ID.addPropertyValue(countryVertex, MULTI_VALUE_KEY, flagVertex.getId(), visibility, getAuthorizations());
 
         return flagVertex;
@@ -148,7 +150,7 @@ public class ImportXml extends CommandLineBase {
         LumifyProperties.CONFIDENCE.setMetadata(mapImageMetadata, 0.5, visibilityTranslator.getDefaultVisibility());
         LumifyProperties.TITLE.addPropertyValue(mapVertex, MULTI_VALUE_KEY, flagTitle, mapImageMetadata, visibility, getAuthorizations());
 
-        getGraph().addEdge(MAP_EDGE_ID_PREFIX + countryId, countryVertex, mapVertex, entityHasImageIri, visibility, getAuthorizations());
+        edgeLabelSummary.addEdge(MAP_EDGE_ID_PREFIX + countryId, countryVertex, mapVertex, entityHasImageIri, visibility, getAuthorizations());
 
         return mapVertex;
     }
@@ -190,4 +192,9 @@ public class ImportXml extends CommandLineBase {
     public void setVisibilityTranslator(VisibilityTranslator visibilityTranslator) {
         this.visibilityTranslator = visibilityTranslator;
     }
+
+    @Inject
+    public void setEdgeLabelSummary(EdgeLabelSummary edgeLabelSummary) {
+        this.edgeLabelSummary = edgeLabelSummary;
+    }
 }
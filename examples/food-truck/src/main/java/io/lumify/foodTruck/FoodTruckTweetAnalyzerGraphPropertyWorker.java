@@ -55,7 +55,7 @@ public class FoodTruckTweetAnalyzerGraphPropertyWorker extends GraphPropertyWork
         String conceptUri = FoodTruckOntology.CONCEPT_TYPE_LOCATION;
 
         String edgeId = tweetVertex.getId() + "_HAS_" + keywordVertex.getId();
-        Edge edge = getGraph().addEdge(edgeId, tweetVertex, keywordVertex, FoodTruckOntology.EDGE_LABEL_HAS_KEYWORD, visibility, getAuthorizations());
+        Edge edge = getEdgeLabelSummary().addEdge(edgeId, tweetVertex, keywordVertex, FoodTruckOntology.EDGE_LABEL_HAS_KEYWORD, visibility, getAuthorizations());
         getGraph().flush();
 
         new TermMentionBuilder()
@@ -66,7 +66,7 @@ public class FoodTruckTweetAnalyzerGraphPropertyWorker extends GraphPropertyWork
                 .conceptIri(conceptUri)
                 .title(keyword)
                 .visibilityJson(visibilityJson)
-                .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
         getGraph().flush();
 
         getWorkQueueRepository().pushElement(edge);
@@ -0,0 +1,101 @@
+package io.lumify.clavin;
+
+import com.bericotech.clavin.ClavinException;
+import com.bericotech.clavin.extractor.LocationOccurrence;
+import com.bericotech.clavin.gazetteer.GeoName;
+import com.bericotech.clavin.resolver.ClavinLocationResolver;
+import com.bericotech.clavin.resolver.ResolvedLocation;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.*;
+
+/**
+ * Resolves location names against one CLAVIN index, remembering the results in an LRU cache so place names that
+ * show up again in later documents aren't looked up again.
+ * <p/>
+ * A cached result is keyed by the normalized name and the resolver settings. The names of a batch that miss are
+ * de-duplicated and sent to CLAVIN in groups of maxContextWindow names, in order, so they still give each other
+ * context; a name keeps the location it was first resolved to in whatever context it was first seen, which trades a
+ * little disambiguation for not resolving common place names again in every document.
+ */
+public class ClavinGazetteer {
+    private final ClavinLocationResolver resolver;
+    private final Cache<String, Optional<GeoName>> resolvedLocations;
+
+    public ClavinGazetteer(ClavinLocationResolver resolver, int cacheSize) {
+        this.resolver = resolver;
+        this.resolvedLocations = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * @return the resolved location of each name that could be resolved, keyed by {@link #normalizeName normalized
+     * name}.
+     */
+    public Map<String, GeoName> resolveLocations(Iterable<String> locationNames, int maxHitDepth, int maxContextWindow, boolean fuzzy) throws ClavinException {
+        Map<String, GeoName> results = new HashMap<>();
+        String settings = maxHitDepth + "|" + maxContextWindow + "|" + fuzzy;
+        List<String> misses = new ArrayList<>();
+        for (String name : getDistinctNormalizedNames(locationNames)) {
+            Optional<GeoName> geoName = resolvedLocations.getIfPresent(getCacheKey(name, settings));
+            if (geoName == null) {
+                misses.add(name);
+            } else if (geoName.isPresent()) {
+                results.put(name, geoName.get());
+            }
+        }
+        for (int groupStart = 0; groupStart < misses.size(); groupStart += maxContextWindow) {
+            List<String> group = misses.subList(groupStart, Math.min(misses.size(), groupStart + maxContextWindow));
+            resolveGroup(group, settings, maxHitDepth, maxContextWindow, fuzzy, results);
+        }
+        return results;
+    }
+
+    public long getCacheSize() {
+        return resolvedLocations.size();
+    }
+
+    public static String normalizeName(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+    }
+
+    private void resolveGroup(List<String> group, String settings, int maxHitDepth, int maxContextWindow, boolean fuzzy, Map<String, GeoName> results) throws ClavinException {
+        // the position of each occurrence is its index in the group so results can be matched back to names
+        List<LocationOccurrence> occurrences = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            occurrences.add(new LocationOccurrence(group.get(i), i));
+        }
+        Map<String, GeoName> groupResults = new HashMap<>();
+        for (ResolvedLocation resolvedLocation : resolver.resolveLocations(occurrences, maxHitDepth, maxContextWindow, fuzzy)) {
+            int position = resolvedLocation.getLocation().getPosition();
+            if (position >= 0 && position < group.size()) {
+                groupResults.put(group.get(position), resolvedLocation.getGeoname());
+            }
+        }
+        for (String name : group) {
+            resolvedLocations.put(getCacheKey(name, settings), Optional.fromNullable(groupResults.get(name)));
+        }
+        results.putAll(groupResults);
+    }
+
+    private static Set<String> getDistinctNormalizedNames(Iterable<String> locationNames) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String locationName : locationNames) {
+            if (locationName == null) {
+                continue;
+            }
+            String name = normalizeName(locationName);
+            if (name.length() > 0) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static String getCacheKey(String name, String settings) {
+        return name + "|" + settings;
+    }
+}
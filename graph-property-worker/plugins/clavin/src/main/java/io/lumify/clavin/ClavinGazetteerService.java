@@ -0,0 +1,73 @@
+package io.lumify.clavin;
+
+import com.bericotech.clavin.ClavinException;
+import com.bericotech.clavin.gazetteer.query.LuceneGazetteer;
+import com.bericotech.clavin.index.BinarySimilarity;
+import com.bericotech.clavin.resolver.ClavinLocationResolver;
+import com.google.inject.Singleton;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opens each CLAVIN index once per JVM and shares it, and its cache of resolved locations, between every filter
+ * and thread. The index is opened as an MMapDirectory, so it lives in the OS page cache and is shared with the other
+ * worker processes on the machine instead of each one reading it onto its own heap.
+ */
+@Singleton
+public class ClavinGazetteerService {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ClavinGazetteerService.class);
+    private final Map<File, ClavinGazetteer> gazetteers = new HashMap<>();
+
+    public synchronized ClavinGazetteer getGazetteer(File indexDirectory, int cacheSize) throws IOException, ClavinException {
+        File canonicalIndexDirectory = indexDirectory.getCanonicalFile();
+        ClavinGazetteer gazetteer = gazetteers.get(canonicalIndexDirectory);
+        if (gazetteer == null) {
+            LOGGER.info("Opening CLAVIN index: %s", canonicalIndexDirectory);
+            LuceneGazetteer luceneGazetteer = new LuceneGazetteer(canonicalIndexDirectory);
+            useMemoryMappedIndex(luceneGazetteer, canonicalIndexDirectory);
+            ClavinLocationResolver resolver = new ClavinLocationResolver(luceneGazetteer);
+            gazetteer = new ClavinGazetteer(resolver, cacheSize);
+            gazetteers.put(canonicalIndexDirectory, gazetteer);
+        }
+        return gazetteer;
+    }
+
+    /**
+     * LuceneGazetteer only takes the index directory and opens it with FSDirectory.open, which picks the directory
+     * implementation itself, so its directory and searcher are replaced with ones opened on an MMapDirectory. The
+     * searcher is set up the same way LuceneGazetteer sets up its own.
+     */
+    private static void useMemoryMappedIndex(LuceneGazetteer gazetteer, File indexDirectory) throws IOException {
+        MMapDirectory directory = new MMapDirectory(indexDirectory);
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(directory));
+        indexSearcher.setSimilarity(new BinarySimilarity());
+        try {
+            Field indexField = LuceneGazetteer.class.getDeclaredField("index");
+            Field indexSearcherField = LuceneGazetteer.class.getDeclaredField("indexSearcher");
+            indexField.setAccessible(true);
+            indexSearcherField.setAccessible(true);
+            FSDirectory openedDirectory = (FSDirectory) indexField.get(gazetteer);
+            IndexSearcher openedIndexSearcher = (IndexSearcher) indexSearcherField.get(gazetteer);
+            indexField.set(gazetteer, directory);
+            indexSearcherField.set(gazetteer, indexSearcher);
+            openedIndexSearcher.getIndexReader().close();
+            openedDirectory.close();
+        } catch (NoSuchFieldException | IllegalAccessException ex) {
+            indexSearcher.getIndexReader().close();
+            directory.close();
+            throw new LumifyException("Could not open CLAVIN index " + indexDirectory + " memory mapped", ex);
+        }
+        LOGGER.debug("CLAVIN index %s is memory mapped", indexDirectory);
+    }
+}
@@ -1,47 +1,34 @@
 package io.lumify.clavin;
 
-import static org.securegraph.util.IterableUtils.count;
-
 import com.bericotech.clavin.ClavinException;
-import com.bericotech.clavin.extractor.LocationOccurrence;
 import com.bericotech.clavin.gazetteer.FeatureClass;
 import com.bericotech.clavin.gazetteer.FeatureCode;
 import com.bericotech.clavin.gazetteer.GeoName;
-import com.bericotech.clavin.gazetteer.query.Gazetteer;
-import com.bericotech.clavin.gazetteer.query.LuceneGazetteer;
-import com.bericotech.clavin.resolver.ClavinLocationResolver;
-import com.bericotech.clavin.resolver.ResolvedLocation;
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
+import io.lumify.core.ingest.graphProperty.ResolvedEntity;
 import io.lumify.core.ingest.graphProperty.TermMentionFilter;
 import io.lumify.core.ingest.graphProperty.TermMentionFilterPrepareData;
+import io.lumify.core.ingest.graphProperty.TermMentionResolutions;
 import io.lumify.core.model.audit.AuditAction;
 import io.lumify.core.model.audit.AuditRepository;
 import io.lumify.core.model.ontology.Concept;
 import io.lumify.core.model.ontology.OntologyProperty;
 import io.lumify.core.model.ontology.OntologyRepository;
 import io.lumify.core.model.properties.LumifyProperties;
-import io.lumify.core.model.termMention.TermMentionBuilder;
-import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.web.clientapi.model.PropertyType;
-import io.lumify.web.clientapi.model.VisibilityJson;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.apache.lucene.queryparser.classic.ParseException;
 import org.securegraph.Authorizations;
-import org.securegraph.Edge;
-import org.securegraph.ElementBuilder;
-import org.securegraph.Metadata;
 import org.securegraph.Vertex;
 import org.securegraph.type.GeoPoint;
 
@@ -74,6 +61,11 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
      */
     public static final String CLAVIN_USE_FUZZY_MATCHING = "clavin.useFuzzyMatching";
 
+    /**
+     * The CLAVIN resolved location cache size configuration key.
+     */
+    public static final String CLAVIN_CACHE_SIZE = "clavin.cacheSize";
+
     /**
      * The default max hit depth.
      */
@@ -89,9 +81,14 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
      */
     public static final boolean DEFAULT_FUZZY_MATCHING = false;
 
+    /**
+     * The default number of resolved locations to cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
     private static final String CONFIG_EXCLUDED_IRI_PREFIX = "clavin.excludeIri";
 
-    private ClavinLocationResolver resolver;
+    private ClavinGazetteer gazetteer;
     private int maxHitDepth;
     private int maxContextWindow;
     private boolean fuzzy;
@@ -102,9 +99,8 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
     private String cityIri;
     private String geoLocationIri;
     private AuditRepository auditRepository;
+    private ClavinGazetteerService clavinGazetteerService;
     private User user;
-    private String artifactHasEntityIri;
-    private WorkspaceRepository workspaceRepository;
 
     @Override
     public void prepare(TermMentionFilterPrepareData termMentionFilterPrepareData) throws Exception {
@@ -155,7 +151,7 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
         }
     }
 
-    public void prepareClavinLuceneIndex(Configuration config) throws IOException, ParseException, ClavinException {
+    public void prepareClavinLuceneIndex(Configuration config) throws IOException, ClavinException {
         String idxDirPath = config.get(CLAVIN_INDEX_DIRECTORY, null);
         if (idxDirPath == null || idxDirPath.trim().isEmpty()) {
             throw new IllegalArgumentException(String.format("%s must be configured.", CLAVIN_INDEX_DIRECTORY));
@@ -178,12 +174,11 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
             maxContextWindow = DEFAULT_MAX_CONTENT_WINDOW;
         }
 
-        Gazetteer gazetteer = new LuceneGazetteer(indexDirectory);
-        resolver = new ClavinLocationResolver(gazetteer);
+        int cacheSize = config.getInt(CLAVIN_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        gazetteer = clavinGazetteerService.getGazetteer(indexDirectory, cacheSize);
     }
 
     private void prepareIris() {
-        artifactHasEntityIri = ontologyRepository.getRequiredRelationshipIRIByIntent("artifactHasEntity");
         stateIri = ontologyRepository.getRequiredConceptIRIByIntent("state");
         countryIri = ontologyRepository.getRequiredConceptIRIByIntent("country");
         cityIri = ontologyRepository.getRequiredConceptIRIByIntent("city");
@@ -191,72 +186,43 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
     }
 
     @Override
-    public void apply(Vertex sourceVertex, Iterable<Vertex> termMentions, Authorizations authorizations) throws IOException, ParseException, ClavinException {
-        List<LocationOccurrence> locationOccurrences = getLocationOccurrencesFromTermMentions(termMentions);
-        LOGGER.info("Found %d Locations in %d terms.", locationOccurrences.size(), count(termMentions));
-        List<ResolvedLocation> resolvedLocationNames = resolver.resolveLocations(locationOccurrences, maxHitDepth, maxContextWindow, fuzzy);
-        LOGGER.info("Resolved %d Locations", resolvedLocationNames.size());
-
-        if (resolvedLocationNames.isEmpty()) {
+    public void resolve(Vertex sourceVertex, Iterable<Vertex> termMentions, TermMentionResolutions resolutions, Authorizations authorizations) throws ClavinException {
+        List<Vertex> locationTermMentions = getLocationTermMentions(termMentions);
+        if (locationTermMentions.isEmpty()) {
             return;
         }
+        List<String> locationNames = new ArrayList<>(locationTermMentions.size());
+        for (Vertex termMention : locationTermMentions) {
+            locationNames.add(LumifyProperties.TERM_MENTION_TITLE.getPropertyValue(termMention));
+        }
+        Map<String, GeoName> resolvedLocations = gazetteer.resolveLocations(locationNames, maxHitDepth, maxContextWindow, fuzzy);
+        LOGGER.info("Resolved %d Locations from %d location terms.", resolvedLocations.size(), locationTermMentions.size());
 
-        Map<Integer, ResolvedLocation> resolvedLocationOffsetMap = new HashMap<>();
-        for (ResolvedLocation resolvedLocation : resolvedLocationNames) {
-            // assumes start/end positions are real, i.e., unique start positions for each extracted term
-            resolvedLocationOffsetMap.put(resolvedLocation.getLocation().getPosition(), resolvedLocation);
+        if (resolvedLocations.isEmpty()) {
+            return;
         }
 
-        ResolvedLocation loc;
         String processId = getClass().getName();
-        for (Vertex termMention : termMentions) {
-            loc = resolvedLocationOffsetMap.get((int) LumifyProperties.TERM_MENTION_START_OFFSET.getPropertyValue(termMention, 0));
-            if (isLocation(termMention) && loc != null) {
-                String id = String.format("CLAVIN-%d", loc.getGeoname().getGeonameID());
-                GeoPoint geoPoint = new GeoPoint(loc.getGeoname().getLatitude(), loc.getGeoname().getLongitude(), LumifyProperties.TERM_MENTION_TITLE.getPropertyValue(termMention));
-                String title = toSign(loc);
-                String termMentionConceptType = LumifyProperties.TERM_MENTION_CONCEPT_TYPE.getPropertyValue(termMention);
-                String conceptType = getOntologyClassUri(loc, termMentionConceptType);
-
-                VisibilityJson sourceVertexVisibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex);
-                Metadata metadata = new Metadata();
-                LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, sourceVertexVisibilityJson, getVisibilityTranslator().getDefaultVisibility());
-                ElementBuilder<Vertex> resolvedToVertexBuilder = getGraph().prepareVertex(id, sourceVertex.getVisibility())
-                        .addPropertyValue(MULTI_VALUE_PROPERTY_KEY, geoLocationIri, geoPoint, metadata, sourceVertex.getVisibility());
-                LumifyProperties.CONCEPT_TYPE.addPropertyValue(resolvedToVertexBuilder, MULTI_VALUE_PROPERTY_KEY, conceptType, metadata, sourceVertex.getVisibility());
-                LumifyProperties.SOURCE.addPropertyValue(resolvedToVertexBuilder, MULTI_VALUE_PROPERTY_KEY, "CLAVIN", metadata, sourceVertex.getVisibility());
-                LumifyProperties.TITLE.addPropertyValue(resolvedToVertexBuilder, MULTI_VALUE_PROPERTY_KEY, title, metadata, sourceVertex.getVisibility());
-                LumifyProperties.VISIBILITY_JSON.addPropertyValue(resolvedToVertexBuilder, MULTI_VALUE_PROPERTY_KEY, sourceVertexVisibilityJson, metadata, sourceVertex.getVisibility());
-                Vertex resolvedToVertex = resolvedToVertexBuilder.save(authorizations);
-                getGraph().flush();
-
-                String edgeId = sourceVertex.getId() + "-" + artifactHasEntityIri + "-" + resolvedToVertex.getId();
-                Edge resolvedEdge = getGraph().prepareEdge(edgeId, sourceVertex, resolvedToVertex, artifactHasEntityIri, sourceVertex.getVisibility()).save(authorizations);
-                LumifyProperties.VISIBILITY_JSON.addPropertyValue(resolvedEdge, MULTI_VALUE_PROPERTY_KEY, sourceVertexVisibilityJson, metadata, sourceVertex.getVisibility(), authorizations);
-                VisibilityJson visibilityJson = LumifyProperties.TERM_MENTION_VISIBILITY_JSON.getPropertyValue(termMention);
-                if (visibilityJson != null && visibilityJson.getWorkspaces().size() > 0) {
-                    Set<String> workspaceIds = visibilityJson.getWorkspaces();
-                    for (String workspaceId : workspaceIds) {
-                        workspaceRepository.updateEntityOnWorkspace(workspaceRepository.findById(workspaceId, user), id, false, null, user);
-                    }
-                }
-
-                Vertex resolvedMention = new TermMentionBuilder(termMention, sourceVertex)
-                        .resolvedTo(resolvedToVertex, resolvedEdge)
-                        .title(title)
-                        .conceptIri(conceptType)
-                        .process(processId)
-                        .visibilityJson(LumifyProperties.TERM_MENTION_VISIBILITY_JSON.getPropertyValue(termMention))
-                        .save(getGraph(), getVisibilityTranslator(), authorizations);
-
-                LOGGER.debug("Replacing original location [%s] with resolved location [%s]", termMention.getId(), resolvedMention.getId());
+        for (Vertex termMention : locationTermMentions) {
+            String title = LumifyProperties.TERM_MENTION_TITLE.getPropertyValue(termMention);
+            GeoName geoName = title == null ? null : resolvedLocations.get(ClavinGazetteer.normalizeName(title));
+            if (geoName == null) {
+                continue;
             }
+            String id = String.format("CLAVIN-%d", geoName.getGeonameID());
+            GeoPoint geoPoint = new GeoPoint(geoName.getLatitude(), geoName.getLongitude(), title);
+            String termMentionConceptType = LumifyProperties.TERM_MENTION_CONCEPT_TYPE.getPropertyValue(termMention);
+            String conceptType = getOntologyClassUri(geoName, termMentionConceptType);
+
+            ResolvedEntity resolvedEntity = new ResolvedEntity(MULTI_VALUE_PROPERTY_KEY, id, conceptType, toSign(geoName), "CLAVIN")
+                    .property(geoLocationIri, geoPoint);
+            resolutions.add(termMention, resolvedEntity, processId);
+            LOGGER.debug("Resolved location [%s] to [%s]", termMention.getId(), id);
         }
         auditRepository.auditAnalyzedBy(AuditAction.ANALYZED_BY, sourceVertex, getClass().getSimpleName(), user, sourceVertex.getVisibility());
     }
 
-    private String toSign(final ResolvedLocation location) {
-        GeoName geoname = location.getGeoname();
+    private String toSign(final GeoName geoname) {
         return String.format("%s (%s, %s)", geoname.getName(), geoname.getPrimaryCountryCode(), geoname.getAdmin1Code());
     }
 
@@ -264,21 +230,20 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
         return targetConcepts.contains(LumifyProperties.TERM_MENTION_CONCEPT_TYPE.getPropertyValue(mention));
     }
 
-    private List<LocationOccurrence> getLocationOccurrencesFromTermMentions(final Iterable<Vertex> termMentions) {
-        List<LocationOccurrence> locationOccurrences = new ArrayList<>();
-
+    private List<Vertex> getLocationTermMentions(final Iterable<Vertex> termMentions) {
+        List<Vertex> locationTermMentions = new ArrayList<>();
         for (Vertex termMention : termMentions) {
             if (isLocation(termMention)) {
-                locationOccurrences.add(new LocationOccurrence(LumifyProperties.TERM_MENTION_TITLE.getPropertyValue(termMention), (int) LumifyProperties.TERM_MENTION_START_OFFSET.getPropertyValue(termMention, 0)));
+                locationTermMentions.add(termMention);
             }
         }
-        return locationOccurrences;
+        return locationTermMentions;
     }
 
-    public String getOntologyClassUri(final ResolvedLocation location, final String defaultValue) {
+    public String getOntologyClassUri(final GeoName geoName, final String defaultValue) {
         String uri = defaultValue;
-        FeatureClass featureClass = location.getGeoname().getFeatureClass();
-        FeatureCode featureCode = location.getGeoname().getFeatureCode();
+        FeatureClass featureClass = geoName.getFeatureClass();
+        FeatureCode featureCode = geoName.getFeatureCode();
         if (featureClass == null) {
             featureClass = FeatureClass.NULL;
         }
@@ -314,7 +279,7 @@ public class ClavinTermMentionFilter extends TermMentionFilter {
     }
 
     @Inject
-    public void setWorkspaceRepository(WorkspaceRepository workspaceRepository) {
-        this.workspaceRepository = workspaceRepository;
+    public void setClavinGazetteerService(ClavinGazetteerService clavinGazetteerService) {
+        this.clavinGazetteerService = clavinGazetteerService;
     }
 }
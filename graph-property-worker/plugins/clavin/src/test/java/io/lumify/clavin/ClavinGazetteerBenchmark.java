@@ -0,0 +1,104 @@
+package io.lumify.clavin;
+
+import com.bericotech.clavin.extractor.LocationOccurrence;
+import com.bericotech.clavin.resolver.ClavinLocationResolver;
+import com.google.common.base.Stopwatch;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares resolving each document's locations straight through CLAVIN with resolving them through
+ * {@link ClavinGazetteer} over a synthetic index, on two corpora. In the topic corpus documents are about one of a
+ * fixed set of topics, each mentioning the same handful of places several times, the way news about one region does.
+ * The untailored corpus has no such structure: every mention is drawn independently from the whole index, with a
+ * long tailed popularity so some places are common and most are rare. Not run by the normal build; run it with
+ * -Dtest=ClavinGazetteerBenchmark.
+ */
+public class ClavinGazetteerBenchmark {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ClavinGazetteerBenchmark.class);
+    private static final int INDEX_SIZE = 20000;
+    private static final int TOPIC_COUNT = 300;
+    private static final int DOCUMENT_COUNT = 5000;
+    private static final int MENTIONS_PER_DOCUMENT = 20;
+    private static final int MAX_HIT_DEPTH = 5;
+    private static final int MAX_CONTEXT_WINDOW = 5;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        random = new Random(42);
+    }
+
+    @Test
+    public void benchmarkTopicCorpus() throws Exception {
+        List<List<String>> topics = new ArrayList<>();
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            List<String> topicPlaces = new ArrayList<>();
+            int placeCount = 2 + random.nextInt(MAX_CONTEXT_WINDOW - 1);
+            for (int j = 0; j < placeCount; j++) {
+                topicPlaces.add(SyntheticGazetteerIndex.getName(random.nextInt(INDEX_SIZE)));
+            }
+            topics.add(topicPlaces);
+        }
+
+        List<List<String>> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            List<String> topicPlaces = topics.get((int) (Math.pow(random.nextDouble(), 2) * TOPIC_COUNT));
+            List<String> mentions = new ArrayList<>();
+            for (int j = 0; j < MENTIONS_PER_DOCUMENT; j++) {
+                mentions.add(topicPlaces.get(random.nextInt(topicPlaces.size())));
+            }
+            documents.add(mentions);
+        }
+
+        benchmark("topic", documents, 10);
+    }
+
+    @Test
+    public void benchmarkUntailoredCorpus() throws Exception {
+        List<List<String>> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            List<String> mentions = new ArrayList<>();
+            for (int j = 0; j < MENTIONS_PER_DOCUMENT; j++) {
+                mentions.add(SyntheticGazetteerIndex.getName((int) (Math.pow(random.nextDouble(), 3) * INDEX_SIZE)));
+            }
+            documents.add(mentions);
+        }
+
+        benchmark("untailored", documents, 3);
+    }
+
+    private void benchmark(String corpusName, List<List<String>> documents, int minLookupReduction) throws Exception {
+        SyntheticGazetteerIndex uncachedIndex = new SyntheticGazetteerIndex(INDEX_SIZE);
+        ClavinLocationResolver resolver = uncachedIndex.createResolver();
+        Stopwatch uncachedStopwatch = new Stopwatch().start();
+        for (List<String> mentions : documents) {
+            List<LocationOccurrence> occurrences = new ArrayList<>();
+            for (int i = 0; i < mentions.size(); i++) {
+                occurrences.add(new LocationOccurrence(mentions.get(i), i));
+            }
+            resolver.resolveLocations(occurrences, MAX_HIT_DEPTH, MAX_CONTEXT_WINDOW, false);
+        }
+        uncachedStopwatch.stop();
+
+        SyntheticGazetteerIndex cachedIndex = new SyntheticGazetteerIndex(INDEX_SIZE);
+        ClavinGazetteer gazetteer = new ClavinGazetteer(cachedIndex.createResolver(), ClavinTermMentionFilter.DEFAULT_CACHE_SIZE);
+        Stopwatch cachedStopwatch = new Stopwatch().start();
+        for (List<String> mentions : documents) {
+            gazetteer.resolveLocations(mentions, MAX_HIT_DEPTH, MAX_CONTEXT_WINDOW, false);
+        }
+        cachedStopwatch.stop();
+
+        LOGGER.info("%s corpus per document: %d lookups in %d ms", corpusName, uncachedIndex.getLookupCount(), uncachedStopwatch.elapsedMillis());
+        LOGGER.info("%s corpus batched and cached: %d lookups in %d ms (%d cached locations)", corpusName, cachedIndex.getLookupCount(), cachedStopwatch.elapsedMillis(), gazetteer.getCacheSize());
+        assertTrue(cachedIndex.getLookupCount() * minLookupReduction < uncachedIndex.getLookupCount());
+    }
+}
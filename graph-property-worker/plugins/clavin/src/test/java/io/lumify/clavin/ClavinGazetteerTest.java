@@ -0,0 +1,62 @@
+package io.lumify.clavin;
+
+import com.bericotech.clavin.gazetteer.GeoName;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ClavinGazetteerTest {
+    private SyntheticGazetteerIndex index;
+    private ClavinGazetteer gazetteer;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new SyntheticGazetteerIndex(100);
+        gazetteer = new ClavinGazetteer(index.createResolver(), 1000);
+    }
+
+    @Test
+    public void testResolveLocationsDeduplicatesNames() throws Exception {
+        Map<String, GeoName> results = gazetteer.resolveLocations(Arrays.asList("Place 1", " place  1 ", "PLACE 2", "nowhere"), 5, 5, false);
+        assertEquals(3, index.getLookupCount());
+        assertEquals(2, results.size());
+        assertSame(index.get(1), results.get("place 1"));
+        assertSame(index.get(2), results.get(ClavinGazetteer.normalizeName("PLACE 2")));
+        assertNull(results.get("nowhere"));
+    }
+
+    @Test
+    public void testResolveLocationsUsesCacheAcrossContexts() throws Exception {
+        gazetteer.resolveLocations(Arrays.asList("Place 1", "Place 2", "nowhere"), 5, 5, false);
+        assertEquals(3, index.getLookupCount());
+        assertEquals(3, gazetteer.getCacheSize());
+
+        Map<String, GeoName> results = gazetteer.resolveLocations(Arrays.asList("place 2", "Place 1", "place 1", "Nowhere"), 5, 5, false);
+        assertEquals(3, index.getLookupCount());
+        assertEquals(2, results.size());
+        assertSame(index.get(2), results.get("place 2"));
+
+        results = gazetteer.resolveLocations(Arrays.asList("Place 1", "Place 3"), 5, 5, false);
+        assertEquals("only the new name is resolved in a different context", 4, index.getLookupCount());
+        assertSame(index.get(1), results.get("place 1"));
+        assertSame(index.get(3), results.get("place 3"));
+
+        gazetteer.resolveLocations(Arrays.asList("Place 1", "Place 2", "nowhere"), 5, 5, true);
+        assertEquals("different settings are resolved again", 7, index.getLookupCount());
+    }
+
+    @Test
+    public void testResolveLocationsInContextWindowGroups() throws Exception {
+        Map<String, GeoName> results = gazetteer.resolveLocations(Arrays.asList("place 1", "place 2", "place 3", "place 4", "place 5"), 5, 2, false);
+        assertEquals(5, results.size());
+        assertEquals(5, index.getLookupCount());
+
+        results = gazetteer.resolveLocations(Arrays.asList("place 1", "place 6", "place 7", "place 8"), 5, 2, false);
+        assertEquals("only the missing names are resolved", 8, index.getLookupCount());
+        assertEquals(4, results.size());
+    }
+}
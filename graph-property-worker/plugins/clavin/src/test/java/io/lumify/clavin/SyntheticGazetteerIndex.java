@@ -0,0 +1,73 @@
+package io.lumify.clavin;
+
+import com.bericotech.clavin.extractor.LocationOccurrence;
+import com.bericotech.clavin.gazetteer.GeoName;
+import com.bericotech.clavin.resolver.ClavinLocationResolver;
+import com.bericotech.clavin.resolver.ResolvedLocation;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * An in-memory stand in for a CLAVIN index holding the places "place 0" to "place (size - 1)". Counts the names
+ * looked up so tests can see what reached the index.
+ */
+class SyntheticGazetteerIndex {
+    private final Map<String, GeoName> geoNames = new HashMap<>();
+    private final AtomicInteger lookupCount = new AtomicInteger();
+
+    SyntheticGazetteerIndex(int size) {
+        for (int i = 0; i < size; i++) {
+            GeoName geoName = mock(GeoName.class);
+            when(geoName.getGeonameID()).thenReturn(i);
+            when(geoName.getName()).thenReturn("Place " + i);
+            when(geoName.getLatitude()).thenReturn((i % 180) - 90.0);
+            when(geoName.getLongitude()).thenReturn((i % 360) - 180.0);
+            geoNames.put(getName(i), geoName);
+        }
+    }
+
+    static String getName(int i) {
+        return "place " + i;
+    }
+
+    GeoName get(int i) {
+        return geoNames.get(getName(i));
+    }
+
+    int getLookupCount() {
+        return lookupCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    ClavinLocationResolver createResolver() throws Exception {
+        ClavinLocationResolver resolver = mock(ClavinLocationResolver.class);
+        when(resolver.resolveLocations(anyList(), anyInt(), anyInt(), anyBoolean())).thenAnswer(new Answer<List<ResolvedLocation>>() {
+            @Override
+            public List<ResolvedLocation> answer(InvocationOnMock invocation) throws Throwable {
+                List<ResolvedLocation> results = new ArrayList<>();
+                for (LocationOccurrence occurrence : (List<LocationOccurrence>) invocation.getArguments()[0]) {
+                    lookupCount.incrementAndGet();
+                    GeoName geoName = geoNames.get(occurrence.getText().toLowerCase());
+                    if (geoName != null) {
+                        ResolvedLocation resolvedLocation = mock(ResolvedLocation.class);
+                        when(resolvedLocation.getLocation()).thenReturn(occurrence);
+                        when(resolvedLocation.getGeoname()).thenReturn(geoName);
+                        results.add(resolvedLocation);
+                    }
+                }
+                return results;
+            }
+        });
+        return resolver;
+    }
+}
@@ -4,6 +4,7 @@ import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
 import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.web.clientapi.model.util.ClientApiConverter;
@@ -95,4 +96,13 @@ public abstract class AbstractDocumentMappingGraphPropertyWorker<T extends Docum
     public void addVertexToWorkspaceIfNeeded(GraphPropertyWorkData data, Vertex vertex) {
         super.addVertexToWorkspaceIfNeeded(data, vertex);
     }
+
+    /**
+     * Exposing publicly.
+     * @return the edge label summary edges are saved through
+     */
+    @Override
+    public EdgeLabelSummary getEdgeLabelSummary() {
+        return super.getEdgeLabelSummary();
+    }
 }
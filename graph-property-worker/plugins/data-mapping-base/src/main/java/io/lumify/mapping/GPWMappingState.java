@@ -3,6 +3,7 @@ package io.lumify.mapping;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
+import io.lumify.core.util.EdgeLabelSummary;
 import java.util.HashMap;
 import java.util.Map;
 import org.securegraph.Authorizations;
@@ -46,6 +47,11 @@ public final class GPWMappingState implements MappingState {
         return graph;
     }
 
+    @Override
+    public EdgeLabelSummary getEdgeLabelSummary() {
+        return worker.getEdgeLabelSummary();
+    }
+
     @Override
     public Authorizations getAuthorizations() {
         return authorizations;
@@ -100,7 +106,7 @@ public final class GPWMappingState implements MappingState {
         String edgeId = String.format("%s_hasEntity_%s", artifactVertex.getId(), entityVertex.getId());
         EdgeBuilder edge = graph.prepareEdge(edgeId, artifactVertex, entityVertex, worker.getHasEntityIri(), data.getVisibility());
         data.setVisibilityJsonOnElement(edge);
-        edge.save(authorizations);
+        getEdgeLabelSummary().saveEdge(edgeId, edge, authorizations);
     }
 
     @Override
@@ -0,0 +1,79 @@
+package io.lumify.imageThumbnail;
+
+import com.google.inject.Inject;
+import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
+import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
+import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.securegraph.Element;
+import org.securegraph.Property;
+import org.securegraph.Vertex;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the standard thumbnail sizes for images during ingest so the web server doesn't have to decode the
+ * original the first time each size is requested. All sizes come from a single decode of the image.
+ */
+public class ImageThumbnailGraphPropertyWorker extends GraphPropertyWorker {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ImageThumbnailGraphPropertyWorker.class);
+    public static final String STANDARD_SIZES_CONFIG = "thumbnail.standardSizes";
+    public static final String DEFAULT_STANDARD_SIZES = "150,200,800";
+    private static final String THUMBNAIL_TYPE = "raw";
+    private ArtifactThumbnailRepository artifactThumbnailRepository;
+    private List<int[]> standardSizes;
+
+    @Override
+    public void prepare(GraphPropertyWorkerPrepareData workerPrepareData) throws Exception {
+        super.prepare(workerPrepareData);
+        String standardSizesString = (String) workerPrepareData.getConfiguration().get(STANDARD_SIZES_CONFIG);
+        standardSizes = parseStandardSizes(standardSizesString == null ? DEFAULT_STANDARD_SIZES : standardSizesString);
+    }
+
+    /**
+     * @param standardSizesString a comma separated list of widths, the thumbnails are bounded by a width x width square
+     *                            the same as the web thumbnail requests.
+     */
+    static List<int[]> parseStandardSizes(String standardSizesString) {
+        List<int[]> sizes = new ArrayList<>();
+        for (String size : standardSizesString.split(",")) {
+            size = size.trim();
+            if (size.length() > 0) {
+                int width = Integer.parseInt(size);
+                sizes.add(new int[]{width, width});
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
+        Vertex vertex = (Vertex) data.getElement();
+        artifactThumbnailRepository.createThumbnails(vertex, THUMBNAIL_TYPE, in, standardSizes, getUser());
+        LOGGER.debug("Created %d thumbnails for: %s", standardSizes.size(), vertex.getId());
+    }
+
+    @Override
+    public boolean isHandled(Element element, Property property) {
+        if (property == null || !(element instanceof Vertex) || standardSizes.size() == 0) {
+            return false;
+        }
+
+        if (!property.getName().equals(LumifyProperties.RAW.getPropertyName())) {
+            return false;
+        }
+
+        String mimeType = LumifyProperties.MIME_TYPE.getMetadataValue(property.getMetadata(), null);
+        return mimeType != null && mimeType.startsWith("image");
+    }
+
+    @Inject
+    public void setArtifactThumbnailRepository(ArtifactThumbnailRepository artifactThumbnailRepository) {
+        this.artifactThumbnailRepository = artifactThumbnailRepository;
+    }
+}
@@ -0,0 +1,115 @@
+package io.lumify.imageThumbnail;
+
+import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
+import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
+import io.lumify.core.ingest.graphProperty.TermMentionFilter;
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.security.DirectVisibilityTranslator;
+import io.lumify.core.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+import org.securegraph.property.StreamingPropertyValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImageThumbnailGraphPropertyWorkerTest {
+    @Mock
+    private User user;
+
+    @Mock
+    private ArtifactThumbnailRepository artifactThumbnailRepository;
+
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private Visibility visibility;
+    private ImageThumbnailGraphPropertyWorker worker;
+
+    @Before
+    public void setUp() throws Exception {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations();
+        visibility = new Visibility("");
+        worker = createWorker(new HashMap());
+    }
+
+    @Test
+    public void testParseStandardSizes() {
+        List<int[]> sizes = ImageThumbnailGraphPropertyWorker.parseStandardSizes(" 150, 800,,");
+        assertEquals(2, sizes.size());
+        assertArrayEquals(new int[]{150, 150}, sizes.get(0));
+        assertArrayEquals(new int[]{800, 800}, sizes.get(1));
+    }
+
+    @Test
+    public void testIsHandled() {
+        Vertex image = createVertex("v1", LumifyProperties.RAW.getPropertyName(), "image/png");
+        Vertex video = createVertex("v2", LumifyProperties.RAW.getPropertyName(), "video/mp4");
+        Vertex text = createVertex("v3", LumifyProperties.TEXT.getPropertyName(), "image/png");
+
+        assertTrue(worker.isHandled(image, image.getProperty(LumifyProperties.RAW.getPropertyName())));
+        assertFalse(worker.isHandled(video, video.getProperty(LumifyProperties.RAW.getPropertyName())));
+        assertFalse(worker.isHandled(text, text.getProperty(LumifyProperties.TEXT.getPropertyName())));
+        assertFalse(worker.isHandled(image, null));
+    }
+
+    @Test
+    public void testIsNotHandledWithoutStandardSizes() throws Exception {
+        Map config = new HashMap();
+        config.put(ImageThumbnailGraphPropertyWorker.STANDARD_SIZES_CONFIG, "");
+        ImageThumbnailGraphPropertyWorker noSizesWorker = createWorker(config);
+
+        Vertex image = createVertex("v1", LumifyProperties.RAW.getPropertyName(), "image/png");
+        assertFalse(noSizesWorker.isHandled(image, image.getProperty(LumifyProperties.RAW.getPropertyName())));
+    }
+
+    @Test
+    public void testExecuteCreatesStandardSizesFromOneStream() throws Exception {
+        Vertex image = createVertex("v1", LumifyProperties.RAW.getPropertyName(), "image/png");
+        Property property = image.getProperty(LumifyProperties.RAW.getPropertyName());
+        InputStream in = new ByteArrayInputStream(new byte[]{1, 2, 3});
+
+        worker.execute(in, new GraphPropertyWorkData(new DirectVisibilityTranslator(), image, property, null, null));
+
+        ArgumentCaptor<List> sizes = ArgumentCaptor.forClass(List.class);
+        verify(artifactThumbnailRepository).createThumbnails(eq(image), eq("raw"), eq(in), sizes.capture(), any(User.class));
+        assertEquals(3, sizes.getValue().size());
+        assertArrayEquals(new int[]{150, 150}, (int[]) sizes.getValue().get(0));
+        assertArrayEquals(new int[]{200, 200}, (int[]) sizes.getValue().get(1));
+        assertArrayEquals(new int[]{800, 800}, (int[]) sizes.getValue().get(2));
+    }
+
+    private ImageThumbnailGraphPropertyWorker createWorker(Map config) throws Exception {
+        ImageThumbnailGraphPropertyWorker worker = new ImageThumbnailGraphPropertyWorker();
+        worker.setArtifactThumbnailRepository(artifactThumbnailRepository);
+        worker.prepare(new GraphPropertyWorkerPrepareData(config, new ArrayList<TermMentionFilter>(), null, user, authorizations, null));
+        return worker;
+    }
+
+    private Vertex createVertex(String vertexId, String propertyName, String mimeType) {
+        Metadata metadata = new Metadata();
+        LumifyProperties.MIME_TYPE.setMetadata(metadata, mimeType, visibility);
+        StreamingPropertyValue value = new StreamingPropertyValue(new ByteArrayInputStream(new byte[]{1, 2, 3}), byte[].class);
+        return graph.prepareVertex(vertexId, visibility)
+                .addPropertyValue("", propertyName, value, metadata, visibility)
+                .save(authorizations);
+    }
+}
@@ -28,7 +28,7 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
 
         Vertex classVertex = createClassVertex(javaClass, data);
         if (jarVertex != null) {
-            getGraph().addEdge(jarVertex, classVertex, Ontology.EDGE_LABEL_JAR_CONTAINS, data.getProperty().getVisibility(), getAuthorizations());
+            getEdgeLabelSummary().addEdge(jarVertex, classVertex, Ontology.EDGE_LABEL_JAR_CONTAINS, data.getProperty().getVisibility(), getAuthorizations());
         }
 
         for (Method method : javaClass.getMethods()) {
@@ -52,7 +52,7 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
         Vertex classVertex = classVertexBuilder.save(getAuthorizations());
 
         String containsClassEdgeId = JavaCodeIngestIdGenerator.createFileContainsClassEdgeId((Vertex) data.getElement(), classVertex);
-        getGraph().addEdge(containsClassEdgeId, (Vertex) data.getElement(), classVertex, Ontology.EDGE_LABEL_CLASS_FILE_CONTAINS_CLASS, data.getProperty().getVisibility(), getAuthorizations());
+        getEdgeLabelSummary().addEdge(containsClassEdgeId, (Vertex) data.getElement(), classVertex, Ontology.EDGE_LABEL_CLASS_FILE_CONTAINS_CLASS, data.getProperty().getVisibility(), getAuthorizations());
 
         return classVertex;
     }
@@ -92,14 +92,14 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
         Vertex methodVertex = vertexBuilder.save(getAuthorizations());
 
         String classContainsMethodEdgeId = JavaCodeIngestIdGenerator.createClassContainsMethodEdgeId(classVertex, methodVertex);
-        Edge edge = getGraph().addEdge(classContainsMethodEdgeId, classVertex, methodVertex, Ontology.EDGE_LABEL_CLASS_CONTAINS, data.getVisibility(), getAuthorizations());
+        Edge edge = getEdgeLabelSummary().addEdge(classContainsMethodEdgeId, classVertex, methodVertex, Ontology.EDGE_LABEL_CLASS_CONTAINS, data.getVisibility(), getAuthorizations());
         data.setVisibilityJsonOnElement(edge, getAuthorizations());
 
         // return type
         if (!method.getReturnType().toString().equals("void")) {
             Vertex returnTypeVertex = createClassVertex(method.getReturnType().toString(), data);
             String returnTypeEdgeId = JavaCodeIngestIdGenerator.createReturnTypeEdgeId(methodVertex, returnTypeVertex);
-            edge = getGraph().addEdge(returnTypeEdgeId, methodVertex, returnTypeVertex, Ontology.EDGE_LABEL_METHOD_RETURN_TYPE, data.getVisibility(), getAuthorizations());
+            edge = getEdgeLabelSummary().addEdge(returnTypeEdgeId, methodVertex, returnTypeVertex, Ontology.EDGE_LABEL_METHOD_RETURN_TYPE, data.getVisibility(), getAuthorizations());
             data.setVisibilityJsonOnElement(edge, getAuthorizations());
             createClassReferencesEdge(classVertex, returnTypeVertex, data);
         }
@@ -110,7 +110,7 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
             String argumentName = "arg" + i;
             Vertex argumentTypeVertex = createClassVertex(argumentType.toString(), data);
             String argumentEdgeId = JavaCodeIngestIdGenerator.createArgumentEdgeId(methodVertex, argumentTypeVertex, argumentName);
-            edge = getGraph().addEdge(argumentEdgeId, methodVertex, argumentTypeVertex, Ontology.EDGE_LABEL_METHOD_ARGUMENT, data.getVisibility(), getAuthorizations());
+            edge = getEdgeLabelSummary().addEdge(argumentEdgeId, methodVertex, argumentTypeVertex, Ontology.EDGE_LABEL_METHOD_ARGUMENT, data.getVisibility(), getAuthorizations());
             data.setVisibilityJsonOnElement(edge, getAuthorizations());
             Ontology.ARGUMENT_NAME.setProperty(edge, argumentName, data.createPropertyMetadata(), data.getVisibility(), getAuthorizations());
             createClassReferencesEdge(classVertex, argumentTypeVertex, data);
@@ -137,7 +137,7 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
                 Vertex invokedMethodVertex = invokedMethodVertexBuilder.save(getAuthorizations());
 
                 String methodInvokesMethodEdgeId = JavaCodeIngestIdGenerator.createMethodInvokesMethodEdgeId(methodVertex, invokedMethodVertex);
-                edge = getGraph().addEdge(methodInvokesMethodEdgeId, methodVertex, invokedMethodVertex, Ontology.EDGE_LABEL_INVOKED, data.getVisibility(), getAuthorizations());
+                edge = getEdgeLabelSummary().addEdge(methodInvokesMethodEdgeId, methodVertex, invokedMethodVertex, Ontology.EDGE_LABEL_INVOKED, data.getVisibility(), getAuthorizations());
                 data.setVisibilityJsonOnElement(edge, getAuthorizations());
 
                 Vertex invokeMethodClassVertex = createClassVertex(methodClassName, data);
@@ -155,19 +155,19 @@ public class ClassFileGraphPropertyWorker extends GraphPropertyWorker {
         Vertex fieldVertex = vertexBuilder.save(getAuthorizations());
 
         String classContainsFieldEdgeId = JavaCodeIngestIdGenerator.createClassContainsFieldEdgeId(classVertex, fieldVertex);
-        Edge edge = getGraph().addEdge(classContainsFieldEdgeId, classVertex, fieldVertex, Ontology.EDGE_LABEL_CLASS_CONTAINS, data.getVisibility(), getAuthorizations());
+        Edge edge = getEdgeLabelSummary().addEdge(classContainsFieldEdgeId, classVertex, fieldVertex, Ontology.EDGE_LABEL_CLASS_CONTAINS, data.getVisibility(), getAuthorizations());
         data.setVisibilityJsonOnElement(edge, getAuthorizations());
 
         Vertex fieldTypeVertex = createClassVertex(field.getType().toString(), data);
         String fieldTypeEdgeId = JavaCodeIngestIdGenerator.createFieldTypeEdgeId(fieldVertex, fieldTypeVertex);
-        edge = getGraph().addEdge(fieldTypeEdgeId, fieldVertex, fieldTypeVertex, Ontology.EDGE_LABEL_FIELD_TYPE, data.getVisibility(), getAuthorizations());
+        edge = getEdgeLabelSummary().addEdge(fieldTypeEdgeId, fieldVertex, fieldTypeVertex, Ontology.EDGE_LABEL_FIELD_TYPE, data.getVisibility(), getAuthorizations());
         data.setVisibilityJsonOnElement(edge, getAuthorizations());
         createClassReferencesEdge(classVertex, fieldTypeVertex, data);
     }
 
     private void createClassReferencesEdge(Vertex classVertex, Vertex typeVertex, GraphPropertyWorkData data) {
         String classReferencesEdgeId = JavaCodeIngestIdGenerator.createClassReferencesEdgeId(classVertex, typeVertex);
-        Edge edge = getGraph().addEdge(classReferencesEdgeId, classVertex, typeVertex, Ontology.EDGE_LABEL_CLASS_REFERENCES, data.getVisibility(), getAuthorizations());
+        Edge edge = getEdgeLabelSummary().addEdge(classReferencesEdgeId, classVertex, typeVertex, Ontology.EDGE_LABEL_CLASS_REFERENCES, data.getVisibility(), getAuthorizations());
         data.setVisibilityJsonOnElement(edge, getAuthorizations());
     }
 
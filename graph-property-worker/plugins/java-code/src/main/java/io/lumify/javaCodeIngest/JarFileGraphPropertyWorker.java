@@ -60,7 +60,7 @@ public class JarFileGraphPropertyWorker extends GraphPropertyWorker {
 
     private void createJarContainsFileEdge(Vertex jarEntryVertex, GraphPropertyWorkData data) {
         EdgeBuilder jarContainsEdgeBuilder = getGraph().prepareEdge((Vertex) data.getElement(), jarEntryVertex, Ontology.EDGE_LABEL_JAR_CONTAINS, data.getProperty().getVisibility());
-        jarContainsEdgeBuilder.save(getAuthorizations());
+        getEdgeLabelSummary().saveEdge(jarContainsEdgeBuilder, getAuthorizations());
     }
 
     private Vertex createFileVertex(JarEntry jarEntry, StreamingPropertyValue rawValue, GraphPropertyWorkData data) {
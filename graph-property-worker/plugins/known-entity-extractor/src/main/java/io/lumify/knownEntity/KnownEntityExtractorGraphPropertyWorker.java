@@ -10,7 +10,6 @@ import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.web.clientapi.model.VisibilityJson;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -60,7 +59,7 @@ public class KnownEntityExtractorGraphPropertyWorker extends GraphPropertyWorker
 
     @Override
     public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
-        String text = IOUtils.toString(in, "UTF-8"); // TODO convert AhoCorasick to use InputStream
+        String text = data.getTextAnalysis(in).getText();
         Iterator<SearchResult<Match>> searchResults = tree.search(text.toCharArray());
         Vertex sourceVertex = (Vertex) data.getElement();
         List<Vertex> termMentions = new ArrayList<>();
@@ -69,7 +68,6 @@ public class KnownEntityExtractorGraphPropertyWorker extends GraphPropertyWorker
             VisibilityJson visibilityJson = data.getVisibilitySourceJson();
             List<Vertex> newTermMentions = outputResultToTermMention(sourceVertex, searchResult, data.getProperty().getKey(), visibilityJson, data.getVisibility());
             termMentions.addAll(newTermMentions);
-            getGraph().flush();
         }
         applyTermMentionFilters(sourceVertex, termMentions);
         pushTextUpdated(data);
@@ -96,7 +94,7 @@ public class KnownEntityExtractorGraphPropertyWorker extends GraphPropertyWorker
                     .visibilityJson(visibilityJson)
                     .process(PROCESS)
                     .resolvedTo(resolvedToVertex, resolvedEdge)
-                    .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                    .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
             termMentions.add(termMention);
         }
         return termMentions;
@@ -121,7 +119,7 @@ public class KnownEntityExtractorGraphPropertyWorker extends GraphPropertyWorker
         if (resolvedEdge == null) {
             EdgeBuilder resolvedEdgeBuilder = getGraph().prepareEdge(sourceVertex, resolvedToVertex, artifactHasEntityIri, visibility);
             LumifyProperties.VISIBILITY_JSON.setProperty(resolvedEdgeBuilder, visibilityJson, visibility);
-            resolvedEdge = resolvedEdgeBuilder.save(getAuthorizations());
+            resolvedEdge = getEdgeLabelSummary().saveEdge(resolvedEdgeBuilder, getAuthorizations());
             getAuditRepository().auditRelationship(AuditAction.CREATE, sourceVertex, resolvedToVertex, resolvedEdge, PROCESS, "", getUser(), visibility);
         }
         return resolvedEdge;
@@ -6,13 +6,16 @@ import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
 import io.lumify.core.ingest.graphProperty.TermMentionFilter;
 import io.lumify.core.model.audit.AuditRepository;
+import io.lumify.core.model.lock.LocalLockRepository;
 import io.lumify.core.model.ontology.OntologyRepository;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.termMention.TermMentionRepository;
+import io.lumify.core.model.user.InMemoryAuthorizationRepository;
 import io.lumify.core.model.workQueue.WorkQueueRepository;
 import io.lumify.core.security.DirectVisibilityTranslator;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.junit.Before;
@@ -92,6 +95,7 @@ public class KnownEntityExtractorGraphPropertyWorkerTest {
         visibility = new Visibility("");
         extractor.prepare(workerPrepareData);
         extractor.setGraph(graph);
+        extractor.setEdgeLabelSummary(new EdgeLabelSummary(graph, new InMemoryAuthorizationRepository(), new LocalLockRepository(configuration)));
     }
 
     @Test
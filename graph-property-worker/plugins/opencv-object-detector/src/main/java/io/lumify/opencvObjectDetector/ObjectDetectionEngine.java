@@ -0,0 +1,210 @@
+package io.lumify.opencvObjectDetector;
+
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.ingest.ArtifactDetectedObject;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfRect;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs a set of cascade classifiers over images on an executor supplied by the caller, so every engine of a process
+ * can share one bounded pool. Each image is converted to a grayscale Mat once and that Mat is shared by every
+ * classifier, instead of each classifier converting the color image itself.
+ * <p/>
+ * Each classifier is loaded once. A CascadeClassifier can't be used by two threads at once, so a classifier runs
+ * over all of the images of a call in a single task while the other classifiers run in parallel.
+ */
+public class ObjectDetectionEngine {
+    private final ExecutorService executor;
+    private final List<Classifier> classifiers = new ArrayList<>();
+
+    public ObjectDetectionEngine(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void addClassifier(String concept, String conceptIRI, CascadeClassifier cascadeClassifier) {
+        classifiers.add(new Classifier(concept, conceptIRI, cascadeClassifier));
+    }
+
+    public void addClassifier(String concept, String conceptIRI, String classifierPath) {
+        CascadeClassifier cascadeClassifier = new CascadeClassifier(classifierPath);
+        if (cascadeClassifier.empty()) {
+            throw new LumifyException("Could not load classifier for " + concept + " from " + classifierPath);
+        }
+        addClassifier(concept, conceptIRI, cascadeClassifier);
+    }
+
+    public List<ArtifactDetectedObject> detectObjects(BufferedImage image, String process) throws InterruptedException {
+        return detectObjects(Collections.singletonList(image), process).get(0);
+    }
+
+    /**
+     * @return the objects detected in each image, in the same order as the images. Within an image the objects
+     * are in classifier order.
+     */
+    public List<List<ArtifactDetectedObject>> detectObjects(List<BufferedImage> images, final String process) throws InterruptedException {
+        List<Callable<Mat>> prepareTasks = new ArrayList<>();
+        for (final BufferedImage image : images) {
+            prepareTasks.add(new Callable<Mat>() {
+                @Override
+                public Mat call() {
+                    return toGray(OpenCVUtils.bufferedImageToMat(image));
+                }
+            });
+        }
+        List<Future<Mat>> prepareResults = executor.invokeAll(prepareTasks);
+        final List<Mat> grayImages;
+        try {
+            grayImages = getAll(prepareResults);
+        } catch (RuntimeException ex) {
+            releaseCompleted(prepareResults);
+            throw ex;
+        }
+
+        try {
+            List<Callable<List<List<ArtifactDetectedObject>>>> detectTasks = new ArrayList<>();
+            for (final Classifier classifier : classifiers) {
+                detectTasks.add(new Callable<List<List<ArtifactDetectedObject>>>() {
+                    @Override
+                    public List<List<ArtifactDetectedObject>> call() {
+                        List<List<ArtifactDetectedObject>> classifierResults = new ArrayList<>(grayImages.size());
+                        for (Mat grayImage : grayImages) {
+                            classifierResults.add(classifier.detect(grayImage, process));
+                        }
+                        return classifierResults;
+                    }
+                });
+            }
+            List<List<List<ArtifactDetectedObject>>> detectResults = getAll(executor.invokeAll(detectTasks));
+
+            List<List<ArtifactDetectedObject>> results = new ArrayList<>();
+            for (int imageIndex = 0; imageIndex < grayImages.size(); imageIndex++) {
+                List<ArtifactDetectedObject> imageResults = new ArrayList<>();
+                for (List<List<ArtifactDetectedObject>> classifierResults : detectResults) {
+                    imageResults.addAll(classifierResults.get(imageIndex));
+                }
+                results.add(imageResults);
+            }
+            return results;
+        } finally {
+            for (Mat grayImage : grayImages) {
+                if (grayImage != null) {
+                    grayImage.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return null if image is null.
+     */
+    static Mat toGray(Mat image) {
+        if (image == null) {
+            return null;
+        }
+        Mat gray;
+        switch (image.channels()) {
+            case 1:
+                return image;
+            case 3:
+                gray = new Mat();
+                Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+                break;
+            case 4:
+                gray = new Mat();
+                Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGRA2GRAY);
+                break;
+            default:
+                gray = new Mat();
+                Core.extractChannel(image, gray, 0);
+                break;
+        }
+        image.release();
+        return gray;
+    }
+
+    /**
+     * Releases the Mats of the tasks that succeeded when another task of the same invokeAll failed.
+     */
+    private static void releaseCompleted(List<Future<Mat>> futures) {
+        for (Future<Mat> future : futures) {
+            try {
+                Mat mat = future.get();
+                if (mat != null) {
+                    mat.release();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException ex) {
+                // nothing to release
+            }
+        }
+    }
+
+    private static <T> List<T> getAll(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new LumifyException("Interrupted detecting objects", ex);
+            } catch (ExecutionException ex) {
+                throw new LumifyException("Could not detect objects", ex.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static class Classifier {
+        private final String concept;
+        private final String conceptIRI;
+        private final CascadeClassifier cascadeClassifier;
+
+        public Classifier(String concept, String conceptIRI, CascadeClassifier cascadeClassifier) {
+            this.concept = concept;
+            this.conceptIRI = conceptIRI;
+            this.cascadeClassifier = cascadeClassifier;
+        }
+
+        public List<ArtifactDetectedObject> detect(Mat grayImage, String process) {
+            List<ArtifactDetectedObject> detectedObjects = new ArrayList<>();
+            if (grayImage == null) {
+                return detectedObjects;
+            }
+            MatOfRect detections = new MatOfRect();
+            synchronized (cascadeClassifier) {
+                cascadeClassifier.detectMultiScale(grayImage, detections);
+            }
+
+            double width = grayImage.width();
+            double height = grayImage.height();
+            for (Rect rect : detections.toArray()) {
+                detectedObjects.add(new ArtifactDetectedObject(
+                        rect.x / width,
+                        rect.y / height,
+                        (rect.x + rect.width) / width,
+                        (rect.y + rect.height) / height,
+                        conceptIRI,
+                        process));
+            }
+            detections.release();
+            return detectedObjects;
+        }
+
+        @Override
+        public String toString() {
+            return concept;
+        }
+    }
+}
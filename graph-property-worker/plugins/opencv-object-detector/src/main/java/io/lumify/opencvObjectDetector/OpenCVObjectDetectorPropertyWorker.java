@@ -1,5 +1,6 @@
 package io.lumify.opencvObjectDetector;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import io.lumify.core.exception.LumifyException;
 import io.lumify.core.ingest.ArtifactDetectedObject;
@@ -16,13 +17,12 @@ import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.opencv.core.Core;
-import org.opencv.core.Mat;
-import org.opencv.core.MatOfRect;
-import org.opencv.core.Rect;
 import org.opencv.objdetect.CascadeClassifier;
 import org.securegraph.Element;
 import org.securegraph.Property;
 import org.securegraph.Vertex;
+import org.securegraph.mutation.ExistingElementMutation;
+import org.securegraph.property.StreamingPropertyValue;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -32,6 +32,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -41,9 +43,14 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
     public static final String OPENCV_CLASSIFIER_CONCEPT_LIST = "objectdetection.classifierConcepts";
     public static final String OPENCV_CLASSIFIER_PATH_PREFIX = "objectdetection.classifier.";
     public static final String OPENCV_CLASSIFIER_PATH_SUFFIX = ".path";
+    public static final String THREAD_COUNT_CONFIG = "objectdetection.threadCount";
+    public static final String FRAMES_PER_BATCH_CONFIG = "objectdetection.framesPerBatch";
+    public static final int DEFAULT_FRAMES_PER_BATCH = 16;
     private static final String PROCESS = OpenCVObjectDetectorPropertyWorker.class.getName();
+    private static ExecutorService executor;
 
-    private List<CascadeClassifierHolder> objectClassifiers = new ArrayList<>();
+    private ObjectDetectionEngine objectDetectionEngine;
+    private int framesPerBatch = DEFAULT_FRAMES_PER_BATCH;
     private ArtifactThumbnailRepository artifactThumbnailRepository;
 
     @Override
@@ -52,6 +59,14 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
 
         loadNativeLibrary();
 
+        String threadCountString = (String) workerPrepareData.getConfiguration().get(THREAD_COUNT_CONFIG);
+        int threadCount = threadCountString == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threadCountString);
+        objectDetectionEngine = new ObjectDetectionEngine(getExecutor(threadCount));
+        String framesPerBatchString = (String) workerPrepareData.getConfiguration().get(FRAMES_PER_BATCH_CONFIG);
+        if (framesPerBatchString != null) {
+            framesPerBatch = Integer.parseInt(framesPerBatchString);
+        }
+
         String conceptListString = (String) workerPrepareData.getConfiguration().get(OPENCV_CLASSIFIER_CONCEPT_LIST);
         checkNotNull(conceptListString, OPENCV_CLASSIFIER_CONCEPT_LIST + " is a required configuration parameter");
         String[] classifierConcepts = conceptListString.split(",");
@@ -59,15 +74,27 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
             String classifierFilePath = (String) workerPrepareData.getConfiguration().get(OPENCV_CLASSIFIER_PATH_PREFIX + classifierConcept + OPENCV_CLASSIFIER_PATH_SUFFIX);
 
             File localFile = createLocalFile(classifierFilePath, workerPrepareData.getHdfsFileSystem());
-            CascadeClassifier objectClassifier = new CascadeClassifier(localFile.getPath());
             String conceptIRI = getOntologyRepository().getRequiredConceptIRIByIntent(classifierConcept);
-            addObjectClassifier(classifierConcept, objectClassifier, conceptIRI);
+            objectDetectionEngine.addClassifier(classifierConcept, conceptIRI, localFile.getPath());
             if (!localFile.delete()) {
                 LOGGER.warn("Could not delete file: %s", localFile.getAbsolutePath());
             }
         }
     }
 
+    /**
+     * Every worker instance of the process shares one pool, sized by the first one to start.
+     */
+    private static synchronized ExecutorService getExecutor(int threadCount) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threadCount, new ThreadFactoryBuilder()
+                    .setNameFormat("opencv-object-detector-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return executor;
+    }
+
     public void loadNativeLibrary() {
         try {
             System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
@@ -78,7 +105,10 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
     }
 
     public void addObjectClassifier(String concept, CascadeClassifier objectClassifier, String conceptIRI) {
-        objectClassifiers.add(new CascadeClassifierHolder(concept, objectClassifier, conceptIRI));
+        if (objectDetectionEngine == null) {
+            objectDetectionEngine = new ObjectDetectionEngine(getExecutor(1));
+        }
+        objectDetectionEngine.addClassifier(concept, conceptIRI, objectClassifier);
     }
 
     private File createLocalFile(String classifierFilePath, FileSystem fs) throws IOException {
@@ -111,45 +141,76 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
         Vertex artifactVertex = (Vertex) data.getElement();
         BufferedImage bImage = artifactThumbnailRepository.getTransformedImage(originalImage, artifactVertex);
         List<ArtifactDetectedObject> detectedObjects = detectObjects(bImage);
-        saveDetectedObjects((Vertex) data.getElement(), data.getProperty(), detectedObjects);
+        ExistingElementMutation<Vertex> m = artifactVertex.prepareMutation();
+        addDetectedObjects(m, data.getProperty(), detectedObjects);
+        m.save(getAuthorizations());
+        auditAnalyzedBy(artifactVertex);
     }
 
-    private void saveDetectedObjects(Vertex artifactVertex, Property property, List<ArtifactDetectedObject> detectedObjects) {
-        getAuditRepository().auditAnalyzedBy(AuditAction.ANALYZED_BY, artifactVertex,
-                getClass().getSimpleName(), getUser(), artifactVertex.getVisibility());
-        for (ArtifactDetectedObject detectedObject : detectedObjects) {
-            saveDetectedObject(artifactVertex, property, detectedObject);
+    @Override
+    public boolean isBatchSupported() {
+        return true;
+    }
+
+    /**
+     * Detects objects in the frames of a video (or any other set of images on one vertex) a chunk of
+     * {@link #FRAMES_PER_BATCH_CONFIG} frames at a time, saving the detected objects with a single mutation.
+     */
+    @Override
+    public void executeBatch(List<GraphPropertyWorkData> workData) throws Exception {
+        if (workData.size() == 0) {
+            return;
+        }
+        Vertex artifactVertex = (Vertex) workData.get(0).getElement();
+        ExistingElementMutation<Vertex> m = artifactVertex.prepareMutation();
+        int detectedObjectCount = 0;
+        for (int batchStart = 0; batchStart < workData.size(); batchStart += framesPerBatch) {
+            List<GraphPropertyWorkData> batch = workData.subList(batchStart, Math.min(workData.size(), batchStart + framesPerBatch));
+            List<BufferedImage> images = new ArrayList<>(batch.size());
+            for (GraphPropertyWorkData data : batch) {
+                images.add(readImage(artifactVertex, data.getProperty()));
+            }
+            List<List<ArtifactDetectedObject>> detectedObjects = objectDetectionEngine.detectObjects(images, PROCESS);
+            for (int i = 0; i < batch.size(); i++) {
+                addDetectedObjects(m, batch.get(i).getProperty(), detectedObjects.get(i));
+                detectedObjectCount += detectedObjects.get(i).size();
+            }
         }
+        LOGGER.debug("Detected %d objects in %d images on %s", detectedObjectCount, workData.size(), artifactVertex.getId());
+        m.save(getAuthorizations());
+        auditAnalyzedBy(artifactVertex);
     }
 
-    private void saveDetectedObject(Vertex artifactVertex, Property property, ArtifactDetectedObject detectedObject) {
-        String multiKey = detectedObject.getMultivalueKey(MULTI_VALUE_KEY_PREFIX);
-        LumifyProperties.DETECTED_OBJECT.addPropertyValue(artifactVertex, multiKey, detectedObject, property.getMetadata(), new LumifyVisibility().getVisibility(), getAuthorizations());
+    private BufferedImage readImage(Vertex artifactVertex, Property property) throws IOException {
+        Object value = property.getValue();
+        if (!(value instanceof StreamingPropertyValue)) {
+            LOGGER.warn("Property %s on %s is not an image stream", property.toString(), artifactVertex.getId());
+            return null;
+        }
+        BufferedImage originalImage;
+        try (InputStream in = ((StreamingPropertyValue) value).getInputStream()) {
+            originalImage = ImageIO.read(in);
+        }
+        if (originalImage == null) {
+            return null;
+        }
+        return artifactThumbnailRepository.getTransformedImage(originalImage, artifactVertex);
     }
 
-    public List<ArtifactDetectedObject> detectObjects(BufferedImage bImage) {
-        List<ArtifactDetectedObject> detectedObjectList = new ArrayList<>();
-        Mat image = OpenCVUtils.bufferedImageToMat(bImage);
-        if (image != null) {
-            MatOfRect faceDetections = new MatOfRect();
-            double width = image.width();
-            double height = image.height();
-            for (CascadeClassifierHolder objectClassifier : objectClassifiers) {
-                objectClassifier.cascadeClassifier.detectMultiScale(image, faceDetections);
-
-                for (Rect rect : faceDetections.toArray()) {
-                    ArtifactDetectedObject detectedObject = new ArtifactDetectedObject(
-                            rect.x / width,
-                            rect.y / height,
-                            (rect.x + rect.width) / width,
-                            (rect.y + rect.height) / height,
-                            objectClassifier.conceptIRI,
-                            PROCESS);
-                    detectedObjectList.add(detectedObject);
-                }
-            }
+    private void auditAnalyzedBy(Vertex artifactVertex) {
+        getAuditRepository().auditAnalyzedBy(AuditAction.ANALYZED_BY, artifactVertex,
+                getClass().getSimpleName(), getUser(), artifactVertex.getVisibility());
+    }
+
+    private void addDetectedObjects(ExistingElementMutation<Vertex> m, Property property, List<ArtifactDetectedObject> detectedObjects) {
+        for (ArtifactDetectedObject detectedObject : detectedObjects) {
+            String multiKey = detectedObject.getMultivalueKey(MULTI_VALUE_KEY_PREFIX);
+            LumifyProperties.DETECTED_OBJECT.addPropertyValue(m, multiKey, detectedObject, property.getMetadata(), new LumifyVisibility().getVisibility());
         }
-        return detectedObjectList;
+    }
+
+    public List<ArtifactDetectedObject> detectObjects(BufferedImage bImage) throws InterruptedException {
+        return objectDetectionEngine.detectObjects(bImage, PROCESS);
     }
 
     @Override
@@ -166,16 +227,4 @@ public class OpenCVObjectDetectorPropertyWorker extends GraphPropertyWorker {
     public void setArtifactThumbnailRepository(ArtifactThumbnailRepository artifactThumbnailRepository) {
         this.artifactThumbnailRepository = artifactThumbnailRepository;
     }
-
-    private class CascadeClassifierHolder {
-        public final String concept;
-        public final CascadeClassifier cascadeClassifier;
-        public final String conceptIRI;
-
-        public CascadeClassifierHolder(String concept, CascadeClassifier cascadeClassifier, String conceptIRI) {
-            this.concept = concept;
-            this.cascadeClassifier = cascadeClassifier;
-            this.conceptIRI = conceptIRI;
-        }
-    }
 }
@@ -0,0 +1,95 @@
+package io.lumify.opencvObjectDetector;
+
+import io.lumify.core.ingest.ArtifactDetectedObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectDetectionEngineTest {
+    private static final String CLASSIFIER = "haarcascade_frontalface_alt.xml";
+    private static final String FACE_CONCEPT_IRI = "http://test.lumify.io/#face";
+    private static final String PROCESS = ObjectDetectionEngineTest.class.getName();
+    private ExecutorService executor;
+    private ObjectDetectionEngine engine;
+
+    @Before
+    public void setUp() {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        executor = Executors.newFixedThreadPool(3);
+        engine = new ObjectDetectionEngine(executor);
+        String classifierPath = Thread.currentThread().getContextClassLoader().getResource(CLASSIFIER).getPath();
+        engine.addClassifier("face", FACE_CONCEPT_IRI, classifierPath);
+        engine.addClassifier("face2", FACE_CONCEPT_IRI + "2", classifierPath);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testToGray() throws IOException {
+        for (String imageName : new String[]{"colbert-4channel.png", "colbert-3channel.png", "colbert-gray.png"}) {
+            BufferedImage image = readImage(imageName);
+            Mat gray = ObjectDetectionEngine.toGray(OpenCVUtils.bufferedImageToMat(image));
+            assertEquals(1, gray.channels());
+            assertEquals(image.getWidth(), gray.width());
+            assertEquals(image.getHeight(), gray.height());
+        }
+    }
+
+    @Test
+    public void testClassifiersShareImage() throws Exception {
+        List<ArtifactDetectedObject> detectedObjects = engine.detectObjects(readImage("cnn.jpg"), PROCESS);
+        assertEquals(2, detectedObjects.size());
+        assertEquals(FACE_CONCEPT_IRI, detectedObjects.get(0).getConcept());
+        assertEquals(FACE_CONCEPT_IRI + "2", detectedObjects.get(1).getConcept());
+        assertEquals(detectedObjects.get(0).getX1(), detectedObjects.get(1).getX1(), 0.0);
+        assertEquals(detectedObjects.get(0).getY2(), detectedObjects.get(1).getY2(), 0.0);
+    }
+
+    @Test
+    public void testBatchMatchesSingleImages() throws Exception {
+        BufferedImage cnn = readImage("cnn.jpg");
+        BufferedImage colbert = readImage("colbert-3channel.png");
+        List<List<ArtifactDetectedObject>> batchResults = engine.detectObjects(Arrays.asList(cnn, colbert, null, cnn, colbert), PROCESS);
+
+        assertEquals(5, batchResults.size());
+        assertTrue(batchResults.get(2).isEmpty());
+        assertSameObjects(engine.detectObjects(cnn, PROCESS), batchResults.get(0));
+        assertSameObjects(engine.detectObjects(colbert, PROCESS), batchResults.get(1));
+        assertSameObjects(batchResults.get(0), batchResults.get(3));
+        assertSameObjects(batchResults.get(1), batchResults.get(4));
+    }
+
+    private static void assertSameObjects(List<ArtifactDetectedObject> expected, List<ArtifactDetectedObject> found) {
+        assertEquals(expected.size(), found.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getConcept(), found.get(i).getConcept());
+            assertEquals(expected.get(i).getX1(), found.get(i).getX1(), 0.0);
+            assertEquals(expected.get(i).getY1(), found.get(i).getY1(), 0.0);
+            assertEquals(expected.get(i).getX2(), found.get(i).getX2(), 0.0);
+            assertEquals(expected.get(i).getY2(), found.get(i).getY2(), 0.0);
+        }
+    }
+
+    private static BufferedImage readImage(String imageName) throws IOException {
+        return ImageIO.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(imageName));
+    }
+}
@@ -4,6 +4,8 @@ import com.google.inject.Inject;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
+import io.lumify.core.ingest.graphProperty.TextAnalysis;
+import io.lumify.core.ingest.graphProperty.TextSpans;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.termMention.TermMentionBuilder;
 import io.lumify.core.util.LumifyLogger;
@@ -17,8 +19,6 @@ import opennlp.tools.namefind.TokenNameFinder;
 import opennlp.tools.tokenize.Tokenizer;
 import opennlp.tools.tokenize.TokenizerME;
 import opennlp.tools.tokenize.TokenizerModel;
-import opennlp.tools.util.ObjectStream;
-import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.Span;
 import opennlp.tools.util.StringList;
 import org.apache.hadoop.fs.FileSystem;
@@ -29,7 +29,6 @@ import org.securegraph.Vertex;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,11 +38,11 @@ public class OpenNLPDictionaryExtractorGraphPropertyWorker extends GraphProperty
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(OpenNLPDictionaryExtractorGraphPropertyWorker.class);
     public static final String PATH_PREFIX_CONFIG = "termextraction.opennlp.pathPrefix";
     private static final String DEFAULT_PATH_PREFIX = "/lumify/config/opennlp/";
-    private static final int NEW_LINE_CHARACTER_LENGTH = 1;
 
     private List<TokenNameFinder> finders;
     private DictionaryEntryRepository dictionaryEntryRepository;
     private Tokenizer tokenizer;
+    private String tokenizerName;
     private String locationIri;
     private String organizationIri;
     private String personIri;
@@ -63,48 +62,49 @@ public class OpenNLPDictionaryExtractorGraphPropertyWorker extends GraphProperty
             pathPrefix = DEFAULT_PATH_PREFIX;
         }
         this.tokenizer = loadTokenizer(pathPrefix, workerPrepareData.getHdfsFileSystem());
+        this.tokenizerName = getTokenizerPath(pathPrefix).toString();
         this.finders = loadFinders();
     }
 
     @Override
     public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
-        ObjectStream<String> untokenizedLineStream = new PlainTextByLineStream(new InputStreamReader(in));
-        String line;
-        int charOffset = 0;
-
         LOGGER.debug("Processing artifact content stream");
+        TextAnalysis textAnalysis = data.getTextAnalysis(in);
+        TextSpans tokens = textAnalysis.getTokens(tokenizerName, new OpenNLPLineTokenizer(tokenizer));
+
         Vertex sourceVertex = (Vertex) data.getElement();
+        VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex);
         List<Vertex> termMentions = new ArrayList<>();
-        while ((line = untokenizedLineStream.read()) != null) {
-            termMentions.addAll(processLine(sourceVertex, data.getProperty().getKey(), line, charOffset, LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex)));
-            getGraph().flush();
-            charOffset += line.length() + NEW_LINE_CHARACTER_LENGTH;
+        for (int lineIndex = 0; lineIndex < textAnalysis.getLineCount(); lineIndex++) {
+            int firstToken = tokens.indexOfFirstStartingAtOrAfter(textAnalysis.getLineStart(lineIndex));
+            int lastToken = tokens.indexOfFirstStartingAtOrAfter(textAnalysis.getLineEnd(lineIndex));
+            if (firstToken < lastToken) {
+                termMentions.addAll(processLine(sourceVertex, data.getProperty().getKey(), tokens, firstToken, lastToken, visibilityJson));
+            }
         }
+        getGraph().flush();
         applyTermMentionFilters(sourceVertex, termMentions);
         pushTextUpdated(data);
-
-        untokenizedLineStream.close();
         LOGGER.debug("Stream processing completed");
     }
 
-    private List<Vertex> processLine(Vertex sourceVertex, String propertyKey, String line, int charOffset, VisibilityJson visibilityJson) {
+    private List<Vertex> processLine(Vertex sourceVertex, String propertyKey, TextSpans tokens, int firstToken, int lastToken, VisibilityJson visibilityJson) {
         List<Vertex> termMentions = new ArrayList<>();
-        String tokenList[] = tokenizer.tokenize(line);
-        Span[] tokenListPositions = tokenizer.tokenizePos(line);
+        String tokenList[] = tokens.getCoveredTexts(firstToken, lastToken);
         for (TokenNameFinder finder : finders) {
             Span[] foundSpans = finder.find(tokenList);
             for (Span span : foundSpans) {
-                termMentions.add(createTermMention(sourceVertex, propertyKey, charOffset, span, tokenList, tokenListPositions, visibilityJson));
+                termMentions.add(createTermMention(sourceVertex, propertyKey, span, tokenList, tokens, firstToken, visibilityJson));
             }
             finder.clearAdaptiveData();
         }
         return termMentions;
     }
 
-    private Vertex createTermMention(Vertex sourceVertex, String propertyKey, int charOffset, Span foundName, String[] tokens, Span[] tokenListPositions, VisibilityJson visibilityJson) {
-        String name = Span.spansToStrings(new Span[]{foundName}, tokens)[0];
-        int start = charOffset + tokenListPositions[foundName.getStart()].getStart();
-        int end = charOffset + tokenListPositions[foundName.getEnd() - 1].getEnd();
+    private Vertex createTermMention(Vertex sourceVertex, String propertyKey, Span foundName, String[] tokenList, TextSpans tokens, int firstToken, VisibilityJson visibilityJson) {
+        String name = Span.spansToStrings(new Span[]{foundName}, tokenList)[0];
+        int start = tokens.getStart(firstToken + foundName.getStart());
+        int end = tokens.getEnd(firstToken + foundName.getEnd() - 1);
         String type = foundName.getType();
         String ontologyClassUri = mapToOntologyIri(type);
 
@@ -117,7 +117,7 @@ public class OpenNLPDictionaryExtractorGraphPropertyWorker extends GraphProperty
                 .conceptIri(ontologyClassUri)
                 .visibilityJson(visibilityJson)
                 .process(getClass().getName())
-                .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
     }
 
     protected String mapToOntologyIri(String type) {
@@ -156,8 +156,12 @@ public class OpenNLPDictionaryExtractorGraphPropertyWorker extends GraphProperty
         return finders;
     }
 
+    private static Path getTokenizerPath(String pathPrefix) {
+        return new Path(pathPrefix + "/en-token.bin");
+    }
+
     protected Tokenizer loadTokenizer(String pathPrefix, FileSystem fs) throws IOException {
-        Path tokenizerHdfsPath = new Path(pathPrefix + "/en-token.bin");
+        Path tokenizerHdfsPath = getTokenizerPath(pathPrefix);
 
         TokenizerModel tokenizerModel;
         try (InputStream tokenizerModelInputStream = fs.open(tokenizerHdfsPath)) {
@@ -190,4 +194,22 @@ public class OpenNLPDictionaryExtractorGraphPropertyWorker extends GraphProperty
     public void setDictionaryEntryRepository(DictionaryEntryRepository dictionaryEntryRepository) {
         this.dictionaryEntryRepository = dictionaryEntryRepository;
     }
+
+    private static class OpenNLPLineTokenizer implements TextAnalysis.LineTokenizer {
+        private final Tokenizer tokenizer;
+
+        private OpenNLPLineTokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public int[][] tokenize(String line) {
+            Span[] spans = tokenizer.tokenizePos(line);
+            int[][] tokens = new int[spans.length][];
+            for (int i = 0; i < spans.length; i++) {
+                tokens[i] = new int[]{spans[i].getStart(), spans[i].getEnd()};
+            }
+            return tokens;
+        }
+    }
 }
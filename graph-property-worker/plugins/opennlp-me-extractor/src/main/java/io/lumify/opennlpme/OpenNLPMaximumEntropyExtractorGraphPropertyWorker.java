@@ -1,8 +1,12 @@
 package io.lumify.opennlpme;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.lumify.core.exception.LumifyException;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
+import io.lumify.core.ingest.graphProperty.TextAnalysis;
+import io.lumify.core.ingest.graphProperty.TextSpans;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.termMention.TermMentionBuilder;
 import io.lumify.core.util.LumifyLogger;
@@ -14,8 +18,6 @@ import opennlp.tools.namefind.TokenNameFinderModel;
 import opennlp.tools.tokenize.Tokenizer;
 import opennlp.tools.tokenize.TokenizerME;
 import opennlp.tools.tokenize.TokenizerModel;
-import opennlp.tools.util.ObjectStream;
-import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.Span;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -27,15 +29,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 public class OpenNLPMaximumEntropyExtractorGraphPropertyWorker extends GraphPropertyWorker {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(OpenNLPMaximumEntropyExtractorGraphPropertyWorker.class);
     public static final String PATH_PREFIX_CONFIG = "termextraction.opennlp.pathPrefix";
+    public static final String THREAD_COUNT_CONFIG = "termextraction.opennlp.threadCount";
     private static final String DEFAULT_PATH_PREFIX = "hdfs://";
-    private static final int NEW_LINE_CHARACTER_LENGTH = 1;
+    private static final int SENTENCE_BATCHES_PER_THREAD = 4;
 
-    private List<TokenNameFinder> finders;
+    private List<TokenNameFinderModel> finderModels;
+    private ThreadLocal<List<TokenNameFinder>> finders;
     private Tokenizer tokenizer;
+    private String tokenizerName;
+    private ExecutorService finderExecutor;
+    private int threadCount;
     private String locationIri;
     private String organizationIri;
     private String personIri;
@@ -53,61 +61,116 @@ public class OpenNLPMaximumEntropyExtractorGraphPropertyWorker extends GraphProp
             pathPrefix = DEFAULT_PATH_PREFIX;
         }
         this.tokenizer = loadTokenizer(pathPrefix, workerPrepareData.getHdfsFileSystem());
-        this.finders = loadFinders(pathPrefix, workerPrepareData.getHdfsFileSystem());
+        this.tokenizerName = getTokenizerPath(pathPrefix).toString();
+        this.finderModels = loadFinderModels(pathPrefix, workerPrepareData.getHdfsFileSystem());
+        this.finders = new ThreadLocal<List<TokenNameFinder>>() {
+            @Override
+            protected List<TokenNameFinder> initialValue() {
+                return createFinders(finderModels);
+            }
+        };
+
+        String threadCountString = (String) workerPrepareData.getConfiguration().get(THREAD_COUNT_CONFIG);
+        this.threadCount = threadCountString == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threadCountString);
+        this.finderExecutor = Executors.newFixedThreadPool(threadCount, new ThreadFactoryBuilder()
+                .setNameFormat("opennlp-me-finder-%d")
+                .setDaemon(true)
+                .build());
     }
 
     @Override
-    public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
-        ObjectStream<String> untokenizedLineStream = new PlainTextByLineStream(in, "UTF-8");
-        String line;
-        int charOffset = 0;
+    public void close() throws Exception {
+        if (this.finderExecutor != null) {
+            this.finderExecutor.shutdownNow();
+        }
+        super.close();
+    }
 
+    @Override
+    public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
         LOGGER.debug("Processing artifact content stream");
+        TextAnalysis textAnalysis = data.getTextAnalysis(in);
+        TextSpans tokens = textAnalysis.getTokens(tokenizerName, new OpenNLPLineTokenizer(tokenizer));
+        TextSpans sentences = textAnalysis.getSentences();
+
         Vertex sourceVertex = (Vertex) data.getElement();
+        VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex);
         List<Vertex> termMentions = new ArrayList<>();
-        while ((line = untokenizedLineStream.read()) != null) {
-            termMentions.addAll(processLine(sourceVertex, data.getProperty().getKey(), line, charOffset, LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex)));
-            getGraph().flush();
-            charOffset += line.length() + NEW_LINE_CHARACTER_LENGTH;
+        for (FoundName foundName : findNames(sentences, tokens)) {
+            termMentions.add(createTermMention(sourceVertex, data.getProperty().getKey(), foundName, visibilityJson));
         }
+        getGraph().flush();
         applyTermMentionFilters(sourceVertex, termMentions);
         pushTextUpdated(data);
-
-        untokenizedLineStream.close();
         LOGGER.debug("Stream processing completed");
     }
 
-    private List<Vertex> processLine(Vertex sourceVertex, String propertyKey, String line, int charOffset, VisibilityJson visibilityJson) {
-        List<Vertex> termMentions = new ArrayList<>();
-        String tokenList[] = tokenizer.tokenize(line);
-        Span[] tokenListPositions = tokenizer.tokenizePos(line);
-        for (TokenNameFinder finder : finders) {
-            Span[] foundSpans = finder.find(tokenList);
+    /**
+     * Runs the finders over batches of sentences in parallel. NameFinderME isn't thread safe so each pool thread
+     * has its own finders; the models are shared. Results are returned in document order.
+     */
+    private List<FoundName> findNames(final TextSpans sentences, final TextSpans tokens) throws Exception {
+        int batchCount = Math.max(1, Math.min(sentences.size(), threadCount * SENTENCE_BATCHES_PER_THREAD));
+        int batchSize = (sentences.size() + batchCount - 1) / batchCount;
+        List<Callable<List<FoundName>>> batches = new ArrayList<>();
+        for (int batchStart = 0; batchStart < sentences.size(); batchStart += batchSize) {
+            final int firstSentence = batchStart;
+            final int lastSentence = Math.min(sentences.size(), batchStart + batchSize);
+            batches.add(new Callable<List<FoundName>>() {
+                @Override
+                public List<FoundName> call() {
+                    List<FoundName> foundNames = new ArrayList<>();
+                    for (int i = firstSentence; i < lastSentence; i++) {
+                        findNamesInSentence(sentences.getStart(i), sentences.getEnd(i), tokens, foundNames);
+                    }
+                    return foundNames;
+                }
+            });
+        }
+
+        List<FoundName> results = new ArrayList<>();
+        for (Future<List<FoundName>> batchResult : finderExecutor.invokeAll(batches)) {
+            try {
+                results.addAll(batchResult.get());
+            } catch (ExecutionException ex) {
+                throw new LumifyException("Could not find names", ex.getCause());
+            }
+        }
+        return results;
+    }
+
+    private void findNamesInSentence(int sentenceStart, int sentenceEnd, TextSpans tokens, List<FoundName> foundNames) {
+        int firstToken = tokens.indexOfFirstStartingAtOrAfter(sentenceStart);
+        int lastToken = tokens.indexOfFirstStartingAtOrAfter(sentenceEnd);
+        if (firstToken >= lastToken) {
+            return;
+        }
+        String[] sentenceTokens = tokens.getCoveredTexts(firstToken, lastToken);
+        for (TokenNameFinder finder : finders.get()) {
+            Span[] foundSpans = finder.find(sentenceTokens);
             for (Span span : foundSpans) {
-                termMentions.add(createTermMention(sourceVertex, propertyKey, charOffset, span, tokenList, tokenListPositions, visibilityJson));
+                String name = Span.spansToStrings(new Span[]{span}, sentenceTokens)[0];
+                int start = tokens.getStart(firstToken + span.getStart());
+                int end = tokens.getEnd(firstToken + span.getEnd() - 1);
+                foundNames.add(new FoundName(name, span.getType(), start, end));
             }
             finder.clearAdaptiveData();
         }
-        return termMentions;
     }
 
-    private Vertex createTermMention(Vertex sourceVertex, String propertyKey, int charOffset, Span foundName, String[] tokens, Span[] tokenListPositions, VisibilityJson visibilityJson) {
-        String name = Span.spansToStrings(new Span[]{foundName}, tokens)[0];
-        int start = charOffset + tokenListPositions[foundName.getStart()].getStart();
-        int end = charOffset + tokenListPositions[foundName.getEnd() - 1].getEnd();
-        String type = foundName.getType();
-        String ontologyClassUri = mapToOntologyIri(type);
+    private Vertex createTermMention(Vertex sourceVertex, String propertyKey, FoundName foundName, VisibilityJson visibilityJson) {
+        String ontologyClassUri = mapToOntologyIri(foundName.getType());
 
         return new TermMentionBuilder()
                 .sourceVertex(sourceVertex)
                 .propertyKey(propertyKey)
-                .start(start)
-                .end(end)
-                .title(name)
+                .start(foundName.getStart())
+                .end(foundName.getEnd())
+                .title(foundName.getName())
                 .conceptIri(ontologyClassUri)
                 .visibilityJson(visibilityJson)
                 .process(getClass().getName())
-                .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
     }
 
     protected String mapToOntologyIri(String type) {
@@ -138,27 +201,35 @@ public class OpenNLPMaximumEntropyExtractorGraphPropertyWorker extends GraphProp
         return !(mimeType == null || !mimeType.startsWith("text"));
     }
 
-    protected List<TokenNameFinder> loadFinders(String pathPrefix, FileSystem fs)
+    protected List<TokenNameFinderModel> loadFinderModels(String pathPrefix, FileSystem fs)
             throws IOException {
         Path finderHdfsPaths[] = {
                 new Path(pathPrefix + "/en-ner-location.bin"),
                 new Path(pathPrefix + "/en-ner-organization.bin"),
                 new Path(pathPrefix + "/en-ner-person.bin")};
-        List<TokenNameFinder> finders = new ArrayList<>();
+        List<TokenNameFinderModel> models = new ArrayList<>();
         for (Path finderHdfsPath : finderHdfsPaths) {
-            TokenNameFinderModel model;
             try (InputStream finderModelInputStream = fs.open(finderHdfsPath)) {
-                model = new TokenNameFinderModel(finderModelInputStream);
+                models.add(new TokenNameFinderModel(finderModelInputStream));
             }
-            NameFinderME finder = new NameFinderME(model);
-            finders.add(finder);
         }
+        return models;
+    }
 
+    private static List<TokenNameFinder> createFinders(List<TokenNameFinderModel> models) {
+        List<TokenNameFinder> finders = new ArrayList<>();
+        for (TokenNameFinderModel model : models) {
+            finders.add(new NameFinderME(model));
+        }
         return finders;
     }
 
+    private static Path getTokenizerPath(String pathPrefix) {
+        return new Path(pathPrefix + "/en-token.bin");
+    }
+
     protected Tokenizer loadTokenizer(String pathPrefix, FileSystem fs) throws IOException {
-        Path tokenizerHdfsPath = new Path(pathPrefix + "/en-token.bin");
+        Path tokenizerHdfsPath = getTokenizerPath(pathPrefix);
 
         TokenizerModel tokenizerModel;
         try (InputStream tokenizerModelInputStream = fs.open(tokenizerHdfsPath)) {
@@ -167,4 +238,52 @@ public class OpenNLPMaximumEntropyExtractorGraphPropertyWorker extends GraphProp
 
         return new TokenizerME(tokenizerModel);
     }
+
+    private static class OpenNLPLineTokenizer implements TextAnalysis.LineTokenizer {
+        private final Tokenizer tokenizer;
+
+        private OpenNLPLineTokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public int[][] tokenize(String line) {
+            Span[] spans = tokenizer.tokenizePos(line);
+            int[][] tokens = new int[spans.length][];
+            for (int i = 0; i < spans.length; i++) {
+                tokens[i] = new int[]{spans[i].getStart(), spans[i].getEnd()};
+            }
+            return tokens;
+        }
+    }
+
+    private static class FoundName {
+        private final String name;
+        private final String type;
+        private final int start;
+        private final int end;
+
+        private FoundName(String name, String type, int start, int end) {
+            this.name = name;
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
 }
@@ -1,7 +1,5 @@
 package io.lumify.phoneNumber;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.CharStreams;
 import com.google.i18n.phonenumbers.PhoneNumberMatch;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
@@ -17,7 +15,6 @@ import org.securegraph.Property;
 import org.securegraph.Vertex;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -48,7 +45,7 @@ public class PhoneNumberGraphPropertyWorker extends GraphPropertyWorker {
     public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
         LOGGER.debug("Extracting phone numbers from provided text");
 
-        final String text = CharStreams.toString(new InputStreamReader(in, Charsets.UTF_8));
+        final String text = data.getTextAnalysis(in).getText();
 
         Vertex sourceVertex = (Vertex) data.getElement();
         VisibilityJson visibilityJson = LumifyProperties.VISIBILITY_JSON.getPropertyValue(sourceVertex);
@@ -68,7 +65,7 @@ public class PhoneNumberGraphPropertyWorker extends GraphPropertyWorker {
                     .conceptIri(entityType)
                     .visibilityJson(visibilityJson)
                     .process(getClass().getName())
-                    .save(getGraph(), getVisibilityTranslator(), getAuthorizations());
+                    .save(getGraph(), getVisibilityTranslator(), getTermMentionIndexRepository(), getAuthorizations());
             termMentions.add(termMention);
         }
         getGraph().flush();
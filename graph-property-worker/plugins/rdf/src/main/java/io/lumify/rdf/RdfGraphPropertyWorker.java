@@ -144,7 +144,7 @@ public class RdfGraphPropertyWorker extends GraphPropertyWorker {
             String edgeId = data.getElement().getId() + "_hasEntity_" + v.getId();
             EdgeBuilder e = graph.prepareEdge(edgeId, (Vertex) data.getElement(), v, hasEntityIri, visibility);
             data.setVisibilityJsonOnElement(e);
-            results.addEdge(e.save(authorizations));
+            results.addEdge(getEdgeLabelSummary().saveEdge(edgeId, e, authorizations));
 
             addVertexToWorkspaceIfNeeded(data, v);
         }
@@ -238,7 +238,7 @@ public class RdfGraphPropertyWorker extends GraphPropertyWorker {
         if (data != null) {
             data.setVisibilityJsonOnElement(e);
         }
-        results.addEdge(e.save(authorizations));
+        results.addEdge(getEdgeLabelSummary().saveEdge(edgeId, e, authorizations));
         LOGGER.info("importResource: %s = %s", label, vertexId);
     }
 
@@ -0,0 +1,110 @@
+package io.lumify.tikaTextExtractor;
+
+import org.apache.tika.sax.ContentHandlerDecorator;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * Stops a parse once it has run longer than its time budget or produced more characters than its size budget. The
+ * characters up to the size budget are still passed on, so the text extracted so far can be kept. The time is only
+ * checked as the parser produces content, so a parser stuck inside a single call is stopped from another thread with
+ * {@link #stop(String)}, after which nothing more is passed on.
+ */
+public class ExtractionBudgetContentHandler extends ContentHandlerDecorator {
+    private final long maxCharacters;
+    private final long deadline;
+    private long characterCount;
+    private volatile BudgetExceededException exceeded;
+
+    /**
+     * @param maxCharacters the most characters to pass on, or -1 for no limit
+     * @param maxMillis     the longest the parse may run, or -1 for no limit
+     */
+    public ExtractionBudgetContentHandler(ContentHandler handler, long maxCharacters, long maxMillis) {
+        super(handler);
+        this.maxCharacters = maxCharacters;
+        this.deadline = maxMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + maxMillis;
+    }
+
+    @Override
+    public synchronized void startElement(String uri, String localName, String name, Attributes atts) throws SAXException {
+        checkTime();
+        super.startElement(uri, localName, name, atts);
+    }
+
+    @Override
+    public synchronized void characters(char[] ch, int start, int length) throws SAXException {
+        checkTime();
+        super.characters(ch, start, checkSize(length));
+    }
+
+    @Override
+    public synchronized void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        checkTime();
+        super.ignorableWhitespace(ch, start, checkSize(length));
+    }
+
+    /**
+     * Stops the parse from another thread. Once this returns the parser's content is no longer passed on, and its
+     * next call to this handler fails.
+     */
+    public synchronized void stop(String message) {
+        if (exceeded == null) {
+            exceeded(message);
+        }
+    }
+
+    private void checkTime() throws SAXException {
+        if (exceeded != null) {
+            throw exceeded;
+        }
+        if (System.currentTimeMillis() > deadline) {
+            throw exceeded("time budget exceeded after " + characterCount + " characters");
+        }
+    }
+
+    /**
+     * @return the number of characters that may be passed on
+     */
+    private int checkSize(int length) throws SAXException {
+        if (maxCharacters < 0 || characterCount + length <= maxCharacters) {
+            characterCount += length;
+            return length;
+        }
+        int allowed = (int) (maxCharacters - characterCount);
+        characterCount = maxCharacters;
+        if (allowed > 0) {
+            return allowed;
+        }
+        throw exceeded("size budget of " + maxCharacters + " characters exceeded");
+    }
+
+    private BudgetExceededException exceeded(String message) {
+        exceeded = new BudgetExceededException(message);
+        return exceeded;
+    }
+
+    /**
+     * @return true if the exception, or one of its causes, was thrown by this handler.
+     */
+    public boolean isBudgetExceeded(Throwable t) {
+        while (t != null) {
+            if (t == exceeded) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    public String getBudgetExceededMessage() {
+        return exceeded == null ? null : exceeded.getMessage();
+    }
+
+    private static class BudgetExceededException extends SAXException {
+        public BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
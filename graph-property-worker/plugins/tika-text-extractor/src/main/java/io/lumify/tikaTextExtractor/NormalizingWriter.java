@@ -0,0 +1,82 @@
+package io.lumify.tikaTextExtractor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.Normalizer;
+
+/**
+ * Normalizes text as it is written. Text is held until a space or line feed, which never combine with the characters
+ * before them, so each piece normalizes the same as it would as part of the whole text. Text without either is cut
+ * before a character that is not a combining mark or a surrogate once it grows past the maximum held length.
+ */
+public class NormalizingWriter extends Writer {
+    private static final int MIN_WRITE_LENGTH = 8 * 1024;
+    private static final int MAX_HELD_LENGTH = 64 * 1024;
+    private final Writer out;
+    private final Normalizer.Form form;
+    private final StringBuilder held = new StringBuilder();
+
+    public NormalizingWriter(Writer out, Normalizer.Form form) {
+        this.out = out;
+        this.form = form;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        held.append(cbuf, off, len);
+        if (held.length() >= MIN_WRITE_LENGTH) {
+            writeHeld(findBoundary());
+        }
+    }
+
+    private int findBoundary() {
+        for (int i = held.length() - 1; i > 0; i--) {
+            char c = held.charAt(i);
+            if (c == ' ' || c == '\n') {
+                return i;
+            }
+        }
+        if (held.length() < MAX_HELD_LENGTH) {
+            return 0;
+        }
+        for (int i = held.length() - 1; i > 0; i--) {
+            if (isStarter(held.charAt(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isStarter(char c) {
+        if (Character.isSurrogate(c)) {
+            return false;
+        }
+        // Hangul jamo compose with the jamo before them
+        if (c >= '\u1100' && c <= '\u11FF') {
+            return false;
+        }
+        int type = Character.getType(c);
+        return type != Character.NON_SPACING_MARK
+                && type != Character.COMBINING_SPACING_MARK
+                && type != Character.ENCLOSING_MARK;
+    }
+
+    private void writeHeld(int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        out.write(Normalizer.normalize(held.subSequence(0, length), form));
+        held.delete(0, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeHeld(held.length());
+        out.close();
+    }
+}
@@ -0,0 +1,265 @@
+package io.lumify.tikaTextExtractor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.l3s.boilerpipe.BoilerpipeProcessingException;
+import de.l3s.boilerpipe.extractors.ArticleExtractor;
+import de.l3s.boilerpipe.extractors.NumWordsRulesExtractor;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.CompositeParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.pdf.LumifyParserConfig;
+import org.apache.tika.parser.pdf.PDFParserConfig;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.SecureContentHandler;
+import org.apache.tika.sax.ToTextContentHandler;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.text.Normalizer;
+import java.util.concurrent.*;
+
+/**
+ * Extracts the text of a document with Tika in bounded memory. The document is held in memory up to a threshold and
+ * spilled to a temporary file past it. Tika's text is cleaned and normalized as the parser produces it and is held or
+ * spilled the same way. HTML that fits in memory is also run through boilerpipe, which needs the whole page, and falls
+ * back to Tika's text when boilerpipe finds none.
+ * <p/>
+ * With a time budget the parse runs on its own thread and is abandoned when the budget runs out, even when the parser
+ * is stuck inside a single call and never reaches the budget check in {@link ExtractionBudgetContentHandler}.
+ */
+public class StreamingTextExtractor {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(StreamingTextExtractor.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final ExecutorService PARSE_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("tika-text-extractor-%d")
+            .setDaemon(true)
+            .build());
+    private final int inMemoryThreshold;
+    private final long maxTextLength;
+    private final long maxMillis;
+
+    /**
+     * @param inMemoryThreshold the most bytes of the document, and of its text, to hold in memory
+     * @param maxTextLength     the most characters of text to extract from a document, or -1 for no limit
+     * @param maxMillis         the longest to spend parsing a document, or -1 for no limit
+     */
+    public StreamingTextExtractor(int inMemoryThreshold, long maxTextLength, long maxMillis) {
+        this.inMemoryThreshold = inMemoryThreshold;
+        this.maxTextLength = maxTextLength;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Temporary files are created in tmp, so the text must be read before tmp is disposed.
+     */
+    public ExtractedText extract(InputStream in, String mimeType, Metadata metadata, TemporaryResources tmp) throws IOException, SAXException, TikaException, BoilerpipeProcessingException {
+        DeferredFileOutputStream document = new DeferredFileOutputStream(inMemoryThreshold, tmp.createTemporaryFile());
+        try {
+            IOUtils.copy(in, document);
+        } finally {
+            document.close();
+        }
+
+        metadata.set(Metadata.CONTENT_TYPE, mimeType);
+        DeferredFileOutputStream text = new DeferredFileOutputStream(inMemoryThreshold, tmp.createTemporaryFile());
+        Writer writer = new TextCleaningWriter(new NormalizingWriter(new OutputStreamWriter(text, UTF8), Normalizer.Form.NFC));
+        boolean truncated;
+        try {
+            truncated = extractTextWithTika(document, writer, metadata);
+        } finally {
+            writer.close();
+        }
+
+        if (isHtml(mimeType) && document.isInMemory()) {
+            String htmlText = extractTextFromHtml(new String(document.getData(), UTF8));
+            if (htmlText != null && htmlText.length() > 0) {
+                return new ExtractedText(Normalizer.normalize(htmlText, Normalizer.Form.NFC).getBytes(UTF8), null, truncated);
+            }
+        }
+
+        if (text.isInMemory()) {
+            return new ExtractedText(text.getData(), null, truncated);
+        }
+        return new ExtractedText(null, text.getFile(), truncated);
+    }
+
+    /**
+     * @return true if the parse was stopped by the time or size budget
+     */
+    private boolean extractTextWithTika(DeferredFileOutputStream document, Writer writer, Metadata metadata) throws TikaException, SAXException, IOException {
+        TikaConfig tikaConfig = TikaConfig.getDefaultConfig();
+        CompositeParser compositeParser = new CompositeParser(tikaConfig.getMediaTypeRegistry(), tikaConfig.getParser());
+        ExtractionBudgetContentHandler budgetHandler = new ExtractionBudgetContentHandler(new ToTextContentHandler(writer), maxTextLength, maxMillis);
+        BodyContentHandler handler = new BodyContentHandler(budgetHandler);
+        ParseContext context = new ParseContext();
+        context.set(PDFParserConfig.class, new LumifyParserConfig());
+
+        TikaInputStream tis = document.isInMemory() ? TikaInputStream.get(document.getData()) : TikaInputStream.get(document.getFile());
+        try {
+            // TIKA-216: Zip bomb prevention
+            SecureContentHandler sch = new SecureContentHandler(handler, tis);
+            try {
+                if (!parse(compositeParser, tis, sch, metadata, context, budgetHandler)) {
+                    LOGGER.warn("Stopped extracting text: %s", budgetHandler.getBudgetExceededMessage());
+                    return true;
+                }
+            } catch (SAXException e) {
+                if (budgetHandler.isBudgetExceeded(e)) {
+                    LOGGER.warn("Stopped extracting text: %s", budgetHandler.getBudgetExceededMessage());
+                    return true;
+                }
+                // Convert zip bomb exceptions to TikaExceptions
+                sch.throwIfCauseOf(e);
+                throw e;
+            } catch (TikaException e) {
+                if (budgetHandler.isBudgetExceeded(e)) {
+                    LOGGER.warn("Stopped extracting text: %s", budgetHandler.getBudgetExceededMessage());
+                    return true;
+                }
+                throw e;
+            }
+        } finally {
+            tis.close();
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("extracted text from %d bytes", document.getByteCount());
+            LOGGER.debug("metadata");
+            for (String metadataName : metadata.names()) {
+                LOGGER.debug("  %s: %s", metadataName, metadata.get(metadataName));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the time budget ran out and the parse was abandoned. The handler is stopped before this
+     * returns, so the abandoned parse can't pass on any more text, and closing the input makes it fail soon after.
+     */
+    private boolean parse(final Parser parser, final InputStream in, final ContentHandler handler, final Metadata metadata, final ParseContext context, ExtractionBudgetContentHandler budgetHandler) throws IOException, SAXException, TikaException {
+        if (maxMillis < 0) {
+            parser.parse(in, handler, metadata, context);
+            return true;
+        }
+
+        Future<Void> future = PARSE_EXECUTOR.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                parser.parse(in, handler, metadata, context);
+                return null;
+            }
+        });
+        try {
+            future.get(maxMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            budgetHandler.stop("time budget of " + maxMillis + "ms exceeded");
+            future.cancel(true);
+            return false;
+        } catch (InterruptedException e) {
+            budgetHandler.stop("interrupted");
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted extracting text");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            }
+            if (cause instanceof TikaException) {
+                throw (TikaException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LumifyException("Could not extract text", cause);
+        }
+    }
+
+    private String extractTextFromHtml(String text) throws BoilerpipeProcessingException {
+        String extractedText;
+
+        text = cleanHtml(text);
+
+        extractedText = NumWordsRulesExtractor.getInstance().getText(text);
+        if (extractedText != null && extractedText.length() > 0) {
+            return extractedText;
+        }
+
+        extractedText = ArticleExtractor.getInstance().getText(text);
+        if (extractedText != null && extractedText.length() > 0) {
+            return extractedText;
+        }
+
+        return null;
+    }
+
+    private String cleanHtml(String text) {
+        text = text.replaceAll("&mdash;", "--");
+        text = text.replaceAll("&ldquo;", "\"");
+        text = text.replaceAll("&rdquo;", "\"");
+        text = text.replaceAll("&lsquo;", "'");
+        text = text.replaceAll("&rsquo;", "'");
+        return text;
+    }
+
+    private boolean isHtml(String mimeType) {
+        return mimeType.contains("html");
+    }
+
+    /**
+     * Extracted UTF-8 text, held in memory or in a temporary file.
+     */
+    public static class ExtractedText {
+        private final byte[] data;
+        private final File file;
+        private final boolean truncated;
+
+        private ExtractedText(byte[] data, File file, boolean truncated) {
+            this.data = data;
+            this.file = file;
+            this.truncated = truncated;
+        }
+
+        public boolean isInMemory() {
+            return data != null;
+        }
+
+        public long getLength() {
+            return data != null ? data.length : file.length();
+        }
+
+        /**
+         * @return true if extraction was stopped by the time or size budget and the text is only what was extracted
+         * before then.
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public InputStream getInputStream() throws IOException {
+            if (data != null) {
+                return new ByteArrayInputStream(data);
+            }
+            return new BufferedInputStream(new FileInputStream(file));
+        }
+    }
+}
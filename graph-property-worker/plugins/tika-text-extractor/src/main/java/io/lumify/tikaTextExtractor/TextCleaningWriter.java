@@ -0,0 +1,78 @@
+package io.lumify.tikaTextExtractor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Cleans extracted text as it is written, one character at a time:
+ * <ul>
+ * <li>carriage returns become line feeds, tabs and non-breaking spaces become spaces</li>
+ * <li>a run of spaces and line feeds that holds two line feeds in a row becomes a paragraph break ("\n\n")</li>
+ * <li>any other run of spaces and line feeds, including a lone line feed that only wraps a paragraph, becomes one space</li>
+ * </ul>
+ * The pending run is written when the next other character arrives or the writer is closed.
+ */
+public class TextCleaningWriter extends Writer {
+    private final Writer out;
+    private boolean inWhitespace;
+    private boolean previousWasNewline;
+    private boolean paragraphBreak;
+
+    public TextCleaningWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            write(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (c == '\r') {
+            c = '\n';
+        } else if (c == '\t' || c == '\u00A0') {
+            c = ' ';
+        }
+
+        if (c == ' ' || c == '\n') {
+            if (!inWhitespace) {
+                inWhitespace = true;
+                previousWasNewline = false;
+                paragraphBreak = false;
+            }
+            if (c == '\n') {
+                if (previousWasNewline) {
+                    paragraphBreak = true;
+                }
+                previousWasNewline = true;
+            } else {
+                previousWasNewline = false;
+            }
+            return;
+        }
+
+        writeWhitespace();
+        out.write(c);
+    }
+
+    private void writeWhitespace() throws IOException {
+        if (inWhitespace) {
+            out.write(paragraphBreak ? "\n\n" : " ");
+            inWhitespace = false;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeWhitespace();
+        out.close();
+    }
+}
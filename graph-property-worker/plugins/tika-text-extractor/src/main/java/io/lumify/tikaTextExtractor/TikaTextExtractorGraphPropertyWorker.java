@@ -1,8 +1,5 @@
 package io.lumify.tikaTextExtractor;
 
-import de.l3s.boilerpipe.BoilerpipeProcessingException;
-import de.l3s.boilerpipe.extractors.ArticleExtractor;
-import de.l3s.boilerpipe.extractors.NumWordsRulesExtractor;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
@@ -11,18 +8,8 @@ import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.properties.types.LongLumifyProperty;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
-import org.apache.commons.io.IOUtils;
-import org.apache.tika.config.TikaConfig;
-import org.apache.tika.exception.TikaException;
 import org.apache.tika.io.TemporaryResources;
-import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
-import org.apache.tika.parser.CompositeParser;
-import org.apache.tika.parser.ParseContext;
-import org.apache.tika.parser.pdf.LumifyParserConfig;
-import org.apache.tika.parser.pdf.PDFParserConfig;
-import org.apache.tika.sax.BodyContentHandler;
-import org.apache.tika.sax.SecureContentHandler;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.securegraph.Element;
@@ -30,14 +17,11 @@ import org.securegraph.Property;
 import org.securegraph.Vertex;
 import org.securegraph.mutation.ExistingElementMutation;
 import org.securegraph.property.StreamingPropertyValue;
-import org.xml.sax.ContentHandler;
-import org.xml.sax.SAXException;
 
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.text.Normalizer;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -62,6 +46,13 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
     private static final String CUSTOM_FLICKR_METADATA_KEYS_PROPERTY = "tika.extraction.customflickrmetadatakeys";
     private static final String NUMBER_OF_PAGES_PROPERTY = "tika.extraction.numberofpageskeys";
 
+    public static final String CONFIG_IN_MEMORY_THRESHOLD = "tika.textExtractor.inMemoryThreshold";
+    public static final String CONFIG_MAX_TEXT_LENGTH = "tika.textExtractor.maxTextLength";
+    public static final String CONFIG_MAX_MILLIS = "tika.textExtractor.maxMillis";
+    private static final int DEFAULT_IN_MEMORY_THRESHOLD = 1024 * 1024;
+    private static final int DEFAULT_MAX_TEXT_LENGTH = 50 * 1000 * 1000;
+    private static final int DEFAULT_MAX_MILLIS = 10 * 60 * 1000;
+
     private static final double SYSTEM_ASSIGNED_CONFIDENCE = 0.4;
 
     private List<String> dateKeys;
@@ -75,6 +66,7 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
     private List<String> authorKeys;
     private List<String> numberOfPagesKeys;
     private LongLumifyProperty pageCountProperty;
+    private StreamingTextExtractor textExtractor;
 
     @Override
     public void prepare(GraphPropertyWorkerPrepareData workerPrepareData) throws Exception {
@@ -107,6 +99,12 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
         customFlickrMetadataKeys = Arrays.asList(tikaProperties.getProperty(CUSTOM_FLICKR_METADATA_KEYS_PROPERTY, "Unknown tag (0x9286)").split(","));
         authorKeys = Arrays.asList(tikaProperties.getProperty(AUTHOR_PROPERTY, "author").split(","));
         numberOfPagesKeys = Arrays.asList(tikaProperties.getProperty(NUMBER_OF_PAGES_PROPERTY, "xmpTPg:NPages").split(","));
+
+        textExtractor = new StreamingTextExtractor(
+                getConfiguration().getInt(CONFIG_IN_MEMORY_THRESHOLD, DEFAULT_IN_MEMORY_THRESHOLD),
+                getConfiguration().getInt(CONFIG_MAX_TEXT_LENGTH, DEFAULT_MAX_TEXT_LENGTH),
+                getConfiguration().getInt(CONFIG_MAX_MILLIS, DEFAULT_MAX_MILLIS)
+        );
     }
 
     @Override
@@ -116,9 +114,20 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
 
         Charset charset = Charset.forName("UTF-8");
         Metadata metadata = new Metadata();
-        metadata.set(Metadata.CONTENT_TYPE, mimeType);
-        String text = extractText(in, mimeType, metadata);
+        TemporaryResources tmp = new TemporaryResources();
+        try {
+            StreamingTextExtractor.ExtractedText extractedText = textExtractor.extract(in, mimeType, metadata, tmp);
+            save(data, metadata, extractedText, tmp, charset);
+            getGraph().flush();
+        } finally {
+            tmp.dispose();
+        }
 
+        getWorkQueueRepository().pushGraphPropertyQueue(data.getElement(), MULTI_VALUE_KEY,
+                LumifyProperties.TEXT.getPropertyName(), data.getWorkspaceId(), data.getVisibilitySource());
+    }
+
+    private void save(GraphPropertyWorkData data, Metadata metadata, StreamingTextExtractor.ExtractedText extractedText, TemporaryResources tmp, Charset charset) throws IOException {
         ExistingElementMutation<Vertex> m = data.getElement().prepareMutation();
 
         // TODO set("url", extractUrl(metadata));
@@ -140,7 +149,7 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
             try {
                 JSONObject customImageMetadataJson = new JSONObject(customImageMetadata);
 
-                text = new JSONObject(customImageMetadataJson.get("description").toString()).get("_content") +
+                String text = new JSONObject(customImageMetadataJson.get("description").toString()).get("_content") +
                         "\n" + customImageMetadataJson.get("tags").toString();
                 StreamingPropertyValue textValue = new StreamingPropertyValue(new ByteArrayInputStream(text.getBytes(charset)), String.class);
                 LumifyProperties.TEXT.addPropertyValue(m, MULTI_VALUE_KEY, textValue, textMetadata, data.getVisibility());
@@ -158,7 +167,13 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
                 LOGGER.warn("Image returned invalid custom metadata");
             }
         } else {
-            StreamingPropertyValue textValue = new StreamingPropertyValue(new ByteArrayInputStream(text.getBytes(charset)), String.class);
+            if (extractedText.isTruncated()) {
+                // the text is kept so the element is still searchable, but readers can tell it is incomplete
+                LumifyProperties.META_DATA_TEXT_TRUNCATED.setMetadata(textMetadata, true, getVisibilityTranslator().getDefaultVisibility());
+            }
+            InputStream textIn = extractedText.getInputStream();
+            tmp.addResource(textIn);
+            StreamingPropertyValue textValue = new StreamingPropertyValue(textIn, String.class);
             LumifyProperties.TEXT.addPropertyValue(m, MULTI_VALUE_KEY, textValue, textMetadata, data.getVisibility());
 
             LumifyProperties.CREATE_DATE.addPropertyValue(m, MULTI_VALUE_KEY, extractDate(metadata), data.createPropertyMetadata(), data.getVisibility());
@@ -184,95 +199,6 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
         Vertex v = m.save(getAuthorizations());
         getAuditRepository().auditVertexElementMutation(AuditAction.UPDATE, m, v, MULTI_VALUE_KEY, getUser(), data.getVisibility());
         getAuditRepository().auditAnalyzedBy(AuditAction.ANALYZED_BY, v, getClass().getSimpleName(), getUser(), v.getVisibility());
-
-        getGraph().flush();
-        getWorkQueueRepository().pushGraphPropertyQueue(data.getElement(), MULTI_VALUE_KEY,
-                LumifyProperties.TEXT.getPropertyName(), data.getWorkspaceId(), data.getVisibilitySource());
-    }
-
-    private String extractText(InputStream in, String mimeType, Metadata metadata) throws IOException, SAXException, TikaException, BoilerpipeProcessingException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        IOUtils.copy(in, out);
-        byte[] textBytes = out.toByteArray();
-        String text;
-
-        metadata.set(Metadata.CONTENT_TYPE, mimeType);
-        String bodyContent = extractTextWithTika(textBytes, metadata);
-
-        if (isHtml(mimeType)) {
-            text = extractTextFromHtml(IOUtils.toString(textBytes, "UTF-8"));
-            if (text == null || text.length() == 0) {
-                text = cleanExtractedText(bodyContent);
-            }
-        } else {
-            text = cleanExtractedText(bodyContent);
-        }
-
-        return Normalizer.normalize(text, Normalizer.Form.NFC);
-    }
-
-    private static String extractTextWithTika(byte[] textBytes, Metadata metadata) throws TikaException, SAXException, IOException {
-        TikaConfig tikaConfig = TikaConfig.getDefaultConfig();
-        CompositeParser compositeParser = new CompositeParser(tikaConfig.getMediaTypeRegistry(), tikaConfig.getParser());
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        OutputStreamWriter writer = new OutputStreamWriter(output, "UTF-8");
-        ContentHandler handler = new BodyContentHandler(writer);
-        ParseContext context = new ParseContext();
-        context.set(PDFParserConfig.class, new LumifyParserConfig());
-        ByteArrayInputStream stream = new ByteArrayInputStream(textBytes);
-
-        TemporaryResources tmp = new TemporaryResources();
-        try {
-            TikaInputStream tis = TikaInputStream.get(stream, tmp);
-
-            // TIKA-216: Zip bomb prevention
-            SecureContentHandler sch = new SecureContentHandler(handler, tis);
-            try {
-                compositeParser.parse(tis, sch, metadata, context);
-            } catch (SAXException e) {
-                // Convert zip bomb exceptions to TikaExceptions
-                sch.throwIfCauseOf(e);
-                throw e;
-            }
-        } finally {
-            tmp.dispose();
-        }
-
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("extracted %d bytes", output.size());
-            LOGGER.debug("metadata");
-            for (String metadataName : metadata.names()) {
-                LOGGER.debug("  %s: %s", metadataName, metadata.get(metadataName));
-            }
-        }
-        return IOUtils.toString(output.toByteArray(), "UTF-8");
-    }
-
-    private String extractTextFromHtml(String text) throws BoilerpipeProcessingException {
-        String extractedText;
-
-        text = cleanHtml(text);
-
-        extractedText = NumWordsRulesExtractor.getInstance().getText(text);
-        if (extractedText != null && extractedText.length() > 0) {
-            return extractedText;
-        }
-
-        extractedText = ArticleExtractor.getInstance().getText(text);
-        if (extractedText != null && extractedText.length() > 0) {
-            return extractedText;
-        }
-
-        return null;
-    }
-
-    private String cleanHtml(String text) {
-        text = text.replaceAll("&mdash;", "--");
-        text = text.replaceAll("&ldquo;", "\"");
-        text = text.replaceAll("&rdquo;", "\"");
-        text = text.replaceAll("&lsquo;", "'");
-        text = text.replaceAll("&rsquo;", "'");
-        return text;
     }
 
     private Date extractDate(Metadata metadata) {
@@ -333,26 +259,6 @@ public class TikaTextExtractorGraphPropertyWorker extends GraphPropertyWorker {
         return host;
     }
 
-    private boolean isHtml(String mimeType) {
-        return mimeType.contains("html");
-    }
-
-    private String cleanExtractedText(String extractedText) {
-        return extractedText
-                // Normalize line breaks
-                .replaceAll("\r", "\n")
-                        // Remove tabs
-                .replaceAll("\t", " ")
-                        // Remove non-breaking spaces
-                .replaceAll("\u00A0", " ")
-                        // Remove newlines that are just paragraph wrapping
-                .replaceAll("(?<![\\n])[\\n](?![\\n])", " ")
-                        // Remove remaining newlines with exactly 2
-                .replaceAll("([ ]*\\n[ ]*)+", "\n\n")
-                        // Remove duplicate spaces
-                .replaceAll("[ ]+", " ");
-    }
-
     @Override
     public boolean isHandled(Element element, Property property) {
         if (property == null) {
@@ -0,0 +1,216 @@
+package io.lumify.tikaTextExtractor;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.sax.ToTextContentHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.*;
+import java.text.Normalizer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StreamingTextExtractorTest {
+    private static final int IN_MEMORY_THRESHOLD = 64 * 1024;
+    private static final int PARAGRAPH_COUNT = 250000;
+    private static final long MAX_HEAP_GROWTH = 4 * 1024 * 1024;
+    private TemporaryResources tmp;
+
+    @Before
+    public void before() {
+        tmp = new TemporaryResources();
+    }
+
+    @After
+    public void after() throws Exception {
+        tmp.dispose();
+    }
+
+    @Test
+    public void testCleaningMatchesRegularExpressions() throws IOException {
+        char[] alphabet = new char[]{'a', 'b', ' ', ' ', '\n', '\n', '\r', '\t', '\u00A0'};
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            assertEquals("cleaning " + text, cleanWithRegularExpressions(text.toString()), clean(text.toString()));
+        }
+    }
+
+    @Test
+    public void testNormalizingAcrossWrites() throws IOException {
+        StringBuilder withSpaces = new StringBuilder();
+        StringBuilder withoutSpaces = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            withSpaces.append("Suen\u0301a ");
+            withoutSpaces.append("e\u0301\u0323");
+        }
+        assertEquals(Normalizer.normalize(withSpaces, Normalizer.Form.NFC), normalize(withSpaces.toString()));
+        assertEquals(Normalizer.normalize(withoutSpaces, Normalizer.Form.NFC), normalize(withoutSpaces.toString()));
+    }
+
+    @Test
+    public void testMultiMegabyteDocumentInBoundedHeap() throws Exception {
+        StreamingTextExtractor extractor = new StreamingTextExtractor(IN_MEMORY_THRESHOLD, -1, -1);
+        // load Tika's configuration and parsers before measuring
+        extractor.extract(new HeapSamplingDocumentInputStream(10), "text/plain", new Metadata(), tmp);
+
+        long heapBefore = usedHeapAfterCollection();
+        HeapSamplingDocumentInputStream in = new HeapSamplingDocumentInputStream(PARAGRAPH_COUNT);
+        StreamingTextExtractor.ExtractedText extractedText = extractor.extract(in, "text/plain", new Metadata(), tmp);
+        long heapAfter = usedHeapAfterCollection();
+
+        assertTrue("document should be larger than a few megabytes: " + in.getLength(), in.getLength() > 8 * 1024 * 1024);
+        assertTrue("heap grew " + (in.getMaxUsedHeap() - heapBefore) + " bytes while reading",
+                in.getMaxUsedHeap() - heapBefore < MAX_HEAP_GROWTH);
+        assertTrue("heap grew " + (heapAfter - heapBefore) + " bytes holding the text", heapAfter - heapBefore < MAX_HEAP_GROWTH);
+        assertFalse(extractedText.isInMemory());
+        assertFalse(extractedText.isTruncated());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(extractedText.getInputStream(), "UTF-8"));
+        try {
+            int paragraph = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() > 0) {
+                    assertEquals(HeapSamplingDocumentInputStream.paragraph(paragraph).trim(), line.trim());
+                    paragraph++;
+                }
+            }
+            assertEquals(PARAGRAPH_COUNT, paragraph);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testSizeBudget() throws Exception {
+        StreamingTextExtractor extractor = new StreamingTextExtractor(IN_MEMORY_THRESHOLD, 1000, -1);
+        StreamingTextExtractor.ExtractedText extractedText = extractor.extract(new HeapSamplingDocumentInputStream(10000), "text/plain", new Metadata(), tmp);
+
+        assertTrue(extractedText.isTruncated());
+        assertTrue(extractedText.isInMemory());
+        String text = IOUtils.toString(extractedText.getInputStream(), "UTF-8");
+        assertTrue(text.startsWith(HeapSamplingDocumentInputStream.paragraph(0).trim()));
+        assertTrue("text was " + text.length() + " characters", text.length() <= 1000);
+    }
+
+    @Test
+    public void testTimeBudget() throws Exception {
+        StreamingTextExtractor extractor = new StreamingTextExtractor(IN_MEMORY_THRESHOLD, -1, 0);
+        HeapSamplingDocumentInputStream in = new HeapSamplingDocumentInputStream(PARAGRAPH_COUNT);
+        StreamingTextExtractor.ExtractedText extractedText = extractor.extract(in, "text/plain", new Metadata(), tmp);
+
+        assertTrue(extractedText.isTruncated());
+        assertTrue(extractedText.getLength() < in.getLength());
+    }
+
+    @Test
+    public void testStoppedHandlerPassesNothingOn() throws Exception {
+        StringWriter text = new StringWriter();
+        ExtractionBudgetContentHandler handler = new ExtractionBudgetContentHandler(new ToTextContentHandler(text), -1, -1);
+        handler.characters("before".toCharArray(), 0, 6);
+        handler.stop("stopped");
+
+        try {
+            handler.characters("after".toCharArray(), 0, 5);
+            fail("expected the stopped handler to fail the parse");
+        } catch (SAXException ex) {
+            assertTrue(handler.isBudgetExceeded(ex));
+        }
+        assertEquals("stopped", handler.getBudgetExceededMessage());
+        assertEquals("before", text.toString());
+    }
+
+    private static String clean(String text) throws IOException {
+        StringWriter result = new StringWriter();
+        Writer writer = new TextCleaningWriter(result);
+        writer.write(text);
+        writer.close();
+        return result.toString();
+    }
+
+    private static String normalize(String text) throws IOException {
+        StringWriter result = new StringWriter();
+        Writer writer = new NormalizingWriter(result, Normalizer.Form.NFC);
+        for (int i = 0; i < text.length(); i += 1000) {
+            writer.write(text, i, Math.min(1000, text.length() - i));
+        }
+        writer.close();
+        return result.toString();
+    }
+
+    /**
+     * The cleanup the extractor did on the whole text before it streamed.
+     */
+    private static String cleanWithRegularExpressions(String extractedText) {
+        return extractedText
+                .replaceAll("\r", "\n")
+                .replaceAll("\t", " ")
+                .replaceAll("\u00A0", " ")
+                .replaceAll("(?<![\\n])[\\n](?![\\n])", " ")
+                .replaceAll("([ ]*\\n[ ]*)+", "\n\n")
+                .replaceAll("[ ]+", " ");
+    }
+
+    private static long usedHeapAfterCollection() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Generates a document of numbered paragraphs without holding it in memory, and samples the used heap as it is
+     * read.
+     */
+    private static class HeapSamplingDocumentInputStream extends InputStream {
+        private static final int SAMPLE_INTERVAL = 25000;
+        private final int paragraphCount;
+        private int paragraph;
+        private byte[] current = new byte[0];
+        private int position;
+        private long length;
+        private long maxUsedHeap;
+
+        public HeapSamplingDocumentInputStream(int paragraphCount) {
+            this.paragraphCount = paragraphCount;
+        }
+
+        public static String paragraph(int index) {
+            return "Paragraph " + index + " of a document that is far too large to hold in memory.\n\n";
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == current.length) {
+                if (paragraph == paragraphCount) {
+                    return -1;
+                }
+                if (paragraph % SAMPLE_INTERVAL == 0) {
+                    maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterCollection());
+                }
+                current = paragraph(paragraph++).getBytes("UTF-8");
+                position = 0;
+            }
+            length++;
+            return current[position++];
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getMaxUsedHeap() {
+            return maxUsedHeap;
+        }
+    }
+}
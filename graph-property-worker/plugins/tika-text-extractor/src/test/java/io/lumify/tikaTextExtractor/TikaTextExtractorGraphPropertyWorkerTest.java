@@ -28,6 +28,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TikaTextExtractorGraphPropertyWorkerTest {
@@ -36,6 +38,7 @@ public class TikaTextExtractorGraphPropertyWorkerTest {
     private Authorizations authorizations;
     private TikaTextExtractorGraphPropertyWorker textExtractor;
     private VisibilityTranslator visibilityTranslator;
+    private Map config;
 
     @Mock
     private WorkQueueRepository workQueueRepository;
@@ -54,11 +57,15 @@ public class TikaTextExtractorGraphPropertyWorkerTest {
         textExtractor = new TikaTextExtractorGraphPropertyWorker();
         visibilityTranslator = new DirectVisibilityTranslator();
 
-        Map config = new HashMap();
+        config = new HashMap();
         config.put("ontology.intent.concept.person", "http://lumify.io/test#person");
         config.put("ontology.intent.concept.location", "http://lumify.io/test#location");
         config.put("ontology.intent.concept.organization", "http://lumify.io/test#organization");
         config.put("ontology.intent.relationship.artifactHasEntity", "http://lumify.io/test#artifactHasEntity");
+        prepareTextExtractor();
+    }
+
+    private void prepareTextExtractor() throws Exception {
         io.lumify.core.config.Configuration configuration = new HashMapConfigurationLoader(config).createConfiguration();
 
         GraphPropertyWorkerPrepareData prepareData = new GraphPropertyWorkerPrepareData(config, null, null, null, null, null);
@@ -181,6 +188,27 @@ public class TikaTextExtractorGraphPropertyWorkerTest {
         assertEquals(21, expected.length());
         assertEquals(expected, actual);
         assertEquals(expected.length(), actual.length());
+        assertNull(LumifyProperties.META_DATA_TEXT_TRUNCATED.getMetadataValue(vertex.getProperty(LumifyProperties.TEXT.getPropertyName()).getMetadata()));
+    }
+
+    @Test
+    public void testExtractTruncatedText() throws Exception {
+        config.put(TikaTextExtractorGraphPropertyWorker.CONFIG_MAX_TEXT_LENGTH, "20");
+        prepareTextExtractor();
+        String data = "a document that is longer than the text extractor is allowed to keep";
+        createVertex(data, "text/plain; charset=utf-8");
+
+        InputStream in = new ByteArrayInputStream(data.getBytes("UTF-8"));
+        Vertex vertex = graph.getVertex("v1", authorizations);
+        Property property = vertex.getProperty(LumifyProperties.RAW.getPropertyName());
+        GraphPropertyWorkData workData = new GraphPropertyWorkData(visibilityTranslator, vertex, property, null, null);
+        textExtractor.execute(in, workData);
+
+        vertex = graph.getVertex("v1", authorizations);
+        Property textProperty = vertex.getProperty(LumifyProperties.TEXT.getPropertyName());
+        assertTrue(LumifyProperties.META_DATA_TEXT_TRUNCATED.getMetadataValue(textProperty.getMetadata()));
+        String text = IOUtils.toString(((StreamingPropertyValue) textProperty.getValue()).getInputStream(), "UTF-8");
+        assertTrue("text was " + text.length() + " characters", text.length() <= 20);
     }
 
     //todo : add test with image metadata
@@ -0,0 +1,114 @@
+package io.lumify.translate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Singleton;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.core.util.RowKeyHelper;
+import org.securegraph.Element;
+import org.securegraph.Property;
+import org.securegraph.property.StreamingPropertyValue;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects the language of text properties for any worker that needs it. Profiles are loaded once, detectors are
+ * reused per thread and only a prefix of the text is ever read. Results are cached per property so workers
+ * handling the same property don't each detect it again.
+ */
+@Singleton
+public class LanguageDetectionService {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(LanguageDetectionService.class);
+    public static final int SAMPLE_LENGTH = 2 * LanguageDetector.MAX_TEXT_LENGTH;
+    private static final String UNKNOWN_LANGUAGE = "";
+    private final Cache<String, String> languageCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+    private volatile LanguageProfileTable profileTable;
+    private final ThreadLocal<LanguageDetector> detectors = new ThreadLocal<LanguageDetector>() {
+        @Override
+        protected LanguageDetector initialValue() {
+            return new LanguageDetector(getProfileTable());
+        }
+    };
+
+    public LanguageProfileTable getProfileTable() {
+        if (profileTable == null) {
+            synchronized (this) {
+                if (profileTable == null) {
+                    profileTable = LanguageProfileTable.loadFromClasspath();
+                }
+            }
+        }
+        return profileTable;
+    }
+
+    /**
+     * @return the language of the text, or null if it could not be determined.
+     */
+    public String detectLanguage(String text) {
+        return detectors.get().detect(text);
+    }
+
+    /**
+     * @return the language of a text property from its metadata, from an earlier detection, or by reading the
+     * start of its value. null if it could not be determined.
+     */
+    public String getLanguage(Element element, Property property) throws IOException {
+        String language = LumifyProperties.META_DATA_LANGUAGE.getMetadataValueOrDefault(property.getMetadata(), null);
+        if (language != null) {
+            return language;
+        }
+        language = languageCache.getIfPresent(getCacheKey(element, property));
+        if (language != null) {
+            return toLanguage(language);
+        }
+        return detectAndCacheLanguage(element, property, readSample(property));
+    }
+
+    /**
+     * Detects the language of a sample of the property's text and remembers it for {@link #getLanguage}.
+     */
+    public String detectAndCacheLanguage(Element element, Property property, String sample) {
+        String language = detectLanguage(sample);
+        LOGGER.debug("Detected language %s for property %s on %s", language, property.toString(), element.getId());
+        languageCache.put(getCacheKey(element, property), language == null ? UNKNOWN_LANGUAGE : language);
+        return language;
+    }
+
+    /**
+     * Reads up to {@link #SAMPLE_LENGTH} characters, leaving the rest of the reader unread.
+     */
+    public static String readSample(Reader reader) throws IOException {
+        char[] buffer = new char[SAMPLE_LENGTH];
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+        }
+        return new String(buffer, 0, length);
+    }
+
+    private static String readSample(Property property) throws IOException {
+        Object value = property.getValue();
+        if (value instanceof StreamingPropertyValue) {
+            try (Reader reader = new InputStreamReader(((StreamingPropertyValue) value).getInputStream(), "UTF-8")) {
+                return readSample(reader);
+            }
+        }
+        String text = String.valueOf(value);
+        return text.length() > SAMPLE_LENGTH ? text.substring(0, SAMPLE_LENGTH) : text;
+    }
+
+    private static String getCacheKey(Element element, Property property) {
+        return RowKeyHelper.buildMinor(element.getId().toString(), property.getKey(), property.getName());
+    }
+
+    private static String toLanguage(String cachedLanguage) {
+        return UNKNOWN_LANGUAGE.equals(cachedLanguage) ? null : cachedLanguage;
+    }
+}
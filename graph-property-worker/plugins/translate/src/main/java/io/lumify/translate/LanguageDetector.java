@@ -0,0 +1,211 @@
+package io.lumify.translate;
+
+import com.cybozu.labs.langdetect.util.NGram;
+
+import java.lang.Character.UnicodeBlock;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * The langdetect algorithm (see com.cybozu.labs.langdetect.Detector) over a {@link LanguageProfileTable}. Only the
+ * first {@link #MAX_TEXT_LENGTH} characters are used, the same limit Detector applies. Instances keep their
+ * buffers between calls and are not thread safe; use one per thread. The random walk is seeded the same way for
+ * every text so a text always gets the same answer.
+ */
+public class LanguageDetector {
+    public static final int MAX_TEXT_LENGTH = 10000;
+    private static final double ALPHA = 0.5;
+    private static final double ALPHA_WIDTH = 0.05;
+    private static final int ITERATION_LIMIT = 1000;
+    private static final double PROB_THRESHOLD = 0.1;
+    private static final double CONV_THRESHOLD = 0.99999;
+    private static final int BASE_FREQ = 10000;
+    private static final int TRIAL_COUNT = 7;
+    private static final long SEED = 0x4c756d696679L;
+    private static final Pattern URL_REGEX = Pattern.compile("https?://[-_.?&~;+=/#0-9A-Za-z]{1,2076}");
+    private static final Pattern MAIL_REGEX = Pattern.compile("[-_.0-9A-Za-z]{1,64}@[-_0-9A-Za-z]{1,255}[-_.0-9A-Za-z]{1,255}");
+
+    private final LanguageProfileTable table;
+    private final Random random = new Random();
+    private final char[] text = new char[MAX_TEXT_LENGTH];
+    private int textLength;
+    private int[] ngramRows = new int[MAX_TEXT_LENGTH * LanguageProfileTable.MAX_NGRAM_LENGTH];
+    private final double[] languageProbabilities;
+    private final double[] trialProbabilities;
+
+    public LanguageDetector(LanguageProfileTable table) {
+        this.table = table;
+        this.languageProbabilities = new double[table.getLanguageCount()];
+        this.trialProbabilities = new double[table.getLanguageCount()];
+    }
+
+    /**
+     * @return the most probable language, or null if the text has no usable features or no language is likely
+     * enough.
+     */
+    public String detect(String sample) {
+        setText(sample);
+        removeLatinFromNonLatinText();
+        int ngramCount = extractNGrams();
+        if (ngramCount == 0) {
+            return null;
+        }
+
+        Arrays.fill(languageProbabilities, 0);
+        random.setSeed(SEED);
+        for (int trial = 0; trial < TRIAL_COUNT; trial++) {
+            Arrays.fill(trialProbabilities, 1.0 / trialProbabilities.length);
+            double weight = (ALPHA + random.nextGaussian() * ALPHA_WIDTH) / BASE_FREQ;
+            for (int i = 0; ; i++) {
+                int row = ngramRows[random.nextInt(ngramCount)];
+                for (int languageIndex = 0; languageIndex < trialProbabilities.length; languageIndex++) {
+                    trialProbabilities[languageIndex] *= weight + table.getProbability(row, languageIndex);
+                }
+                if (i % 5 == 0) {
+                    if (normalize(trialProbabilities) > CONV_THRESHOLD || i >= ITERATION_LIMIT) {
+                        break;
+                    }
+                }
+            }
+            for (int languageIndex = 0; languageIndex < languageProbabilities.length; languageIndex++) {
+                languageProbabilities[languageIndex] += trialProbabilities[languageIndex] / TRIAL_COUNT;
+            }
+        }
+
+        int best = -1;
+        for (int languageIndex = 0; languageIndex < languageProbabilities.length; languageIndex++) {
+            if (languageProbabilities[languageIndex] > PROB_THRESHOLD && (best == -1 || languageProbabilities[languageIndex] > languageProbabilities[best])) {
+                best = languageIndex;
+            }
+        }
+        return best == -1 ? null : table.getLanguage(best);
+    }
+
+    private void setText(String sample) {
+        String cleaned = URL_REGEX.matcher(sample).replaceAll(" ");
+        cleaned = MAIL_REGEX.matcher(cleaned).replaceAll(" ");
+        cleaned = NGram.normalize_vi(cleaned);
+        textLength = 0;
+        char pre = 0;
+        for (int i = 0; i < cleaned.length() && i < MAX_TEXT_LENGTH; ++i) {
+            char c = cleaned.charAt(i);
+            if (c != ' ' || pre != ' ') {
+                text[textLength++] = c;
+            }
+            pre = c;
+        }
+    }
+
+    /**
+     * Mirrors Detector.cleaningText: drop latin characters from text that is mostly non latin.
+     */
+    private void removeLatinFromNonLatinText() {
+        int latinCount = 0;
+        int nonLatinCount = 0;
+        for (int i = 0; i < textLength; i++) {
+            char c = text[i];
+            if (c <= 'z' && c >= 'A') {
+                ++latinCount;
+            } else if (c >= '\u0300' && UnicodeBlock.of(c) != UnicodeBlock.LATIN_EXTENDED_ADDITIONAL) {
+                ++nonLatinCount;
+            }
+        }
+        if (latinCount * 2 < nonLatinCount) {
+            int newLength = 0;
+            for (int i = 0; i < textLength; i++) {
+                char c = text[i];
+                if (c > 'z' || c < 'A') {
+                    text[newLength++] = c;
+                }
+            }
+            textLength = newLength;
+        }
+    }
+
+    /**
+     * Mirrors NGram.addChar/get without building strings: keeps the last three normalized characters and looks up
+     * the 1, 2 and 3 character n-grams ending at each character.
+     */
+    private int extractNGrams() {
+        int count = 0;
+        char g0 = ' ';
+        char g1 = 0;
+        char g2 = 0;
+        int gramsLength = 1;
+        boolean capitalWord = false;
+        for (int i = 0; i < textLength; i++) {
+            char ch = NGram.normalize(text[i]);
+            char lastChar = gramsLength == 1 ? g0 : (gramsLength == 2 ? g1 : g2);
+            if (lastChar == ' ') {
+                g0 = ' ';
+                gramsLength = 1;
+                capitalWord = false;
+                if (ch == ' ') {
+                    continue;
+                }
+            } else if (gramsLength >= LanguageProfileTable.MAX_NGRAM_LENGTH) {
+                g0 = g1;
+                g1 = g2;
+                gramsLength--;
+            }
+            if (gramsLength == 1) {
+                g1 = ch;
+            } else {
+                g2 = ch;
+            }
+            gramsLength++;
+
+            if (Character.isUpperCase(ch)) {
+                if (Character.isUpperCase(lastChar)) {
+                    capitalWord = true;
+                }
+            } else {
+                capitalWord = false;
+            }
+            if (capitalWord) {
+                continue;
+            }
+
+            char last = gramsLength == 2 ? g1 : g2;
+            if (last != ' ') {
+                count = addRow(count, LanguageProfileTable.toKey(last));
+            }
+            if (gramsLength == 2) {
+                count = addRow(count, LanguageProfileTable.toKey(g0, g1));
+            } else {
+                count = addRow(count, LanguageProfileTable.toKey(g1, g2));
+                count = addRow(count, LanguageProfileTable.toKey(g0, g1, g2));
+            }
+        }
+        return count;
+    }
+
+    private int addRow(int count, long key) {
+        int row = table.findRow(key);
+        if (row < 0) {
+            return count;
+        }
+        if (count == ngramRows.length) {
+            ngramRows = Arrays.copyOf(ngramRows, count * 2);
+        }
+        ngramRows[count] = row;
+        return count + 1;
+    }
+
+    private static double normalize(double[] probabilities) {
+        double max = 0;
+        double sum = 0;
+        for (double p : probabilities) {
+            sum += p;
+        }
+        for (int i = 0; i < probabilities.length; i++) {
+            double p = probabilities[i] / sum;
+            if (max < p) {
+                max = p;
+            }
+            probabilities[i] = p;
+        }
+        return max;
+    }
+}
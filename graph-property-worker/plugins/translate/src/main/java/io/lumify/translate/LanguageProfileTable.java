@@ -0,0 +1,187 @@
+package io.lumify.translate;
+
+import com.cybozu.labs.langdetect.util.LangProfile;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The langdetect profiles as one table of n-gram probabilities. N-grams of up to three characters are packed into a
+ * long and found with open addressing, and each n-gram's per language probabilities are a row of a single float
+ * array, so a lookup allocates nothing and the table is a handful of primitive arrays instead of a map of
+ * strings to double arrays.
+ */
+public class LanguageProfileTable {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(LanguageProfileTable.class);
+    private static final String PROFILE_FILES_LIST = "files.list";
+    public static final int MAX_NGRAM_LENGTH = 3;
+    private final String[] languages;
+    private final long[] keys;
+    private final int[] rows;
+    private final float[] probabilities;
+    private final int ngramCount;
+    private final int mask;
+
+    private LanguageProfileTable(String[] languages, long[] keys, int[] rows, float[] probabilities, int ngramCount) {
+        this.languages = languages;
+        this.keys = keys;
+        this.rows = rows;
+        this.probabilities = probabilities;
+        this.ngramCount = ngramCount;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Loads the profiles listed in files.list next to this class straight from the classpath.
+     */
+    public static LanguageProfileTable loadFromClasspath() {
+        List<LangProfile> profiles = new ArrayList<>();
+        for (String profileFileName : getProfileFileNames()) {
+            LOGGER.debug("Loading langdetect profile: %s", profileFileName);
+            try (InputStream profileIn = LanguageProfileTable.class.getResourceAsStream(profileFileName)) {
+                if (profileIn == null) {
+                    throw new LumifyException("Could not find langdetect profile: " + profileFileName);
+                }
+                profiles.add(new LangProfile(new JSONObject(IOUtils.toString(profileIn, "UTF-8"))));
+            } catch (IOException ex) {
+                throw new LumifyException("Could not load langdetect profile: " + profileFileName, ex);
+            }
+        }
+        LanguageProfileTable table = create(profiles);
+        LOGGER.info("Loaded %d langdetect profiles with %d n-grams", table.getLanguageCount(), table.getNgramCount());
+        return table;
+    }
+
+    public static LanguageProfileTable create(List<LangProfile> profiles) {
+        List<LangProfile> uniqueProfiles = new ArrayList<>();
+        List<String> languages = new ArrayList<>();
+        int ngramCount = 0;
+        for (LangProfile profile : profiles) {
+            if (languages.contains(profile.name)) {
+                LOGGER.info("Duplicate language profile, %s", profile.name);
+                continue;
+            }
+            languages.add(profile.name);
+            uniqueProfiles.add(profile);
+            ngramCount += profile.freq.size();
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(16, ngramCount * 2) - 1) << 1;
+        long[] keys = new long[capacity];
+        int[] rows = new int[capacity];
+        int rowCount = 0;
+        for (LangProfile profile : uniqueProfiles) {
+            for (String ngram : profile.freq.keySet()) {
+                if (ngram.length() < 1 || ngram.length() > MAX_NGRAM_LENGTH) {
+                    continue;
+                }
+                long key = toKey(ngram);
+                int slot = findSlot(keys, capacity - 1, key);
+                if (keys[slot] == 0) {
+                    keys[slot] = key;
+                    rows[slot] = rowCount++;
+                }
+            }
+        }
+
+        int languageCount = languages.size();
+        float[] probabilities = new float[rowCount * languageCount];
+        for (int languageIndex = 0; languageIndex < languageCount; languageIndex++) {
+            LangProfile profile = uniqueProfiles.get(languageIndex);
+            for (Map.Entry<String, Integer> ngramFreq : profile.freq.entrySet()) {
+                String ngram = ngramFreq.getKey();
+                if (ngram.length() < 1 || ngram.length() > MAX_NGRAM_LENGTH) {
+                    continue;
+                }
+                int row = rows[findSlot(keys, capacity - 1, toKey(ngram))];
+                probabilities[row * languageCount + languageIndex] = (float) (ngramFreq.getValue().doubleValue() / profile.n_words[ngram.length() - 1]);
+            }
+        }
+        return new LanguageProfileTable(languages.toArray(new String[languages.size()]), keys, rows, probabilities, rowCount);
+    }
+
+    public int getLanguageCount() {
+        return languages.length;
+    }
+
+    public int getNgramCount() {
+        return ngramCount;
+    }
+
+    public String getLanguage(int languageIndex) {
+        return languages[languageIndex];
+    }
+
+    /**
+     * @return the row of the n-gram, or -1 if no profile contains it.
+     */
+    public int findRow(long key) {
+        int slot = findSlot(keys, mask, key);
+        return keys[slot] == 0 ? -1 : rows[slot];
+    }
+
+    public float getProbability(int row, int languageIndex) {
+        return probabilities[row * languages.length + languageIndex];
+    }
+
+    /**
+     * Packs an n-gram of one to three characters into a long: 16 bits per character and the length in the top
+     * bits, so no key is 0.
+     */
+    public static long toKey(char c0) {
+        return (1L << 48) | c0;
+    }
+
+    public static long toKey(char c0, char c1) {
+        return (2L << 48) | ((long) c0 << 16) | c1;
+    }
+
+    public static long toKey(char c0, char c1, char c2) {
+        return (3L << 48) | ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    static long toKey(String ngram) {
+        switch (ngram.length()) {
+            case 1:
+                return toKey(ngram.charAt(0));
+            case 2:
+                return toKey(ngram.charAt(0), ngram.charAt(1));
+            case 3:
+                return toKey(ngram.charAt(0), ngram.charAt(1), ngram.charAt(2));
+            default:
+                throw new IllegalArgumentException("Invalid n-gram length: " + ngram);
+        }
+    }
+
+    private static int findSlot(long[] keys, int mask, long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static String[] getProfileFileNames() {
+        try (InputStream filesListIn = LanguageProfileTable.class.getResourceAsStream(PROFILE_FILES_LIST)) {
+            List<String> fileNames = new ArrayList<>();
+            for (String line : IOUtils.readLines(filesListIn, "UTF-8")) {
+                line = line.trim();
+                if (line.length() > 0) {
+                    fileNames.add(line);
+                }
+            }
+            return fileNames.toArray(new String[fileNames.size()]);
+        } catch (IOException ex) {
+            throw new LumifyException("Could not read langdetect " + PROFILE_FILES_LIST, ex);
+        }
+    }
+}
@@ -12,6 +12,9 @@ public class TranslateBootstrapBindingProvider implements BootstrapBindingProvid
 
     @Override
     public void addBindings(Binder binder, Configuration configuration) {
+        binder.bind(LanguageDetectionService.class)
+                .in(Scopes.SINGLETON);
+
         String translatorClassName = configuration.get(CONFIG_TRANSLATOR_CLASS_NAME, NopTranslator.class.getName());
         try {
             Class<? extends Translator> translatorClass = ClassUtil.forName(translatorClassName);
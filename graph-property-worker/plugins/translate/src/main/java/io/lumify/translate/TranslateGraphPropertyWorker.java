@@ -1,11 +1,6 @@
 package io.lumify.translate;
 
-import com.cybozu.labs.langdetect.Detector;
-import com.cybozu.labs.langdetect.DetectorFactory;
-import com.cybozu.labs.langdetect.LangDetectException;
-import com.google.common.io.Files;
 import com.google.inject.Inject;
-import io.lumify.core.exception.LumifyException;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkData;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorker;
 import io.lumify.core.ingest.graphProperty.GraphPropertyWorkerPrepareData;
@@ -13,45 +8,40 @@ import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.apache.commons.io.IOUtils;
-import org.json.JSONObject;
 import org.securegraph.Element;
 import org.securegraph.Metadata;
 import org.securegraph.Property;
 import org.securegraph.mutation.ExistingElementMutation;
 import org.securegraph.property.StreamingPropertyValue;
 
-import java.io.*;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 
 public class TranslateGraphPropertyWorker extends GraphPropertyWorker {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(TranslateGraphPropertyWorker.class);
     private Translator translator;
-    private static final Object detectorFactoryLoadLock = new Object();
-    private static boolean detectorFactoryLoaded = false;
+    private LanguageDetectionService languageDetectionService;
 
     @Override
     public void prepare(GraphPropertyWorkerPrepareData workerPrepareData) throws Exception {
         super.prepare(workerPrepareData);
-
-        synchronized (detectorFactoryLoadLock) {
-            if (!detectorFactoryLoaded) {
-                File profileDirectory = createTempProfileDirectory();
-                DetectorFactory.loadProfile(profileDirectory);
-                detectorFactoryLoaded = true;
-            }
-        }
+        languageDetectionService.getProfileTable();
     }
 
     @Override
     public void execute(InputStream in, GraphPropertyWorkData data) throws Exception {
-        String text = IOUtils.toString(in, "UTF-8");
-        if (text.length() < 50) {
-            LOGGER.debug("Skipping language detection because the text is too short. (length: %d)", text.length());
+        Reader reader = new InputStreamReader(in, "UTF-8");
+        String sample = LanguageDetectionService.readSample(reader);
+        if (sample.length() < 50) {
+            LOGGER.debug("Skipping language detection because the text is too short. (length: %d)", sample.length());
             return;
         }
 
         String language;
         try {
-            language = detectLanguage(text);
+            language = languageDetectionService.detectAndCacheLanguage(data.getElement(), data.getProperty(), sample);
             if (language == null) {
                 return;
             }
@@ -67,6 +57,7 @@ public class TranslateGraphPropertyWorker extends GraphPropertyWorker {
         String translatedTextPropertyKey = data.getProperty().getKey() + "#en";
         if (!language.equals("en") && !hasTranslatedProperty(data, translatedTextPropertyKey)) {
             LOGGER.debug("translating text of property: %s", data.getProperty().toString());
+            String text = sample.length() < LanguageDetectionService.SAMPLE_LENGTH ? sample : sample + IOUtils.toString(reader);
             String translatedText = translator.translate(text, language, data);
             if (translatedText != null && translatedText.length() > 0) {
                 Object translatedTextValue;
@@ -100,62 +91,18 @@ public class TranslateGraphPropertyWorker extends GraphPropertyWorker {
         return data.getElement().getProperty(translatedTextPropertyKey, data.getProperty().getName()) != null;
     }
 
-    private String detectLanguage(String text) throws LangDetectException, IOException {
-        Detector detector = DetectorFactory.create();
-        detector.append(text);
-        String lang = detector.detect();
-        if (lang.length() == 0) {
-            return null;
-        }
-        return lang;
-    }
-
     @Override
     public boolean isHandled(Element element, Property property) {
         return isTextProperty(property);
     }
 
-    public File createTempProfileDirectory() throws IOException {
-        File tempDirectory = Files.createTempDir();
-        tempDirectory.deleteOnExit();
-        String[] filesList = getProfileFilesList();
-        for (String profileFileName : filesList) {
-            LOGGER.info("Copying langdetect profile file: %s", profileFileName);
-            try {
-                copyProfileFile(profileFileName, tempDirectory);
-            } catch (Exception ex) {
-                throw new LumifyException("Could not load profile file '" + profileFileName + "' to '" + tempDirectory + "'");
-            }
-        }
-        LOGGER.info("created profile directory: %s", tempDirectory);
-        return tempDirectory;
-    }
-
-    public void copyProfileFile(String profileFileName, File tempDirectory) throws IOException {
-        File profileFile = new File(tempDirectory, profileFileName);
-        String profileFileString = getFileAsString(profileFileName);
-        new JSONObject(profileFileString).length(); // validate the json
-        try (OutputStream profileFileOut = new FileOutputStream(profileFile)) {
-            profileFileOut.write(profileFileString.getBytes("UTF-8"));
-        }
-        profileFile.deleteOnExit();
-    }
-
-    public String getFileAsString(String profileFileName) throws IOException {
-        String profileFileString;
-        try (InputStream profileFileIn = TranslateGraphPropertyWorker.class.getResourceAsStream(profileFileName)) {
-            profileFileString = IOUtils.toString(profileFileIn, "UTF-8");
-        }
-        return profileFileString;
-    }
-
-    public String[] getProfileFilesList() throws IOException {
-        String filesListContents = IOUtils.toString(TranslateGraphPropertyWorker.class.getResourceAsStream("files.list"), "UTF-8");
-        return filesListContents.split(System.lineSeparator());
-    }
-
     @Inject
     public void setTranslator(Translator translator) {
         this.translator = translator;
     }
+
+    @Inject
+    public void setLanguageDetectionService(LanguageDetectionService languageDetectionService) {
+        this.languageDetectionService = languageDetectionService;
+    }
 }
@@ -0,0 +1,75 @@
+package io.lumify.translate;
+
+import io.lumify.core.model.properties.LumifyProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.securegraph.Authorizations;
+import org.securegraph.Metadata;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class LanguageDetectionServiceTest {
+    private static final String ENGLISH = "The quick brown fox jumps over the lazy dog while the farmer watches from the porch of his house.";
+    private static final String GERMAN = "Der schnelle braune Fuchs springt über den faulen Hund, während der Bauer von der Veranda seines Hauses zusieht.";
+    private LanguageDetectionService languageDetectionService;
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+
+    @Before
+    public void setUp() {
+        languageDetectionService = new LanguageDetectionService();
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations();
+    }
+
+    @Test
+    public void testProfileTable() {
+        LanguageProfileTable table = languageDetectionService.getProfileTable();
+        assertTrue(table.getLanguageCount() > 50);
+        assertTrue(table.findRow(LanguageProfileTable.toKey('t', 'h', 'e')) >= 0);
+        assertEquals(-1, table.findRow(LanguageProfileTable.toKey('\uffff', '\uffff', '\uffff')));
+    }
+
+    @Test
+    public void testDetectLanguage() {
+        assertEquals("en", languageDetectionService.detectLanguage(ENGLISH));
+        assertEquals("de", languageDetectionService.detectLanguage(GERMAN));
+        assertEquals("en", languageDetectionService.detectLanguage(ENGLISH));
+        assertNull(languageDetectionService.detectLanguage("1234 5678 http://lumify.io"));
+    }
+
+    @Test
+    public void testReadSampleOnlyReadsPrefix() throws Exception {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3 * LanguageDetectionService.SAMPLE_LENGTH) {
+            text.append(ENGLISH).append(' ');
+        }
+        StringReader reader = new StringReader(text.toString());
+        String sample = LanguageDetectionService.readSample(reader);
+        assertEquals(LanguageDetectionService.SAMPLE_LENGTH, sample.length());
+        assertEquals(text.charAt(LanguageDetectionService.SAMPLE_LENGTH), (char) reader.read());
+    }
+
+    @Test
+    public void testGetLanguage() throws Exception {
+        Visibility visibility = new Visibility("");
+        Metadata metadata = new Metadata();
+        LumifyProperties.META_DATA_LANGUAGE.setMetadata(metadata, "fr", visibility);
+        Vertex v1 = graph.prepareVertex("v1", visibility)
+                .addPropertyValue("k1", "text", GERMAN, visibility)
+                .addPropertyValue("k2", "text", ENGLISH, metadata, visibility)
+                .save(authorizations);
+
+        assertEquals("de", languageDetectionService.getLanguage(v1, v1.getProperty("k1", "text")));
+        assertEquals("fr", languageDetectionService.getLanguage(v1, v1.getProperty("k2", "text")));
+
+        languageDetectionService.detectAndCacheLanguage(v1, v1.getProperty("k1", "text"), ENGLISH);
+        assertEquals("en", languageDetectionService.getLanguage(v1, v1.getProperty("k1", "text")));
+    }
+}
@@ -0,0 +1,85 @@
+package io.lumify.gpw.video;
+
+import io.lumify.core.exception.LumifyException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a stream of concatenated PNG images, such as the output of ffmpeg's image2pipe muxer, into one byte
+ * array per image by walking the PNG chunk headers up to each IEND chunk.
+ */
+public class PngFrameReader {
+    private static final byte[] PNG_SIGNATURE = new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int IEND_CHUNK_TYPE = ('I' << 24) | ('E' << 16) | ('N' << 8) | 'D';
+    private static final int MAX_CHUNK_LENGTH = 256 * 1024 * 1024;
+    private final DataInputStream in;
+
+    public PngFrameReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * @return the bytes of the next PNG image or null if the stream ended cleanly between images.
+     */
+    public byte[] readFrame() throws IOException {
+        byte[] signature = new byte[PNG_SIGNATURE.length];
+        int read = readFully(signature);
+        if (read == 0) {
+            return null;
+        }
+        if (read != signature.length || !Arrays.equals(signature, PNG_SIGNATURE)) {
+            throw new LumifyException("Invalid PNG signature in frame stream");
+        }
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(512 * 1024);
+        frame.write(signature);
+        byte[] buffer = new byte[64 * 1024];
+        while (true) {
+            int chunkLength = in.readInt();
+            int chunkType = in.readInt();
+            if (chunkLength < 0 || chunkLength > MAX_CHUNK_LENGTH) {
+                throw new LumifyException("Invalid PNG chunk length: " + chunkLength);
+            }
+            writeInt(frame, chunkLength);
+            writeInt(frame, chunkType);
+
+            int remaining = chunkLength + 4; // chunk data and crc
+            while (remaining > 0) {
+                int count = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                if (count < 0) {
+                    throw new EOFException("Frame stream ended inside a PNG chunk");
+                }
+                frame.write(buffer, 0, count);
+                remaining -= count;
+            }
+
+            if (chunkType == IEND_CHUNK_TYPE) {
+                return frame.toByteArray();
+            }
+        }
+    }
+
+    private int readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            int count = in.read(bytes, offset, bytes.length - offset);
+            if (count < 0) {
+                break;
+            }
+            offset += count;
+        }
+        return offset;
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write((value >>> 24) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write(value & 0xff);
+    }
+}
@@ -0,0 +1,111 @@
+package io.lumify.gpw.video;
+
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps an evenly spaced sample of the frames seen so far, already decoded and scaled to the preview frame size,
+ * so the preview strip can be built without reading the frames back. The number of frames isn't known up front so
+ * once the sample is full every other sample is dropped and the sampling stride doubles.
+ */
+public class VideoPreviewFrameSampler {
+    private final int maxSamples;
+    private final int previewFrameWidth;
+    private final int previewFrameHeight;
+    private final List<BufferedImage> samples = new ArrayList<>();
+    private int stride = 1;
+    private int frameCount;
+    private int lastSampledFrameIndex = -1;
+    private byte[] lastFrame;
+
+    public VideoPreviewFrameSampler(int videoRotation) {
+        this(ArtifactThumbnailRepository.FRAMES_PER_PREVIEW * 2, videoRotation);
+    }
+
+    public VideoPreviewFrameSampler(int maxSamples, int videoRotation) {
+        this.maxSamples = maxSamples + (maxSamples % 2);
+        if (videoRotation == 0 || videoRotation == 180) {
+            previewFrameWidth = ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH;
+            previewFrameHeight = ArtifactThumbnailRepository.PREVIEW_FRAME_HEIGHT;
+        } else {
+            previewFrameWidth = ArtifactThumbnailRepository.PREVIEW_FRAME_HEIGHT;
+            previewFrameHeight = ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH;
+        }
+    }
+
+    public void addFrame(byte[] pngFrame) throws IOException {
+        int frameIndex = frameCount++;
+        lastFrame = pngFrame;
+        if (frameIndex % stride != 0) {
+            return;
+        }
+        if (samples.size() == maxSamples) {
+            for (int i = samples.size() - 1; i > 0; i -= 2) {
+                samples.remove(i);
+            }
+            stride *= 2;
+            if (frameIndex % stride != 0) {
+                return;
+            }
+        }
+        samples.add(decodeAndScale(pngFrame));
+        lastSampledFrameIndex = frameIndex;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public BufferedImage createPreviewImage() throws IOException {
+        List<BufferedImage> frames = new ArrayList<>(samples);
+        if (lastFrame != null && lastSampledFrameIndex != frameCount - 1) {
+            frames.add(decodeAndScale(lastFrame));
+        }
+        List<BufferedImage> framesForPreview = getFramesForPreview(frames);
+
+        BufferedImage previewImage = new BufferedImage(previewFrameWidth * framesForPreview.size(), previewFrameHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics g = previewImage.getGraphics();
+        for (int i = 0; i < framesForPreview.size(); i++) {
+            g.drawImage(framesForPreview.get(i), i * previewFrameWidth, 0, null);
+        }
+        g.dispose();
+        return previewImage;
+    }
+
+    private BufferedImage decodeAndScale(byte[] pngFrame) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(pngFrame));
+        checkNotNull(img, "Could not decode video frame");
+        BufferedImage scaled = new BufferedImage(previewFrameWidth, previewFrameHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics g = scaled.getGraphics();
+        g.drawImage(img, 0, 0, previewFrameWidth, previewFrameHeight, 0, 0, img.getWidth(), img.getHeight(), null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static List<BufferedImage> getFramesForPreview(List<BufferedImage> videoFrames) {
+        ArrayList<BufferedImage> results = new ArrayList<>();
+        if (videoFrames.size() == 0) {
+            return results;
+        }
+        double skip = (double) videoFrames.size() / (double) ArtifactThumbnailRepository.FRAMES_PER_PREVIEW;
+        for (double i = 0; i < videoFrames.size(); i += skip) {
+            results.add(videoFrames.get((int) Math.floor(i)));
+        }
+        if (results.size() < ArtifactThumbnailRepository.FRAMES_PER_PREVIEW) {
+            results.add(videoFrames.get(videoFrames.size() - 1));
+        }
+        if (results.size() > ArtifactThumbnailRepository.FRAMES_PER_PREVIEW) {
+            results.remove(results.size() - 1);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,60 @@
+package io.lumify.gpw.video;
+
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PngFrameReaderTest {
+    @Test
+    public void testReadFrames() throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            frames.write(createFrame(10 + i, 0xff0000 >> (i * 8)));
+        }
+
+        PngFrameReader reader = new PngFrameReader(new ByteArrayInputStream(frames.toByteArray()));
+        for (int i = 0; i < 3; i++) {
+            byte[] frame = reader.readFrame();
+            assertNotNull(frame);
+            BufferedImage img = ImageIO.read(new ByteArrayInputStream(frame));
+            assertEquals(10 + i, img.getWidth());
+            assertEquals(0xff0000 >> (i * 8), img.getRGB(0, 0) & 0xffffff);
+        }
+        assertNull(reader.readFrame());
+    }
+
+    @Test
+    public void testPreviewFromSampledFrames() throws IOException {
+        VideoPreviewFrameSampler sampler = new VideoPreviewFrameSampler(0);
+        for (int i = 0; i < 500; i++) {
+            sampler.addFrame(createFrame(32, i));
+        }
+        assertEquals(500, sampler.getFrameCount());
+
+        BufferedImage preview = sampler.createPreviewImage();
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH * ArtifactThumbnailRepository.FRAMES_PER_PREVIEW, preview.getWidth());
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_HEIGHT, preview.getHeight());
+        assertEquals(0, preview.getRGB(0, 0) & 0xffffff);
+        int lastPreviewFrame = preview.getRGB(preview.getWidth() - 1, 0) & 0xffffff;
+        assertTrue("last preview frame should come from the end of the video: " + lastPreviewFrame, lastPreviewFrame > 450 && lastPreviewFrame < 500);
+    }
+
+    private static byte[] createFrame(int width, int rgb) throws IOException {
+        BufferedImage img = new BufferedImage(width, 8, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < img.getWidth(); x++) {
+            for (int y = 0; y < img.getHeight(); y++) {
+                img.setRGB(x, y, rgb);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return out.toByteArray();
+    }
+}
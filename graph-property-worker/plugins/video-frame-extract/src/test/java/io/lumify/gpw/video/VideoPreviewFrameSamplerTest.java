@@ -0,0 +1,92 @@
+package io.lumify.gpw.video;
+
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class VideoPreviewFrameSamplerTest {
+    @Test
+    public void testStrideDoublesWhenSampleIsFull() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(4, 0), 10);
+
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 4, 4, 4, 4, 4, 4, 8, 8, 8, 8, 9, 9, 9, 9, 9}, getPreviewFrameIndexes(sampler));
+    }
+
+    @Test
+    public void testPreviewFramesAreEvenlySpaced() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(0), 100);
+
+        assertEquals(100, sampler.getFrameCount());
+        assertArrayEquals(new int[]{0, 4, 8, 12, 20, 24, 28, 36, 40, 44, 52, 56, 60, 64, 72, 76, 80, 88, 92, 96}, getPreviewFrameIndexes(sampler));
+    }
+
+    @Test
+    public void testShortVideoRepeatsFrames() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(0), 3);
+
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 2}, getPreviewFrameIndexes(sampler));
+    }
+
+    @Test
+    public void testSingleFrameVideo() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(0), 1);
+
+        assertArrayEquals(new int[ArtifactThumbnailRepository.FRAMES_PER_PREVIEW], getPreviewFrameIndexes(sampler));
+    }
+
+    @Test
+    public void testZeroDurationVideoHasNoFrames() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(0), 0);
+
+        assertEquals(0, sampler.getFrameCount());
+    }
+
+    @Test
+    public void testRotatedVideoSwapsPreviewFrameSize() throws IOException {
+        VideoPreviewFrameSampler sampler = createSampler(new VideoPreviewFrameSampler(90), 1);
+
+        BufferedImage preview = sampler.createPreviewImage();
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_HEIGHT * ArtifactThumbnailRepository.FRAMES_PER_PREVIEW, preview.getWidth());
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH, preview.getHeight());
+    }
+
+    private static VideoPreviewFrameSampler createSampler(VideoPreviewFrameSampler sampler, int frameCount) throws IOException {
+        for (int i = 0; i < frameCount; i++) {
+            sampler.addFrame(createFrame(i));
+        }
+        return sampler;
+    }
+
+    /**
+     * @return the index of the video frame shown in each slot of the preview, read back from the frame's color.
+     */
+    private static int[] getPreviewFrameIndexes(VideoPreviewFrameSampler sampler) throws IOException {
+        BufferedImage preview = sampler.createPreviewImage();
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH * ArtifactThumbnailRepository.FRAMES_PER_PREVIEW, preview.getWidth());
+        assertEquals(ArtifactThumbnailRepository.PREVIEW_FRAME_HEIGHT, preview.getHeight());
+        int[] frameIndexes = new int[ArtifactThumbnailRepository.FRAMES_PER_PREVIEW];
+        for (int i = 0; i < frameIndexes.length; i++) {
+            int x = i * ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH + ArtifactThumbnailRepository.PREVIEW_FRAME_WIDTH / 2;
+            frameIndexes[i] = preview.getRGB(x, preview.getHeight() / 2) & 0xffffff;
+        }
+        return frameIndexes;
+    }
+
+    private static byte[] createFrame(int rgb) throws IOException {
+        BufferedImage img = new BufferedImage(32, 8, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < img.getWidth(); x++) {
+            for (int y = 0; y < img.getHeight(); y++) {
+                img.setRGB(x, y, rgb);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return out.toByteArray();
+    }
+}
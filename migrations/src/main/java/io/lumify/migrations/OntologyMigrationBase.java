@@ -1,9 +1,13 @@
 package io.lumify.migrations;
 
 import io.lumify.core.config.Configuration;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.securegraph.*;
+import org.securegraph.mutation.ElementMutation;
+
+import java.util.Map;
 
 public abstract class OntologyMigrationBase extends MigrationBase {
     protected OntologyMigrationBase(
@@ -98,6 +102,35 @@ public abstract class OntologyMigrationBase extends MigrationBase {
             }
             return true;
         }
+
+        /**
+         * The renamed edges are still counted under the old iri, so summaries counting it are rebuilt.
+         */
+        @Override
+        public boolean migrateVertex(OntologyMigrationMapper ontologyMigrationMapper, Vertex vertex) {
+            Map<String, Integer> edgeLabelCounts = EdgeLabelSummary.getEdgeLabelCounts(vertex);
+            if (edgeLabelCounts == null || !containsIri(edgeLabelCounts.keySet())) {
+                return false;
+            }
+
+            if (ontologyMigrationMapper.isDryRun()) {
+                LOGGER.debug("invalidating edge label summary: %s", vertex.toString());
+            } else {
+                ElementMutation<Vertex> m = ontologyMigrationMapper.prepareVertex(vertex);
+                EdgeLabelSummary.invalidate(m);
+                m.save(ontologyMigrationMapper.getAuthorizations());
+            }
+            return true;
+        }
+
+        private boolean containsIri(Iterable<String> labels) {
+            for (String label : labels) {
+                if (label.equalsIgnoreCase(this.fromIri)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
     public static class PropertyIriRenameOntologyMigration extends OntologyMigration {
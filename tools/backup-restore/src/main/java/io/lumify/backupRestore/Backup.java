@@ -1,43 +1,58 @@
 package io.lumify.backupRestore;
 
-import org.apache.accumulo.core.client.AccumuloException;
-import org.apache.accumulo.core.client.AccumuloSecurityException;
-import org.apache.accumulo.core.client.Connector;
-import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.*;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
+/**
+ * Backs up each table by exporting an offline clone of it, so the tables themselves stay online. The clone keeps the
+ * exported files from being compacted away while they are copied and is deleted once its files are copied.
+ * <p/>
+ * Files are copied in parallel and recorded in a {@link BackupManifest}. Backing up to a directory that already has
+ * a backup only copies the files that aren't already there.
+ */
 public class Backup extends BackupRestoreBase {
     private static final Logger LOGGER = LoggerFactory.getLogger(Backup.class);
+    static final String CLONE_TABLE_NAME_PREFIX = "backup_clone_";
+    private static final String EXPORT_DIRECTORY_SUFFIX = "-export";
+    private static final String EXPORT_METADATA_FILE_NAME = "exportMetadata.zip";
 
     public void run(BackupOptions backupOptions) throws Exception {
         LOGGER.info("Begin backup");
 
         Connector conn = createAccumuloConnection(backupOptions);
         FileSystem fileSystem = getHdfsFileSystem(backupOptions);
+        String backupDirectory = backupOptions.getHdfsBackupDirectory();
+
+        Path manifestPath = getManifestPath(fileSystem, backupDirectory);
+        BackupManifest previousManifest = BackupManifest.readIfExists(fileSystem, manifestPath);
+        BackupManifest manifest = new BackupManifest();
 
         List<String> tablesToBackup = getTablesToBackup(conn, backupOptions.getTableNamePrefix());
+        ParallelFileCopier copier = new ParallelFileCopier(fileSystem, backupOptions.getThreadCount());
         try {
-            takeTablesOffline(conn, tablesToBackup);
-            backupTables(conn, fileSystem, tablesToBackup, backupOptions.getHdfsBackupDirectory());
-            saveTablesList(tablesToBackup, fileSystem, backupOptions.getHdfsBackupDirectory());
-            backupSecuregraphHdfsOverflowDirectory(fileSystem, backupOptions.getSecuregraphHdfsOverflowDirectory(), backupOptions.getHdfsBackupDirectory());
+            for (String tableName : tablesToBackup) {
+                backupTable(conn, fileSystem, copier, tableName, backupDirectory, previousManifest, manifest);
+            }
+            saveTablesList(tablesToBackup, fileSystem, copier, backupDirectory, manifest);
+            backupSecuregraphHdfsOverflowDirectory(fileSystem, copier, backupOptions.getSecuregraphHdfsOverflowDirectory(), backupDirectory, previousManifest, manifest);
+            manifest.write(fileSystem, manifestPath);
+
+            LOGGER.info("Backup complete: copied " + copier.getCopiedCount() + " files (" + copier.getCopiedBytes() + " bytes), "
+                    + copier.getSkippedCount() + " unchanged files skipped");
         } finally {
-            takeTableOnline(conn, tablesToBackup);
+            copier.close();
         }
-
-        LOGGER.info("Backup complete");
     }
 
-    private void saveTablesList(List<String> tableNames, FileSystem fileSystem, String hdfsBackupDirectory) throws IOException {
+    void saveTablesList(List<String> tableNames, FileSystem fileSystem, ParallelFileCopier copier, String hdfsBackupDirectory, BackupManifest manifest) throws IOException {
         Path path = getTableListPath(fileSystem, hdfsBackupDirectory);
         FSDataOutputStream out = fileSystem.create(path);
         for (String tableName : tableNames) {
@@ -45,59 +60,98 @@ public class Backup extends BackupRestoreBase {
             out.write("\n".getBytes());
         }
         out.close();
+        addToManifest(fileSystem, copier, hdfsBackupDirectory, path.getName(), manifest);
     }
 
-    private void backupTables(Connector conn, FileSystem fileSystem, List<String> tableNames, String backupDirectory) throws AccumuloSecurityException, TableNotFoundException, AccumuloException, IOException {
-        for (String tableName : tableNames) {
-            String dir = backupDirectory + "/" + tableName;
-            backupTable(conn, fileSystem, tableName, dir);
-        }
-    }
-
-    private void backupTable(Connector conn, FileSystem fileSystem, String tableName, String dir) throws TableNotFoundException, AccumuloException, AccumuloSecurityException, IOException {
+    private void backupTable(Connector conn, FileSystem fileSystem, ParallelFileCopier copier, String tableName, String backupDirectory, BackupManifest previousManifest, BackupManifest manifest) throws TableNotFoundException, AccumuloException, AccumuloSecurityException, TableExistsException, IOException {
+        String dir = backupDirectory + "/" + tableName;
+        String exportDir = dir + EXPORT_DIRECTORY_SUFFIX;
+        String cloneTableName = CLONE_TABLE_NAME_PREFIX + tableName;
         LOGGER.debug("backing up table " + tableName + " to " + dir);
-        conn.tableOperations().exportTable(tableName, dir);
 
+        if (conn.tableOperations().exists(cloneTableName)) {
+            LOGGER.warn("deleting clone table " + cloneTableName + " left by a previous backup");
+            conn.tableOperations().delete(cloneTableName);
+        }
+        fileSystem.delete(getDirectoryPath(fileSystem, exportDir), true);
+
+        Set<String> fileNames = new HashSet<String>();
         StringBuilder newDistcp = new StringBuilder();
-        Path distcpPath = getPath(fileSystem, dir, "distcp.txt");
-        List<String> distcp = getFileLines(fileSystem, distcpPath);
-        for (String file : distcp) {
-            file = file.trim();
-            if (file.length() == 0) {
-                continue;
-            }
-            if (file.endsWith("exportMetadata.zip")) {
-                newDistcp.append(file);
+        conn.tableOperations().clone(tableName, cloneTableName, true, null, null);
+        try {
+            conn.tableOperations().offline(cloneTableName, true);
+            conn.tableOperations().exportTable(cloneTableName, exportDir);
+
+            List<ParallelFileCopier.FileCopy> files = new ArrayList<ParallelFileCopier.FileCopy>();
+            for (String file : getFileLines(fileSystem, getDistcpPath(fileSystem, exportDir))) {
+                file = file.trim();
+                if (file.length() == 0) {
+                    continue;
+                }
+                Path src = new Path(file);
+                Path dest = getPath(fileSystem, dir, src.getName());
+                fileNames.add(src.getName());
+                newDistcp.append(dest.toUri().toString());
                 newDistcp.append("\n");
-                continue;
+                if (file.endsWith(EXPORT_METADATA_FILE_NAME)) {
+                    // the export metadata changes with every export
+                    copier.copy(Collections.singletonList(new ParallelFileCopier.FileCopy(src, dest, tableName + "/" + src.getName())), new BackupManifest(), manifest);
+                } else {
+                    files.add(new ParallelFileCopier.FileCopy(src, dest, tableName + "/" + src.getName()));
+                }
             }
-            Path src = new Path(file);
-            Path dest = getPath(fileSystem, dir, src.getName());
-            copyFile(fileSystem, src, dest);
-            newDistcp.append(dest.toUri().toString());
-            newDistcp.append("\n");
+            copier.copy(files, previousManifest, manifest);
+        } finally {
+            conn.tableOperations().delete(cloneTableName);
         }
 
+        Path distcpPath = getDistcpPath(fileSystem, dir);
         writeFile(fileSystem, distcpPath, newDistcp.toString());
+        fileNames.add(distcpPath.getName());
+        addToManifest(fileSystem, copier, backupDirectory, tableName + "/" + distcpPath.getName(), manifest);
+
+        deleteStaleFiles(fileSystem, getDirectoryPath(fileSystem, dir), fileNames);
+        fileSystem.delete(getDirectoryPath(fileSystem, exportDir), true);
+    }
+
+    /**
+     * Removes files left by an earlier backup to the same directory that are no longer part of the table.
+     */
+    private void deleteStaleFiles(FileSystem fileSystem, Path dir, Set<String> fileNames) throws IOException {
+        for (FileStatus fileStatus : fileSystem.listStatus(dir)) {
+            if (!fileNames.contains(fileStatus.getPath().getName())) {
+                LOGGER.debug("deleting stale backup file " + fileStatus.getPath());
+                fileSystem.delete(fileStatus.getPath(), true);
+            }
+        }
+    }
+
+    private void addToManifest(FileSystem fileSystem, ParallelFileCopier copier, String backupDirectory, String path, BackupManifest manifest) throws IOException {
+        BackupManifest.Entry entry = copier.checksum(getDirectoryPath(fileSystem, backupDirectory), Collections.singletonList(path)).get(path);
+        manifest.add(entry);
     }
 
     private List<String> getTablesToBackup(Connector conn, String tableNamePrefix) {
         ArrayList<String> results = new ArrayList<String>();
         for (String tableName : conn.tableOperations().list()) {
-            if (tableName.startsWith(tableNamePrefix)) {
+            if (tableName.startsWith(tableNamePrefix) && !tableName.startsWith(CLONE_TABLE_NAME_PREFIX)) {
                 results.add(tableName);
             }
         }
         return results;
     }
 
-    private void backupSecuregraphHdfsOverflowDirectory(FileSystem fileSystem, String securegraphHdfsOverflowDirectory, String hdfsBackupDirectory) throws IOException {
+    void backupSecuregraphHdfsOverflowDirectory(FileSystem fileSystem, ParallelFileCopier copier, String securegraphHdfsOverflowDirectory, String hdfsBackupDirectory, BackupManifest previousManifest, BackupManifest manifest) throws IOException {
         Path srcPath = new Path(securegraphHdfsOverflowDirectory);
-        Path destPath = new Path(hdfsBackupDirectory);
+        Path destPath = new Path(getDirectoryPath(fileSystem, hdfsBackupDirectory), srcPath.getName());
 
         if (fileSystem.isDirectory(srcPath)) {
             LOGGER.info("backing up securegraph overflow directory from: " + srcPath.toUri() + " to: " + destPath.toUri());
-            FileUtil.copy(fileSystem, srcPath, fileSystem, destPath, false, fileSystem.getConf());
+            List<ParallelFileCopier.FileCopy> files = new ArrayList<ParallelFileCopier.FileCopy>();
+            for (String path : copier.listFiles(srcPath)) {
+                files.add(new ParallelFileCopier.FileCopy(new Path(srcPath, path), new Path(destPath, path), srcPath.getName() + "/" + path));
+            }
+            copier.copy(files, previousManifest, manifest);
         } else {
             LOGGER.warn("securegraph overflow directory: " + srcPath.toUri() + " not found");
         }
@@ -0,0 +1,121 @@
+package io.lumify.backupRestore;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The size and MD5 checksum of every file in a backup, keyed by the path relative to the backup directory. Stored
+ * as one tab separated line per file: checksum, size and path.
+ */
+public class BackupManifest {
+    public static final String FILE_NAME = "manifest.txt";
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    public static BackupManifest read(FileSystem fileSystem, Path path) throws IOException {
+        BackupManifest manifest = new BackupManifest();
+        FSDataInputStream in = fileSystem.open(path);
+        try {
+            for (String line : IOUtils.readLines(in)) {
+                if (line.trim().length() == 0) {
+                    continue;
+                }
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    throw new IOException("Invalid manifest line in " + path + ": " + line);
+                }
+                String checksum = parts[0].length() == 0 ? null : parts[0];
+                manifest.add(new Entry(parts[2], Long.parseLong(parts[1]), checksum));
+            }
+        } finally {
+            in.close();
+        }
+        return manifest;
+    }
+
+    /**
+     * @return the manifest at path or an empty manifest if there isn't one.
+     */
+    public static BackupManifest readIfExists(FileSystem fileSystem, Path path) throws IOException {
+        if (!fileSystem.exists(path)) {
+            return new BackupManifest();
+        }
+        return read(fileSystem, path);
+    }
+
+    public void write(FileSystem fileSystem, Path path) throws IOException {
+        FSDataOutputStream out = fileSystem.create(path, true);
+        try {
+            for (Entry entry : entries.values()) {
+                String checksum = entry.getChecksum() == null ? "" : entry.getChecksum();
+                out.write((checksum + "\t" + entry.getSize() + "\t" + entry.getPath() + "\n").getBytes());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    public synchronized void add(Entry entry) {
+        entries.put(entry.getPath(), entry);
+    }
+
+    public synchronized Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public synchronized Collection<Entry> getEntries() {
+        return new ArrayList<Entry>(entries.values());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a description of each file that is missing from found or doesn't have the same size and checksum,
+     * empty if the files match. Entries without a checksum are only compared by size.
+     */
+    public List<String> verify(BackupManifest found) {
+        List<String> errors = new ArrayList<String>();
+        for (Entry expected : getEntries()) {
+            Entry actual = found.get(expected.getPath());
+            if (actual == null) {
+                errors.add(expected.getPath() + ": missing");
+            } else if (actual.getSize() != expected.getSize()) {
+                errors.add(expected.getPath() + ": expected " + expected.getSize() + " bytes, found " + actual.getSize());
+            } else if (expected.getChecksum() != null && actual.getChecksum() != null && !expected.getChecksum().equals(actual.getChecksum())) {
+                errors.add(expected.getPath() + ": expected checksum " + expected.getChecksum() + ", found " + actual.getChecksum());
+            }
+        }
+        return errors;
+    }
+
+    public static class Entry {
+        private final String path;
+        private final long size;
+        private final String checksum;
+
+        public Entry(String path, long size, String checksum) {
+            this.path = path;
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+}
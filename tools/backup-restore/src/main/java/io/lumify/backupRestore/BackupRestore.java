@@ -26,6 +26,8 @@ public class BackupRestore {
     private static final String CMD_OPT_HDFS_RESTORE_TEMP_DIRECTORY = "hdfsRestoreTempDirectory";
     private static final String CMD_OPT_HADOOP_DFS_CLIENT_USE_DATANODE_HOSTNAME = "hadoopDfsClientUseDatanodeHostname";
     private static final String CMD_OPT_HADOOP_USERNAME = "hadoopUsername";
+    private static final String CMD_OPT_THREAD_COUNT = "threadCount";
+    private static final int DEFAULT_THREAD_COUNT = 8;
 
     private String accumuloInstanceName;
     private String accumuloUsername;
@@ -35,6 +37,7 @@ public class BackupRestore {
     private String hadoopFsDefaultFs;
     private boolean hadoopDfsClientUseDatanodeHostname;
     private String hadoopUsername;
+    private int threadCount;
 
     public static void main(String[] args) {
         new BackupRestore().run(args);
@@ -61,6 +64,7 @@ public class BackupRestore {
         securegraphHdfsOverflowDirectory = cmd.getOptionValue(CMD_OPT_SECUREGRAPH_HDFS_OVERFLOW_DIRECTORY, DEFAULT_SECUREGRAPH_HDFS_OVERFLOW_DIRECTORY);
         hadoopDfsClientUseDatanodeHostname = cmd.hasOption(CMD_OPT_HADOOP_DFS_CLIENT_USE_DATANODE_HOSTNAME);
         hadoopUsername = cmd.getOptionValue(CMD_OPT_HADOOP_USERNAME);
+        threadCount = Integer.parseInt(cmd.getOptionValue(CMD_OPT_THREAD_COUNT, Integer.toString(DEFAULT_THREAD_COUNT)));
 
         String[] restOfArgs = cmd.getArgs();
         if (restOfArgs.length != 1) {
@@ -134,7 +138,8 @@ public class BackupRestore {
                 .setHadoopFsDefaultFS(hadoopFsDefaultFs)
                 .setSecuregraphHdfsOverflowDirectory(securegraphHdfsOverflowDirectory)
                 .setHadoopDfsClientUseDatanodeHostname(hadoopDfsClientUseDatanodeHostname)
-                .setHadoopUsername(hadoopUsername);
+                .setHadoopUsername(hadoopUsername)
+                .setThreadCount(threadCount);
     }
 
     private CommandLine parseOptions(String[] args) {
@@ -234,6 +239,14 @@ public class BackupRestore {
                 .create()
         );
 
+        options.addOption(
+                OptionBuilder
+                        .withLongOpt(CMD_OPT_THREAD_COUNT)
+                        .hasArg()
+                        .withDescription("Number of files to copy at once, default: " + DEFAULT_THREAD_COUNT)
+                        .create()
+        );
+
         CommandLine cmd;
         try {
             CommandLineParser parser = new GnuParser();
@@ -11,8 +11,6 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
@@ -20,8 +18,6 @@ import java.net.URISyntaxException;
 import java.util.List;
 
 public abstract class BackupRestoreBase {
-    private static final Logger LOGGER = LoggerFactory.getLogger(BackupRestoreBase.class);
-
     protected Connector createAccumuloConnection(BackupRestoreOptionsBase options) throws AccumuloSecurityException, AccumuloException {
         String instanceName = options.getAccumuloInstanceName();
         String zooServers = options.getZookeeperServers();
@@ -46,33 +42,24 @@ public abstract class BackupRestoreBase {
         return FileSystem.get(conf);
     }
 
-    protected void takeTableOnline(Connector conn, List<String> tableNames) throws AccumuloSecurityException, AccumuloException, TableNotFoundException {
-        for (String tableName : tableNames) {
-            LOGGER.debug("taking table " + tableName + " online");
-            try {
-                conn.tableOperations().online(tableName);
-            } catch (Exception ex) {
-                LOGGER.error("Failed to online table: " + tableName, ex);
-            }
-        }
+    protected Path getTableListPath(FileSystem fileSystem, String hdfsDirectory) {
+        return getPath(fileSystem, hdfsDirectory, "table-list.txt");
     }
 
-    protected void takeTablesOffline(Connector conn, List<String> tableNames) throws AccumuloSecurityException, AccumuloException, TableNotFoundException {
-        for (String tableName : tableNames) {
-            LOGGER.debug("taking table " + tableName + " offline");
-            conn.tableOperations().offline(tableName);
-        }
+    protected Path getManifestPath(FileSystem fileSystem, String hdfsDirectory) {
+        return getPath(fileSystem, hdfsDirectory, BackupManifest.FILE_NAME);
     }
 
-    protected Path getTableListPath(FileSystem fileSystem, String hdfsDirectory) {
-        return getPath(fileSystem, hdfsDirectory, "table-list.txt");
+    protected Path getDistcpPath(FileSystem fileSystem, String hdfsDirectory) {
+        return getPath(fileSystem, hdfsDirectory, "distcp.txt");
     }
 
     protected Path getPath(FileSystem fileSystem, String hdfsDirectory, String fileName) {
-        if (!hdfsDirectory.startsWith("hdfs")) {
-            hdfsDirectory = fileSystem.getUri() + hdfsDirectory;
-        }
-        return new Path(hdfsDirectory, fileName);
+        return new Path(getDirectoryPath(fileSystem, hdfsDirectory), fileName);
+    }
+
+    protected Path getDirectoryPath(FileSystem fileSystem, String hdfsDirectory) {
+        return fileSystem.makeQualified(new Path(hdfsDirectory));
     }
 
     protected List<String> getFileLines(FileSystem fileSystem, String dir, String fileName) throws IOException {
@@ -89,20 +76,6 @@ public abstract class BackupRestoreBase {
         }
     }
 
-    protected void copyFile(FileSystem fileSystem, Path src, Path dest) throws IOException {
-        FSDataInputStream in = fileSystem.open(src);
-        try {
-            FSDataOutputStream out = fileSystem.create(dest);
-            try {
-                IOUtils.copy(in, out);
-            } finally {
-                out.close();
-            }
-        } finally {
-            in.close();
-        }
-    }
-
     protected void writeFile(FileSystem fileSystem, Path path, String content) throws IOException {
         FSDataOutputStream out = fileSystem.create(path);
         try {
@@ -9,6 +9,7 @@ public abstract class BackupRestoreOptionsBase {
     private String securegraphHdfsOverflowDirectory;
     private boolean hadoopDfsClientUseDatanodeHostname;
     private String hadoopUsername;
+    private int threadCount = 8;
 
     public String getAccumuloPassword() {
         return accumuloPassword;
@@ -94,4 +95,13 @@ public abstract class BackupRestoreOptionsBase {
         this.hadoopUsername = hadoopUsername;
         return this;
     }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public BackupRestoreOptionsBase setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+        return this;
+    }
 }
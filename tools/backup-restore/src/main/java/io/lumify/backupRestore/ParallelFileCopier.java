@@ -0,0 +1,216 @@
+package io.lumify.backupRestore;
+
+import org.apache.hadoop.fs.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies and checksums files on a bounded pool of threads. The MD5 checksum of each file is computed from the bytes
+ * as they are copied, so recording a file in a manifest doesn't read it a second time.
+ */
+public class ParallelFileCopier implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFileCopier.class);
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private final FileSystem fileSystem;
+    private final ExecutorService executor;
+    private final AtomicInteger copiedCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicLong copiedBytes = new AtomicLong();
+
+    public ParallelFileCopier(FileSystem fileSystem, int threadCount) {
+        this.fileSystem = fileSystem;
+        this.executor = Executors.newFixedThreadPool(threadCount);
+    }
+
+    /**
+     * Copies each file to its destination and records it in manifest. A file is skipped if previousManifest has it
+     * with the source's size and the destination already exists with that size. Backups only hold table files and
+     * securegraph overflow files, which are never modified once written, so that is enough to know it is unchanged.
+     */
+    public void copy(List<FileCopy> files, final BackupManifest previousManifest, final BackupManifest manifest) throws IOException {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final FileCopy file : files) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    BackupManifest.Entry previousEntry = previousManifest.get(file.getManifestPath());
+                    if (previousEntry != null && isUnchanged(file, previousEntry)) {
+                        LOGGER.debug("skipping unchanged file " + file.getSrc());
+                        skippedCount.incrementAndGet();
+                        manifest.add(previousEntry);
+                        return null;
+                    }
+                    manifest.add(copyFile(file));
+                    return null;
+                }
+            }));
+        }
+        waitFor(futures);
+    }
+
+    /**
+     * @return a manifest of the files under dir with the given paths, relative to dir.
+     */
+    public BackupManifest checksum(final Path dir, Collection<String> paths) throws IOException {
+        final BackupManifest manifest = new BackupManifest();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final String path : paths) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Path file = new Path(dir, path);
+                    if (!fileSystem.exists(file)) {
+                        return null;
+                    }
+                    InputStream in = fileSystem.open(file);
+                    try {
+                        manifest.add(copyAndChecksum(path, in, null));
+                    } finally {
+                        in.close();
+                    }
+                    return null;
+                }
+            }));
+        }
+        waitFor(futures);
+        return manifest;
+    }
+
+    /**
+     * @return the paths of all files under dir, relative to dir.
+     */
+    public List<String> listFiles(Path dir) throws IOException {
+        List<String> results = new ArrayList<String>();
+        String dirPath = fileSystem.makeQualified(dir).toUri().getPath();
+        if (!dirPath.endsWith("/")) {
+            dirPath = dirPath + "/";
+        }
+        RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(dir, true);
+        while (files.hasNext()) {
+            String path = files.next().getPath().toUri().getPath();
+            results.add(path.substring(dirPath.length()));
+        }
+        return results;
+    }
+
+    private boolean isUnchanged(FileCopy file, BackupManifest.Entry previousEntry) throws IOException {
+        if (!fileSystem.exists(file.getDest())) {
+            return false;
+        }
+        long srcLength = fileSystem.getFileStatus(file.getSrc()).getLen();
+        long destLength = fileSystem.getFileStatus(file.getDest()).getLen();
+        return srcLength == previousEntry.getSize() && destLength == previousEntry.getSize();
+    }
+
+    private BackupManifest.Entry copyFile(FileCopy file) throws IOException {
+        LOGGER.debug("copying " + file.getSrc() + " to " + file.getDest());
+        FSDataInputStream in = fileSystem.open(file.getSrc(), BUFFER_SIZE);
+        try {
+            FSDataOutputStream out = fileSystem.create(file.getDest(), true, BUFFER_SIZE);
+            try {
+                BackupManifest.Entry entry = copyAndChecksum(file.getManifestPath(), in, out);
+                copiedCount.incrementAndGet();
+                copiedBytes.addAndGet(entry.getSize());
+                return entry;
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static BackupManifest.Entry copyAndChecksum(String manifestPath, InputStream in, OutputStream out) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("Could not find MD5", ex);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+            size += read;
+        }
+        return new BackupManifest.Entry(manifestPath, size, String.format("%032x", new BigInteger(1, digest.digest())));
+    }
+
+    private static void waitFor(List<Future<Void>> futures) throws IOException {
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted copying files", ex);
+        } catch (ExecutionException ex) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException("Could not copy files", ex.getCause());
+        }
+    }
+
+    public int getCopiedCount() {
+        return copiedCount.get();
+    }
+
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getCopiedBytes() {
+        return copiedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public static class FileCopy {
+        private final Path src;
+        private final Path dest;
+        private final String manifestPath;
+
+        public FileCopy(Path src, Path dest, String manifestPath) {
+            this.src = src;
+            this.dest = dest;
+            this.manifestPath = manifestPath;
+        }
+
+        public Path getSrc() {
+            return src;
+        }
+
+        public Path getDest() {
+            return dest;
+        }
+
+        public String getManifestPath() {
+            return manifestPath;
+        }
+    }
+}
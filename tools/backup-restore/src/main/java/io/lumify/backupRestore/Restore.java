@@ -4,47 +4,118 @@ import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.TableExistsException;
-import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Restores a backup after checking its files against the backup's {@link BackupManifest}. Backups made before
+ * manifests were written are restored without being checked.
+ */
 public class Restore extends BackupRestoreBase {
     private static final Logger LOGGER = LoggerFactory.getLogger(Restore.class);
+    private static final int MAX_REPORTED_ERRORS = 20;
 
     public void run(RestoreOptions restoreOptions) throws AccumuloSecurityException, AccumuloException, IOException, TableExistsException, URISyntaxException, InterruptedException {
         LOGGER.info("Begin restore");
 
         Connector conn = createAccumuloConnection(restoreOptions);
         FileSystem fileSystem = getHdfsFileSystem(restoreOptions);
+        String restoreDirectory = restoreOptions.getHdfsRestoreDirectory();
+        String overflowDirectoryName = new Path(restoreOptions.getSecuregraphHdfsOverflowDirectory()).getName();
+
+        ParallelFileCopier copier = new ParallelFileCopier(fileSystem, restoreOptions.getThreadCount());
+        try {
+            BackupManifest manifest = readManifest(fileSystem, copier, restoreDirectory);
+
+            String importDirectory;
+            if (restoreOptions.getHdfsRestoreTempDirectory() != null) {
+                importDirectory = restoreOptions.getHdfsRestoreTempDirectory();
+                LOGGER.info("Copying backup files from restore directory: " + restoreDirectory + " to temp directory: " + importDirectory);
+                copyBackup(fileSystem, copier, manifest, restoreDirectory, importDirectory, overflowDirectoryName);
+            } else {
+                importDirectory = restoreDirectory;
+                LOGGER.info("Verifying backup files in restore directory: " + restoreDirectory);
+                verifyBackup(fileSystem, copier, manifest, restoreDirectory);
+            }
+
+            restoreSecuregraphHdfsOverflowDirectory(fileSystem, copier, manifest, restoreDirectory, restoreOptions.getSecuregraphHdfsOverflowDirectory());
 
-        if (restoreOptions.getHdfsRestoreTempDirectory() != null) {
-            // TODO: exclude the securegraphHdfsOverflowDirectory
-            LOGGER.info("Copying backup files from restore directory: " + restoreOptions.getHdfsRestoreDirectory() + " to temp directory: " + restoreOptions.getHdfsRestoreTempDirectory());
-            FileUtil.copy(fileSystem, new Path(restoreOptions.getHdfsRestoreDirectory()), fileSystem, new Path(restoreOptions.getHdfsRestoreTempDirectory()), false, fileSystem.getConf());
+            List<String> tableNames = getTableList(fileSystem, importDirectory);
+            restoreTables(conn, tableNames, importDirectory);
 
-            List<String> tableNames = getTableList(fileSystem, restoreOptions.getHdfsRestoreTempDirectory());
-            restoreTables(conn, tableNames, restoreOptions.getHdfsRestoreTempDirectory());
+            if (restoreOptions.getHdfsRestoreTempDirectory() != null) {
+                LOGGER.info("Deleting restored temp directory: " + importDirectory);
+            } else {
+                LOGGER.warn("Deleting restored and consumed restore directory: " + importDirectory);
+            }
+            fileSystem.delete(getDirectoryPath(fileSystem, importDirectory), true);
+        } finally {
+            copier.close();
+        }
 
-            LOGGER.info("Deleting restored temp directory: " + restoreOptions.getHdfsRestoreTempDirectory());
-            fileSystem.delete(new Path(restoreOptions.getHdfsRestoreTempDirectory()), true);
-        } else {
-            List<String> tableNames = getTableList(fileSystem, restoreOptions.getHdfsRestoreDirectory());
-            restoreTables(conn, tableNames, restoreOptions.getHdfsRestoreDirectory());
+        LOGGER.info("Restore complete");
+    }
 
-            LOGGER.warn("Deleting restored and consumed restore directory: " + restoreOptions.getHdfsRestoreDirectory());
-            fileSystem.delete(new Path(restoreOptions.getHdfsRestoreDirectory()), true);
+    BackupManifest readManifest(FileSystem fileSystem, ParallelFileCopier copier, String restoreDirectory) throws IOException {
+        Path manifestPath = getManifestPath(fileSystem, restoreDirectory);
+        if (fileSystem.exists(manifestPath)) {
+            return BackupManifest.read(fileSystem, manifestPath);
         }
 
-        restoreSecuregraphHdfsOverflowDirectory(fileSystem, restoreOptions.getHdfsRestoreDirectory(), restoreOptions.getSecuregraphHdfsOverflowDirectory());
+        LOGGER.warn("No " + BackupManifest.FILE_NAME + " in " + restoreDirectory + ", the backup files can not be verified");
+        Path dir = getDirectoryPath(fileSystem, restoreDirectory);
+        BackupManifest manifest = new BackupManifest();
+        for (String path : copier.listFiles(dir)) {
+            manifest.add(new BackupManifest.Entry(path, fileSystem.getFileStatus(new Path(dir, path)).getLen(), null));
+        }
+        return manifest;
+    }
 
-        LOGGER.info("Restore complete");
+    void verifyBackup(FileSystem fileSystem, ParallelFileCopier copier, BackupManifest manifest, String restoreDirectory) throws IOException {
+        List<String> paths = new ArrayList<String>();
+        for (BackupManifest.Entry entry : manifest.getEntries()) {
+            paths.add(entry.getPath());
+        }
+        BackupManifest found = copier.checksum(getDirectoryPath(fileSystem, restoreDirectory), paths);
+        checkErrors(restoreDirectory, manifest.verify(found));
+    }
+
+    /**
+     * Copies everything but the securegraph overflow directory, which is restored from the backup directory itself.
+     */
+    void copyBackup(FileSystem fileSystem, ParallelFileCopier copier, BackupManifest manifest, String restoreDirectory, String tempDirectory, String overflowDirectoryName) throws IOException {
+        Path srcDir = getDirectoryPath(fileSystem, restoreDirectory);
+        Path destDir = getDirectoryPath(fileSystem, tempDirectory);
+        BackupManifest expected = new BackupManifest();
+        List<ParallelFileCopier.FileCopy> files = new ArrayList<ParallelFileCopier.FileCopy>();
+        for (BackupManifest.Entry entry : manifest.getEntries()) {
+            if (entry.getPath().startsWith(overflowDirectoryName + "/")) {
+                continue;
+            }
+            expected.add(entry);
+            files.add(new ParallelFileCopier.FileCopy(new Path(srcDir, entry.getPath()), new Path(destDir, entry.getPath()), entry.getPath()));
+        }
+
+        BackupManifest copied = new BackupManifest();
+        copier.copy(files, new BackupManifest(), copied);
+        checkErrors(restoreDirectory, expected.verify(copied));
+    }
+
+    private void checkErrors(String restoreDirectory, List<String> errors) throws IOException {
+        if (errors.size() == 0) {
+            return;
+        }
+        for (String error : errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS))) {
+            LOGGER.error("Backup file " + error);
+        }
+        throw new IOException(errors.size() + " files in backup " + restoreDirectory + " do not match " + BackupManifest.FILE_NAME);
     }
 
     private void restoreTables(Connector conn, List<String> tableNames, String hdfsRestoreDirectory) throws TableExistsException, AccumuloSecurityException, AccumuloException {
@@ -63,21 +134,35 @@ public class Restore extends BackupRestoreBase {
         return getFileLines(fileSystem, getTableListPath(fileSystem, hdfsRestoreDirectory));
     }
 
-    private void restoreSecuregraphHdfsOverflowDirectory(FileSystem fileSystem, String hdfsRestoreDirectory, String securegraphHdfsOverflowDirectory) throws IOException {
+    /**
+     * Files already in the overflow directory with the size they have in the backup are left alone, overflow files
+     * are never modified once written.
+     */
+    void restoreSecuregraphHdfsOverflowDirectory(FileSystem fileSystem, ParallelFileCopier copier, BackupManifest manifest, String hdfsRestoreDirectory, String securegraphHdfsOverflowDirectory) throws IOException {
         // e.g. /lumify/secureGraph
         Path destPath = new Path(securegraphHdfsOverflowDirectory);
-        // e.g. /backup/yesterday + / + secureGraph + / + *
-        Path srcPath = new Path(hdfsRestoreDirectory + Path.SEPARATOR + destPath.getName() + Path.SEPARATOR + "*");
-
-        if (fileSystem.isDirectory(srcPath.getParent())) {
-            LOGGER.info("restoring securegraph overflow directory from: " + srcPath.toUri() + " to: " + destPath.toUri());
-            FileStatus[] fileStatuses = fileSystem.globStatus(srcPath);
-            LOGGER.debug("restoring " + fileStatuses.length + " files and/or subdirectories");
-            for (FileStatus fileStatus : fileStatuses) {
-               FileUtil.copy(fileSystem, fileStatus.getPath(), fileSystem, destPath, false, fileSystem.getConf());
+        // e.g. /backup/yesterday + / + secureGraph
+        Path srcPath = new Path(getDirectoryPath(fileSystem, hdfsRestoreDirectory), destPath.getName());
+        String prefix = destPath.getName() + "/";
+
+        BackupManifest expected = new BackupManifest();
+        List<ParallelFileCopier.FileCopy> files = new ArrayList<ParallelFileCopier.FileCopy>();
+        for (BackupManifest.Entry entry : manifest.getEntries()) {
+            if (entry.getPath().startsWith(prefix)) {
+                String path = entry.getPath().substring(prefix.length());
+                expected.add(entry);
+                files.add(new ParallelFileCopier.FileCopy(new Path(srcPath, path), new Path(destPath, path), entry.getPath()));
             }
-        } else {
-            LOGGER.warn("backup securegraph overflow directory: " + srcPath.getParent().toUri() + " not found");
         }
+
+        if (files.size() == 0) {
+            LOGGER.warn("backup securegraph overflow directory: " + srcPath.toUri() + " not found");
+            return;
+        }
+
+        LOGGER.info("restoring " + files.size() + " securegraph overflow files from: " + srcPath.toUri() + " to: " + destPath.toUri());
+        BackupManifest copied = new BackupManifest();
+        copier.copy(files, expected, copied);
+        checkErrors(hdfsRestoreDirectory, expected.verify(copied));
     }
 }
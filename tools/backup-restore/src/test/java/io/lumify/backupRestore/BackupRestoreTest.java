@@ -0,0 +1,144 @@
+package io.lumify.backupRestore;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BackupRestoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSystem fileSystem;
+    private ParallelFileCopier copier;
+    private File overflowDirectory;
+    private File backupDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+        copier = new ParallelFileCopier(fileSystem, 4);
+        overflowDirectory = new File(temporaryFolder.getRoot(), "secureGraph");
+        backupDirectory = new File(temporaryFolder.getRoot(), "backup");
+        FileUtils.writeStringToFile(new File(overflowDirectory, "a/1"), "one");
+        FileUtils.writeStringToFile(new File(overflowDirectory, "a/2"), "two two");
+        FileUtils.writeStringToFile(new File(overflowDirectory, "b/3"), "three three three");
+    }
+
+    @After
+    public void tearDown() {
+        copier.close();
+    }
+
+    @Test
+    public void testBackupWritesManifest() throws IOException {
+        BackupManifest manifest = backup(new BackupManifest());
+
+        assertEquals(4, manifest.size());
+        assertEquals(3, copier.getCopiedCount());
+        assertEquals(3, manifest.get("secureGraph/a/1").getSize());
+        assertEquals(Arrays.asList("lumify_a", "lumify_b"), FileUtils.readLines(new File(backupDirectory, "table-list.txt")));
+        assertEquals("two two", FileUtils.readFileToString(new File(backupDirectory, "secureGraph/a/2")));
+
+        BackupManifest read = BackupManifest.read(fileSystem, new Path(backupDirectory.getAbsolutePath(), BackupManifest.FILE_NAME));
+        assertEquals(0, manifest.verify(read).size());
+        assertEquals(manifest.get("secureGraph/b/3").getChecksum(), read.get("secureGraph/b/3").getChecksum());
+    }
+
+    @Test
+    public void testBackupSkipsUnchangedFiles() throws IOException {
+        BackupManifest first = backup(new BackupManifest());
+        FileUtils.writeStringToFile(new File(overflowDirectory, "a/2"), "two two two");
+        FileUtils.writeStringToFile(new File(overflowDirectory, "c/4"), "four");
+
+        ParallelFileCopier secondCopier = new ParallelFileCopier(fileSystem, 4);
+        try {
+            BackupManifest second = backup(secondCopier, first);
+            assertEquals(2, secondCopier.getCopiedCount());
+            assertEquals(2, secondCopier.getSkippedCount());
+            assertEquals(5, second.size());
+            assertEquals("two two two", FileUtils.readFileToString(new File(backupDirectory, "secureGraph/a/2")));
+            assertEquals(first.get("secureGraph/a/1").getChecksum(), second.get("secureGraph/a/1").getChecksum());
+        } finally {
+            secondCopier.close();
+        }
+    }
+
+    @Test
+    public void testVerifyDetectsCorruptFile() throws IOException {
+        BackupManifest manifest = backup(new BackupManifest());
+        Restore restore = new Restore();
+        restore.verifyBackup(fileSystem, copier, manifest, backupDirectory.getAbsolutePath());
+
+        FileUtils.writeStringToFile(new File(backupDirectory, "secureGraph/a/2"), "two tw0");
+        try {
+            restore.verifyBackup(fileSystem, copier, manifest, backupDirectory.getAbsolutePath());
+            fail("expected corrupt file to fail verification");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("1 files"));
+        }
+
+        assertTrue(new File(backupDirectory, "secureGraph/b/3").delete());
+        List<String> errors = manifest.verify(copier.checksum(new Path(backupDirectory.getAbsolutePath()), Arrays.asList("secureGraph/b/3")));
+        assertTrue(errors.contains("secureGraph/b/3: missing"));
+    }
+
+    @Test
+    public void testRestoreOverflowDirectory() throws IOException {
+        BackupManifest manifest = backup(new BackupManifest());
+        FileUtils.deleteDirectory(overflowDirectory);
+        FileUtils.writeStringToFile(new File(overflowDirectory, "a/1"), "one");
+
+        ParallelFileCopier restoreCopier = new ParallelFileCopier(fileSystem, 4);
+        try {
+            Restore restore = new Restore();
+            BackupManifest read = restore.readManifest(fileSystem, restoreCopier, backupDirectory.getAbsolutePath());
+            assertEquals(0, manifest.verify(read).size());
+            restore.restoreSecuregraphHdfsOverflowDirectory(fileSystem, restoreCopier, read, backupDirectory.getAbsolutePath(), overflowDirectory.getAbsolutePath());
+
+            assertEquals(2, restoreCopier.getCopiedCount());
+            assertEquals(1, restoreCopier.getSkippedCount());
+            assertEquals("two two", FileUtils.readFileToString(new File(overflowDirectory, "a/2")));
+            assertEquals("three three three", FileUtils.readFileToString(new File(overflowDirectory, "b/3")));
+        } finally {
+            restoreCopier.close();
+        }
+    }
+
+    @Test
+    public void testReadManifestWithoutManifestFile() throws IOException {
+        backup(new BackupManifest());
+        assertTrue(new File(backupDirectory, BackupManifest.FILE_NAME).delete());
+
+        BackupManifest read = new Restore().readManifest(fileSystem, copier, backupDirectory.getAbsolutePath());
+        assertEquals(4, read.size());
+        assertNull(read.get("secureGraph/a/1").getChecksum());
+        assertEquals(3, read.get("secureGraph/a/1").getSize());
+    }
+
+    private BackupManifest backup(BackupManifest previousManifest) throws IOException {
+        return backup(copier, previousManifest);
+    }
+
+    private BackupManifest backup(ParallelFileCopier copier, BackupManifest previousManifest) throws IOException {
+        Backup backup = new Backup();
+        BackupManifest manifest = new BackupManifest();
+        String backupDirectoryPath = backupDirectory.getAbsolutePath();
+        backup.saveTablesList(Arrays.asList("lumify_a", "lumify_b"), fileSystem, copier, backupDirectoryPath, manifest);
+        backup.backupSecuregraphHdfsOverflowDirectory(fileSystem, copier, overflowDirectory.getAbsolutePath(), backupDirectoryPath, previousManifest, manifest);
+        manifest.write(fileSystem, new Path(backupDirectoryPath, BackupManifest.FILE_NAME));
+        return manifest;
+    }
+}
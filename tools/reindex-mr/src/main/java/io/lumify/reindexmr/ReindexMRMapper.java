@@ -1,6 +1,7 @@
 package io.lumify.reindexmr;
 
 
+import io.lumify.core.mapreduce.AdaptiveBulkIndexer;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import org.apache.hadoop.io.Text;
@@ -14,27 +15,22 @@ import org.securegraph.accumulo.mapreduce.SecureGraphMRUtils;
 import org.securegraph.util.MapUtils;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 public class ReindexMRMapper extends Mapper<Text, Element, Object, Element> {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ReindexMRMapper.class);
-    private static final int DEFAULT_BATCH_SIZE = 100;
     private AccumuloGraph graph;
-    private Authorizations authorizations;
-    private List<Element> elementCache;
-    private int batchSize;
+    private AdaptiveBulkIndexer bulkIndexer;
 
     @Override
     protected void setup(Context context) throws IOException, InterruptedException {
         super.setup(context);
         LOGGER.info("setup: " + toString(context.getInputSplit().getLocations()));
         Map configurationMap = SecureGraphMRUtils.toMap(context.getConfiguration());
-        batchSize = context.getConfiguration().getInt("reindex.batchsize", DEFAULT_BATCH_SIZE);
-        elementCache = new ArrayList<Element>(batchSize);
         this.graph = (AccumuloGraph) new GraphFactory().createGraph(MapUtils.getAllWithPrefix(configurationMap, "graph"));
-        this.authorizations = new AccumuloAuthorizations(context.getConfiguration().getStrings(SecureGraphMRUtils.CONFIG_AUTHORIZATIONS));
+        Authorizations authorizations = new AccumuloAuthorizations(context.getConfiguration().getStrings(SecureGraphMRUtils.CONFIG_AUTHORIZATIONS));
+        this.bulkIndexer = new AdaptiveBulkIndexer(graph, graph.getSearchIndex(), authorizations, context);
+        this.bulkIndexer.setIndexedElementsCounter(ReindexCounters.ELEMENTS_PROCESSED);
     }
 
     private String toString(String[] locations) {
@@ -50,7 +46,8 @@ public class ReindexMRMapper extends Mapper<Text, Element, Object, Element> {
 
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
-        writeCache();
+        context.setStatus("Waiting for batches to complete");
+        bulkIndexer.close();
         LOGGER.info("cleanup");
         graph.shutdown();
         super.cleanup(context);
@@ -58,36 +55,11 @@ public class ReindexMRMapper extends Mapper<Text, Element, Object, Element> {
 
     @Override
     protected void map(Text rowKey, Element element, Context context) throws IOException, InterruptedException {
-        try {
-            safeMap(element, context);
-        } catch (Throwable ex) {
-            LOGGER.error("Failed to process element", ex);
-        }
-    }
-
-    private void safeMap(Element element, Context context) {
         if (element == null) {
             return;
         }
         context.setStatus("Element Id: " + element.getId());
-        elementCache.add(element);
-        if (elementCache.size() >= batchSize) {
-            context.setStatus("Submitting batch: " + elementCache.size());
-            writeCache();
-        }
-        context.getCounter(ReindexCounters.ELEMENTS_PROCESSED).increment(1);
-    }
-
-    private void writeCache() {
-        if (elementCache.size() == 0) {
-            return;
-        }
-
-        try {
-            graph.getSearchIndex().addElements(graph, elementCache, authorizations);
-        } catch (Throwable ex) {
-            LOGGER.error("Could not add elements", ex);
-        }
-        elementCache.clear();
+        // elements are counted as processed once their batch is indexed, a batch the search index fails on fails the task
+        bulkIndexer.add(element);
     }
 }
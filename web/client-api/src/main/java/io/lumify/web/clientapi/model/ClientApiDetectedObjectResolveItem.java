@@ -0,0 +1,106 @@
+package io.lumify.web.clientapi.model;
+
+/**
+ * One detected object of an artifact to resolve, either to a new vertex or to the existing {@code graphVertexId}.
+ */
+public class ClientApiDetectedObjectResolveItem {
+    private String title;
+    private String conceptId;
+    private String visibilitySource;
+    private String graphVertexId;
+    private String justificationText;
+    private String sourceInfo;
+    private String originalPropertyKey;
+    private double x1;
+    private double y1;
+    private double x2;
+    private double y2;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getConceptId() {
+        return conceptId;
+    }
+
+    public void setConceptId(String conceptId) {
+        this.conceptId = conceptId;
+    }
+
+    public String getVisibilitySource() {
+        return visibilitySource;
+    }
+
+    public void setVisibilitySource(String visibilitySource) {
+        this.visibilitySource = visibilitySource;
+    }
+
+    public String getGraphVertexId() {
+        return graphVertexId;
+    }
+
+    public void setGraphVertexId(String graphVertexId) {
+        this.graphVertexId = graphVertexId;
+    }
+
+    public String getJustificationText() {
+        return justificationText;
+    }
+
+    public void setJustificationText(String justificationText) {
+        this.justificationText = justificationText;
+    }
+
+    public String getSourceInfo() {
+        return sourceInfo;
+    }
+
+    public void setSourceInfo(String sourceInfo) {
+        this.sourceInfo = sourceInfo;
+    }
+
+    public String getOriginalPropertyKey() {
+        return originalPropertyKey;
+    }
+
+    public void setOriginalPropertyKey(String originalPropertyKey) {
+        this.originalPropertyKey = originalPropertyKey;
+    }
+
+    public double getX1() {
+        return x1;
+    }
+
+    public void setX1(double x1) {
+        this.x1 = x1;
+    }
+
+    public double getY1() {
+        return y1;
+    }
+
+    public void setY1(double y1) {
+        this.y1 = y1;
+    }
+
+    public double getX2() {
+        return x2;
+    }
+
+    public void setX2(double x2) {
+        this.x2 = x2;
+    }
+
+    public double getY2() {
+        return y2;
+    }
+
+    public void setY2(double y2) {
+        this.y2 = y2;
+    }
+}
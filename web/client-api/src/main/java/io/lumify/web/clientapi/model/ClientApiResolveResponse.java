@@ -0,0 +1,34 @@
+package io.lumify.web.clientapi.model;
+
+import io.lumify.web.clientapi.model.util.ClientApiConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClientApiResolveResponse implements ClientApiObject {
+    private List<String> resolvedVertexIds = new ArrayList<String>();
+    private ClientApiElement artifact;
+
+    /**
+     * @return the ids of the vertices resolved to, in the order of the resolved items.
+     */
+    public List<String> getResolvedVertexIds() {
+        return resolvedVertexIds;
+    }
+
+    /**
+     * @return the artifact after the resolution, when the resolution changed the artifact's properties.
+     */
+    public ClientApiElement getArtifact() {
+        return artifact;
+    }
+
+    public void setArtifact(ClientApiElement artifact) {
+        this.artifact = artifact;
+    }
+
+    @Override
+    public String toString() {
+        return ClientApiConverter.clientApiToString(this);
+    }
+}
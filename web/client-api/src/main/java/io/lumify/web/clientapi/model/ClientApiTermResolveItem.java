@@ -0,0 +1,88 @@
+package io.lumify.web.clientapi.model;
+
+/**
+ * One term mention of an artifact to resolve, either to a new vertex or to the existing {@code resolvedVertexId}.
+ */
+public class ClientApiTermResolveItem {
+    private String propertyKey;
+    private long mentionStart;
+    private long mentionEnd;
+    private String sign;
+    private String conceptId;
+    private String visibilitySource;
+    private String resolvedVertexId;
+    private String justificationText;
+    private String sourceInfo;
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public void setPropertyKey(String propertyKey) {
+        this.propertyKey = propertyKey;
+    }
+
+    public long getMentionStart() {
+        return mentionStart;
+    }
+
+    public void setMentionStart(long mentionStart) {
+        this.mentionStart = mentionStart;
+    }
+
+    public long getMentionEnd() {
+        return mentionEnd;
+    }
+
+    public void setMentionEnd(long mentionEnd) {
+        this.mentionEnd = mentionEnd;
+    }
+
+    public String getSign() {
+        return sign;
+    }
+
+    public void setSign(String sign) {
+        this.sign = sign;
+    }
+
+    public String getConceptId() {
+        return conceptId;
+    }
+
+    public void setConceptId(String conceptId) {
+        this.conceptId = conceptId;
+    }
+
+    public String getVisibilitySource() {
+        return visibilitySource;
+    }
+
+    public void setVisibilitySource(String visibilitySource) {
+        this.visibilitySource = visibilitySource;
+    }
+
+    public String getResolvedVertexId() {
+        return resolvedVertexId;
+    }
+
+    public void setResolvedVertexId(String resolvedVertexId) {
+        this.resolvedVertexId = resolvedVertexId;
+    }
+
+    public String getJustificationText() {
+        return justificationText;
+    }
+
+    public void setJustificationText(String justificationText) {
+        this.justificationText = justificationText;
+    }
+
+    public String getSourceInfo() {
+        return sourceInfo;
+    }
+
+    public void setSourceInfo(String sourceInfo) {
+        this.sourceInfo = sourceInfo;
+    }
+}
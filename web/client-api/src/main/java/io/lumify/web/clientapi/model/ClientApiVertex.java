@@ -1,19 +1,31 @@
 package io.lumify.web.clientapi.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @JsonTypeName("vertex")
 public class ClientApiVertex extends ClientApiElement {
     private Double score;
     private List<String> edgeLabels = new ArrayList<String>();
+    private Map<String, Integer> edgeLabelCounts = new HashMap<String, Integer>();
 
     public List<String> getEdgeLabels() {
         return edgeLabels;
     }
 
+    /**
+     * number of edges with each label, empty if the vertex's edges have not been summarized
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Integer> getEdgeLabelCounts() {
+        return edgeLabelCounts;
+    }
+
     /**
      * search score
      */
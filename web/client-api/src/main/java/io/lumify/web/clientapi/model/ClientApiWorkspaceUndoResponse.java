@@ -7,11 +7,27 @@ import java.util.List;
 
 public class ClientApiWorkspaceUndoResponse implements ClientApiObject {
     private List<ClientApiUndoItem> failures = new ArrayList<ClientApiUndoItem>();
+    private List<ClientApiUndoItem> undone = new ArrayList<ClientApiUndoItem>();
+    private List<ClientApiUndoItem> skipped = new ArrayList<ClientApiUndoItem>();
 
     public List<ClientApiUndoItem> getFailures() {
         return failures;
     }
 
+    /**
+     * @return the items that were undone.
+     */
+    public List<ClientApiUndoItem> getUndone() {
+        return undone;
+    }
+
+    /**
+     * @return the items with nothing to undo, such as elements that no longer exist.
+     */
+    public List<ClientApiUndoItem> getSkipped() {
+        return skipped;
+    }
+
     public boolean isSuccess() {
         return failures.size() == 0;
     }
@@ -24,4 +40,12 @@ public class ClientApiWorkspaceUndoResponse implements ClientApiObject {
     public void addFailure(ClientApiUndoItem data) {
         this.failures.add(data);
     }
+
+    public void addUndone(ClientApiUndoItem data) {
+        this.undone.add(data);
+    }
+
+    public void addSkipped(ClientApiUndoItem data) {
+        this.skipped.add(data);
+    }
 }
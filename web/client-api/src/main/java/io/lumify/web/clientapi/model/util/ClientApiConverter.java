@@ -9,6 +9,10 @@ import java.io.IOException;
 import java.util.*;
 
 public class ClientApiConverter {
+    /**
+     * Strings are returned as they are, never parsed. A string holding JSON is written as JSON only when the caller,
+     * which knows the value's type, wraps it in a {@link RawJsonValue}.
+     */
     public static Object toClientApiValue(Object value) {
         if (value instanceof JSONArray) {
             JSONArray json = (JSONArray) value;
@@ -35,16 +39,6 @@ public class ClientApiConverter {
                 result.put(keyStr, toClientApiValue(json.get(keyStr)));
             }
             return result;
-        } else if (value instanceof String) {
-            try {
-                String valueString = (String) value;
-                valueString = valueString.trim();
-                if (valueString.startsWith("{") && valueString.endsWith("}")) {
-                    return toClientApiValue(new JSONObject(valueString));
-                }
-            } catch (Exception ex) {
-                // ignore this exception it just mean the string wasn't really json
-            }
         } else if (value instanceof Date) {
             return toClientApiValue(((Date) value).getTime());
         }
@@ -52,6 +46,9 @@ public class ClientApiConverter {
     }
 
     public static Object fromClientApiValue(Object obj) {
+        if (obj instanceof RawJsonValue) {
+            obj = ((RawJsonValue) obj).decode();
+        }
         if (obj instanceof Map) {
             Map map = (Map) obj;
             if (map.size() == 2 && map.containsKey("source") && map.containsKey("workspaces")) {
@@ -0,0 +1,68 @@
+package io.lumify.web.clientapi.model.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * A property or metadata value stored as JSON text. It is written by copying the text's tokens to the generator, so
+ * the value goes straight to the response without being parsed into maps first. Server side code reading the value
+ * back through {@link ClientApiConverter#fromClientApiValue(Object)} gets it decoded.
+ */
+public class RawJsonValue implements JsonSerializable {
+    private final String json;
+
+    public RawJsonValue(String json) {
+        if (json == null) {
+            throw new RuntimeException("json cannot be null.");
+        }
+        this.json = json;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public Object decode() {
+        try {
+            return ObjectMapperFactory.getInstance().readValue(json, Object.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse '" + json + "'", e);
+        }
+    }
+
+    @Override
+    public void serialize(JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        JsonParser parser = ObjectMapperFactory.getInstance().getFactory().createParser(json);
+        try {
+            parser.nextToken();
+            jgen.copyCurrentStructure(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator jgen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        serialize(jgen, provider);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RawJsonValue && json.equals(((RawJsonValue) o).json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
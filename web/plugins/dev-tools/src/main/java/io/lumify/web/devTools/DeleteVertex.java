@@ -7,6 +7,7 @@ import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workQueue.WorkQueueRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.web.BaseRequestHandler;
@@ -21,6 +22,7 @@ public class DeleteVertex extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(DeleteVertex.class);
     private final Graph graph;
     private final WorkQueueRepository workQueueRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public DeleteVertex(
@@ -28,10 +30,12 @@ public class DeleteVertex extends BaseRequestHandler {
             WorkspaceRepository workspaceRepository,
             Configuration configuration,
             Graph graph,
-            WorkQueueRepository workQueueRepository) {
+            WorkQueueRepository workQueueRepository,
+            EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
         this.workQueueRepository = workQueueRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
     }
 
     @Override
@@ -42,7 +46,7 @@ public class DeleteVertex extends BaseRequestHandler {
 
         LOGGER.debug("deleting vertex: %s", graphVertexId);
         Vertex vertex = graph.getVertex(graphVertexId, authorizations);
-        graph.removeVertex(vertex, authorizations);
+        edgeLabelSummary.removeVertex(vertex, authorizations);
         graph.flush();
         LOGGER.info("deleted vertex: %s", graphVertexId);
 
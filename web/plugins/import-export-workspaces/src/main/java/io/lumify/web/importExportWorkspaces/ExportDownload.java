@@ -0,0 +1,70 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessRepository;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.user.User;
+import io.lumify.miniweb.HandlerChain;
+import io.lumify.web.BaseRequestHandler;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class ExportDownload extends BaseRequestHandler {
+    private final LongRunningProcessRepository longRunningProcessRepository;
+
+    @Inject
+    public ExportDownload(
+            UserRepository userRepository,
+            Configuration configuration,
+            WorkspaceRepository workspaceRepository,
+            LongRunningProcessRepository longRunningProcessRepository) {
+        super(userRepository, workspaceRepository, configuration);
+        this.longRunningProcessRepository = longRunningProcessRepository;
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
+        String longRunningProcessId = getRequiredParameter(request, "longRunningProcessId");
+
+        User user = getUser(request);
+        JSONObject longRunningProcess = longRunningProcessRepository.findById(longRunningProcessId, user);
+        if (longRunningProcess == null
+                || !ExportWorkspaceLongRunningProcessQueueItem.TYPE.equals(longRunningProcess.optString("type"))
+                || longRunningProcess.optJSONObject("results") == null) {
+            respondWithNotFound(response);
+            return;
+        }
+
+        JSONObject results = longRunningProcess.getJSONObject("results");
+        File archiveFile = WorkspaceArchive.getArchiveFile(getConfiguration(), results.getString("archiveName"));
+        if (!archiveFile.exists()) {
+            respondWithNotFound(response, "Workspace archive no longer exists");
+            return;
+        }
+
+        response.setContentType("application/zip");
+        response.setHeader("Content-Length", Long.toString(archiveFile.length()));
+        response.addHeader("Content-Disposition", "attachment; filename=" + results.getString("workspaceTitle") + WorkspaceArchive.EXTENSION);
+
+        InputStream in = new FileInputStream(archiveFile);
+        try {
+            OutputStream out = response.getOutputStream();
+            try {
+                IOUtils.copy(in, out);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.util.ClientApiConverter;
+import org.json.JSONObject;
+import org.securegraph.Authorizations;
+
+public class ExportWorkspaceLongRunningProcessQueueItem {
+    public static final String TYPE = "exportWorkspace";
+    private String workspaceId;
+    private String archiveName;
+    private String[] authorizations;
+
+    public ExportWorkspaceLongRunningProcessQueueItem() {
+
+    }
+
+    public ExportWorkspaceLongRunningProcessQueueItem(String workspaceId, String archiveName, Authorizations authorizations) {
+        this.workspaceId = workspaceId;
+        this.archiveName = archiveName;
+        this.authorizations = authorizations.getAuthorizations();
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public String[] getAuthorizations() {
+        return authorizations;
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject(ClientApiConverter.clientApiToString(this));
+    }
+}
@@ -0,0 +1,301 @@
+package io.lumify.web.importExportWorkspaces;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import io.lumify.core.config.Configuration;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessRepository;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessWorker;
+import io.lumify.core.model.longRunningProcess.LongRunningWorkerPrepareData;
+import io.lumify.core.model.user.AuthorizationRepository;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceEntity;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.user.User;
+import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.securegraph.model.workspace.SecureGraphWorkspaceRepository;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.securegraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.securegraph.util.IterableUtils.toList;
+
+/**
+ * Writes a workspace to an archive in the archive directory. Chunks of elements are read from the graph on a pool of
+ * threads a few chunks ahead of the single thread writing the archive, which copies streaming property values from
+ * the graph into their entries without holding them in memory.
+ */
+public class ExportWorkspaceLongRunningProcessWorker extends LongRunningProcessWorker {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ExportWorkspaceLongRunningProcessWorker.class);
+    private Graph graph;
+    private Configuration configuration;
+    private UserRepository userRepository;
+    private SecureGraphWorkspaceRepository workspaceRepository;
+    private AuthorizationRepository authorizationRepository;
+    private LongRunningProcessRepository longRunningProcessRepository;
+
+    @Override
+    public void prepare(LongRunningWorkerPrepareData workerPrepareData) {
+        super.prepare(workerPrepareData);
+        WorkspaceArchive.getArchiveDirectory(configuration);
+    }
+
+    @Override
+    public boolean isHandled(JSONObject longRunningProcessQueueItem) {
+        return longRunningProcessQueueItem.getString("type").equals(ExportWorkspaceLongRunningProcessQueueItem.TYPE);
+    }
+
+    @Override
+    public void process(JSONObject longRunningProcessQueueItem) {
+        ExportWorkspaceLongRunningProcessQueueItem export = ClientApiConverter.toClientApi(longRunningProcessQueueItem.toString(), ExportWorkspaceLongRunningProcessQueueItem.class);
+        User user = userRepository.findById(longRunningProcessQueueItem.getString("userId"));
+        checkNotNull(user, "Could not find user: " + longRunningProcessQueueItem.getString("userId"));
+        Authorizations authorizations = authorizationRepository.createAuthorizations(export.getAuthorizations());
+        Workspace workspace = workspaceRepository.findById(export.getWorkspaceId(), user);
+        checkNotNull(workspace, "Could not find workspace: " + export.getWorkspaceId());
+
+        List<String> vertexIds = new ArrayList<>();
+        for (WorkspaceEntity workspaceEntity : workspaceRepository.findEntities(workspace, user)) {
+            vertexIds.add(workspaceEntity.getEntityVertexId());
+        }
+
+        // include the workspace so that we get the edges from the workspace to its entities
+        List<String> vertexIdsAndWorkspaceId = new ArrayList<>(vertexIds);
+        vertexIdsAndWorkspaceId.add(workspace.getWorkspaceId());
+        List<String> edgeIds = toList(graph.findRelatedEdges(vertexIdsAndWorkspaceId, authorizations));
+
+        File archiveFile = WorkspaceArchive.getArchiveFile(configuration, export.getArchiveName());
+        File partFile = WorkspaceArchive.getPartFile(archiveFile);
+        Progress progress = new Progress(longRunningProcessQueueItem, vertexIds.size() + edgeIds.size());
+        int threadCount = WorkspaceArchive.getThreadCount(configuration);
+        int chunkSize = WorkspaceArchive.getChunkSize(configuration);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(partFile)));
+            try {
+                Vertex workspaceVertex = workspaceRepository.getVertex(workspace.getWorkspaceId(), user);
+                writeChunk(zip, createChunk(WorkspaceArchive.WORKSPACE_ENTRY_NAME, Collections.<Element>singletonList(workspaceVertex)));
+
+                JSONArray chunks = new JSONArray();
+                writeChunks(zip, executor, threadCount * 2, createVertexChunkTasks(vertexIds, chunkSize, authorizations), chunks, progress);
+                writeChunks(zip, executor, threadCount * 2, createEdgeChunkTasks(edgeIds, chunkSize, authorizations), chunks, progress);
+
+                JSONObject manifest = new JSONObject();
+                manifest.put("version", WorkspaceArchive.FORMAT_VERSION);
+                manifest.put("workspaceId", workspace.getWorkspaceId());
+                manifest.put("title", workspace.getDisplayTitle());
+                manifest.put("chunks", chunks);
+                zip.putNextEntry(new ZipEntry(WorkspaceArchive.MANIFEST_ENTRY_NAME));
+                zip.write(manifest.toString().getBytes("UTF-8"));
+                zip.closeEntry();
+            } finally {
+                zip.close();
+            }
+        } catch (Exception ex) {
+            if (!partFile.delete()) {
+                LOGGER.warn("Could not delete incomplete workspace archive: %s", partFile);
+            }
+            throw new LumifyException("Could not export workspace " + workspace.getWorkspaceId(), ex);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!partFile.renameTo(archiveFile)) {
+            throw new LumifyException("Could not rename " + partFile + " to " + archiveFile);
+        }
+
+        WorkspaceArchive.deleteExpiredArchives(configuration);
+
+        JSONObject results = new JSONObject();
+        results.put("archiveName", export.getArchiveName());
+        results.put("workspaceTitle", workspace.getDisplayTitle());
+        results.put("vertexCount", vertexIds.size());
+        results.put("edgeCount", edgeIds.size());
+        longRunningProcessQueueItem.put("results", results);
+    }
+
+    private List<Callable<Chunk>> createVertexChunkTasks(List<String> vertexIds, int chunkSize, final Authorizations authorizations) {
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        int chunkIndex = 0;
+        for (final List<String> chunkVertexIds : Lists.partition(vertexIds, chunkSize)) {
+            final String chunkName = WorkspaceArchive.getChunkEntryName(WorkspaceArchive.CHUNK_TYPE_VERTICES, chunkIndex++);
+            tasks.add(new Callable<Chunk>() {
+                @Override
+                public Chunk call() throws Exception {
+                    List<Element> vertices = new ArrayList<Element>(toList(graph.getVertices(chunkVertexIds, FetchHint.ALL, authorizations)));
+                    return createChunk(chunkName, vertices).setType(WorkspaceArchive.CHUNK_TYPE_VERTICES).setIdCount(chunkVertexIds.size());
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private List<Callable<Chunk>> createEdgeChunkTasks(List<String> edgeIds, int chunkSize, final Authorizations authorizations) {
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        int chunkIndex = 0;
+        for (final List<String> chunkEdgeIds : Lists.partition(edgeIds, chunkSize)) {
+            final String chunkName = WorkspaceArchive.getChunkEntryName(WorkspaceArchive.CHUNK_TYPE_EDGES, chunkIndex++);
+            tasks.add(new Callable<Chunk>() {
+                @Override
+                public Chunk call() throws Exception {
+                    List<Element> edges = new ArrayList<Element>(toList(graph.getEdges(chunkEdgeIds, FetchHint.ALL, authorizations)));
+                    return createChunk(chunkName, edges).setType(WorkspaceArchive.CHUNK_TYPE_EDGES).setIdCount(chunkEdgeIds.size());
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Runs the tasks on the executor with at most maxPending chunks read ahead, and writes the chunks in task order.
+     */
+    private void writeChunks(ZipOutputStream zip, ExecutorService executor, int maxPending, List<Callable<Chunk>> tasks, JSONArray chunks, Progress progress) throws Exception {
+        Iterator<Callable<Chunk>> taskIterator = tasks.iterator();
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        while (taskIterator.hasNext() || !pending.isEmpty()) {
+            while (taskIterator.hasNext() && pending.size() < maxPending) {
+                pending.add(executor.submit(taskIterator.next()));
+            }
+            Chunk chunk = pending.removeFirst().get();
+            writeChunk(zip, chunk);
+
+            JSONObject chunkJson = new JSONObject();
+            chunkJson.put("name", chunk.getName());
+            chunkJson.put("type", chunk.getType());
+            chunkJson.put("count", chunk.getLines().size());
+            chunks.put(chunkJson);
+            progress.add(chunk.getIdCount());
+        }
+    }
+
+    private Chunk createChunk(String chunkName, List<Element> elements) {
+        Chunk chunk = new Chunk(chunkName);
+        String valueEntryPrefix = "values/" + chunkName + "/";
+        for (Element element : elements) {
+            chunk.getLines().add(WorkspaceArchive.elementToJson(element, valueEntryPrefix, chunk.getStreamingValueEntries()).toString());
+        }
+        return chunk;
+    }
+
+    private void writeChunk(ZipOutputStream zip, Chunk chunk) throws IOException {
+        zip.putNextEntry(new ZipEntry(chunk.getName()));
+        Writer writer = new OutputStreamWriter(zip, "UTF-8");
+        for (String line : chunk.getLines()) {
+            writer.write(line);
+            writer.write('\n');
+        }
+        writer.flush();
+        zip.closeEntry();
+
+        for (WorkspaceArchive.StreamingValueEntry streamingValueEntry : chunk.getStreamingValueEntries()) {
+            zip.putNextEntry(new ZipEntry(streamingValueEntry.getEntryName()));
+            InputStream in = streamingValueEntry.getValue().getInputStream();
+            try {
+                IOUtils.copy(in, zip);
+            } finally {
+                in.close();
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private static class Chunk {
+        private final String name;
+        private final List<String> lines = new ArrayList<>();
+        private final List<WorkspaceArchive.StreamingValueEntry> streamingValueEntries = new ArrayList<>();
+        private String type;
+        private int idCount;
+
+        public Chunk(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public List<WorkspaceArchive.StreamingValueEntry> getStreamingValueEntries() {
+            return streamingValueEntries;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Chunk setType(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public int getIdCount() {
+            return idCount;
+        }
+
+        public Chunk setIdCount(int idCount) {
+            this.idCount = idCount;
+            return this;
+        }
+    }
+
+    private class Progress {
+        private final JSONObject longRunningProcessQueueItem;
+        private final int total;
+        private int completed;
+
+        public Progress(JSONObject longRunningProcessQueueItem, int total) {
+            this.longRunningProcessQueueItem = longRunningProcessQueueItem;
+            this.total = total;
+        }
+
+        public void add(int count) {
+            completed += count;
+            double progressPercent = total == 0 ? 1.0 : (double) completed / total;
+            longRunningProcessRepository.reportProgress(longRunningProcessQueueItem, progressPercent, String.format("Exported %d of %d elements", completed, total));
+        }
+    }
+
+    @Inject
+    public void setGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    @Inject
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Inject
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Inject
+    public void setWorkspaceRepository(WorkspaceRepository workspaceRepository) {
+        this.workspaceRepository = (SecureGraphWorkspaceRepository) workspaceRepository;
+    }
+
+    @Inject
+    public void setAuthorizationRepository(AuthorizationRepository authorizationRepository) {
+        this.authorizationRepository = authorizationRepository;
+    }
+
+    @Inject
+    public void setLongRunningProcessRepository(LongRunningProcessRepository longRunningProcessRepository) {
+        this.longRunningProcessRepository = longRunningProcessRepository;
+    }
+}
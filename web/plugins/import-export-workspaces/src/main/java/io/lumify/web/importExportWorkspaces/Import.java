@@ -1,90 +1,100 @@
 package io.lumify.web.importExportWorkspaces;
 
-import io.lumify.miniweb.HandlerChain;
 import io.lumify.core.config.Configuration;
-import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessRepository;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
-import io.lumify.securegraph.model.user.SecureGraphUserRepository;
-import io.lumify.securegraph.model.workspace.SecureGraphWorkspaceRepository;
+import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
+import io.lumify.web.clientapi.model.ClientApiLongRunningProcessSubmitResponse;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.json.JSONObject;
 import org.securegraph.Authorizations;
-import org.securegraph.Graph;
-import org.securegraph.Vertex;
-import org.securegraph.tools.GraphRestore;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
-import java.io.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.zip.ZipFile;
 
+/**
+ * Starts the import of a workspace archive. The archive is either uploaded as the "workspace" part, or named by the
+ * "archiveName" parameter to resume an import of an archive uploaded before.
+ */
 public class Import extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(Import.class);
-    private final SecureGraphWorkspaceRepository workspaceRepository;
-    private final Graph graph;
+    private final LongRunningProcessRepository longRunningProcessRepository;
 
     @Inject
     public Import(
             UserRepository userRepository,
             Configuration configuration,
             WorkspaceRepository workspaceRepository,
-            Graph graph) {
+            LongRunningProcessRepository longRunningProcessRepository) {
         super(userRepository, workspaceRepository, configuration);
-        this.workspaceRepository = (SecureGraphWorkspaceRepository) workspaceRepository;
-        this.graph = graph;
+        this.longRunningProcessRepository = longRunningProcessRepository;
     }
 
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
-        if (!ServletFileUpload.isMultipartContent(request)) {
-            LOGGER.warn("Could not process request without multi-part content");
-            respondWithBadRequest(response, "file", "Could not process request without multi-part content");
+        String archiveName;
+        if (ServletFileUpload.isMultipartContent(request)) {
+            archiveName = saveUpload(request);
+            if (archiveName == null) {
+                respondWithBadRequest(response, "workspace", "Could not find workspace part");
+                return;
+            }
+        } else {
+            archiveName = getRequiredParameter(request, "archiveName");
+        }
+
+        File archiveFile = WorkspaceArchive.getArchiveFile(getConfiguration(), archiveName);
+        if (!archiveFile.exists()) {
+            respondWithNotFound(response, "Could not find workspace archive: " + archiveName);
+            return;
+        }
+
+        String workspaceId;
+        try {
+            workspaceId = getWorkspaceId(archiveFile);
+        } catch (Exception ex) {
+            LOGGER.warn("Could not read workspace archive %s", archiveName, ex);
+            respondWithBadRequest(response, "workspace", "Could not read workspace archive");
             return;
         }
 
         User user = getUser(request);
-        Vertex userVertex = ((SecureGraphUserRepository) getUserRepository()).findByIdUserVertex(user.getUserId());
-        GraphRestore graphRestore = new GraphRestore();
+        Authorizations authorizations = getUserRepository().getAuthorizations(user, UserRepository.VISIBILITY_STRING, WorkspaceRepository.VISIBILITY_STRING, workspaceId);
+        ImportWorkspaceLongRunningProcessQueueItem importQueueItem = new ImportWorkspaceLongRunningProcessQueueItem(archiveName);
+        String id = this.longRunningProcessRepository.enqueue(importQueueItem.toJson(), user, authorizations);
 
+        respondWithClientApiObject(response, new ClientApiLongRunningProcessSubmitResponse(id));
+    }
+
+    private String saveUpload(HttpServletRequest request) throws Exception {
         for (Part part : request.getParts()) {
             if (part.getName().equals("workspace")) {
-                File outFile = File.createTempFile("lumifyWorkspaceImport", "lumifyworkspace");
-                copyPartToFile(part, outFile);
-
-                String workspaceId = getWorkspaceId(outFile);
-
-                Authorizations authorizations = getUserRepository().getAuthorizations(user, UserRepository.VISIBILITY_STRING, WorkspaceRepository.VISIBILITY_STRING, workspaceId);
-
-                InputStream in = new FileInputStream(outFile);
-                try {
-                    graphRestore.restore(graph, in, authorizations);
-
-                    Vertex workspaceVertex = this.workspaceRepository.getVertex(workspaceId, user);
-                    this.workspaceRepository.addWorkspaceToUser(workspaceVertex, userVertex, authorizations);
-                } finally {
-                    graph.flush();
-                    in.close();
-                }
+                String archiveName = "import-" + UUID.randomUUID().toString() + WorkspaceArchive.EXTENSION;
+                copyPartToFile(part, WorkspaceArchive.getArchiveFile(getConfiguration(), archiveName));
+                return archiveName;
             }
         }
-
-        respondWithPlaintext(response, "Workspace Imported");
+        return null;
     }
 
-    private String getWorkspaceId(File file) throws IOException {
-        BufferedReader in = new BufferedReader(new FileReader(file));
-        String workspaceLine = in.readLine();
-        Matcher m = Pattern.compile(".*\"id\":\"(.*?)\".*").matcher(workspaceLine);
-        if (!m.matches()) {
-            throw new LumifyException("Could not find Workspace id in line: " + workspaceLine);
+    private String getWorkspaceId(File archiveFile) throws IOException {
+        ZipFile zipFile = new ZipFile(archiveFile);
+        try {
+            JSONObject manifest = WorkspaceArchive.readJsonEntry(zipFile, WorkspaceArchive.MANIFEST_ENTRY_NAME);
+            return manifest.getString("workspaceId");
+        } finally {
+            zipFile.close();
         }
-        return m.group(1);
     }
 }
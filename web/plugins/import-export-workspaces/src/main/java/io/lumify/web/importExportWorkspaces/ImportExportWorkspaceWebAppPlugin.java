@@ -1,5 +1,7 @@
 package io.lumify.web.importExportWorkspaces;
 
+import com.google.inject.Inject;
+import io.lumify.core.config.Configuration;
 import io.lumify.miniweb.Handler;
 import io.lumify.miniweb.handlers.StaticResourceHandler;
 import io.lumify.web.LumifyCsrfHandler;
@@ -10,21 +12,35 @@ import io.lumify.web.privilegeFilters.AdminPrivilegeFilter;
 import javax.servlet.ServletContext;
 
 public class ImportExportWorkspaceWebAppPlugin implements WebAppPlugin {
+    private Configuration configuration;
+
     @Override
     public void init(WebApp app, ServletContext servletContext, Handler authenticationHandler) {
+        WorkspaceArchive.getArchiveDirectory(configuration);
+
         Class<? extends Handler> authenticationHandlerClass = authenticationHandler.getClass();
         Class<? extends Handler> csrfHandlerClass = LumifyCsrfHandler.class;
 
         app.get("/jsc/io/lumify/web/importExportWorkspaces/import.hbs",
                 new StaticResourceHandler(getClass(), "/io/lumify/web/importExportWorkspaces/import.hbs", "text/html"));
+        app.get("/jsc/io/lumify/web/importExportWorkspaces/import-finished.js",
+                new StaticResourceHandler(getClass(), "/io/lumify/web/importExportWorkspaces/import-finished.js", "application/javascript"));
         app.registerJavaScript("/io/lumify/web/importExportWorkspaces/import-plugin.js");
         app.registerResourceBundle("/io/lumify/web/importExportWorkspaces/messages.properties");
 
         app.get("/jsc/io/lumify/web/importExportWorkspaces/export.hbs",
                 new StaticResourceHandler(getClass(), "/io/lumify/web/importExportWorkspaces/export.hbs", "text/html"));
+        app.get("/jsc/io/lumify/web/importExportWorkspaces/export-finished.js",
+                new StaticResourceHandler(getClass(), "/io/lumify/web/importExportWorkspaces/export-finished.js", "application/javascript"));
         app.registerJavaScript("/io/lumify/web/importExportWorkspaces/export-plugin.js");
 
-        app.get("/admin/workspace/export", authenticationHandlerClass, csrfHandlerClass, AdminPrivilegeFilter.class, Export.class);
+        app.post("/admin/workspace/export", authenticationHandlerClass, csrfHandlerClass, AdminPrivilegeFilter.class, Export.class);
+        app.get("/admin/workspace/export/download", authenticationHandlerClass, csrfHandlerClass, AdminPrivilegeFilter.class, ExportDownload.class);
         app.post("/admin/workspace/import", authenticationHandlerClass, csrfHandlerClass, AdminPrivilegeFilter.class, Import.class);
     }
+
+    @Inject
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+    }
 }
@@ -0,0 +1,29 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.util.ClientApiConverter;
+import org.json.JSONObject;
+
+public class ImportWorkspaceLongRunningProcessQueueItem {
+    public static final String TYPE = "importWorkspace";
+    private String archiveName;
+
+    public ImportWorkspaceLongRunningProcessQueueItem() {
+
+    }
+
+    public ImportWorkspaceLongRunningProcessQueueItem(String archiveName) {
+        this.archiveName = archiveName;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject(ClientApiConverter.clientApiToString(this));
+    }
+}
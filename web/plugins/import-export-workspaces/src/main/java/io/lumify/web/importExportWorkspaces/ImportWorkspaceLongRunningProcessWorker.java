@@ -0,0 +1,340 @@
+package io.lumify.web.importExportWorkspaces;
+
+import com.google.inject.Inject;
+import io.lumify.core.config.Configuration;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessRepository;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessWorker;
+import io.lumify.core.model.longRunningProcess.LongRunningWorkerPrepareData;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.user.User;
+import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.core.util.ElementProjection;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.securegraph.model.user.SecureGraphUserRepository;
+import io.lumify.securegraph.model.workspace.SecureGraphWorkspaceRepository;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.securegraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipFile;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Restores a workspace from an archive in the archive directory. The chunks are written on a pool of threads, all
+ * vertex chunks before any edge chunk. Each chunk is flushed and then recorded in a progress file next to the archive,
+ * so running the process again over the same archive skips the chunks already written. Elements are written by id, so
+ * a chunk that was interrupted part way is simply written again. The archive name is put in the results before
+ * anything is imported so that a failed import can be retried.
+ */
+public class ImportWorkspaceLongRunningProcessWorker extends LongRunningProcessWorker {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ImportWorkspaceLongRunningProcessWorker.class);
+    private Graph graph;
+    private Configuration configuration;
+    private UserRepository userRepository;
+    private SecureGraphWorkspaceRepository workspaceRepository;
+    private LongRunningProcessRepository longRunningProcessRepository;
+    private EdgeLabelSummary edgeLabelSummary;
+
+    @Override
+    public void prepare(LongRunningWorkerPrepareData workerPrepareData) {
+        super.prepare(workerPrepareData);
+        WorkspaceArchive.getArchiveDirectory(configuration);
+    }
+
+    @Override
+    public boolean isHandled(JSONObject longRunningProcessQueueItem) {
+        return longRunningProcessQueueItem.getString("type").equals(ImportWorkspaceLongRunningProcessQueueItem.TYPE);
+    }
+
+    @Override
+    public void process(JSONObject longRunningProcessQueueItem) {
+        ImportWorkspaceLongRunningProcessQueueItem importItem = ClientApiConverter.toClientApi(longRunningProcessQueueItem.toString(), ImportWorkspaceLongRunningProcessQueueItem.class);
+        String userId = longRunningProcessQueueItem.getString("userId");
+        User user = userRepository.findById(userId);
+        checkNotNull(user, "Could not find user: " + userId);
+
+        JSONObject results = new JSONObject();
+        results.put("archiveName", importItem.getArchiveName());
+        longRunningProcessQueueItem.put("results", results);
+
+        File archiveFile = WorkspaceArchive.getArchiveFile(configuration, importItem.getArchiveName());
+        File progressFile = WorkspaceArchive.getProgressFile(archiveFile);
+        try {
+            ZipFile zipFile = new ZipFile(archiveFile);
+            try {
+                importArchive(longRunningProcessQueueItem, results, zipFile, new ProgressFile(progressFile), user);
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException ex) {
+            throw new LumifyException("Could not import workspace archive " + importItem.getArchiveName(), ex);
+        }
+
+        if (progressFile.exists() && !progressFile.delete()) {
+            LOGGER.warn("Could not delete workspace import progress file: %s", progressFile);
+        }
+        WorkspaceArchive.deleteExpiredArchives(configuration);
+    }
+
+    private void importArchive(JSONObject longRunningProcessQueueItem, JSONObject results, ZipFile zipFile, ProgressFile progressFile, User user) throws IOException {
+        JSONObject manifest = WorkspaceArchive.readJsonEntry(zipFile, WorkspaceArchive.MANIFEST_ENTRY_NAME);
+        if (manifest.getInt("version") != WorkspaceArchive.FORMAT_VERSION) {
+            throw new LumifyException("Unsupported workspace archive version: " + manifest.getInt("version"));
+        }
+        String workspaceId = manifest.getString("workspaceId");
+        Authorizations authorizations = userRepository.getAuthorizations(user, UserRepository.VISIBILITY_STRING, WorkspaceRepository.VISIBILITY_STRING, workspaceId);
+
+        Set<String> completedChunkNames = progressFile.read();
+        List<String> vertexChunkNames = new ArrayList<>();
+        List<String> edgeChunkNames = new ArrayList<>();
+        int total = 0;
+        int completed = 0;
+        JSONArray chunks = manifest.getJSONArray("chunks");
+        for (int i = 0; i < chunks.length(); i++) {
+            JSONObject chunk = chunks.getJSONObject(i);
+            String chunkName = chunk.getString("name");
+            total += chunk.getInt("count");
+            if (completedChunkNames.contains(chunkName)) {
+                completed += chunk.getInt("count");
+            } else if (chunk.getString("type").equals(WorkspaceArchive.CHUNK_TYPE_VERTICES)) {
+                vertexChunkNames.add(chunkName);
+            } else {
+                edgeChunkNames.add(chunkName);
+            }
+        }
+        if (completed > 0) {
+            LOGGER.info("Resuming import of workspace %s: %d of %d elements already imported", workspaceId, completed, total);
+        }
+
+        if (!completedChunkNames.contains(WorkspaceArchive.WORKSPACE_ENTRY_NAME)) {
+            importChunk(zipFile, WorkspaceArchive.WORKSPACE_ENTRY_NAME, false, authorizations);
+            progressFile.add(WorkspaceArchive.WORKSPACE_ENTRY_NAME);
+        }
+
+        Progress progress = new Progress(longRunningProcessQueueItem, total, completed);
+        int threadCount = WorkspaceArchive.getThreadCount(configuration);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            importChunks(executor, zipFile, vertexChunkNames, false, authorizations, progressFile, progress);
+            importChunks(executor, zipFile, edgeChunkNames, true, authorizations, progressFile, progress);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Vertex workspaceVertex = workspaceRepository.getVertex(workspaceId, user);
+        checkNotNull(workspaceVertex, "Could not find imported workspace: " + workspaceId);
+        Vertex userVertex = ((SecureGraphUserRepository) userRepository).findByIdUserVertex(user.getUserId());
+        workspaceRepository.addWorkspaceToUser(workspaceVertex, userVertex, authorizations);
+        graph.flush();
+
+        results.put("workspaceId", workspaceId);
+        results.put("workspaceTitle", manifest.optString("title"));
+    }
+
+    private void importChunks(ExecutorService executor, final ZipFile zipFile, List<String> chunkNames, final boolean edges, final Authorizations authorizations, final ProgressFile progressFile, final Progress progress) {
+        List<Future<Object>> futures = new ArrayList<>();
+        for (final String chunkName : chunkNames) {
+            futures.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    int count = importChunk(zipFile, chunkName, edges, authorizations);
+                    progressFile.add(chunkName);
+                    progress.add(count);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (Exception ex) {
+            for (Future<Object> future : futures) {
+                future.cancel(true);
+            }
+            throw new LumifyException("Could not import workspace chunks", ex);
+        }
+    }
+
+    /**
+     * Writes the elements of one chunk, parsing a line at a time, and flushes them. The edges that didn't exist yet are
+     * counted in the edge label summaries of their vertices together. An edge chunk is read twice: once for the ids
+     * of the edges and their vertices, which are looked up together, and once to write the edges.
+     *
+     * @return the number of elements written
+     */
+    private int importChunk(ZipFile zipFile, String chunkName, boolean edges, Authorizations authorizations) throws IOException {
+        Map<String, Vertex> edgeVertices = null;
+        Map<String, Boolean> edgesExist = null;
+        if (edges) {
+            Set<String> vertexIds = new HashSet<>();
+            List<String> edgeIds = new ArrayList<>();
+            readEdgeIds(zipFile, chunkName, vertexIds, edgeIds);
+            edgeVertices = getVertices(vertexIds, authorizations);
+            edgesExist = graph.doEdgesExist(edgeIds, authorizations);
+        }
+
+        int count = 0;
+        List<Edge> newEdges = new ArrayList<>();
+        List<InputStream> openedStreams = new ArrayList<>();
+        BufferedReader reader = WorkspaceArchive.openEntry(zipFile, chunkName);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                JSONObject elementJson = new JSONObject(line);
+                count++;
+                String elementId = elementJson.getString("id");
+                Visibility visibility = new Visibility(elementJson.getString("visibility"));
+                ElementBuilder<?> builder;
+                if (edges) {
+                    Vertex outVertex = edgeVertices.get(elementJson.getString("outVertexId"));
+                    Vertex inVertex = edgeVertices.get(elementJson.getString("inVertexId"));
+                    if (outVertex == null || inVertex == null) {
+                        LOGGER.warn("Skipping edge %s: could not find both of its vertices", elementId);
+                        continue;
+                    }
+                    builder = graph.prepareEdge(elementId, outVertex, inVertex, elementJson.getString("label"), visibility);
+                } else {
+                    VertexBuilder vertexBuilder = graph.prepareVertex(elementId, visibility);
+                    EdgeLabelSummary.invalidate(vertexBuilder);
+                    builder = vertexBuilder;
+                }
+                WorkspaceArchive.addProperties(builder, elementJson, zipFile, openedStreams);
+                Element element = builder.save(authorizations);
+                if (edges && !Boolean.TRUE.equals(edgesExist.get(elementId))) {
+                    newEdges.add((Edge) element);
+                }
+            }
+            edgeLabelSummary.edgesAdded(newEdges, authorizations);
+            graph.flush();
+        } finally {
+            reader.close();
+            for (InputStream in : openedStreams) {
+                in.close();
+            }
+        }
+        return count;
+    }
+
+    private static void readEdgeIds(ZipFile zipFile, String chunkName, Set<String> vertexIds, List<String> edgeIds) throws IOException {
+        BufferedReader reader = WorkspaceArchive.openEntry(zipFile, chunkName);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                JSONObject edgeJson = new JSONObject(line);
+                edgeIds.add(edgeJson.getString("id"));
+                vertexIds.add(edgeJson.getString("outVertexId"));
+                vertexIds.add(edgeJson.getString("inVertexId"));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Map<String, Vertex> getVertices(Set<String> vertexIds, Authorizations authorizations) {
+        Map<String, Vertex> vertices = new HashMap<>();
+        for (Vertex vertex : ElementProjection.EXISTENCE.getVertices(graph, vertexIds, authorizations)) {
+            vertices.put(vertex.getId(), vertex);
+        }
+        return vertices;
+    }
+
+    private static class ProgressFile {
+        private final File file;
+
+        public ProgressFile(File file) {
+            this.file = file;
+        }
+
+        public Set<String> read() throws IOException {
+            Set<String> chunkNames = new HashSet<>();
+            if (!file.exists()) {
+                return chunkNames;
+            }
+            BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.length() > 0) {
+                        chunkNames.add(line);
+                    }
+                }
+            } finally {
+                in.close();
+            }
+            return chunkNames;
+        }
+
+        public synchronized void add(String chunkName) throws IOException {
+            Writer out = new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8");
+            try {
+                out.write(chunkName);
+                out.write('\n');
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private class Progress {
+        private final JSONObject longRunningProcessQueueItem;
+        private final int total;
+        private int completed;
+
+        public Progress(JSONObject longRunningProcessQueueItem, int total, int completed) {
+            this.longRunningProcessQueueItem = longRunningProcessQueueItem;
+            this.total = total;
+            this.completed = completed;
+        }
+
+        public synchronized void add(int count) {
+            completed += count;
+            double progressPercent = total == 0 ? 1.0 : (double) completed / total;
+            longRunningProcessRepository.reportProgress(longRunningProcessQueueItem, progressPercent, String.format("Imported %d of %d elements", completed, total));
+        }
+    }
+
+    @Inject
+    public void setGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    @Inject
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Inject
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Inject
+    public void setWorkspaceRepository(WorkspaceRepository workspaceRepository) {
+        this.workspaceRepository = (SecureGraphWorkspaceRepository) workspaceRepository;
+    }
+
+    @Inject
+    public void setEdgeLabelSummary(EdgeLabelSummary edgeLabelSummary) {
+        this.edgeLabelSummary = edgeLabelSummary;
+    }
+
+    @Inject
+    public void setLongRunningProcessRepository(LongRunningProcessRepository longRunningProcessRepository) {
+        this.longRunningProcessRepository = longRunningProcessRepository;
+    }
+}
@@ -0,0 +1,312 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.securegraph.*;
+import org.securegraph.property.StreamingPropertyValue;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.*;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The layout of a workspace archive: a zip holding a manifest, the workspace vertex, chunks of vertices and edges
+ * written one JSON object per line, and every streaming property value as an entry of its own so that it is copied
+ * stream to stream on export and on import.
+ */
+public class WorkspaceArchive {
+    public static final int FORMAT_VERSION = 1;
+    public static final String EXTENSION = ".lumifyWorkspace";
+    public static final String MANIFEST_ENTRY_NAME = "manifest.json";
+    public static final String WORKSPACE_ENTRY_NAME = "workspace.jsonl";
+    public static final String CHUNK_TYPE_VERTICES = "vertices";
+    public static final String CHUNK_TYPE_EDGES = "edges";
+    public static final String CONFIG_ARCHIVE_DIRECTORY = "importExportWorkspaces.archiveDirectory";
+    public static final String CONFIG_THREAD_COUNT = "importExportWorkspaces.threadCount";
+    public static final String CONFIG_CHUNK_SIZE = "importExportWorkspaces.chunkSize";
+    public static final String CONFIG_ARCHIVE_EXPIRATION_HOURS = "importExportWorkspaces.archiveExpirationHours";
+    public static final String PART_FILE_SUFFIX = ".part";
+    public static final String PROGRESS_FILE_SUFFIX = ".progress";
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(WorkspaceArchive.class);
+    private static final int DEFAULT_THREAD_COUNT = 4;
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_ARCHIVE_EXPIRATION_HOURS = 24;
+    private static final Pattern ARCHIVE_NAME_PATTERN = Pattern.compile("[\\w.-]+");
+
+    /**
+     * The directory archives are written to and read from. The web servers and the long running process runners must
+     * all see the same directory, so it has to be configured.
+     */
+    public static File getArchiveDirectory(Configuration configuration) {
+        String directoryName = configuration.get(CONFIG_ARCHIVE_DIRECTORY, null);
+        if (directoryName == null || directoryName.trim().length() == 0) {
+            throw new LumifyException("Could not find required property " + CONFIG_ARCHIVE_DIRECTORY);
+        }
+        File directory = new File(directoryName);
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            throw new LumifyException("Could not create workspace archive directory: " + directory);
+        }
+        return directory;
+    }
+
+    public static File getArchiveFile(Configuration configuration, String archiveName) {
+        if (archiveName == null || !ARCHIVE_NAME_PATTERN.matcher(archiveName).matches()) {
+            throw new LumifyException("Invalid workspace archive name: " + archiveName);
+        }
+        return new File(getArchiveDirectory(configuration), archiveName);
+    }
+
+    public static File getProgressFile(File archiveFile) {
+        return new File(archiveFile.getPath() + PROGRESS_FILE_SUFFIX);
+    }
+
+    public static File getPartFile(File archiveFile) {
+        return new File(archiveFile.getPath() + PART_FILE_SUFFIX);
+    }
+
+    /**
+     * Deletes the archives, and the files left next to them, not used for longer than the configured expiration. An
+     * import's progress file counts as a use of its archive, so an import being resumed keeps its archive.
+     */
+    public static void deleteExpiredArchives(Configuration configuration) {
+        long expirationMillis = configuration.getInt(CONFIG_ARCHIVE_EXPIRATION_HOURS, DEFAULT_ARCHIVE_EXPIRATION_HOURS) * 60L * 60L * 1000L;
+        long expiredBefore = System.currentTimeMillis() - expirationMillis;
+        File[] files = getArchiveDirectory(configuration).listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().endsWith(EXTENSION)) {
+                File progressFile = getProgressFile(file);
+                if (Math.max(file.lastModified(), progressFile.lastModified()) < expiredBefore) {
+                    deleteExpired(file);
+                    deleteExpired(progressFile);
+                }
+            } else if (file.getName().endsWith(PART_FILE_SUFFIX) || file.getName().endsWith(PROGRESS_FILE_SUFFIX)) {
+                String archiveFileName = file.getName().substring(0, file.getName().lastIndexOf('.'));
+                boolean hasArchive = new File(file.getParentFile(), archiveFileName).exists();
+                if (!hasArchive && file.lastModified() < expiredBefore) {
+                    deleteExpired(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteExpired(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        if (file.delete()) {
+            LOGGER.info("Deleted expired workspace archive file: %s", file);
+        } else {
+            LOGGER.warn("Could not delete expired workspace archive file: %s", file);
+        }
+    }
+
+    public static int getThreadCount(Configuration configuration) {
+        return configuration.getInt(CONFIG_THREAD_COUNT, DEFAULT_THREAD_COUNT);
+    }
+
+    public static int getChunkSize(Configuration configuration) {
+        return configuration.getInt(CONFIG_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static String getChunkEntryName(String chunkType, int chunkIndex) {
+        return String.format("%s/%05d.jsonl", chunkType, chunkIndex);
+    }
+
+    public static JSONObject readJsonEntry(ZipFile zipFile, String entryName) throws IOException {
+        return new JSONObject(readEntry(zipFile, entryName));
+    }
+
+    public static String readEntry(ZipFile zipFile, String entryName) throws IOException {
+        BufferedReader in = openEntry(zipFile, entryName);
+        try {
+            StringBuilder result = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                result.append(buffer, 0, read);
+            }
+            return result.toString();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Opens an entry for reading, so a chunk can be read a line at a time instead of as one string.
+     */
+    public static BufferedReader openEntry(ZipFile zipFile, String entryName) throws IOException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+        if (entry == null) {
+            throw new LumifyException("Workspace archive is missing entry: " + entryName);
+        }
+        return new BufferedReader(new InputStreamReader(zipFile.getInputStream(entry), "UTF-8"));
+    }
+
+    /**
+     * Converts an element to its archive form. Streaming property values are not read: each one is given an entry
+     * name starting with valueEntryPrefix and added to streamingValueEntries for the caller to copy into the archive.
+     * Edge label summaries are left out, they are only valid for the edges of the graph they were counted in.
+     */
+    public static JSONObject elementToJson(Element element, String valueEntryPrefix, List<StreamingValueEntry> streamingValueEntries) {
+        JSONObject json = new JSONObject();
+        json.put("id", element.getId());
+        json.put("visibility", element.getVisibility().getVisibilityString());
+        if (element instanceof Edge) {
+            Edge edge = (Edge) element;
+            json.put("label", edge.getLabel());
+            json.put("outVertexId", edge.getVertexId(Direction.OUT));
+            json.put("inVertexId", edge.getVertexId(Direction.IN));
+        }
+
+        JSONArray properties = new JSONArray();
+        for (Property property : element.getProperties()) {
+            if (EdgeLabelSummary.isSummaryProperty(property)) {
+                continue;
+            }
+            JSONObject propertyJson = new JSONObject();
+            propertyJson.put("key", property.getKey());
+            propertyJson.put("name", property.getName());
+            propertyJson.put("visibility", property.getVisibility().getVisibilityString());
+            Object value = property.getValue();
+            if (value instanceof StreamingPropertyValue) {
+                StreamingPropertyValue streamingValue = (StreamingPropertyValue) value;
+                String entryName = valueEntryPrefix + streamingValueEntries.size();
+                JSONObject streamingValueJson = new JSONObject();
+                streamingValueJson.put("entry", entryName);
+                streamingValueJson.put("valueType", streamingValue.getValueType().getName());
+                streamingValueJson.put("searchIndex", streamingValue.isSearchIndex());
+                streamingValueJson.put("store", streamingValue.isStore());
+                propertyJson.put("streamingValue", streamingValueJson);
+                streamingValueEntries.add(new StreamingValueEntry(entryName, streamingValue));
+            } else {
+                propertyJson.put("value", serializeValue(value));
+            }
+
+            JSONArray metadataJson = new JSONArray();
+            for (Metadata.Entry metadataEntry : property.getMetadata().entrySet()) {
+                JSONObject metadataEntryJson = new JSONObject();
+                metadataEntryJson.put("key", metadataEntry.getKey());
+                metadataEntryJson.put("value", serializeValue(metadataEntry.getValue()));
+                metadataEntryJson.put("visibility", metadataEntry.getVisibility().getVisibilityString());
+                metadataJson.put(metadataEntryJson);
+            }
+            propertyJson.put("metadata", metadataJson);
+            properties.put(propertyJson);
+        }
+        json.put("properties", properties);
+        return json;
+    }
+
+    /**
+     * Adds the properties of an archived element to a mutation. Streaming property values are opened from their own
+     * archive entries and added to openedStreams, which the caller closes once the mutation is saved.
+     */
+    public static void addProperties(ElementMutation<?> mutation, JSONObject elementJson, ZipFile zipFile, List<InputStream> openedStreams) throws IOException {
+        JSONArray properties = elementJson.getJSONArray("properties");
+        for (int i = 0; i < properties.length(); i++) {
+            JSONObject propertyJson = properties.getJSONObject(i);
+            if (EdgeLabelSummary.isSummaryPropertyName(propertyJson.getString("name"))) {
+                continue;
+            }
+
+            Metadata metadata = new Metadata();
+            JSONArray metadataJson = propertyJson.getJSONArray("metadata");
+            for (int j = 0; j < metadataJson.length(); j++) {
+                JSONObject metadataEntryJson = metadataJson.getJSONObject(j);
+                metadata.add(
+                        metadataEntryJson.getString("key"),
+                        deserializeValue(metadataEntryJson.getString("value")),
+                        new Visibility(metadataEntryJson.getString("visibility"))
+                );
+            }
+
+            Object value;
+            JSONObject streamingValueJson = propertyJson.optJSONObject("streamingValue");
+            if (streamingValueJson != null) {
+                String entryName = streamingValueJson.getString("entry");
+                ZipEntry entry = zipFile.getEntry(entryName);
+                if (entry == null) {
+                    throw new LumifyException("Workspace archive is missing entry: " + entryName);
+                }
+                InputStream in = zipFile.getInputStream(entry);
+                openedStreams.add(in);
+                StreamingPropertyValue streamingValue = new StreamingPropertyValue(in, getValueType(streamingValueJson.getString("valueType")));
+                streamingValue.searchIndex(streamingValueJson.getBoolean("searchIndex"));
+                streamingValue.store(streamingValueJson.getBoolean("store"));
+                value = streamingValue;
+            } else {
+                value = deserializeValue(propertyJson.getString("value"));
+            }
+
+            mutation.addPropertyValue(
+                    propertyJson.getString("key"),
+                    propertyJson.getString("name"),
+                    value,
+                    metadata,
+                    new Visibility(propertyJson.getString("visibility"))
+            );
+        }
+    }
+
+    private static Class getValueType(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException ex) {
+            throw new LumifyException("Could not find streaming property value type: " + className, ex);
+        }
+    }
+
+    private static String serializeValue(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+            return DatatypeConverter.printBase64Binary(bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new LumifyException("Could not serialize property value of type " + value.getClass().getName(), ex);
+        }
+    }
+
+    private static Object deserializeValue(String value) {
+        try {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(DatatypeConverter.parseBase64Binary(value)));
+            try {
+                return in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (Exception ex) {
+            throw new LumifyException("Could not deserialize property value", ex);
+        }
+    }
+
+    public static class StreamingValueEntry {
+        private final String entryName;
+        private final StreamingPropertyValue value;
+
+        public StreamingValueEntry(String entryName, StreamingPropertyValue value) {
+            this.entryName = entryName;
+            this.value = value;
+        }
+
+        public String getEntryName() {
+            return entryName;
+        }
+
+        public StreamingPropertyValue getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+define([
+    'flight/lib/component',
+    'util/messages'
+], function(
+    defineComponent,
+    i18n) {
+    'use strict';
+
+    return defineComponent(ExportFinished);
+
+    function ExportFinished() {
+
+        this.after('initialize', function() {
+            var process = this.attr.process;
+
+            if (process.results && process.results.archiveName) {
+                this.$node.html(
+                    $('<a>')
+                        .addClass('btn btn-mini')
+                        .attr({
+                            download: process.results.workspaceTitle + '.lumifyWorkspace',
+                            href: 'admin/workspace/export/download?' + $.param({ longRunningProcessId: process.id })
+                        })
+                        .text(i18n('admin.workspace.export.download'))
+                );
+            }
+        });
+
+        this.after('teardown', function() {
+            this.$node.empty();
+        });
+    }
+});
@@ -1,5 +1,6 @@
 require([
     'configuration/admin/plugin',
+    'configuration/plugins/activity/plugin',
     'hbs!io/lumify/web/importExportWorkspaces/export',
     'util/formatters',
     'util/messages',
@@ -7,6 +8,7 @@ require([
     'd3'
 ], function(
     defineLumifyAdminPlugin,
+    ActivityHandlers,
     template,
     F,
     i18n,
@@ -15,6 +17,15 @@ require([
     ) {
     'use strict';
 
+    ActivityHandlers.registerActivityHandler({
+        type: 'exportWorkspace',
+        kind: 'longRunningProcess',
+        titleRenderer: function(el, process) {
+            el.textContent = i18n('admin.workspace.export.activity.title');
+        },
+        finishedComponentPath: 'io/lumify/web/importExportWorkspaces/export-finished'
+    });
+
     return defineLumifyAdminPlugin(WorkspaceExport, {
         mixins: [withDataRequest],
         section: i18n('admin.workspace.section'),
@@ -25,7 +36,8 @@ require([
     function WorkspaceExport() {
 
         this.defaultAttrs({
-            selectSelector: 'select'
+            selectSelector: 'select',
+            exportButtonSelector: 'button.export'
         });
 
         this.after('initialize', function() {
@@ -33,8 +45,8 @@ require([
 
             this.$node.html(template({}));
 
-            this.on('change', {
-                selectSelector: this.onChange
+            this.on('click', {
+                exportButtonSelector: this.onExport
             });
 
             this.dataRequest('workspace', 'all')
@@ -46,10 +58,10 @@ require([
                                     .val(workspace.workspaceId)
                                     .text(workspace.title);
                             })
-                        ).change();
+                        );
 
                     if (workspaces.length) {
-                        self.$node.find('a').removeAttr('disabled');
+                        self.select('exportButtonSelector').removeAttr('disabled');
                     }
                 })
                 .catch(this.showError.bind(this, i18n('admin.workspace.export.workspace.error')))
@@ -58,14 +70,18 @@ require([
                 })
         });
 
-        this.onChange = function() {
-            var select = this.$node.find('select'),
-                workspaceId = select.val();
+        this.onExport = function() {
+            var self = this,
+                exportButton = this.select('exportButtonSelector').attr('disabled', true);
 
-            this.$node.find('a').attr({
-                download: $(select.get(0).selectedOptions).text() + '.lumifyWorkspace',
-                href: 'admin/workspace/export?' + $.param({ workspaceId: workspaceId })
-            });
+            this.handleSubmitButton(exportButton,
+                this.dataRequest('admin', 'workspaceExport', this.select('selectSelector').val())
+                    .then(this.showSuccess.bind(this, i18n('admin.workspace.export.started')))
+                    .then(function() {
+                        self.trigger('showActivityDisplay');
+                    })
+                    .catch(this.showError.bind(this, i18n('admin.workspace.export.error')))
+            );
         };
 
     }
@@ -0,0 +1,42 @@
+define([
+    'flight/lib/component',
+    'util/messages',
+    'util/withDataRequest'
+], function(
+    defineComponent,
+    i18n,
+    withDataRequest) {
+    'use strict';
+
+    return defineComponent(ImportFinished, withDataRequest);
+
+    function ImportFinished() {
+
+        this.after('initialize', function() {
+            var self = this,
+                process = this.attr.process;
+
+            if (process.error && process.results && process.results.archiveName) {
+                this.$node.html(
+                    $('<button>')
+                        .addClass('btn btn-mini')
+                        .text(i18n('admin.workspace.import.retry'))
+                        .on('click', function() {
+                            var button = $(this).attr('disabled', true);
+                            self.dataRequest('admin', 'workspaceImportRetry', process.results.archiveName)
+                                .then(function() {
+                                    button.remove();
+                                })
+                                .catch(function() {
+                                    button.removeAttr('disabled').text(i18n('admin.workspace.import.retry.error'));
+                                });
+                        })
+                );
+            }
+        });
+
+        this.after('teardown', function() {
+            this.$node.empty();
+        });
+    }
+});
@@ -1,12 +1,14 @@
 
 require([
     'configuration/admin/plugin',
+    'configuration/plugins/activity/plugin',
     'hbs!io/lumify/web/importExportWorkspaces/import',
     'configuration/admin/utils/fileUpload',
     'util/messages',
     'util/withDataRequest'
 ], function(
     defineLumifyAdminPlugin,
+    ActivityHandlers,
     template,
     FileUpload,
     i18n,
@@ -14,6 +16,15 @@ require([
 ) {
     'use strict';
 
+    ActivityHandlers.registerActivityHandler({
+        type: 'importWorkspace',
+        kind: 'longRunningProcess',
+        titleRenderer: function(el, process) {
+            el.textContent = i18n('admin.workspace.import.activity.title');
+        },
+        finishedComponentPath: 'io/lumify/web/importExportWorkspaces/import-finished'
+    });
+
     defineLumifyAdminPlugin(WorkspaceImport, {
         mixins: [withDataRequest],
         section: i18n('admin.workspace.section'),
@@ -44,9 +55,10 @@ require([
 
             this.handleSubmitButton(importButton,
                 this.dataRequest('admin', 'workspaceImport', this.workspaceFile)
-                    .then(this.showSuccess.bind(this, i18n('admin.workspace.import.success')))
+                    .then(this.showSuccess.bind(this, i18n('admin.workspace.import.started')))
                     .then(function() {
                         self.trigger(self.select('uploadSelector'), 'reset');
+                        self.trigger('showActivityDisplay');
                     })
                     .catch(this.showError.bind(this, i18n('admin.workspace.import.error')))
             );
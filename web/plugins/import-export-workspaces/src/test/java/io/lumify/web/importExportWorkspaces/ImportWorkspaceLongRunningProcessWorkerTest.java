@@ -0,0 +1,228 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.longRunningProcess.LongRunningProcessRepository;
+import io.lumify.core.model.user.AuthorizationRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceEntity;
+import io.lumify.core.user.User;
+import io.lumify.securegraph.model.user.SecureGraphUserRepository;
+import io.lumify.securegraph.model.workspace.SecureGraphWorkspaceRepository;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+import org.securegraph.property.StreamingPropertyValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.securegraph.util.IterableUtils.count;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImportWorkspaceLongRunningProcessWorkerTest {
+    private static final String WORKSPACE_ID = "WORKSPACE_1";
+    private static final String USER_ID = "user1";
+    private static final String ARCHIVE_NAME = WORKSPACE_ID + "-1" + WorkspaceArchive.EXTENSION;
+    private static final String ENTITY_LABEL = "http://lumify.io/test#knows";
+    private static final String WORKSPACE_TO_ENTITY_LABEL = "http://lumify.io/workspace/toEntity";
+    private static final String TEXT = "the quick brown fox";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private SecureGraphUserRepository userRepository;
+
+    @Mock
+    private SecureGraphWorkspaceRepository exportWorkspaceRepository;
+
+    @Mock
+    private SecureGraphWorkspaceRepository importWorkspaceRepository;
+
+    @Mock
+    private AuthorizationRepository authorizationRepository;
+
+    @Mock
+    private LongRunningProcessRepository longRunningProcessRepository;
+
+    @Mock
+    private Workspace workspace;
+
+    @Mock
+    private User user;
+
+    private Configuration configuration;
+    private Authorizations authorizations;
+    private InMemoryGraph exportGraph;
+    private InMemoryGraph importGraph;
+    private ImportWorkspaceLongRunningProcessWorker importWorker;
+
+    @Before
+    public void setUp() throws Exception {
+        Map config = new HashMap();
+        config.put(WorkspaceArchive.CONFIG_ARCHIVE_DIRECTORY, temporaryFolder.getRoot().getAbsolutePath());
+        config.put(WorkspaceArchive.CONFIG_CHUNK_SIZE, "1");
+        config.put(WorkspaceArchive.CONFIG_THREAD_COUNT, "2");
+        configuration = new HashMapConfigurationLoader(config).createConfiguration();
+        authorizations = new InMemoryAuthorizations();
+
+        exportGraph = InMemoryGraph.create();
+        Vertex workspaceVertex = exportGraph.prepareVertex(WORKSPACE_ID, new Visibility(""))
+                .addPropertyValue("", "title", "Workspace 1", new Visibility(""))
+                .save(authorizations);
+        StreamingPropertyValue text = new StreamingPropertyValue(new ByteArrayInputStream(TEXT.getBytes("UTF-8")), String.class);
+        Vertex v1 = exportGraph.prepareVertex("v1", new Visibility(""))
+                .addPropertyValue("k1", "title", "Joe", new Visibility(""))
+                .addPropertyValue("k1", "text", text, new Visibility(""))
+                .save(authorizations);
+        Vertex v2 = exportGraph.addVertex("v2", new Visibility(""), authorizations);
+        exportGraph.prepareEdge("e1", v1, v2, ENTITY_LABEL, new Visibility(""))
+                .addPropertyValue("", "weight", 5, new Visibility(""))
+                .save(authorizations);
+        exportGraph.addEdge("ws-v1", workspaceVertex, v1, WORKSPACE_TO_ENTITY_LABEL, new Visibility(""), authorizations);
+        exportGraph.addEdge("ws-v2", workspaceVertex, v2, WORKSPACE_TO_ENTITY_LABEL, new Visibility(""), authorizations);
+        exportGraph.flush();
+        importGraph = InMemoryGraph.create();
+
+        when(user.getUserId()).thenReturn(USER_ID);
+        when(workspace.getWorkspaceId()).thenReturn(WORKSPACE_ID);
+        when(workspace.getDisplayTitle()).thenReturn("Workspace 1");
+        when(userRepository.findById(USER_ID)).thenReturn(user);
+        when(userRepository.getAuthorizations(eq(user), Matchers.<String>anyVararg())).thenReturn(authorizations);
+        when(authorizationRepository.createAuthorizations(any(String[].class))).thenReturn(authorizations);
+        when(exportWorkspaceRepository.findById(WORKSPACE_ID, user)).thenReturn(workspace);
+        when(exportWorkspaceRepository.findEntities(workspace, user)).thenReturn(Arrays.asList(
+                new WorkspaceEntity("v1", true, 0, 0, null),
+                new WorkspaceEntity("v2", true, 10, 10, null)
+        ));
+        when(exportWorkspaceRepository.getVertex(WORKSPACE_ID, user)).thenReturn(workspaceVertex);
+        when(importWorkspaceRepository.getVertex(WORKSPACE_ID, user)).thenAnswer(new Answer<Vertex>() {
+            @Override
+            public Vertex answer(InvocationOnMock invocation) throws Throwable {
+                return importGraph.getVertex(WORKSPACE_ID, authorizations);
+            }
+        });
+
+        importWorker = new ImportWorkspaceLongRunningProcessWorker();
+        importWorker.setGraph(importGraph);
+        importWorker.setConfiguration(configuration);
+        importWorker.setUserRepository(userRepository);
+        importWorker.setWorkspaceRepository(importWorkspaceRepository);
+        importWorker.setLongRunningProcessRepository(longRunningProcessRepository);
+    }
+
+    @Test
+    public void testExportThenImport() throws Exception {
+        export();
+
+        JSONObject importItem = createImportQueueItem(ARCHIVE_NAME);
+        importWorker.process(importItem);
+
+        assertEquals(WORKSPACE_ID, importItem.getJSONObject("results").getString("workspaceId"));
+        assertEquals(ARCHIVE_NAME, importItem.getJSONObject("results").getString("archiveName"));
+        assertFalse(WorkspaceArchive.getProgressFile(getArchiveFile()).exists());
+        assertEquals(3, count(importGraph.getVertices(authorizations)));
+        assertEquals(3, count(importGraph.getEdges(authorizations)));
+
+        Vertex v1 = importGraph.getVertex("v1", authorizations);
+        assertEquals("Joe", v1.getPropertyValue("k1", "title"));
+        StreamingPropertyValue text = (StreamingPropertyValue) v1.getPropertyValue("k1", "text");
+        InputStream in = text.getInputStream();
+        try {
+            assertEquals(TEXT, IOUtils.toString(in, "UTF-8"));
+        } finally {
+            in.close();
+        }
+
+        Edge e1 = importGraph.getEdge("e1", authorizations);
+        assertEquals(ENTITY_LABEL, e1.getLabel());
+        assertEquals("v1", e1.getVertexId(Direction.OUT));
+        assertEquals("v2", e1.getVertexId(Direction.IN));
+        assertEquals(5, e1.getPropertyValue("", "weight"));
+        verify(importWorkspaceRepository).addWorkspaceToUser(any(Vertex.class), any(Vertex.class), eq(authorizations));
+    }
+
+    @Test
+    public void testResumeSkipsCompletedChunks() throws Exception {
+        export();
+        String skippedChunkName = WorkspaceArchive.getChunkEntryName(WorkspaceArchive.CHUNK_TYPE_VERTICES, 0);
+        File progressFile = WorkspaceArchive.getProgressFile(getArchiveFile());
+        FileOutputStream out = new FileOutputStream(progressFile);
+        try {
+            out.write((skippedChunkName + "\n").getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        importWorker.process(createImportQueueItem(ARCHIVE_NAME));
+
+        assertNull(importGraph.getVertex("v1", authorizations));
+        assertNotNull(importGraph.getVertex("v2", authorizations));
+        assertNotNull(importGraph.getVertex(WORKSPACE_ID, authorizations));
+        assertNull(importGraph.getEdge("e1", authorizations));
+        assertNotNull(importGraph.getEdge("ws-v2", authorizations));
+        assertFalse(progressFile.exists());
+        verify(longRunningProcessRepository, never()).reportProgress(any(JSONObject.class), anyDouble(), eq("Imported 1 of 5 elements"));
+        verify(longRunningProcessRepository).reportProgress(any(JSONObject.class), eq(1.0), eq("Imported 5 of 5 elements"));
+    }
+
+    @Test
+    public void testFailedImportKeepsArchiveNameInResults() {
+        String archiveName = "missing" + WorkspaceArchive.EXTENSION;
+        JSONObject importItem = createImportQueueItem(archiveName);
+        try {
+            importWorker.process(importItem);
+            fail("expected the missing archive to fail the import");
+        } catch (LumifyException ex) {
+            // expected
+        }
+        assertEquals(archiveName, importItem.getJSONObject("results").getString("archiveName"));
+    }
+
+    private void export() {
+        ExportWorkspaceLongRunningProcessWorker exportWorker = new ExportWorkspaceLongRunningProcessWorker();
+        exportWorker.setGraph(exportGraph);
+        exportWorker.setConfiguration(configuration);
+        exportWorker.setUserRepository(userRepository);
+        exportWorker.setWorkspaceRepository(exportWorkspaceRepository);
+        exportWorker.setAuthorizationRepository(authorizationRepository);
+        exportWorker.setLongRunningProcessRepository(longRunningProcessRepository);
+
+        JSONObject exportItem = new ExportWorkspaceLongRunningProcessQueueItem(WORKSPACE_ID, ARCHIVE_NAME, authorizations).toJson();
+        exportItem.put("userId", USER_ID);
+        exportWorker.process(exportItem);
+        assertEquals(2, exportItem.getJSONObject("results").getInt("vertexCount"));
+        assertEquals(3, exportItem.getJSONObject("results").getInt("edgeCount"));
+        assertTrue(getArchiveFile().exists());
+    }
+
+    private File getArchiveFile() {
+        return WorkspaceArchive.getArchiveFile(configuration, ARCHIVE_NAME);
+    }
+
+    private static JSONObject createImportQueueItem(String archiveName) {
+        JSONObject importItem = new ImportWorkspaceLongRunningProcessQueueItem(archiveName).toJson();
+        importItem.put("userId", USER_ID);
+        return importItem;
+    }
+}
@@ -0,0 +1,57 @@
+package io.lumify.web.importExportWorkspaces;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.exception.LumifyException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class WorkspaceArchiveTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(expected = LumifyException.class)
+    public void testArchiveDirectoryIsRequired() {
+        WorkspaceArchive.getArchiveDirectory(new HashMapConfigurationLoader(new HashMap()).createConfiguration());
+    }
+
+    @Test
+    public void testDeleteExpiredArchives() throws Exception {
+        Map config = new HashMap();
+        config.put(WorkspaceArchive.CONFIG_ARCHIVE_DIRECTORY, temporaryFolder.getRoot().getAbsolutePath());
+        config.put(WorkspaceArchive.CONFIG_ARCHIVE_EXPIRATION_HOURS, "1");
+        Configuration configuration = new HashMapConfigurationLoader(config).createConfiguration();
+        long expired = System.currentTimeMillis() - 2 * 60 * 60 * 1000;
+
+        File expiredArchive = createFile("expired" + WorkspaceArchive.EXTENSION, expired);
+        File expiredProgress = createFile(expiredArchive.getName() + WorkspaceArchive.PROGRESS_FILE_SUFFIX, expired);
+        File resumedArchive = createFile("resumed" + WorkspaceArchive.EXTENSION, expired);
+        File resumedProgress = createFile(resumedArchive.getName() + WorkspaceArchive.PROGRESS_FILE_SUFFIX, System.currentTimeMillis());
+        File freshArchive = createFile("fresh" + WorkspaceArchive.EXTENSION, System.currentTimeMillis());
+        File expiredPart = createFile("failed" + WorkspaceArchive.EXTENSION + WorkspaceArchive.PART_FILE_SUFFIX, expired);
+        File freshPart = createFile("running" + WorkspaceArchive.EXTENSION + WorkspaceArchive.PART_FILE_SUFFIX, System.currentTimeMillis());
+
+        WorkspaceArchive.deleteExpiredArchives(configuration);
+
+        assertFalse(expiredArchive.exists());
+        assertFalse(expiredProgress.exists());
+        assertTrue(resumedArchive.exists());
+        assertTrue(resumedProgress.exists());
+        assertTrue(freshArchive.exists());
+        assertFalse(expiredPart.exists());
+        assertTrue(freshPart.exists());
+    }
+
+    private File createFile(String name, long lastModified) throws Exception {
+        File file = temporaryFolder.newFile(name);
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+}
@@ -95,6 +95,11 @@ define(['require'], function(require) {
                     }
                 });
             },
+            propertiesChange: function(data) {
+                data.elements.forEach(function(element) {
+                    socketHandlers.propertyChange(element);
+                });
+            },
             verticesDeleted: function(data) {
                 require(['../util/store'], function(store) {
                     var storeObjects = _.compact(
@@ -90,7 +90,19 @@ define([
         workspaceImport: function(workspaceFile) {
             var formData = new FormData();
             formData.append('workspace', workspaceFile);
-            return ajax('POST->HTML', '/admin/workspace/import', formData);
+            return ajax('POST', '/admin/workspace/import', formData);
+        },
+
+        workspaceImportRetry: function(archiveName) {
+            return ajax('POST', '/admin/workspace/import', {
+                archiveName: archiveName
+            });
+        },
+
+        workspaceExport: function(workspaceId) {
+            return ajax('POST', '/admin/workspace/export', {
+                workspaceId: workspaceId
+            });
         },
 
         queueVertices: function(propertyName) {
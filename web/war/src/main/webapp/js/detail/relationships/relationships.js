@@ -164,10 +164,12 @@ define([
                 MAX_RELATIONS_TO_DISPLAY = parseInt(config['vertex.relationships.maxPerSection'], 10);
 
                 var hasEntityLabel = config['ontology.intent.relationship.artifactHasEntity'],
+                    edgeLabelCounts = self.attr.data.edgeLabelCounts || {},
                     relations = _.map(self.attr.data.edgeLabels, function(label) {
                         var relation = {
                                 label: label,
-                                displayName: label
+                                displayName: label,
+                                count: edgeLabelCounts[label]
                             },
                             ontologyRelationship = relationships.byTitle[label];
 
@@ -210,7 +212,12 @@ define([
                                 return a.displayName.toLowerCase().localeCompare(b.displayName.toLowerCase());
                             })
                             .attr('data-label', _.property('label'))
-                            .select('h1 strong').text(_.property('displayName'));
+                            .call(function() {
+                                this.select('h1 strong').text(_.property('displayName'));
+                                this.select('h1 .badge').text(function(d) {
+                                    return _.isNumber(d.count) ? F.number.prettyApproximate(d.count) : '';
+                                });
+                            });
                     })
                     .exit().remove();
             });
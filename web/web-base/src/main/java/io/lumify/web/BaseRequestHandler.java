@@ -1,5 +1,6 @@
 package io.lumify.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
@@ -28,7 +29,9 @@ import java.io.*;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 
@@ -161,6 +164,34 @@ public abstract class BaseRequestHandler extends MinimalRequestHandler {
         return false;
     }
 
+    public static void addLastModifiedHeader(final HttpServletResponse response, Date lastModified) {
+        response.setDateHeader("Last-Modified", lastModified.getTime());
+    }
+
+    /**
+     * If-None-Match takes precedence, so If-Modified-Since is only tested when the request doesn't have one.
+     */
+    public boolean testLastModifiedHeaders(HttpServletRequest request, HttpServletResponse response, Date lastModified) throws IOException {
+        if (lastModified == null || request.getHeader("If-None-Match") != null) {
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        // HTTP dates only have second precision
+        if (ifModifiedSince != -1 && lastModified.getTime() / 1000 <= ifModifiedSince / 1000) {
+            addLastModifiedHeader(response, lastModified);
+            respondWithNotModified(response);
+            return true;
+        }
+
+        return false;
+    }
+
     protected void respondWithNotFound(final HttpServletResponse response) throws IOException {
         response.sendError(HttpServletResponse.SC_NOT_FOUND);
     }
@@ -243,6 +274,35 @@ public abstract class BaseRequestHandler extends MinimalRequestHandler {
         }
     }
 
+    /**
+     * Writes a JSON object of the fields followed by an array of the items, writing each item as the iteration reaches
+     * it. Items read lazily, such as a graph scan, then never have to be in memory at once.
+     *
+     * @param fields        fields written before the array, in the map's order
+     * @param arrayName     the name of the array field
+     * @param items         the objects of the array, written with the same mapper as {@link #respondWithClientApiObject}
+     */
+    protected void respondWithStreamedClientApiObjects(HttpServletResponse response, Map<String, Object> fields, String arrayName, Iterable<?> items) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(response.getWriter());
+        jsonGenerator.writeStartObject();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            jsonGenerator.writeObjectField(field.getKey(), field.getValue());
+        }
+        jsonGenerator.writeArrayFieldStart(arrayName);
+        for (Object item : items) {
+            jsonGenerator.writeObject(item);
+        }
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeEndObject();
+        jsonGenerator.flush();
+
+        if (response.getWriter().checkError()) {
+            throw new ConnectionClosedException();
+        }
+    }
+
     /**
      * Configures the content type for the provided response to contain {@link JSONArray} data
      *
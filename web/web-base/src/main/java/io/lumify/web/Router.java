@@ -90,8 +90,10 @@ public class Router extends HttpServlet {
             app.get("/vertex/property/source-info", authenticator, csrfProtector, ReadPrivilegeFilter.class, VertexPropertySourceInfo.class);
             app.post("/vertex/import", authenticator, csrfProtector, EditPrivilegeFilter.class, VertexImport.class);
             app.post("/vertex/resolve-term", authenticator, csrfProtector, EditPrivilegeFilter.class, ResolveTermEntity.class);
+            app.post("/vertex/resolve-terms", authenticator, csrfProtector, EditPrivilegeFilter.class, ResolveTermEntities.class);
             app.post("/vertex/unresolve-term", authenticator, csrfProtector, EditPrivilegeFilter.class, UnresolveTermEntity.class);
             app.post("/vertex/resolve-detected-object", authenticator, csrfProtector, EditPrivilegeFilter.class, ResolveDetectedObject.class);
+            app.post("/vertex/resolve-detected-objects", authenticator, csrfProtector, EditPrivilegeFilter.class, ResolveDetectedObjects.class);
             app.post("/vertex/unresolve-detected-object", authenticator, csrfProtector, EditPrivilegeFilter.class, UnresolveDetectedObject.class);
             app.get("/vertex/detected-objects", authenticator, csrfProtector, ReadPrivilegeFilter.class, VertexGetDetectedObjects.class);
             app.get("/vertex/property", authenticator, csrfProtector, ReadPrivilegeFilter.class, VertexGetPropertyValue.class);
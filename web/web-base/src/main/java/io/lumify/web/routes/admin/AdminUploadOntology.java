@@ -10,6 +10,7 @@ import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
+import io.lumify.web.routes.ontology.OntologyPayloadCache;
 import org.apache.commons.io.IOUtils;
 import org.json.JSONObject;
 import org.securegraph.Authorizations;
@@ -31,15 +32,18 @@ import static org.securegraph.util.IterableUtils.toList;
 public class AdminUploadOntology extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(AdminUploadOntology.class);
     private final OntologyRepository ontologyRepository;
+    private final OntologyPayloadCache ontologyPayloadCache;
 
     @Inject
     public AdminUploadOntology(
             final OntologyRepository ontologyRepository,
+            final OntologyPayloadCache ontologyPayloadCache,
             final UserRepository userRepository,
             final WorkspaceRepository workspaceRepository,
             final Configuration configuration) {
         super(userRepository, workspaceRepository, configuration);
         this.ontologyRepository = ontologyRepository;
+        this.ontologyPayloadCache = ontologyPayloadCache;
     }
 
     @Override
@@ -66,6 +70,7 @@ public class AdminUploadOntology extends BaseRequestHandler {
         LOGGER.info("adding ontology: %s", documentIRI.toString());
         ontologyRepository.writePackage(tempFile, documentIRI, authorizations);
         ontologyRepository.clearCache();
+        ontologyPayloadCache.rebuild();
 
         tempFile.delete();
 
@@ -28,6 +28,7 @@ public class EdgeCreate extends BaseRequestHandler {
     private final VisibilityTranslator visibilityTranslator;
     private final WorkQueueRepository workQueueRepository;
     private final TermMentionRepository termMentionRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public EdgeCreate(
@@ -39,7 +40,8 @@ public class EdgeCreate extends BaseRequestHandler {
             final WorkQueueRepository workQueueRepository,
             final UserRepository userRepository,
             final Configuration configuration,
-            final TermMentionRepository termMentionRepository
+            final TermMentionRepository termMentionRepository,
+            final EdgeLabelSummary edgeLabelSummary
     ) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
@@ -47,6 +49,7 @@ public class EdgeCreate extends BaseRequestHandler {
         this.visibilityTranslator = visibilityTranslator;
         this.workQueueRepository = workQueueRepository;
         this.termMentionRepository = termMentionRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
     }
 
     @Override
@@ -83,6 +86,7 @@ public class EdgeCreate extends BaseRequestHandler {
                 workspaceId,
                 visibilityTranslator,
                 termMentionRepository,
+                edgeLabelSummary,
                 user,
                 authorizations
         );
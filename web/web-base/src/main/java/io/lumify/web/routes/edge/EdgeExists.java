@@ -36,9 +36,9 @@ public class EdgeExists extends BaseRequestHandler {
         User user = getUser(request);
         Authorizations authorizations = getAuthorizations(request, user);
 
-        Map<String, Boolean> graphEdiges = graph.doEdgesExist(edgeIds, authorizations);
+        Map<String, Boolean> edgesExist = graph.doEdgesExist(edgeIds, authorizations);
         ClientApiEdgesExistsResponse result = new ClientApiEdgesExistsResponse();
-        result.getExists().putAll(graphEdiges);
+        result.getExists().putAll(edgesExist);
 
         respondWithClientApiObject(response, result);
     }
@@ -1,5 +1,7 @@
 package io.lumify.web.routes.edge;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
 import io.lumify.core.exception.LumifyAccessDeniedException;
@@ -8,21 +10,23 @@ import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
 import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.ElementProjection;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
-import io.lumify.web.clientapi.model.ClientApiEdgeMultipleResponse;
 import io.lumify.web.clientapi.model.ClientApiEdgeWithVertexData;
-import io.lumify.web.clientapi.model.ClientApiVertexMultipleResponse;
 import org.securegraph.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.Arrays;
-import java.util.HashSet;
-
-import static org.securegraph.util.IterableUtils.toIterable;
+import java.util.*;
 
+/**
+ * Returns the edges, with the vertices at their ends, as a {@link io.lumify.web.clientapi.model.ClientApiEdgeMultipleResponse},
+ * reading and writing them a batch at a time. Takes the same {@code propertyNames[]} and {@code existenceOnly}
+ * projection as {@link io.lumify.web.routes.vertex.VertexMultiple}, applied to the edges and their vertices.
+ */
 public class EdgeMultiple extends BaseRequestHandler {
+    private static final int CONVERT_BATCH_SIZE = 100;
     private final Graph graph;
 
     @Inject
@@ -38,21 +42,45 @@ public class EdgeMultiple extends BaseRequestHandler {
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
         HashSet<String> edgeStringIds = new HashSet<String>(Arrays.asList(getRequiredParameterArray(request, "edgeIds[]")));
+        ElementProjection projection = ElementProjection.create(
+                getOptionalParameterBoolean(request, "existenceOnly", false),
+                getOptionalParameterArray(request, "propertyNames[]"));
 
         User user = getUser(request);
         GetAuthorizationsResult getAuthorizationsResult = getAuthorizations(request, false, user);
         String workspaceId = getWorkspaceId(request);
 
-        Iterable<String> edgeIds = toIterable(edgeStringIds.toArray(new String[edgeStringIds.size()]));
-        Iterable<Edge> graphEdges = graph.getEdges(edgeIds, FetchHint.ALL, getAuthorizationsResult.authorizations);
-        ClientApiEdgeMultipleResponse result = new ClientApiEdgeMultipleResponse();
-        for (Edge e : graphEdges) {
-            Vertex source = e.getVertex(Direction.OUT, getAuthorizationsResult.authorizations);
-            Vertex dest = e.getVertex(Direction.IN, getAuthorizationsResult.authorizations);
-            result.getEdges().add((ClientApiEdgeWithVertexData) ClientApiConverter.toClientApiEdgeWithVertexData(e, source, dest, workspaceId, getAuthorizationsResult.authorizations));
-        }
+        Iterable<Edge> graphEdges = projection.getEdges(graph, edgeStringIds, getAuthorizationsResult.authorizations);
+        Map<String, Object> fields = new LinkedHashMap<String, Object>();
+        respondWithStreamedClientApiObjects(response, fields, "edges", toClientApiEdges(graphEdges, projection, workspaceId, getAuthorizationsResult.authorizations));
+    }
 
-        respondWithClientApiObject(response, result);
+    /**
+     * Converts the edges a batch at a time, reading the vertices at the ends of each batch of edges together.
+     */
+    private Iterable<ClientApiEdgeWithVertexData> toClientApiEdges(Iterable<Edge> edges, final ElementProjection projection, final String workspaceId, final Authorizations authorizations) {
+        return Iterables.concat(Iterables.transform(Iterables.partition(edges, CONVERT_BATCH_SIZE), new Function<List<Edge>, Iterable<ClientApiEdgeWithVertexData>>() {
+            @Override
+            public Iterable<ClientApiEdgeWithVertexData> apply(List<Edge> batchEdges) {
+                Set<String> vertexIds = new HashSet<String>();
+                for (Edge edge : batchEdges) {
+                    vertexIds.add(edge.getVertexId(Direction.OUT));
+                    vertexIds.add(edge.getVertexId(Direction.IN));
+                }
+                Map<String, Vertex> vertices = new HashMap<String, Vertex>();
+                for (Vertex vertex : projection.getVertices(graph, vertexIds, authorizations)) {
+                    vertices.put(vertex.getId(), vertex);
+                }
+
+                List<ClientApiEdgeWithVertexData> clientApiEdges = new ArrayList<ClientApiEdgeWithVertexData>();
+                for (Edge edge : batchEdges) {
+                    Vertex source = vertices.get(edge.getVertexId(Direction.OUT));
+                    Vertex dest = vertices.get(edge.getVertexId(Direction.IN));
+                    clientApiEdges.add(ClientApiConverter.toClientApiEdgeWithVertexData(edge, source, dest, workspaceId, projection, authorizations));
+                }
+                return clientApiEdges;
+            }
+        }));
     }
 
     private GetAuthorizationsResult getAuthorizations(HttpServletRequest request, boolean fallbackToPublic, User user) {
@@ -11,6 +11,7 @@ import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
 import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
@@ -27,6 +28,7 @@ public class EdgeSetVisibility extends BaseRequestHandler {
     private final VisibilityTranslator visibilityTranslator;
     private final WorkQueueRepository workQueueRepository;
     private final AuditRepository auditRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public EdgeSetVisibility(
@@ -36,12 +38,14 @@ public class EdgeSetVisibility extends BaseRequestHandler {
             final VisibilityTranslator visibilityTranslator,
             final WorkspaceRepository workspaceRepository,
             final WorkQueueRepository workQueueRepository,
-            final AuditRepository auditRepository) {
+            final AuditRepository auditRepository,
+            final EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
         this.visibilityTranslator = visibilityTranslator;
         this.workQueueRepository = workQueueRepository;
         this.auditRepository = auditRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
     }
 
     @Override
@@ -68,7 +72,9 @@ public class EdgeSetVisibility extends BaseRequestHandler {
 
         LOGGER.info("changing edge (%s) visibility source to %s", graphEdge.getId(), visibilitySource);
 
+        Visibility originalEdgeVisibility = graphEdge.getVisibility();
         GraphUtil.VisibilityAndElementMutation<Edge> setPropertyResult = GraphUtil.updateElementVisibilitySource(visibilityTranslator, graphEdge, GraphUtil.getSandboxStatus(graphEdge, workspaceId), visibilitySource, workspaceId, authorizations);
+        edgeLabelSummary.edgeVisibilityChanged(graphEdge, originalEdgeVisibility, setPropertyResult.visibility.getVisibility(), authorizations);
         auditRepository.auditEdgeElementMutation(AuditAction.UPDATE, setPropertyResult.elementMutation, graphEdge,
                 graphEdge.getVertex(Direction.OUT, authorizations), graphEdge.getVertex(Direction.IN, authorizations), "", user, setPropertyResult.visibility.getVisibility());
 
@@ -2,41 +2,78 @@ package io.lumify.web.routes.ontology;
 
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
-import io.lumify.core.model.ontology.OntologyRepository;
 import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
-import io.lumify.web.clientapi.model.ClientApiOntology;
-import io.lumify.web.clientapi.model.util.ObjectMapperFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Enumeration;
 
 public class Ontology extends BaseRequestHandler {
-    private final OntologyRepository ontologyRepository;
+    private final OntologyPayloadCache ontologyPayloadCache;
 
     @Inject
     public Ontology(
-            final OntologyRepository ontologyRepository,
+            final OntologyPayloadCache ontologyPayloadCache,
             final UserRepository userRepository,
             final WorkspaceRepository workspaceRepository,
             final Configuration configuration) {
         super(userRepository, workspaceRepository, configuration);
-        this.ontologyRepository = ontologyRepository;
+        this.ontologyPayloadCache = ontologyPayloadCache;
     }
 
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
-        ClientApiOntology result = ontologyRepository.getClientApiObject();
-
-        String json = ObjectMapperFactory.getInstance().writeValueAsString(result);
-        String eTag = generateETag(json.getBytes());
-        if (testEtagHeaders(request, response, eTag)) {
+        OntologyPayloadCache.Payload payload = ontologyPayloadCache.getPayload();
+        response.setHeader("Vary", "Accept-Encoding");
+        if (testEtagHeaders(request, response, payload.getETag())) {
             return;
         }
 
-        addETagHeader(response, eTag);
-        respondWithClientApiObject(response, result);
+        addETagHeader(response, payload.getETag());
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        byte[] body;
+        if (acceptsGzip(request.getHeaders("Accept-Encoding"))) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = payload.getGzippedJson();
+        } else {
+            body = payload.getJson();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static boolean acceptsGzip(Enumeration<String> acceptEncodingHeaders) {
+        if (acceptEncodingHeaders == null) {
+            return false;
+        }
+        while (acceptEncodingHeaders.hasMoreElements()) {
+            for (String coding : acceptEncodingHeaders.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("x-gzip")) {
+                    continue;
+                }
+                return !isZeroQuality(parts);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String param = codingParts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) == 0;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,106 @@
+package io.lumify.web.routes.ontology;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.lumify.core.exception.LumifyException;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.web.BaseRequestHandler;
+import io.lumify.web.clientapi.model.ClientApiOntology;
+import io.lumify.web.clientapi.model.util.ObjectMapperFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the ontology route's response serialized once per version of the ontology, both as is and gzipped, along
+ * with its ETag.
+ * <p/>
+ * The payload is keyed on {@link OntologyRepository#getVersion()}, which the repository changes whenever its ontology
+ * may have changed, so the payload is rebuilt whenever the repository's cache is cleared or expires. The ETag is the MD5 of the serialized ontology, so every web server with the same ontology
+ * gives the same ETag.
+ */
+@Singleton
+public class OntologyPayloadCache {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(OntologyPayloadCache.class);
+    private final OntologyRepository ontologyRepository;
+    private volatile Payload payload;
+
+    @Inject
+    public OntologyPayloadCache(OntologyRepository ontologyRepository) {
+        this.ontologyRepository = ontologyRepository;
+    }
+
+    public Payload getPayload() {
+        // read the version before the ontology so a change made while building is seen on the next call
+        long version = ontologyRepository.getVersion();
+        Payload p = payload;
+        if (p != null && p.version == version) {
+            return p;
+        }
+        synchronized (this) {
+            p = payload;
+            if (p != null && p.version == version) {
+                return p;
+            }
+            p = new Payload(version, ontologyRepository.getClientApiObject());
+            payload = p;
+            return p;
+        }
+    }
+
+    /**
+     * Builds the payload for the current ontology now, rather than on the next request, after the ontology is changed.
+     */
+    public Payload rebuild() {
+        synchronized (this) {
+            payload = null;
+        }
+        return getPayload();
+    }
+
+    public static class Payload {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private final String eTag;
+
+        Payload(long version, ClientApiOntology ontology) {
+            long startTime = System.currentTimeMillis();
+            this.version = version;
+            try {
+                this.json = ObjectMapperFactory.getInstance().writeValueAsBytes(ontology);
+                this.gzippedJson = gzip(json);
+            } catch (IOException ex) {
+                throw new LumifyException("Could not serialize ontology", ex);
+            }
+            this.eTag = BaseRequestHandler.generateETag(json);
+            LOGGER.info("built ontology payload %s: %d bytes, %d gzipped (%dms)", eTag, json.length, gzippedJson.length, System.currentTimeMillis() - startTime);
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(data.length / 4);
+            GZIPOutputStream out = new GZIPOutputStream(result);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+            return result.toByteArray();
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.lumify.web.routes.vertex;
+
+import io.lumify.core.util.SeekableStreamingPropertyValue;
+import org.securegraph.property.StreamingPropertyValue;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a streaming property value for a request that may have a Range header. Each range is read straight from
+ * its offset, and a request for several ranges gets a multipart/byteranges response.
+ */
+class ByteRangeResponse {
+    static final int MAX_RANGES = 20;
+    private static final String BYTES_UNIT = "bytes=";
+    private static final Pattern RANGE_PATTERN = Pattern.compile("([0-9]*)-([0-9]*)");
+    private static final byte[] CRLF = "\r\n".getBytes();
+
+    static void write(String range, HttpServletResponse response, StreamingPropertyValue value, String contentType) throws IOException {
+        try (SeekableStreamingPropertyValue seekableValue = new SeekableStreamingPropertyValue(value)) {
+            long totalLength = seekableValue.getLength();
+            List<ByteRange> ranges = parse(range, totalLength);
+            OutputStream out;
+            if (ranges == null) {
+                response.addHeader("Content-Length", "" + totalLength);
+                out = response.getOutputStream();
+                seekableValue.copyRange(0, totalLength, out);
+            } else if (ranges.size() == 0) {
+                response.addHeader("Content-Range", "bytes */" + totalLength);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            } else if (ranges.size() == 1) {
+                ByteRange byteRange = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.addHeader("Content-Range", byteRange.toContentRange(totalLength));
+                response.addHeader("Content-Length", "" + byteRange.getLength());
+                out = response.getOutputStream();
+                seekableValue.copyRange(byteRange.getStart(), byteRange.getLength(), out);
+            } else {
+                String boundary = UUID.randomUUID().toString();
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType("multipart/byteranges; boundary=" + boundary);
+                out = response.getOutputStream();
+                for (ByteRange byteRange : ranges) {
+                    out.write(CRLF);
+                    writeLine(out, "--" + boundary);
+                    if (contentType != null) {
+                        writeLine(out, "Content-Type: " + contentType);
+                    }
+                    writeLine(out, "Content-Range: " + byteRange.toContentRange(totalLength));
+                    out.write(CRLF);
+                    seekableValue.copyRange(byteRange.getStart(), byteRange.getLength(), out);
+                }
+                out.write(CRLF);
+                writeLine(out, "--" + boundary + "--");
+            }
+        }
+        response.flushBuffer();
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes());
+        out.write(CRLF);
+    }
+
+    /**
+     * @return null if there isn't a valid Range header and the whole value should be sent, an empty list if none of
+     * the ranges can be satisfied.
+     */
+    static List<ByteRange> parse(String range, long totalLength) {
+        if (range == null || !range.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+
+        String[] specs = range.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+        try {
+            for (String spec : specs) {
+                Matcher m = RANGE_PATTERN.matcher(spec.trim());
+                if (!m.matches()) {
+                    return null;
+                }
+                long start;
+                long end;
+                if (m.group(1).length() == 0) {
+                    if (m.group(2).length() == 0) {
+                        return null;
+                    }
+                    long suffixLength = Long.parseLong(m.group(2));
+                    if (suffixLength == 0 || totalLength == 0) {
+                        continue;
+                    }
+                    start = Math.max(0, totalLength - suffixLength);
+                    end = totalLength - 1;
+                } else {
+                    start = Long.parseLong(m.group(1));
+                    end = m.group(2).length() == 0 ? totalLength - 1 : Long.parseLong(m.group(2));
+                    if (end < start) {
+                        return null;
+                    }
+                    if (start >= totalLength) {
+                        continue;
+                    }
+                    // Ensure that the last byte position is less than the instance-length
+                    end = Math.min(end, totalLength - 1);
+                }
+                ranges.add(new ByteRange(start, end));
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return ranges;
+    }
+
+    static class ByteRange {
+        private final long start;
+        private final long end;
+
+        ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getLength() {
+            return end - start + 1;
+        }
+
+        public String toContentRange(long totalLength) {
+            return "bytes " + start + "-" + end + "/" + totalLength;
+        }
+    }
+}
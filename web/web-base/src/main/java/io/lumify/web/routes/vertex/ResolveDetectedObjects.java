@@ -0,0 +1,82 @@
+package io.lumify.web.routes.vertex;
+
+import com.google.inject.Inject;
+import io.lumify.core.config.Configuration;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.user.User;
+import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.miniweb.HandlerChain;
+import io.lumify.web.BaseRequestHandler;
+import io.lumify.web.clientapi.model.ClientApiDetectedObjectResolveItem;
+import io.lumify.web.clientapi.model.ClientApiResolveResponse;
+import org.securegraph.Authorizations;
+import org.securegraph.Graph;
+import org.securegraph.Vertex;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves many detected objects of one artifact in one request, see {@link ResolveHelper}.
+ */
+public class ResolveDetectedObjects extends BaseRequestHandler {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ResolveDetectedObjects.class);
+    private final Graph graph;
+    private final WorkspaceRepository workspaceRepository;
+    private final ResolveHelper resolveHelper;
+
+    @Inject
+    public ResolveDetectedObjects(
+            final Graph graph,
+            final UserRepository userRepository,
+            final Configuration configuration,
+            final WorkspaceRepository workspaceRepository,
+            final ResolveHelper resolveHelper) {
+        super(userRepository, workspaceRepository, configuration);
+        this.graph = graph;
+        this.workspaceRepository = workspaceRepository;
+        this.resolveHelper = resolveHelper;
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
+        final String artifactId = getRequiredParameter(request, "artifactId");
+        final String resolutionsString = getRequiredParameter(request, "resolutions");
+        List<ClientApiDetectedObjectResolveItem> items = Arrays.asList(getObjectMapper().readValue(resolutionsString, ClientApiDetectedObjectResolveItem[].class));
+
+        User user = getUser(request);
+        String workspaceId = getActiveWorkspaceId(request);
+        Workspace workspace = workspaceRepository.findById(workspaceId, user);
+        Authorizations authorizations = getAuthorizations(request, user);
+
+        List<String> visibilitySources = new ArrayList<>();
+        for (ClientApiDetectedObjectResolveItem item : items) {
+            visibilitySources.add(item.getVisibilitySource());
+        }
+        List<String> invalidVisibilitySources = resolveHelper.findInvalidVisibilitySources(visibilitySources, workspaceId, authorizations);
+        if (invalidVisibilitySources.size() > 0) {
+            LOGGER.warn("%s are not valid visibilities for %s user", invalidVisibilitySources, user.getDisplayName());
+            respondWithBadRequest(response, "resolutions", getString(request, "visibility.invalid"), invalidVisibilitySources);
+            chain.next(request, response);
+            return;
+        }
+
+        Vertex artifactVertex = graph.getVertex(artifactId, authorizations);
+        if (artifactVertex == null) {
+            respondWithNotFound(response, "Could not find artifact: " + artifactId);
+            return;
+        }
+
+        ClientApiResolveResponse result = new ClientApiResolveResponse();
+        result.getResolvedVertexIds().addAll(resolveHelper.resolveDetectedObjects(artifactVertex, items, workspace, user, authorizations));
+        result.setArtifact(ClientApiConverter.toClientApi(graph.getVertex(artifactId, authorizations), workspaceId, authorizations));
+        respondWithClientApiObject(response, result);
+    }
+}
@@ -0,0 +1,323 @@
+package io.lumify.web.routes.vertex;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.lumify.core.exception.LumifyResourceNotFoundException;
+import io.lumify.core.ingest.ArtifactDetectedObject;
+import io.lumify.core.model.PropertyJustificationMetadata;
+import io.lumify.core.model.SourceInfo;
+import io.lumify.core.model.audit.AuditAction;
+import io.lumify.core.model.audit.AuditRepository;
+import io.lumify.core.model.ontology.Concept;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.termMention.TermMentionBuilder;
+import io.lumify.core.model.termMention.TermMentionRepository;
+import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.security.LumifyVisibility;
+import io.lumify.core.security.VisibilityTranslator;
+import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.core.util.GraphUtil;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import io.lumify.web.clientapi.model.ClientApiDetectedObjectResolveItem;
+import io.lumify.web.clientapi.model.ClientApiTermResolveItem;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import org.securegraph.*;
+import org.securegraph.mutation.ExistingElementMutation;
+
+import java.util.*;
+
+/**
+ * Resolves term mentions and detected objects of one artifact to vertices. All of the items of a call are written
+ * without flushing in between, the graph is flushed once, the workspace is updated once with every new vertex, the
+ * audits are saved together and one notification is sent for the artifact.
+ */
+@Singleton
+public class ResolveHelper {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(ResolveHelper.class);
+    private static final String TERM_MULTI_VALUE_KEY = ResolveTermEntity.class.getName();
+    private static final String DETECTED_OBJECT_MULTI_VALUE_KEY_PREFIX = ResolveDetectedObject.class.getName();
+    private final Graph graph;
+    private final AuditRepository auditRepository;
+    private final OntologyRepository ontologyRepository;
+    private final VisibilityTranslator visibilityTranslator;
+    private final WorkspaceRepository workspaceRepository;
+    private final WorkQueueRepository workQueueRepository;
+    private final TermMentionRepository termMentionRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
+    private String artifactHasEntityIri;
+    private String artifactContainsImageOfEntityIri;
+
+    @Inject
+    public ResolveHelper(
+            final Graph graph,
+            final AuditRepository auditRepository,
+            final OntologyRepository ontologyRepository,
+            final VisibilityTranslator visibilityTranslator,
+            final WorkspaceRepository workspaceRepository,
+            final WorkQueueRepository workQueueRepository,
+            final TermMentionRepository termMentionRepository,
+            final EdgeLabelSummary edgeLabelSummary) {
+        this.graph = graph;
+        this.auditRepository = auditRepository;
+        this.ontologyRepository = ontologyRepository;
+        this.visibilityTranslator = visibilityTranslator;
+        this.workspaceRepository = workspaceRepository;
+        this.workQueueRepository = workQueueRepository;
+        this.termMentionRepository = termMentionRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
+
+        this.artifactHasEntityIri = ontologyRepository.getRelationshipIRIByIntent("artifactHasEntity");
+        if (this.artifactHasEntityIri == null) {
+            LOGGER.warn("'artifactHasEntity' intent has not been defined. Please update your ontology.");
+        }
+
+        this.artifactContainsImageOfEntityIri = ontologyRepository.getRelationshipIRIByIntent("artifactContainsImageOfEntity");
+        if (this.artifactContainsImageOfEntityIri == null) {
+            LOGGER.warn("'artifactContainsImageOfEntity' intent has not been defined. Please update your ontology.");
+        }
+    }
+
+    /**
+     * @return the visibility sources of the items that are not valid visibilities for the authorizations.
+     */
+    public List<String> findInvalidVisibilitySources(Iterable<String> visibilitySources, String workspaceId, Authorizations authorizations) {
+        List<String> invalidVisibilitySources = new ArrayList<>();
+        for (String visibilitySource : visibilitySources) {
+            VisibilityJson visibilityJson = GraphUtil.updateVisibilitySourceAndAddWorkspaceId(null, visibilitySource, workspaceId);
+            LumifyVisibility lumifyVisibility = visibilityTranslator.toVisibility(visibilityJson);
+            if (!graph.isVisibilityValid(lumifyVisibility.getVisibility(), authorizations)) {
+                invalidVisibilitySources.add(visibilitySource);
+            }
+        }
+        return invalidVisibilitySources;
+    }
+
+    /**
+     * @return the ids of the vertices the terms were resolved to, in the order of the items.
+     */
+    public List<String> resolveTerms(Vertex artifactVertex, List<ClientApiTermResolveItem> items, Workspace workspace, User user, Authorizations authorizations) {
+        if (this.artifactHasEntityIri == null) {
+            this.artifactHasEntityIri = ontologyRepository.getRequiredRelationshipIRIByIntent("artifactHasEntity");
+        }
+
+        List<String> existingVertexIds = new ArrayList<>();
+        List<String> conceptIris = new ArrayList<>();
+        for (ClientApiTermResolveItem item : items) {
+            if (item.getResolvedVertexId() != null) {
+                existingVertexIds.add(item.getResolvedVertexId());
+            }
+            conceptIris.add(item.getConceptId());
+        }
+        Map<String, Concept> concepts = getConcepts(conceptIris);
+        Map<String, Vertex> existingVertices = getExistingVertices(existingVertexIds, authorizations);
+
+        List<String> resolvedVertexIds = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        List<WorkspaceRepository.Update> workspaceUpdates = new ArrayList<>();
+        auditRepository.startBatch();
+        try {
+            for (ClientApiTermResolveItem item : items) {
+                VisibilityJson visibilityJson = GraphUtil.updateVisibilitySourceAndAddWorkspaceId(null, item.getVisibilitySource(), workspace.getWorkspaceId());
+                Visibility visibility = visibilityTranslator.toVisibility(visibilityJson).getVisibility();
+                Metadata metadata = createMetadata(visibilityJson);
+                Concept concept = concepts.get(item.getConceptId());
+
+                Vertex vertex;
+                if (item.getResolvedVertexId() != null) {
+                    vertex = existingVertices.get(item.getResolvedVertexId());
+                } else {
+                    VertexBuilder vertexBuilder = graph.prepareVertex(graph.getIdGenerator().nextId(), visibility);
+                    LumifyProperties.CONCEPT_TYPE.setProperty(vertexBuilder, item.getConceptId(), metadata, visibility);
+                    LumifyProperties.TITLE.addPropertyValue(vertexBuilder, TERM_MULTI_VALUE_KEY, item.getSign(), metadata, visibility);
+                    if (item.getJustificationText() != null) {
+                        PropertyJustificationMetadata propertyJustificationMetadata = new PropertyJustificationMetadata(item.getJustificationText());
+                        LumifyProperties.JUSTIFICATION.setProperty(vertexBuilder, propertyJustificationMetadata, visibility);
+                    }
+                    LumifyProperties.VISIBILITY_JSON.setProperty(vertexBuilder, visibilityJson, metadata, visibility);
+                    vertex = vertexBuilder.save(authorizations);
+                    auditRepository.auditVertexElementMutation(AuditAction.UPDATE, vertexBuilder, vertex, "", user, visibility);
+                    workspaceUpdates.add(new WorkspaceRepository.Update(vertex.getId(), null, null));
+                }
+
+                Edge edge = addEdge(artifactVertex, vertex, artifactHasEntityIri, visibilityJson, metadata, visibility, user, authorizations);
+                edges.add(edge);
+
+                SourceInfo sourceInfo = SourceInfo.fromString(item.getSourceInfo());
+                new TermMentionBuilder()
+                        .sourceVertex(artifactVertex)
+                        .propertyKey(item.getPropertyKey())
+                        .start(item.getMentionStart())
+                        .end(item.getMentionEnd())
+                        .title(item.getSign())
+                        .snippet(sourceInfo == null ? null : sourceInfo.getSnippet())
+                        .conceptIri(concept.getIRI())
+                        .visibilityJson(visibilityJson)
+                        .resolvedTo(vertex, edge)
+                        .process(ResolveTermEntity.class.getSimpleName())
+                        .save(graph, visibilityTranslator, termMentionRepository.getTermMentionIndexRepository(), authorizations);
+                resolvedVertexIds.add(vertex.getId());
+            }
+
+            finishResolve(edges, workspace, workspaceUpdates, user, authorizations);
+        } finally {
+            auditRepository.flushBatch();
+        }
+
+        workQueueRepository.pushTextUpdated(artifactVertex.getId());
+        workQueueRepository.pushElements(edges);
+        LOGGER.debug("resolved %d terms of %s", items.size(), artifactVertex.getId());
+        return resolvedVertexIds;
+    }
+
+    /**
+     * @return the ids of the vertices the detected objects were resolved to, in the order of the items.
+     */
+    public List<String> resolveDetectedObjects(Vertex artifactVertex, List<ClientApiDetectedObjectResolveItem> items, Workspace workspace, User user, Authorizations authorizations) {
+        if (this.artifactContainsImageOfEntityIri == null) {
+            this.artifactContainsImageOfEntityIri = ontologyRepository.getRequiredRelationshipIRIByIntent("artifactContainsImageOfEntity");
+        }
+
+        List<String> existingVertexIds = new ArrayList<>();
+        List<String> conceptIris = new ArrayList<>();
+        for (ClientApiDetectedObjectResolveItem item : items) {
+            if (!isNullOrEmpty(item.getGraphVertexId())) {
+                existingVertexIds.add(item.getGraphVertexId());
+            }
+            conceptIris.add(item.getConceptId());
+        }
+        Map<String, Concept> concepts = getConcepts(conceptIris);
+        Map<String, Vertex> existingVertices = getExistingVertices(existingVertexIds, authorizations);
+
+        List<String> resolvedVertexIds = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        List<WorkspaceRepository.Update> workspaceUpdates = new ArrayList<>();
+        Set<String> detectedObjectPropertyKeys = new LinkedHashSet<>();
+        ExistingElementMutation<Vertex> artifactMutation = artifactVertex.prepareMutation();
+        auditRepository.startBatch();
+        try {
+            for (ClientApiDetectedObjectResolveItem item : items) {
+                VisibilityJson visibilityJson = GraphUtil.updateVisibilitySourceAndAddWorkspaceId(null, item.getVisibilitySource(), workspace.getWorkspaceId());
+                LumifyVisibility lumifyVisibility = visibilityTranslator.toVisibility(visibilityJson);
+                Visibility visibility = lumifyVisibility.getVisibility();
+                Metadata metadata = createMetadata(visibilityJson);
+                Concept concept = concepts.get(item.getConceptId());
+
+                Vertex resolvedVertex;
+                ExistingElementMutation<Vertex> resolvedVertexMutation;
+                if (isNullOrEmpty(item.getGraphVertexId())) {
+                    VertexBuilder vertexBuilder = graph.prepareVertex(visibility);
+                    LumifyProperties.CONCEPT_TYPE.setProperty(vertexBuilder, concept.getIRI(), metadata, visibility);
+                    LumifyProperties.TITLE.setProperty(vertexBuilder, item.getTitle(), metadata, visibility);
+                    LumifyProperties.VISIBILITY_JSON.setProperty(vertexBuilder, visibilityJson, metadata, visibility);
+                    resolvedVertex = vertexBuilder.save(authorizations);
+                    auditRepository.auditVertexElementMutation(AuditAction.UPDATE, vertexBuilder, resolvedVertex, "", user, visibility);
+                    SourceInfo sourceInfo = SourceInfo.fromString(item.getSourceInfo());
+                    termMentionRepository.addJustification(resolvedVertex, item.getJustificationText(), sourceInfo, lumifyVisibility, authorizations);
+                    workspaceUpdates.add(new WorkspaceRepository.Update(resolvedVertex.getId(), null, null));
+                } else {
+                    resolvedVertex = existingVertices.get(item.getGraphVertexId());
+                }
+                resolvedVertexMutation = resolvedVertex.prepareMutation();
+
+                Edge edge = addEdge(artifactVertex, resolvedVertex, artifactContainsImageOfEntityIri, visibilityJson, metadata, visibility, user, authorizations);
+                edges.add(edge);
+
+                ArtifactDetectedObject artifactDetectedObject = new ArtifactDetectedObject(
+                        item.getX1(),
+                        item.getY1(),
+                        item.getX2(),
+                        item.getY2(),
+                        concept.getIRI(),
+                        "user",
+                        edge.getId(),
+                        resolvedVertex.getId(),
+                        item.getOriginalPropertyKey());
+                String propertyKey = artifactDetectedObject.getMultivalueKey(DETECTED_OBJECT_MULTI_VALUE_KEY_PREFIX);
+                LumifyProperties.DETECTED_OBJECT.addPropertyValue(artifactMutation, propertyKey, artifactDetectedObject, visibility);
+                detectedObjectPropertyKeys.add(propertyKey);
+
+                resolvedVertexMutation.addPropertyValue(resolvedVertex.getId(), LumifyProperties.ROW_KEY.getPropertyName(), propertyKey, visibility);
+                resolvedVertexMutation.save(authorizations);
+                resolvedVertexIds.add(resolvedVertex.getId());
+            }
+            artifactMutation.save(authorizations);
+
+            finishResolve(edges, workspace, workspaceUpdates, user, authorizations);
+        } finally {
+            auditRepository.flushBatch();
+        }
+
+        workQueueRepository.pushElements(edges);
+        workQueueRepository.pushGraphPropertiesQueue(artifactVertex, LumifyProperties.DETECTED_OBJECT.getPropertyName(), detectedObjectPropertyKeys);
+        LOGGER.debug("resolved %d detected objects of %s", items.size(), artifactVertex.getId());
+        return resolvedVertexIds;
+    }
+
+    private Edge addEdge(Vertex artifactVertex, Vertex vertex, String label, VisibilityJson visibilityJson, Metadata metadata, Visibility visibility, User user, Authorizations authorizations) {
+        EdgeBuilder edgeBuilder = graph.prepareEdge(graph.getIdGenerator().nextId(), artifactVertex, vertex, label, visibility);
+        LumifyProperties.VISIBILITY_JSON.setProperty(edgeBuilder, visibilityJson, metadata, visibility);
+        Edge edge = edgeBuilder.save(authorizations);
+        auditRepository.auditRelationship(AuditAction.CREATE, artifactVertex, vertex, edge, "", "", user, visibility);
+        return edge;
+    }
+
+    private void finishResolve(List<Edge> edges, Workspace workspace, List<WorkspaceRepository.Update> workspaceUpdates, User user, Authorizations authorizations) {
+        edgeLabelSummary.edgesAdded(edges, authorizations);
+        graph.flush();
+        if (workspaceUpdates.size() > 0) {
+            workspaceRepository.updateEntitiesOnWorkspace(workspace, workspaceUpdates, user);
+        }
+    }
+
+    private Metadata createMetadata(VisibilityJson visibilityJson) {
+        Metadata metadata = new Metadata();
+        LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, visibilityJson, visibilityTranslator.getDefaultVisibility());
+        return metadata;
+    }
+
+    /**
+     * Looks up the concepts of the items before anything is written, so an unknown concept fails the whole call.
+     */
+    private Map<String, Concept> getConcepts(List<String> conceptIris) {
+        Map<String, Concept> concepts = new HashMap<>();
+        for (String conceptIri : conceptIris) {
+            if (concepts.containsKey(conceptIri)) {
+                continue;
+            }
+            Concept concept = ontologyRepository.getConceptByIRI(conceptIri);
+            if (concept == null) {
+                throw new LumifyResourceNotFoundException("Could not find concept: " + conceptIri, conceptIri);
+            }
+            concepts.put(conceptIri, concept);
+        }
+        return concepts;
+    }
+
+    /**
+     * Reads the vertices the items resolve to before anything is written, so a missing vertex fails the whole call.
+     */
+    private Map<String, Vertex> getExistingVertices(List<String> vertexIds, Authorizations authorizations) {
+        Map<String, Vertex> vertices = new HashMap<>();
+        if (vertexIds.size() == 0) {
+            return vertices;
+        }
+        for (Vertex vertex : graph.getVertices(vertexIds, authorizations)) {
+            vertices.put(vertex.getId(), vertex);
+        }
+        for (String vertexId : vertexIds) {
+            if (!vertices.containsKey(vertexId)) {
+                throw new LumifyResourceNotFoundException("Could not find vertex: " + vertexId, vertexId);
+            }
+        }
+        return vertices;
+    }
+
+    private static boolean isNullOrEmpty(String value) {
+        return value == null || value.equals("");
+    }
+}
@@ -13,6 +13,7 @@ import io.lumify.core.security.LumifyVisibility;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
 import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
@@ -36,6 +37,7 @@ public class UnresolveDetectedObject extends BaseRequestHandler {
     private final VisibilityTranslator visibilityTranslator;
     private final AuditRepository auditRepository;
     private final WorkQueueRepository workQueueRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public UnresolveDetectedObject(
@@ -46,12 +48,14 @@ public class UnresolveDetectedObject extends BaseRequestHandler {
             final WorkspaceRepository workspaceRepository,
             final WorkspaceHelper workspaceHelper,
             AuditRepository auditRepository,
-            WorkQueueRepository workQueueRepository) {
+            WorkQueueRepository workQueueRepository,
+            EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
         this.visibilityTranslator = visibilityTranslator;
         this.auditRepository = auditRepository;
         this.workQueueRepository = workQueueRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
     }
 
     @Override
@@ -87,7 +91,7 @@ public class UnresolveDetectedObject extends BaseRequestHandler {
         LumifyVisibility lumifyVisibility = visibilityTranslator.toVisibility(visibilityJson);
 
         // remove edge
-        graph.removeEdge(edge, authorizations);
+        edgeLabelSummary.removeEdge(edge, authorizations);
         auditRepository.auditRelationship(AuditAction.DELETE, artifactVertex, resolvedVertex, edge, "", "", user, lumifyVisibility.getVisibility());
 
         // remove property
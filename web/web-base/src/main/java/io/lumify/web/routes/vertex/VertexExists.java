@@ -36,9 +36,9 @@ public class VertexExists extends BaseRequestHandler {
         User user = getUser(request);
         Authorizations authorizations = getAuthorizations(request, user);
 
-        Map<String, Boolean> graphVertices = graph.doVerticesExist(vertexIds, authorizations);
+        Map<String, Boolean> verticesExist = graph.doVerticesExist(vertexIds, authorizations);
         ClientApiVerticesExistsResponse result = new ClientApiVerticesExistsResponse();
-        result.getExists().putAll(graphVertices);
+        result.getExists().putAll(verticesExist);
 
         respondWithClientApiObject(response, result);
     }
@@ -86,18 +86,17 @@ public class VertexGetPropertyValue extends BaseRequestHandler {
 
         setFileNameHeaders(response, fileName, playbackOptions);
 
-        long totalLength;
-        InputStream in;
         if (property.getValue() instanceof StreamingPropertyValue) {
             StreamingPropertyValue streamingPropertyValue = (StreamingPropertyValue) property.getValue();
-            in = streamingPropertyValue.getInputStream();
-            totalLength = streamingPropertyValue.getLength();
-        } else {
-            byte[] value = property.getValue().toString().getBytes();
-            in = new ByteArrayInputStream(value);
-            totalLength = value.length;
+            String range = playbackOptions.playback ? playbackOptions.range : null;
+            ByteRangeResponse.write(range, response, streamingPropertyValue, mimeType);
+            return;
         }
 
+        byte[] value = property.getValue().toString().getBytes();
+        InputStream in = new ByteArrayInputStream(value);
+        long totalLength = value.length;
+
         try {
             if (playbackOptions.playback) {
                 handlePartialPlayback(response, in, totalLength, playbackOptions);
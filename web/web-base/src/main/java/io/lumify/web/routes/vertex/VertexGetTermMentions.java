@@ -39,6 +39,8 @@ public class VertexGetTermMentions extends BaseRequestHandler {
         String graphVertexId = getRequiredParameter(request, "graphVertexId");
         String propertyName = getRequiredParameter(request, "propertyName");
         String propertyKey = getRequiredParameter(request, "propertyKey");
+        long startOffset = getOptionalParameterLong(request, "startOffset", -1);
+        long endOffset = getOptionalParameterLong(request, "endOffset", -1);
 
         User user = getUser(request);
         Authorizations authorizations = getAuthorizations(request, user);
@@ -56,7 +58,12 @@ public class VertexGetTermMentions extends BaseRequestHandler {
             return;
         }
 
-        Iterable<Vertex> termMentions = termMentionRepository.findBySourceGraphVertexAndPropertyKey(graphVertexId, propertyKey, authorizations);
+        Iterable<Vertex> termMentions;
+        if (startOffset >= 0 && endOffset >= 0) {
+            termMentions = termMentionRepository.findOverlapping(graphVertexId, propertyKey, startOffset, endOffset, authorizations);
+        } else {
+            termMentions = termMentionRepository.findBySourceGraphVertexAndPropertyKey(graphVertexId, propertyKey, authorizations);
+        }
         ClientApiTermMentionsResponse termMentionsResponse = ClientApiConverter.toTermMentionsResponse(termMentions, workspaceId, authorizations);
         respondWithClientApiObject(response, termMentionsResponse);
     }
@@ -15,7 +15,6 @@ import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
-import org.apache.commons.io.IOUtils;
 import org.securegraph.Authorizations;
 import org.securegraph.Graph;
 import org.securegraph.Vertex;
@@ -23,6 +22,7 @@ import org.securegraph.property.StreamingPropertyValue;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
 
 public class VertexHighlightedText extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(VertexHighlightedText.class);
@@ -63,16 +63,12 @@ public class VertexHighlightedText extends BaseRequestHandler {
         StreamingPropertyValue textPropertyValue = LumifyProperties.TEXT.getPropertyValue(artifactVertex, propertyKey);
         if (textPropertyValue != null) {
             LOGGER.debug("returning text for vertexId:%s property:%s", artifactVertex.getId(), propertyKey);
-            String highlightedText;
-            String text = IOUtils.toString(textPropertyValue.getInputStream(), "UTF-8");
-            if (text == null) {
-                highlightedText = "";
-            } else {
-                Iterable<Vertex> termMentions = termMentionRepository.findBySourceGraphVertexAndPropertyKey(artifactVertex.getId(), propertyKey, authorizationsWithTermMention);
-                highlightedText = entityHighlighter.getHighlightedText(text, termMentions, workspaceId, authorizationsWithTermMention);
+            Iterable<Vertex> termMentions = termMentionRepository.findBySourceGraphVertexAndPropertyKey(artifactVertex.getId(), propertyKey, authorizationsWithTermMention);
+            response.setContentType("text/html");
+            response.setCharacterEncoding("UTF-8");
+            try (InputStream in = textPropertyValue.getInputStream()) {
+                entityHighlighter.writeHighlightedText(in, termMentions, workspaceId, authorizationsWithTermMention, response.getWriter());
             }
-
-            respondWithHtml(response, highlightedText);
             return;
         }
 
@@ -1,5 +1,7 @@
 package io.lumify.web.routes.vertex;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
 import io.lumify.core.exception.LumifyAccessDeniedException;
@@ -8,9 +10,10 @@ import io.lumify.core.model.user.UserRepository;
 import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.user.User;
 import io.lumify.core.util.ClientApiConverter;
+import io.lumify.core.util.ElementProjection;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.web.BaseRequestHandler;
-import io.lumify.web.clientapi.model.ClientApiVertexMultipleResponse;
+import io.lumify.web.clientapi.model.ClientApiVertex;
 import org.securegraph.Authorizations;
 import org.securegraph.Graph;
 import org.securegraph.Vertex;
@@ -19,9 +22,14 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import static org.securegraph.util.IterableUtils.toIterable;
-
+/**
+ * Returns the vertices as a {@link io.lumify.web.clientapi.model.ClientApiVertexMultipleResponse}, reading and
+ * writing them a batch at a time. Callers that need only some properties pass {@code propertyNames[]}, and callers
+ * that need only the ids of the vertices that exist pass {@code existenceOnly}, see {@link ElementProjection}.
+ */
 public class VertexMultiple extends BaseRequestHandler {
     private final Graph graph;
 
@@ -39,19 +47,26 @@ public class VertexMultiple extends BaseRequestHandler {
     public void handle(HttpServletRequest request, HttpServletResponse response, HandlerChain chain) throws Exception {
         HashSet<String> vertexStringIds = new HashSet<String>(Arrays.asList(getRequiredParameterArray(request, "vertexIds[]")));
         boolean fallbackToPublic = getOptionalParameterBoolean(request, "fallbackToPublic", false);
+        ElementProjection projection = ElementProjection.create(
+                getOptionalParameterBoolean(request, "existenceOnly", false),
+                getOptionalParameterArray(request, "propertyNames[]"));
         User user = getUser(request);
         GetAuthorizationsResult getAuthorizationsResult = getAuthorizations(request, fallbackToPublic, user);
         String workspaceId = getWorkspaceId(request);
 
-        Iterable<String> vertexIds = toIterable(vertexStringIds.toArray(new String[vertexStringIds.size()]));
-        Iterable<Vertex> graphVertices = graph.getVertices(vertexIds, getAuthorizationsResult.authorizations);
-        ClientApiVertexMultipleResponse result = new ClientApiVertexMultipleResponse();
-        result.setRequiredFallback(getAuthorizationsResult.requiredFallback);
-        for (Vertex v : graphVertices) {
-            result.getVertices().add(ClientApiConverter.toClientApiVertex(v, workspaceId, getAuthorizationsResult.authorizations));
-        }
+        Map<String, Object> fields = new LinkedHashMap<String, Object>();
+        fields.put("requiredFallback", getAuthorizationsResult.requiredFallback);
+        respondWithStreamedClientApiObjects(response, fields, "vertices", toClientApiVertices(vertexStringIds, projection, workspaceId, getAuthorizationsResult.authorizations));
+    }
 
-        respondWithClientApiObject(response, result);
+    private Iterable<ClientApiVertex> toClientApiVertices(Iterable<String> vertexIds, final ElementProjection projection, final String workspaceId, final Authorizations authorizations) {
+        Iterable<Vertex> graphVertices = projection.getVertices(graph, vertexIds, authorizations);
+        return Iterables.transform(graphVertices, new Function<Vertex, ClientApiVertex>() {
+            @Override
+            public ClientApiVertex apply(Vertex vertex) {
+                return ClientApiConverter.toClientApiVertex(vertex, workspaceId, projection, authorizations);
+            }
+        });
     }
 
     private GetAuthorizationsResult getAuthorizations(HttpServletRequest request, boolean fallbackToPublic, User user) {
@@ -13,7 +13,6 @@ import io.lumify.core.util.LumifyLoggerFactory;
 import io.lumify.miniweb.HandlerChain;
 import io.lumify.miniweb.utils.UrlUtils;
 import io.lumify.web.BaseRequestHandler;
-import org.apache.commons.io.IOUtils;
 import org.securegraph.Authorizations;
 import org.securegraph.Graph;
 import org.securegraph.Vertex;
@@ -22,16 +21,11 @@ import org.securegraph.property.StreamingPropertyValue;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class VertexRaw extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(VertexRaw.class);
-    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=([0-9]*)-([0-9]*)");
 
     private final Graph graph;
 
@@ -85,9 +79,7 @@ public class VertexRaw extends BaseRequestHandler {
                 respondWithNotFound(response);
                 return;
             }
-            try (InputStream in = rawValue.getInputStream()) {
-                IOUtils.copy(in, response.getOutputStream());
-            }
+            ByteRangeResponse.write(request.getHeader("Range"), response, rawValue, mimeType);
         }
 
         chain.next(request, response);
@@ -96,55 +88,12 @@ public class VertexRaw extends BaseRequestHandler {
     private void handlePartialPlayback(HttpServletRequest request, HttpServletResponse response, Vertex artifactVertex, String fileName) throws IOException {
         String type = getRequiredParameter(request, "type");
 
-        InputStream in;
-        Long totalLength;
-        long partialStart = 0;
-        Long partialEnd = null;
-        String range = request.getHeader("Range");
-
-        if (range != null) {
-            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-
-            Matcher m = RANGE_PATTERN.matcher(range);
-            if (m.matches()) {
-                partialStart = Long.parseLong(m.group(1));
-                if (m.group(2).length() > 0) {
-                    partialEnd = Long.parseLong(m.group(2));
-                }
-            }
-        }
-
         response.setCharacterEncoding(null);
         response.setContentType(type);
         response.addHeader("Content-Disposition", "attachment; filename=" + fileName);
 
         StreamingPropertyValue mediaPropertyValue = getStreamingPropertyValue(artifactVertex, type);
-
-        totalLength = mediaPropertyValue.getLength();
-        in = mediaPropertyValue.getInputStream();
-
-        if (partialEnd == null) {
-            partialEnd = totalLength;
-        }
-
-        // Ensure that the last byte position is less than the instance-length
-        partialEnd = Math.min(partialEnd, totalLength - 1);
-        long partialLength = totalLength;
-
-        if (range != null) {
-            partialLength = partialEnd - partialStart + 1;
-            response.addHeader("Content-Range", "bytes " + partialStart + "-" + partialEnd + "/" + totalLength);
-            if (partialStart > 0) {
-                in.skip(partialStart);
-            }
-        }
-
-        response.addHeader("Content-Length", "" + partialLength);
-
-        OutputStream out = response.getOutputStream();
-        copy(in, out, partialLength);
-
-        response.flushBuffer();
+        ByteRangeResponse.write(request.getHeader("Range"), response, mediaPropertyValue, type);
     }
 
     private StreamingPropertyValue getStreamingPropertyValue(Vertex artifactVertex, String type) {
@@ -167,15 +116,6 @@ public class VertexRaw extends BaseRequestHandler {
         return mediaPropertyValue;
     }
 
-    private void copy(InputStream in, OutputStream out, Long length) throws IOException {
-        byte[] buffer = new byte[1024];
-        int read;
-        while (length > 0 && (read = in.read(buffer, 0, (int) Math.min(length, buffer.length))) > 0) {
-            out.write(buffer, 0, read);
-            length -= read;
-        }
-    }
-
     private String getMimeType(Vertex artifactVertex) {
         String mimeType = LumifyProperties.MIME_TYPE.getPropertyValue(artifactVertex);
         if (mimeType == null || mimeType.isEmpty()) {
@@ -2,6 +2,7 @@ package io.lumify.web.routes.vertex;
 
 import com.google.inject.Inject;
 import io.lumify.core.config.Configuration;
+import io.lumify.core.model.artifactThumbnails.ArtifactThumbnail;
 import io.lumify.core.model.artifactThumbnails.ArtifactThumbnailRepository;
 import io.lumify.core.model.properties.LumifyProperties;
 import io.lumify.core.model.user.UserRepository;
@@ -20,7 +21,9 @@ import org.securegraph.property.StreamingPropertyValue;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Date;
 
 public class VertexThumbnail extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(VertexThumbnail.class);
@@ -59,23 +62,11 @@ public class VertexThumbnail extends BaseRequestHandler {
             boundaryDims[0] = boundaryDims[1] = Integer.parseInt(widthStr);
         }
 
-        byte[] thumbnailData;
-        io.lumify.core.model.artifactThumbnails.ArtifactThumbnail thumbnail =
-                artifactThumbnailRepository.getThumbnail(artifactVertex.getId(), "raw", boundaryDims[0], boundaryDims[1], user);
-        if (thumbnail != null) {
-            String format = thumbnail.getFormat();
-            response.setContentType("image/" + format);
-            response.addHeader("Content-Disposition", "inline; filename=thumbnail" + boundaryDims[0] + "." + format);
-            setMaxAge(response, EXPIRES_1_HOUR);
-
-            thumbnailData = thumbnail.getThumbnailData();
-            if (thumbnailData != null) {
-                LOGGER.debug("Cache hit for: %s (raw) %d x %d", artifactVertex.getId(), boundaryDims[0], boundaryDims[1]);
-                ServletOutputStream out = response.getOutputStream();
-                out.write(thumbnailData);
-                out.close();
-                return;
-            }
+        ArtifactThumbnail thumbnail = artifactThumbnailRepository.getThumbnail(artifactVertex.getId(), "raw", boundaryDims[0], boundaryDims[1], user);
+        if (thumbnail != null && thumbnail.getThumbnailData() != null) {
+            LOGGER.debug("Cache hit for: %s (raw) %d x %d", artifactVertex.getId(), boundaryDims[0], boundaryDims[1]);
+            respondWithThumbnail(request, response, thumbnail, boundaryDims);
+            return;
         }
 
         LOGGER.info("Cache miss for: %s (raw) %d x %d", artifactVertex.getId(), boundaryDims[0], boundaryDims[1]);
@@ -88,18 +79,34 @@ public class VertexThumbnail extends BaseRequestHandler {
         InputStream in = rawPropertyValue.getInputStream();
         try {
             thumbnail = artifactThumbnailRepository.createThumbnail(artifactVertex, "raw", in, boundaryDims, user);
-
-            String format = thumbnail.getFormat();
-            response.setContentType("image/" + format);
-            response.addHeader("Content-Disposition", "inline; filename=thumbnail" + boundaryDims[0] + "." + format);
-            setMaxAge(response, EXPIRES_1_HOUR);
-
-            thumbnailData = thumbnail.getThumbnailData();
         } finally {
             in.close();
         }
+        respondWithThumbnail(request, response, thumbnail, boundaryDims);
+    }
+
+    /**
+     * The validators come from when the thumbnail was generated instead of hashing the image on every request.
+     * Thumbnails stored before that was recorded are sent without validators.
+     */
+    private void respondWithThumbnail(HttpServletRequest request, HttpServletResponse response, ArtifactThumbnail thumbnail, int[] boundaryDims) throws IOException {
+        Date modifiedDate = thumbnail.getModifiedDate();
+        String eTag = modifiedDate == null ? null : Long.toHexString(modifiedDate.getTime()) + "-" + boundaryDims[0] + "x" + boundaryDims[1];
+        if (eTag != null && (testEtagHeaders(request, response, eTag) || testLastModifiedHeaders(request, response, modifiedDate))) {
+            return;
+        }
+
+        String format = thumbnail.getFormat();
+        response.setContentType("image/" + format);
+        response.addHeader("Content-Disposition", "inline; filename=thumbnail" + boundaryDims[0] + "." + format);
+        setMaxAge(response, EXPIRES_1_HOUR);
+        if (eTag != null) {
+            addETagHeader(response, eTag);
+            addLastModifiedHeader(response, modifiedDate);
+        }
+
         ServletOutputStream out = response.getOutputStream();
-        out.write(thumbnailData);
+        out.write(thumbnail.getThumbnailData());
         out.close();
     }
 }
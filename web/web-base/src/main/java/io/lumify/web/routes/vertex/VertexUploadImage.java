@@ -51,6 +51,7 @@ public class VertexUploadImage extends BaseRequestHandler {
     private final WorkQueueRepository workQueueRepository;
     private final VisibilityTranslator visibilityTranslator;
     private final WorkspaceRepository workspaceRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
     private String conceptIri;
     private String entityHasImageIri;
 
@@ -63,7 +64,8 @@ public class VertexUploadImage extends BaseRequestHandler {
             final UserRepository userRepository,
             final Configuration configuration,
             final VisibilityTranslator visibilityTranslator,
-            final WorkspaceRepository workspaceRepository) {
+            final WorkspaceRepository workspaceRepository,
+            final EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
         this.auditRepository = auditRepository;
@@ -71,6 +73,7 @@ public class VertexUploadImage extends BaseRequestHandler {
         this.workQueueRepository = workQueueRepository;
         this.visibilityTranslator = visibilityTranslator;
         this.workspaceRepository = workspaceRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
 
         this.conceptIri = ontologyRepository.getConceptIRIByIntent("entityImage");
         if (this.conceptIri == null) {
@@ -138,7 +141,7 @@ public class VertexUploadImage extends BaseRequestHandler {
         if (existingEdges.size() == 0) {
             EdgeBuilder edgeBuilder = graph.prepareEdge(entityVertex, artifactVertex, entityHasImageIri, lumifyVisibility.getVisibility());
             LumifyProperties.VISIBILITY_JSON.setProperty(edgeBuilder, visibilityJson, lumifyVisibility.getVisibility());
-            Edge edge = edgeBuilder.save(authorizations);
+            Edge edge = edgeLabelSummary.saveEdge(edgeBuilder, authorizations);
             auditRepository.auditRelationship(AuditAction.CREATE, entityVertex, artifactVertex, edge, "", "", user, lumifyVisibility.getVisibility());
         }
 
@@ -14,6 +14,7 @@ import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.security.LumifyVisibility;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
@@ -21,7 +22,10 @@ import io.lumify.web.clientapi.model.VisibilityJson;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.securegraph.*;
+import org.securegraph.mutation.ExistingElementMutation;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static org.securegraph.util.IterableUtils.toList;
@@ -38,6 +42,7 @@ public class WorkspaceHelper {
     private String entityHasImageIri;
     private String artifactContainsImageOfEntityIri;
     private final OntologyRepository ontologyRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public WorkspaceHelper(
@@ -48,7 +53,8 @@ public class WorkspaceHelper {
             final WorkQueueRepository workQueueRepository,
             final Graph graph,
             final VisibilityTranslator visibilityTranslator,
-            final OntologyRepository ontologyRepository
+            final OntologyRepository ontologyRepository,
+            final EdgeLabelSummary edgeLabelSummary
     ) {
         this.termMentionRepository = termMentionRepository;
         this.auditRepository = auditRepository;
@@ -57,6 +63,7 @@ public class WorkspaceHelper {
         this.graph = graph;
         this.visibilityTranslator = visibilityTranslator;
         this.ontologyRepository = ontologyRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
 
         this.entityHasImageIri = ontologyRepository.getRelationshipIRIByIntent("entityHasImage");
         if (this.entityHasImageIri == null) {
@@ -77,7 +84,7 @@ public class WorkspaceHelper {
         List<Edge> edges = toList(sourceVertex.getEdges(Direction.BOTH, authorizations));
 
         if (edges.size() == 1) {
-            graph.removeEdge(edges.get(0), authorizations);
+            edgeLabelSummary.removeEdge(edges.get(0), authorizations);
             workQueueRepository.pushEdgeDeletion(edges.get(0));
             auditRepository.auditRelationship(AuditAction.DELETE, sourceVertex, resolvedVertex, edges.get(0), "", "", user, visibility.getVisibility());
         }
@@ -91,12 +98,11 @@ public class WorkspaceHelper {
     }
 
     public void deleteProperty(Vertex vertex, Property property, boolean propertyIsPublic, String workspaceId, User user, Authorizations authorizations) {
-        auditRepository.auditEntityProperty(AuditAction.DELETE, vertex.getId(), property.getKey(), property.getName(), property.getValue(), null, "", "", property.getMetadata(), user, property.getVisibility());
-
         if (propertyIsPublic) {
+            auditPropertyDelete(vertex, property, user);
             vertex.markPropertyHidden(property, new Visibility(workspaceId), authorizations);
         } else {
-            vertex.removeProperty(property.getKey(), property.getName(), authorizations);
+            deleteProperties(vertex, Collections.singletonList(property), user, authorizations);
         }
 
         graph.flush();
@@ -104,13 +110,30 @@ public class WorkspaceHelper {
         workQueueRepository.pushGraphPropertyQueue(vertex, property);
     }
 
+    /**
+     * Audits and removes properties of a vertex in one mutation. The caller flushes the graph and queues the
+     * removed properties.
+     */
+    public void deleteProperties(Vertex vertex, Collection<Property> properties, User user, Authorizations authorizations) {
+        ExistingElementMutation<Vertex> m = vertex.prepareMutation();
+        for (Property property : properties) {
+            auditPropertyDelete(vertex, property, user);
+            m.removeProperty(property.getKey(), property.getName(), property.getVisibility());
+        }
+        m.save(authorizations);
+    }
+
+    private void auditPropertyDelete(Vertex vertex, Property property, User user) {
+        auditRepository.auditEntityProperty(AuditAction.DELETE, vertex.getId(), property.getKey(), property.getName(), property.getValue(), null, "", "", property.getMetadata(), user, property.getVisibility());
+    }
+
     public void deleteEdge(String workspaceId, Edge edge, Vertex sourceVertex, Vertex destVertex, boolean isPublicEdge, User user, Authorizations authorizations) {
         ensureOntologyIrisInitialized();
 
         if (isPublicEdge) {
             Visibility workspaceVisibility = new Visibility(workspaceId);
 
-            graph.markEdgeHidden(edge, workspaceVisibility, authorizations);
+            edgeLabelSummary.hideEdge(edge, workspaceVisibility, authorizations);
 
             if (edge.getLabel().equals(entityHasImageIri)) {
                 Property entityHasImage = sourceVertex.getProperty(LumifyProperties.ENTITY_IMAGE_VERTEX_ID.getPropertyName());
@@ -128,7 +151,7 @@ public class WorkspaceHelper {
             graph.flush();
             this.workQueueRepository.pushEdgeDeletion(edge);
         } else {
-            graph.removeEdge(edge, authorizations);
+            edgeLabelSummary.removeEdge(edge, authorizations);
 
             if (edge.getLabel().equals(entityHasImageIri)) {
                 Property entityHasImage = sourceVertex.getProperty(LumifyProperties.ENTITY_IMAGE_VERTEX_ID.getPropertyName());
@@ -197,7 +220,7 @@ public class WorkspaceHelper {
                         Vertex outVertex = edge.getVertex(Direction.OUT, authorizations);
                         // remove property
                         LumifyProperties.DETECTED_OBJECT.removeProperty(outVertex, multiValueKey, authorizations);
-                        graph.removeEdge(edge, authorizations);
+                        edgeLabelSummary.removeEdge(edge, authorizations);
                         auditRepository.auditRelationship(AuditAction.DELETE, outVertex, vertex, edge, "", "", user, lumifyVisibility.getVisibility());
                         workQueueRepository.pushEdgeDeletion(edge);
                         workQueueRepository.pushGraphPropertyQueue(outVertex, multiValueKey,
@@ -219,10 +242,10 @@ public class WorkspaceHelper {
             Authorizations systemAuthorization = userRepository.getAuthorizations(user, WorkspaceRepository.VISIBILITY_STRING, workspaceId);
             Vertex workspaceVertex = graph.getVertex(workspaceId, systemAuthorization);
             for (Edge edge : workspaceVertex.getEdges(vertex, Direction.BOTH, systemAuthorization)) {
-                graph.removeEdge(edge, systemAuthorization);
+                edgeLabelSummary.removeEdge(edge, systemAuthorization);
             }
 
-            graph.removeVertex(vertex, authorizations);
+            edgeLabelSummary.removeVertex(vertex, authorizations);
             graph.flush();
             this.workQueueRepository.pushVertexDeletion(vertex);
 
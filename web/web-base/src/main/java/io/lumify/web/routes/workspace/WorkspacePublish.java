@@ -21,6 +21,7 @@ import io.lumify.core.model.workspace.diff.WorkspaceDiffHelper;
 import io.lumify.core.security.LumifyVisibility;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
@@ -46,6 +47,7 @@ public class WorkspacePublish extends BaseRequestHandler {
     private final WorkQueueRepository workQueueRepository;
     private final Graph graph;
     private final VisibilityTranslator visibilityTranslator;
+    private final EdgeLabelSummary edgeLabelSummary;
     private String entityHasImageIri;
 
     @Inject
@@ -59,7 +61,8 @@ public class WorkspacePublish extends BaseRequestHandler {
             final OntologyRepository ontologyRepository,
             final WorkspaceRepository workspaceRepository,
             final AuthorizationRepository authorizationRepository,
-            final WorkQueueRepository workQueueRepository) {
+            final WorkQueueRepository workQueueRepository,
+            final EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.termMentionRepository = termMentionRepository;
         this.auditRepository = auditRepository;
@@ -69,6 +72,7 @@ public class WorkspacePublish extends BaseRequestHandler {
         this.ontologyRepository = ontologyRepository;
         this.authorizationRepository = authorizationRepository;
         this.workQueueRepository = workQueueRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
 
         this.entityHasImageIri = ontologyRepository.getRelationshipIRIByIntent("entityHasImage");
         if (this.entityHasImageIri == null) {
@@ -245,7 +249,7 @@ public class WorkspacePublish extends BaseRequestHandler {
 
     private void publishVertex(Vertex vertex, ClientApiPublishItem.Action action, Authorizations authorizations, String workspaceId, User user) throws IOException {
         if (action == ClientApiPublishItem.Action.delete || WorkspaceDiffHelper.isPublicDelete(vertex, authorizations)) {
-            graph.removeVertex(vertex, authorizations);
+            edgeLabelSummary.removeVertex(vertex, authorizations);
             graph.flush();
             workQueueRepository.broadcastPublishVertexDelete(vertex);
             return;
@@ -271,6 +275,9 @@ public class WorkspacePublish extends BaseRequestHandler {
         vertexElementMutation.alterElementVisibility(lumifyVisibility.getVisibility());
 
         for (Property property : vertex.getProperties()) {
+            if (EdgeLabelSummary.isSummaryProperty(property)) {
+                continue;
+            }
             OntologyProperty ontologyProperty = ontologyRepository.getPropertyByIRI(property.getName());
             checkNotNull(ontologyProperty, "Could not find ontology property " + property.getName());
             if (!ontologyProperty.getUserVisible() && !property.getName().equals(LumifyProperties.ENTITY_IMAGE_VERTEX_ID.getPropertyName())) {
@@ -369,7 +376,7 @@ public class WorkspacePublish extends BaseRequestHandler {
 
     private void publishEdge(Edge edge, Vertex sourceVertex, Vertex destVertex, ClientApiPublishItem.Action action, String workspaceId, User user, Authorizations authorizations) {
         if (action == ClientApiPublishItem.Action.delete || WorkspaceDiffHelper.isPublicDelete(edge, authorizations)) {
-            graph.removeEdge(edge, authorizations);
+            edgeLabelSummary.removeEdge(edge, authorizations);
             graph.flush();
             workQueueRepository.broadcastPublishEdgeDelete(edge);
             return;
@@ -412,6 +419,7 @@ public class WorkspacePublish extends BaseRequestHandler {
         LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, visibilityJson, visibilityTranslator.getDefaultVisibility());
         LumifyProperties.VISIBILITY_JSON.setProperty(edgeExistingElementMutation, visibilityJson, metadata, lumifyVisibility.getVisibility());
         edge = edgeExistingElementMutation.save(authorizations);
+        edgeLabelSummary.edgeVisibilityChanged(edge, originalEdgeVisibility, lumifyVisibility.getVisibility(), authorizations);
 
         auditRepository.auditRelationship(AuditAction.PUBLISH, sourceVertex, destVertex, edge, "", "", user, edge.getVisibility());
 
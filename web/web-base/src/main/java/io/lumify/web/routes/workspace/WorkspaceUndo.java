@@ -12,6 +12,7 @@ import io.lumify.core.model.workspace.WorkspaceRepository;
 import io.lumify.core.model.workspace.diff.WorkspaceDiffHelper;
 import io.lumify.core.security.VisibilityTranslator;
 import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
 import io.lumify.core.util.GraphUtil;
 import io.lumify.core.util.LumifyLogger;
 import io.lumify.core.util.LumifyLoggerFactory;
@@ -24,10 +25,14 @@ import org.securegraph.util.IterableUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.List;
-
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.*;
 
+/**
+ * Undoes a workspace's changes in two passes. The first fetches every referenced element in one batch per element type
+ * and checks every item, so nothing is changed when any item can't be undone. The second applies the changes, with
+ * the property changes of each vertex in one mutation, the audits saved together, one graph flush and one broadcast
+ * per changed element.
+ */
 public class WorkspaceUndo extends BaseRequestHandler {
     private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(WorkspaceUndo.class);
     private final Graph graph;
@@ -36,6 +41,8 @@ public class WorkspaceUndo extends BaseRequestHandler {
     private String entityHasImageIri;
     private String artifactContainsImageOfEntityIri;
     private final OntologyRepository ontologyRepository;
+    private final AuditRepository auditRepository;
+    private final EdgeLabelSummary edgeLabelSummary;
 
     @Inject
     public WorkspaceUndo(
@@ -48,12 +55,15 @@ public class WorkspaceUndo extends BaseRequestHandler {
             final WorkspaceRepository workspaceRepository,
             final WorkQueueRepository workQueueRepository,
             final AuditRepository auditRepository,
-            final OntologyRepository ontologyRepository) {
+            final OntologyRepository ontologyRepository,
+            final EdgeLabelSummary edgeLabelSummary) {
         super(userRepository, workspaceRepository, configuration);
         this.graph = graph;
         this.workspaceHelper = workspaceHelper;
         this.workQueueRepository = workQueueRepository;
         this.ontologyRepository = ontologyRepository;
+        this.auditRepository = auditRepository;
+        this.edgeLabelSummary = edgeLabelSummary;
 
         this.entityHasImageIri = ontologyRepository.getRelationshipIRIByIntent("entityHasImage");
         if (this.entityHasImageIri == null) {
@@ -83,152 +93,350 @@ public class WorkspaceUndo extends BaseRequestHandler {
 
         LOGGER.debug("undoing:\n%s", Joiner.on("\n").join(undoData));
         ClientApiWorkspaceUndoResponse workspaceUndoResponse = new ClientApiWorkspaceUndoResponse();
-        undoVertices(undoData, workspaceUndoResponse, workspaceId, user, authorizations);
-        undoEdges(undoData, workspaceUndoResponse, workspaceId, user, authorizations);
-        undoProperties(undoData, workspaceUndoResponse, workspaceId, user, authorizations);
+        UndoPlan undoPlan = planUndo(undoData, workspaceUndoResponse, workspaceId, authorizations);
+        if (workspaceUndoResponse.getFailures().size() > 0) {
+            LOGGER.warn("nothing undone, %d of %d items cannot be undone", workspaceUndoResponse.getFailures().size(), undoData.length);
+        } else {
+            applyUndo(undoPlan, workspaceUndoResponse, workspaceId, user, authorizations);
+        }
         LOGGER.debug("undoing results: %s", workspaceUndoResponse);
         respondWithClientApiObject(response, workspaceUndoResponse);
     }
 
-    private void undoVertices(ClientApiUndoItem[] undoItem, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, User user, Authorizations authorizations) {
-        LOGGER.debug("BEGIN undoVertices");
-        JSONArray verticesDeleted = new JSONArray();
-        for (ClientApiUndoItem data : undoItem) {
-            try {
-                if (!(data instanceof ClientApiVertexUndoItem)) {
-                    continue;
-                }
-                ClientApiVertexUndoItem vertexUndoItem = (ClientApiVertexUndoItem) data;
-                String vertexId = vertexUndoItem.getVertexId();
-                checkNotNull(vertexId);
-                Vertex vertex = graph.getVertex(vertexId, FetchHint.ALL_INCLUDING_HIDDEN, authorizations);
-                checkNotNull(vertex);
-                if (WorkspaceDiffHelper.isPublicDelete(vertex, authorizations)) {
-                    LOGGER.debug("un-hiding vertex: %s (workspaceId: %s)", vertex.getId(), workspaceId);
-                    // TODO see WorkspaceHelper.deleteVertex for all the other things we need to bring back
-                    graph.markVertexVisible(vertex, new Visibility(workspaceId), authorizations);
-                    graph.flush();
-                    workQueueRepository.broadcastUndoVertexDelete(vertex);
-                } else if (GraphUtil.getSandboxStatus(vertex, workspaceId) == SandboxStatus.PUBLIC) {
-                    String msg = "Cannot undo a public vertex";
-                    LOGGER.warn(msg);
-                    data.setErrorMessage(msg);
-                    workspaceUndoResponse.addFailure(data);
-                } else {
-                    workspaceHelper.deleteVertex(vertex, workspaceId, false, authorizations, user);
-                    verticesDeleted.put(vertexId);
-                    graph.flush();
-                    workQueueRepository.broadcastUndoVertex(vertex);
-                }
-            } catch (Exception ex) {
-                LOGGER.error("Error undoing %s", data.toString(), ex);
-                data.setErrorMessage(ex.getMessage());
-                workspaceUndoResponse.addFailure(data);
+    private UndoPlan planUndo(ClientApiUndoItem[] undoItems, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, Authorizations authorizations) {
+        Set<String> vertexIds = new HashSet<>();
+        Set<String> edgeIds = new HashSet<>();
+        for (ClientApiUndoItem undoItem : undoItems) {
+            if (undoItem instanceof ClientApiVertexUndoItem && ((ClientApiVertexUndoItem) undoItem).getVertexId() != null) {
+                vertexIds.add(((ClientApiVertexUndoItem) undoItem).getVertexId());
+            } else if (undoItem instanceof ClientApiRelationshipUndoItem && ((ClientApiRelationshipUndoItem) undoItem).getEdgeId() != null) {
+                edgeIds.add(((ClientApiRelationshipUndoItem) undoItem).getEdgeId());
+            } else if (undoItem instanceof ClientApiPropertyUndoItem && ((ClientApiPropertyUndoItem) undoItem).getVertexId() != null) {
+                vertexIds.add(((ClientApiPropertyUndoItem) undoItem).getVertexId());
             }
         }
-        LOGGER.debug("END undoVertices");
-        if (verticesDeleted.length() > 0) {
-            workQueueRepository.pushVerticesDeletion(verticesDeleted);
+        Map<String, Edge> edges = new HashMap<>();
+        for (Edge edge : graph.getEdges(edgeIds, FetchHint.ALL_INCLUDING_HIDDEN, authorizations)) {
+            edges.put(edge.getId(), edge);
+            vertexIds.add(edge.getVertexId(Direction.OUT));
+            vertexIds.add(edge.getVertexId(Direction.IN));
+        }
+        Map<String, Vertex> vertices = new HashMap<>();
+        for (Vertex vertex : graph.getVertices(vertexIds, FetchHint.ALL_INCLUDING_HIDDEN, authorizations)) {
+            vertices.put(vertex.getId(), vertex);
+        }
+        LOGGER.debug("fetched %d vertices and %d edges for %d undo items", vertices.size(), edges.size(), undoItems.length);
+
+        // vertices are planned first so edges and properties of vertices being deleted are skipped, as they go with the vertex
+        UndoPlan undoPlan = new UndoPlan();
+        for (ClientApiUndoItem undoItem : undoItems) {
+            if (undoItem instanceof ClientApiVertexUndoItem) {
+                planVertexUndo((ClientApiVertexUndoItem) undoItem, vertices, undoPlan, workspaceUndoResponse, workspaceId, authorizations);
+            }
+        }
+        for (ClientApiUndoItem undoItem : undoItems) {
+            if (undoItem instanceof ClientApiRelationshipUndoItem) {
+                planEdgeUndo((ClientApiRelationshipUndoItem) undoItem, edges, vertices, undoPlan, workspaceUndoResponse, workspaceId, authorizations);
+            }
         }
-        graph.flush();
+        for (ClientApiUndoItem undoItem : undoItems) {
+            if (undoItem instanceof ClientApiPropertyUndoItem) {
+                planPropertyUndo((ClientApiPropertyUndoItem) undoItem, vertices, undoPlan, workspaceUndoResponse, workspaceId, authorizations);
+            }
+        }
+        return undoPlan;
     }
 
-    private void undoEdges(ClientApiUndoItem[] undoItem, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, User user, Authorizations authorizations) {
-        LOGGER.debug("BEGIN undoEdges");
-        for (ClientApiUndoItem data : undoItem) {
-            try {
-                if (!(data instanceof ClientApiRelationshipUndoItem)) {
-                    continue;
-                }
+    private void planVertexUndo(ClientApiVertexUndoItem undoItem, Map<String, Vertex> vertices, UndoPlan undoPlan, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, Authorizations authorizations) {
+        Vertex vertex = undoItem.getVertexId() == null ? null : vertices.get(undoItem.getVertexId());
+        if (vertex == null) {
+            addFailure(undoItem, "Could not find vertex: " + undoItem.getVertexId(), workspaceUndoResponse);
+        } else if (WorkspaceDiffHelper.isPublicDelete(vertex, authorizations)) {
+            undoPlan.verticesToUnhide.add(new ElementUndo<>(undoItem, vertex));
+        } else if (GraphUtil.getSandboxStatus(vertex, workspaceId) == SandboxStatus.PUBLIC) {
+            addFailure(undoItem, "Cannot undo a public vertex", workspaceUndoResponse);
+        } else {
+            undoPlan.verticesToDelete.add(new ElementUndo<>(undoItem, vertex));
+            undoPlan.deletedVertexIds.add(vertex.getId());
+        }
+    }
+
+    private void planEdgeUndo(ClientApiRelationshipUndoItem undoItem, Map<String, Edge> edges, Map<String, Vertex> vertices, UndoPlan undoPlan, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, Authorizations authorizations) {
+        Edge edge = undoItem.getEdgeId() == null ? null : edges.get(undoItem.getEdgeId());
+        Vertex sourceVertex = edge == null ? null : undoPlan.getVisibleVertex(edge.getVertexId(Direction.OUT), vertices, authorizations);
+        Vertex destVertex = edge == null ? null : undoPlan.getVisibleVertex(edge.getVertexId(Direction.IN), vertices, authorizations);
+        if (sourceVertex == null || destVertex == null) {
+            workspaceUndoResponse.addSkipped(undoItem);
+        } else if (WorkspaceDiffHelper.isPublicDelete(edge, authorizations)) {
+            undoPlan.edgesToUnhide.add(new EdgeUndo(undoItem, edge, sourceVertex, destVertex));
+        } else if (GraphUtil.getSandboxStatus(edge, workspaceId) == SandboxStatus.PUBLIC) {
+            addFailure(undoItem, "Cannot undo a public edge", workspaceUndoResponse);
+        } else {
+            undoPlan.edgesToDelete.add(new EdgeUndo(undoItem, edge, sourceVertex, destVertex));
+        }
+    }
 
-                ClientApiRelationshipUndoItem relationshipUndoItem = (ClientApiRelationshipUndoItem) data;
-                Edge edge = graph.getEdge(relationshipUndoItem.getEdgeId(), FetchHint.ALL_INCLUDING_HIDDEN, authorizations);
-                if (edge == null) {
-                    continue;
+    private void planPropertyUndo(ClientApiPropertyUndoItem undoItem, Map<String, Vertex> vertices, UndoPlan undoPlan, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, Authorizations authorizations) {
+        Vertex vertex = undoItem.getVertexId() == null ? null : vertices.get(undoItem.getVertexId());
+        if (vertex == null || undoPlan.deletedVertexIds.contains(vertex.getId())) {
+            workspaceUndoResponse.addSkipped(undoItem);
+            return;
+        }
+        String propertyVisibilityString = undoItem.getVisibilityString();
+        List<Property> properties = IterableUtils.toList(vertex.getProperties(undoItem.getKey(), undoItem.getName()));
+        SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, workspaceId);
+        PropertyUndo propertyUndo = new PropertyUndo(undoItem, vertex);
+        for (int propertyIndex = 0; propertyIndex < properties.size(); propertyIndex++) {
+            Property property = properties.get(propertyIndex);
+            if (propertyVisibilityString != null &&
+                    !property.getVisibility().getVisibilityString().equals(propertyVisibilityString)) {
+                continue;
+            }
+            if (WorkspaceDiffHelper.isPublicDelete(property, authorizations)) {
+                propertyUndo.propertiesToUnhide.add(property);
+            } else if (sandboxStatuses[propertyIndex] == SandboxStatus.PUBLIC) {
+                addFailure(undoItem, "Cannot undo a public property", workspaceUndoResponse);
+                return;
+            } else {
+                propertyUndo.propertiesToDelete.add(property);
+            }
+        }
+        if (propertyUndo.propertiesToUnhide.size() == 0 && propertyUndo.propertiesToDelete.size() == 0) {
+            workspaceUndoResponse.addSkipped(undoItem);
+            return;
+        }
+        List<PropertyUndo> vertexPropertyUndos = undoPlan.propertyUndosByVertexId.get(vertex.getId());
+        if (vertexPropertyUndos == null) {
+            vertexPropertyUndos = new ArrayList<>();
+            undoPlan.propertyUndosByVertexId.put(vertex.getId(), vertexPropertyUndos);
+        }
+        vertexPropertyUndos.add(propertyUndo);
+    }
+
+    private void applyUndo(UndoPlan undoPlan, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, User user, Authorizations authorizations) {
+        Visibility workspaceVisibility = new Visibility(workspaceId);
+        List<Vertex> unhiddenVertices = new ArrayList<>();
+        List<Vertex> deletedVertices = new ArrayList<>();
+        List<Edge> unhiddenEdges = new ArrayList<>();
+        List<Edge> deletedEdges = new ArrayList<>();
+        List<PropertyUndo> undonePropertyUndos = new ArrayList<>();
+
+        auditRepository.startBatch();
+        try {
+            for (ElementUndo<Vertex> vertexUndo : undoPlan.verticesToUnhide) {
+                try {
+                    LOGGER.debug("un-hiding vertex: %s (workspaceId: %s)", vertexUndo.element.getId(), workspaceId);
+                    // TODO see WorkspaceHelper.deleteVertex for all the other things we need to bring back
+                    graph.markVertexVisible(vertexUndo.element, workspaceVisibility, authorizations);
+                    unhiddenVertices.add(vertexUndo.element);
+                    workspaceUndoResponse.addUndone(vertexUndo.item);
+                } catch (Exception ex) {
+                    addFailure(vertexUndo.item, ex, workspaceUndoResponse);
                 }
-                Vertex sourceVertex = edge.getVertex(Direction.OUT, authorizations);
-                Vertex destVertex = edge.getVertex(Direction.IN, authorizations);
-                if (sourceVertex == null || destVertex == null) {
-                    continue;
+            }
+            for (ElementUndo<Vertex> vertexUndo : undoPlan.verticesToDelete) {
+                try {
+                    workspaceHelper.deleteVertex(vertexUndo.element, workspaceId, false, authorizations, user);
+                    deletedVertices.add(vertexUndo.element);
+                    workspaceUndoResponse.addUndone(vertexUndo.item);
+                } catch (Exception ex) {
+                    addFailure(vertexUndo.item, ex, workspaceUndoResponse);
                 }
+            }
 
-                checkNotNull(edge);
-
-                if (WorkspaceDiffHelper.isPublicDelete(edge, authorizations)) {
-                    LOGGER.debug("un-hiding edge: %s (workspaceId: %s)", edge.getId(), workspaceId);
+            for (EdgeUndo edgeUndo : undoPlan.edgesToUnhide) {
+                try {
+                    LOGGER.debug("un-hiding edge: %s (workspaceId: %s)", edgeUndo.edge.getId(), workspaceId);
                     // TODO see workspaceHelper.deleteEdge for all the other things we need to bring back
-                    graph.markEdgeVisible(edge, new Visibility(workspaceId), authorizations);
-                    graph.flush();
-                    workQueueRepository.broadcastUndoEdgeDelete(edge);
-                } else if (GraphUtil.getSandboxStatus(edge, workspaceId) == SandboxStatus.PUBLIC) {
-                    String error_msg = "Cannot undo a public edge";
-                    LOGGER.warn(error_msg);
-                    data.setErrorMessage(error_msg);
-                    workspaceUndoResponse.addFailure(data);
-                } else {
-                    workspaceHelper.deleteEdge(workspaceId, edge, sourceVertex, destVertex, false, user, authorizations);
-                    graph.flush();
-                    workQueueRepository.broadcastUndoEdge(edge);
+                    edgeLabelSummary.unhideEdge(edgeUndo.edge, workspaceVisibility, authorizations);
+                    unhiddenEdges.add(edgeUndo.edge);
+                    workspaceUndoResponse.addUndone(edgeUndo.item);
+                } catch (Exception ex) {
+                    addFailure(edgeUndo.item, ex, workspaceUndoResponse);
+                }
+            }
+            for (EdgeUndo edgeUndo : undoPlan.edgesToDelete) {
+                try {
+                    workspaceHelper.deleteEdge(workspaceId, edgeUndo.edge, edgeUndo.sourceVertex, edgeUndo.destVertex, false, user, authorizations);
+                    deletedEdges.add(edgeUndo.edge);
+                    workspaceUndoResponse.addUndone(edgeUndo.item);
+                } catch (Exception ex) {
+                    addFailure(edgeUndo.item, ex, workspaceUndoResponse);
+                }
+            }
+
+            for (List<PropertyUndo> vertexPropertyUndos : undoPlan.propertyUndosByVertexId.values()) {
+                try {
+                    undoVertexProperties(vertexPropertyUndos, workspaceVisibility, user, authorizations);
+                    for (PropertyUndo propertyUndo : vertexPropertyUndos) {
+                        undonePropertyUndos.add(propertyUndo);
+                        workspaceUndoResponse.addUndone(propertyUndo.item);
+                    }
+                } catch (Exception ex) {
+                    for (PropertyUndo propertyUndo : vertexPropertyUndos) {
+                        addFailure(propertyUndo.item, ex, workspaceUndoResponse);
+                    }
                 }
-            } catch (Exception ex) {
-                LOGGER.error("Error publishing %s", data.toString(), ex);
-                data.setErrorMessage(ex.getMessage());
-                workspaceUndoResponse.addFailure(data);
             }
+        } finally {
+            graph.flush();
+            auditRepository.flushBatch();
         }
-        LOGGER.debug("END undoEdges");
-        graph.flush();
+
+        broadcastUndo(unhiddenVertices, deletedVertices, unhiddenEdges, deletedEdges, undonePropertyUndos);
     }
 
-    private void undoProperties(ClientApiUndoItem[] undoItem, ClientApiWorkspaceUndoResponse workspaceUndoResponse, String workspaceId, User user, Authorizations authorizations) {
-        LOGGER.debug("BEGIN undoProperties");
-        for (ClientApiUndoItem data : undoItem) {
-            try {
-                if (!(data instanceof ClientApiPropertyUndoItem)) {
-                    continue;
+    /**
+     * Un-hides and deletes the properties of one vertex, with all of the deletes in one mutation.
+     */
+    private void undoVertexProperties(List<PropertyUndo> vertexPropertyUndos, Visibility workspaceVisibility, User user, Authorizations authorizations) {
+        Vertex vertex = vertexPropertyUndos.get(0).vertex;
+        Set<Property> propertiesToDelete = new LinkedHashSet<>();
+        for (PropertyUndo propertyUndo : vertexPropertyUndos) {
+            for (Property property : propertyUndo.propertiesToUnhide) {
+                LOGGER.debug("un-hiding property: %s (vertexId: %s)", property, vertex.getId());
+                vertex.markPropertyVisible(property, workspaceVisibility, authorizations);
+            }
+            propertiesToDelete.addAll(propertyUndo.propertiesToDelete);
+        }
+        if (propertiesToDelete.size() > 0) {
+            workspaceHelper.deleteProperties(vertex, propertiesToDelete, user, authorizations);
+        }
+    }
+
+    private void broadcastUndo(List<Vertex> unhiddenVertices, List<Vertex> deletedVertices, List<Edge> unhiddenEdges, List<Edge> deletedEdges, List<PropertyUndo> undonePropertyUndos) {
+        for (Vertex vertex : unhiddenVertices) {
+            workQueueRepository.broadcastUndoVertexDelete(vertex);
+        }
+        JSONArray verticesDeleted = new JSONArray();
+        for (Vertex vertex : deletedVertices) {
+            workQueueRepository.broadcastUndoVertex(vertex);
+            verticesDeleted.put(vertex.getId());
+        }
+        if (verticesDeleted.length() > 0) {
+            workQueueRepository.pushVerticesDeletion(verticesDeleted);
+        }
+        for (Edge edge : unhiddenEdges) {
+            workQueueRepository.broadcastUndoEdgeDelete(edge);
+        }
+        for (Edge edge : deletedEdges) {
+            workQueueRepository.broadcastUndoEdge(edge);
+        }
+
+        // the publish broadcast only names the vertex, so one of each kind is sent per vertex however many properties changed
+        Map<String, PropertyUndo> unhiddenPropertyUndosByVertexId = new LinkedHashMap<>();
+        Map<String, PropertyUndo> deletedPropertyUndosByVertexId = new LinkedHashMap<>();
+        Map<Vertex, Map<String, Set<String>>> deletedPropertyKeysByName = new LinkedHashMap<>();
+        for (PropertyUndo propertyUndo : undonePropertyUndos) {
+            String vertexId = propertyUndo.vertex.getId();
+            if (propertyUndo.propertiesToUnhide.size() > 0 && !unhiddenPropertyUndosByVertexId.containsKey(vertexId)) {
+                unhiddenPropertyUndosByVertexId.put(vertexId, propertyUndo);
+            }
+            if (propertyUndo.propertiesToDelete.size() > 0 && !deletedPropertyUndosByVertexId.containsKey(vertexId)) {
+                deletedPropertyUndosByVertexId.put(vertexId, propertyUndo);
+            }
+            for (Property property : propertyUndo.propertiesToDelete) {
+                Map<String, Set<String>> keysByName = deletedPropertyKeysByName.get(propertyUndo.vertex);
+                if (keysByName == null) {
+                    keysByName = new LinkedHashMap<>();
+                    deletedPropertyKeysByName.put(propertyUndo.vertex, keysByName);
                 }
-                ClientApiPropertyUndoItem propertyUndoItem = (ClientApiPropertyUndoItem) data;
-                Vertex vertex = graph.getVertex(propertyUndoItem.getVertexId(), FetchHint.ALL_INCLUDING_HIDDEN, authorizations);
-                if (vertex == null) {
-                    continue;
+                Set<String> keys = keysByName.get(property.getName());
+                if (keys == null) {
+                    keys = new LinkedHashSet<>();
+                    keysByName.put(property.getName(), keys);
                 }
-                String propertyKey = propertyUndoItem.getKey();
-                String propertyName = propertyUndoItem.getName();
-                String propertyVisibilityString = propertyUndoItem.getVisibilityString();
-                List<Property> properties = IterableUtils.toList(vertex.getProperties(propertyKey, propertyName));
-                SandboxStatus[] sandboxStatuses = GraphUtil.getPropertySandboxStatuses(properties, workspaceId);
-                for (int propertyIndex = 0; propertyIndex < properties.size(); propertyIndex++) {
-                    Property property = properties.get(propertyIndex);
-                    if (propertyVisibilityString != null &&
-                            !property.getVisibility().getVisibilityString().equals(propertyVisibilityString)) {
-                        continue;
-                    }
-                    SandboxStatus propertySandboxStatus = sandboxStatuses[propertyIndex];
-
-                    if (WorkspaceDiffHelper.isPublicDelete(property, authorizations)) {
-                        LOGGER.debug("un-hiding property: %s (workspaceId: %s)", property, workspaceId);
-                        vertex.markPropertyVisible(property, new Visibility(workspaceId), authorizations);
-                        graph.flush();
-                        workQueueRepository.broadcastUndoPropertyDelete(vertex, propertyKey, propertyName);
-                    } else if (propertySandboxStatus == SandboxStatus.PUBLIC) {
-                        String error_msg = "Cannot undo a public property";
-                        LOGGER.warn(error_msg);
-                        data.setErrorMessage(error_msg);
-                        workspaceUndoResponse.addFailure(data);
-                    } else {
-                        workspaceHelper.deleteProperty(vertex, property, false, workspaceId, user, authorizations);
-                        graph.flush();
-                        workQueueRepository.broadcastUndoProperty(vertex, propertyKey, propertyName);
+                keys.add(property.getKey());
+            }
+        }
+        for (Map.Entry<Vertex, Map<String, Set<String>>> vertexEntry : deletedPropertyKeysByName.entrySet()) {
+            for (Map.Entry<String, Set<String>> nameEntry : vertexEntry.getValue().entrySet()) {
+                workQueueRepository.pushGraphPropertiesQueue(vertexEntry.getKey(), nameEntry.getKey(), nameEntry.getValue());
+            }
+        }
+        for (PropertyUndo propertyUndo : unhiddenPropertyUndosByVertexId.values()) {
+            Property property = propertyUndo.propertiesToUnhide.get(0);
+            workQueueRepository.broadcastUndoPropertyDelete(propertyUndo.vertex, property.getKey(), property.getName());
+        }
+        for (PropertyUndo propertyUndo : deletedPropertyUndosByVertexId.values()) {
+            Property property = propertyUndo.propertiesToDelete.get(0);
+            workQueueRepository.broadcastUndoProperty(propertyUndo.vertex, property.getKey(), property.getName());
+        }
+    }
+
+    private static void addFailure(ClientApiUndoItem undoItem, String message, ClientApiWorkspaceUndoResponse workspaceUndoResponse) {
+        LOGGER.warn("%s: %s", message, undoItem);
+        undoItem.setErrorMessage(message);
+        workspaceUndoResponse.addFailure(undoItem);
+    }
+
+    private static void addFailure(ClientApiUndoItem undoItem, Exception ex, ClientApiWorkspaceUndoResponse workspaceUndoResponse) {
+        LOGGER.error("Error undoing %s", undoItem.toString(), ex);
+        undoItem.setErrorMessage(ex.getMessage());
+        workspaceUndoResponse.addFailure(undoItem);
+    }
+
+    private static class UndoPlan {
+        private final List<ElementUndo<Vertex>> verticesToUnhide = new ArrayList<>();
+        private final List<ElementUndo<Vertex>> verticesToDelete = new ArrayList<>();
+        private final Set<String> deletedVertexIds = new HashSet<>();
+        private final List<EdgeUndo> edgesToUnhide = new ArrayList<>();
+        private final List<EdgeUndo> edgesToDelete = new ArrayList<>();
+        private final Map<String, List<PropertyUndo>> propertyUndosByVertexId = new LinkedHashMap<>();
+
+        /**
+         * @return the vertex if it will still be visible once the planned vertex changes are made, otherwise null.
+         */
+        private Vertex getVisibleVertex(String vertexId, Map<String, Vertex> vertices, Authorizations authorizations) {
+            Vertex vertex = vertices.get(vertexId);
+            if (vertex == null || deletedVertexIds.contains(vertexId)) {
+                return null;
+            }
+            if (WorkspaceDiffHelper.isPublicDelete(vertex, authorizations)) {
+                for (ElementUndo<Vertex> vertexUndo : verticesToUnhide) {
+                    if (vertexUndo.element.getId().equals(vertexId)) {
+                        return vertex;
                     }
                 }
-            } catch (Exception ex) {
-                LOGGER.error("Error publishing %s", data.toString(), ex);
-                data.setErrorMessage(ex.getMessage());
-                workspaceUndoResponse.addFailure(data);
+                return null;
             }
+            return vertex;
         }
-        LOGGER.debug("End undoProperties");
-        graph.flush();
     }
 
+    private static class ElementUndo<T extends Element> {
+        private final ClientApiUndoItem item;
+        private final T element;
+
+        private ElementUndo(ClientApiUndoItem item, T element) {
+            this.item = item;
+            this.element = element;
+        }
+    }
+
+    private static class EdgeUndo {
+        private final ClientApiUndoItem item;
+        private final Edge edge;
+        private final Vertex sourceVertex;
+        private final Vertex destVertex;
+
+        private EdgeUndo(ClientApiUndoItem item, Edge edge, Vertex sourceVertex, Vertex destVertex) {
+            this.item = item;
+            this.edge = edge;
+            this.sourceVertex = sourceVertex;
+            this.destVertex = destVertex;
+        }
+    }
+
+    private static class PropertyUndo {
+        private final ClientApiUndoItem item;
+        private final Vertex vertex;
+        private final List<Property> propertiesToUnhide = new ArrayList<>();
+        private final List<Property> propertiesToDelete = new ArrayList<>();
+
+        private PropertyUndo(ClientApiUndoItem item, Vertex vertex) {
+            this.item = item;
+            this.vertex = vertex;
+        }
+    }
 }
@@ -6,14 +6,104 @@ import io.lumify.core.bootstrap.InjectHelper;
 import io.lumify.core.bootstrap.LumifyBootstrap;
 import io.lumify.core.config.Configuration;
 import io.lumify.core.config.ConfigurationLoader;
+import org.eclipse.jetty.nosql.NoSqlSession;
 
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves sessions from the copies this web server keeps in memory and only goes to the session table when it has to.
+ * <p/>
+ * Within the stale period a request is served from the copy in memory without reading the session table. After it
+ * the base class refreshes the session, reading its row and reloading the session if another web server has saved
+ * it since. A save is skipped when the session's attributes are the ones last saved or loaded here, unless the session
+ * hasn't been written for the touch interval, so a request that doesn't change the session costs no write and at most
+ * one read per stale period.
+ * <p/>
+ * A change another web server makes to a session can take up to the stale period to be seen here, which is meant for
+ * sticky sessions. Set the stale period to 0 to refresh on every request.
+ */
 public class LumifyBigTableJettySessionManager extends BigTableJettySessionManager {
+    public static final String STALE_PERIOD_SECONDS = "web.session.stalePeriodSeconds";
+    public static final String TOUCH_INTERVAL_SECONDS = "web.session.touchIntervalSeconds";
+    public static final String MAX_TRACKED_SESSIONS = "web.session.maxTrackedSessions";
+    private static final int DEFAULT_STALE_PERIOD_SECONDS = 5;
+    private static final int DEFAULT_TOUCH_INTERVAL_SECONDS = 60;
+    private static final int DEFAULT_MAX_TRACKED_SESSIONS = 10000;
+    private final SessionSyncTracker sessionSyncTracker;
+
     public LumifyBigTableJettySessionManager() {
-        super(createModelSession());
+        this(ConfigurationLoader.load());
+    }
+
+    private LumifyBigTableJettySessionManager(Configuration configuration) {
+        this(createModelSession(configuration), configuration);
     }
 
-    private static ModelSession createModelSession() {
-        Configuration configuration = ConfigurationLoader.load();
+    public LumifyBigTableJettySessionManager(ModelSession modelSession, Configuration configuration) {
+        super(modelSession);
+        setStalePeriod(configuration.getInt(STALE_PERIOD_SECONDS, DEFAULT_STALE_PERIOD_SECONDS));
+        long touchIntervalMillis = configuration.getInt(TOUCH_INTERVAL_SECONDS, DEFAULT_TOUCH_INTERVAL_SECONDS) * 1000L;
+        int maxTrackedSessions = configuration.getInt(MAX_TRACKED_SESSIONS, DEFAULT_MAX_TRACKED_SESSIONS);
+        this.sessionSyncTracker = new SessionSyncTracker(touchIntervalMillis, maxTrackedSessions);
+    }
+
+    private static ModelSession createModelSession(Configuration configuration) {
         return InjectHelper.getInstance(ModelSession.class, LumifyBootstrap.bootstrapModuleMaker(configuration), configuration);
     }
+
+    @Override
+    protected NoSqlSession loadSession(String clusterId) {
+        NoSqlSession session = super.loadSession(clusterId);
+        if (session != null) {
+            sessionSyncTracker.loaded(clusterId, fingerprint(session), System.currentTimeMillis());
+        }
+        return session;
+    }
+
+    @Override
+    protected Object refresh(NoSqlSession session, Object version) {
+        Object newVersion = super.refresh(session, version);
+        if (session.isValid() && (newVersion == null || !newVersion.equals(version))) {
+            sessionSyncTracker.loaded(session.getClusterId(), fingerprint(session), System.currentTimeMillis());
+        }
+        return newVersion;
+    }
+
+    @Override
+    protected Object save(NoSqlSession session, Object version, boolean activateAfterSave) {
+        if (!session.isValid()) {
+            return super.save(session, version, activateAfterSave);
+        }
+        long now = System.currentTimeMillis();
+        byte[] fingerprint = fingerprint(session);
+        if (version != null && !sessionSyncTracker.needsSave(session.getClusterId(), fingerprint, now)) {
+            return version;
+        }
+        Object newVersion = super.save(session, version, activateAfterSave);
+        sessionSyncTracker.saved(session.getClusterId(), fingerprint, now);
+        return newVersion;
+    }
+
+    @Override
+    protected boolean remove(NoSqlSession session) {
+        sessionSyncTracker.removed(session.getClusterId());
+        return super.remove(session);
+    }
+
+    private static byte[] fingerprint(NoSqlSession session) {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        try {
+            Enumeration<String> attributeNames = session.getAttributeNames();
+            while (attributeNames.hasMoreElements()) {
+                String attributeName = attributeNames.nextElement();
+                attributes.put(attributeName, session.getAttribute(attributeName));
+            }
+        } catch (IllegalStateException ex) {
+            // the session was invalidated while it was being read, it will always be saved
+            return null;
+        }
+        return SessionSyncTracker.fingerprint(attributes);
+    }
 }
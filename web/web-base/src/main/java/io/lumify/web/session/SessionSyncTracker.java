@@ -0,0 +1,113 @@
+package io.lumify.web.session;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.lumify.core.util.LumifyLogger;
+import io.lumify.core.util.LumifyLoggerFactory;
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tracks, for the sessions a web server holds in memory, a fingerprint of the attributes it last read or wrote and
+ * when. That lets the session manager skip saving a session whose attributes haven't changed.
+ * <p/>
+ * Whether a session was saved elsewhere is left to the session row's own version, which is written in the same
+ * mutation as the attributes; a version kept in a row of its own could disagree with the session it describes when
+ * two web servers save the same session at once.
+ */
+public class SessionSyncTracker {
+    private static final LumifyLogger LOGGER = LumifyLoggerFactory.getLogger(SessionSyncTracker.class);
+    private final long touchIntervalMillis;
+    private final Cache<String, SessionState> sessionStates;
+
+    /**
+     * @param touchIntervalMillis the longest time an unchanged session goes without being saved, which keeps its
+     *                            stored access time recent enough that it isn't expired elsewhere.
+     * @param maxSessions         the number of sessions to track; sessions dropped from tracking are saved on their
+     *                            next save.
+     */
+    public SessionSyncTracker(long touchIntervalMillis, int maxSessions) {
+        this.touchIntervalMillis = touchIntervalMillis;
+        this.sessionStates = CacheBuilder.newBuilder()
+                .maximumSize(maxSessions)
+                .build();
+    }
+
+    /**
+     * @param fingerprint the session's attributes from {@link #fingerprint(Map)}
+     * @return false if the session was last saved or loaded here with the same attributes within the touch interval.
+     */
+    public boolean needsSave(String sessionId, byte[] fingerprint, long now) {
+        SessionState state = sessionStates.getIfPresent(sessionId);
+        return state == null
+                || fingerprint == null
+                || state.fingerprint == null
+                || !Arrays.equals(state.fingerprint, fingerprint)
+                || now - state.syncedTime >= touchIntervalMillis;
+    }
+
+    /**
+     * Records that the session was written to storage with these attributes.
+     */
+    public void saved(String sessionId, byte[] fingerprint, long now) {
+        sessionStates.put(sessionId, new SessionState(fingerprint, now));
+    }
+
+    /**
+     * Records that the session was read from storage with these attributes.
+     */
+    public void loaded(String sessionId, byte[] fingerprint, long now) {
+        sessionStates.put(sessionId, new SessionState(fingerprint, now));
+    }
+
+    public void removed(String sessionId) {
+        sessionStates.invalidate(sessionId);
+    }
+
+    /**
+     * @return a digest of the attributes' serialized names and values, or null if an attribute can't be serialized,
+     * in which case the session is always saved.
+     */
+    public static byte[] fingerprint(Map<String, Object> attributes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(new NullOutputStream(), digest));
+            try {
+                for (Map.Entry<String, Object> attribute : new TreeMap<String, Object>(attributes).entrySet()) {
+                    out.writeUTF(attribute.getKey());
+                    out.writeObject(attribute.getValue());
+                }
+            } finally {
+                out.close();
+            }
+            return digest.digest();
+        } catch (NotSerializableException ex) {
+            LOGGER.debug("could not fingerprint session attributes: %s", ex.getMessage());
+            return null;
+        } catch (IOException ex) {
+            LOGGER.warn("could not fingerprint session attributes", ex);
+            return null;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException("MD5 is not available", ex);
+        }
+    }
+
+    private static class SessionState {
+        private final byte[] fingerprint;
+        private final long syncedTime;
+
+        private SessionState(byte[] fingerprint, long syncedTime) {
+            this.fingerprint = fingerprint;
+            this.syncedTime = syncedTime;
+        }
+    }
+}
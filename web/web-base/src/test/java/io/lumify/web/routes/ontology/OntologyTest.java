@@ -0,0 +1,155 @@
+package io.lumify.web.routes.ontology;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.miniweb.HandlerChain;
+import io.lumify.web.clientapi.model.ClientApiOntology;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OntologyTest {
+    @Mock
+    private OntologyRepository ontologyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    @Mock
+    private Configuration configuration;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HandlerChain chain;
+
+    private ClientApiOntology clientApiOntology;
+    private OntologyPayloadCache ontologyPayloadCache;
+    private ByteArrayOutputStream responseBytes;
+
+    @Before
+    public void setUp() throws IOException {
+        clientApiOntology = new ClientApiOntology();
+        when(ontologyRepository.getClientApiObject()).thenReturn(clientApiOntology);
+        when(ontologyRepository.getVersion()).thenReturn(1L);
+        ontologyPayloadCache = new OntologyPayloadCache(ontologyRepository);
+
+        responseBytes = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                responseBytes.write(b);
+            }
+        });
+    }
+
+    @Test
+    public void testPayloadBuiltOncePerOntologyVersion() throws IOException {
+        OntologyPayloadCache.Payload payload = ontologyPayloadCache.getPayload();
+        assertSame(payload, ontologyPayloadCache.getPayload());
+        assertEquals(new String(payload.getJson()), new String(gunzip(payload.getGzippedJson())));
+
+        when(ontologyRepository.getClientApiObject()).thenReturn(new ClientApiOntology());
+        assertSame("a new ontology object of the same version should not rebuild", payload, ontologyPayloadCache.getPayload());
+
+        when(ontologyRepository.getVersion()).thenReturn(2L);
+        OntologyPayloadCache.Payload newPayload = ontologyPayloadCache.getPayload();
+        assertNotSame(payload, newPayload);
+        assertSame(newPayload, ontologyPayloadCache.getPayload());
+        assertNotSame(newPayload, ontologyPayloadCache.rebuild());
+    }
+
+    @Test
+    public void testHandleIdentity() throws Exception {
+        OntologyPayloadCache.Payload payload = ontologyPayloadCache.getPayload();
+        when(request.getHeaders("Accept-Encoding")).thenReturn(Collections.enumeration(Arrays.asList("deflate")));
+
+        createHandler().handle(request, response, chain);
+
+        verify(response).setHeader("ETag", "\"" + payload.getETag() + "\"");
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(response).setContentLength(payload.getJson().length);
+        assertArrayEquals(payload.getJson(), responseBytes.toByteArray());
+    }
+
+    @Test
+    public void testHandleGzip() throws Exception {
+        OntologyPayloadCache.Payload payload = ontologyPayloadCache.getPayload();
+        when(request.getHeaders("Accept-Encoding")).thenReturn(Collections.enumeration(Arrays.asList("gzip, deflate")));
+
+        createHandler().handle(request, response, chain);
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        assertArrayEquals(payload.getGzippedJson(), responseBytes.toByteArray());
+    }
+
+    @Test
+    public void testHandleNotModified() throws Exception {
+        OntologyPayloadCache.Payload payload = ontologyPayloadCache.getPayload();
+        when(request.getHeader("If-None-Match")).thenReturn("\"" + payload.getETag() + "\"");
+
+        createHandler().handle(request, response, chain);
+
+        verify(response).sendError(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(0, responseBytes.size());
+        assertSame(payload, ontologyPayloadCache.getPayload());
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertFalse(Ontology.acceptsGzip(null));
+        assertFalse(Ontology.acceptsGzip(Collections.enumeration(Arrays.asList("identity"))));
+        assertFalse(Ontology.acceptsGzip(Collections.enumeration(Arrays.asList("deflate, gzip;q=0"))));
+        assertTrue(Ontology.acceptsGzip(Collections.enumeration(Arrays.asList("deflate", "GZIP;q=0.5"))));
+        assertTrue(Ontology.acceptsGzip(Collections.enumeration(Arrays.asList("x-gzip"))));
+    }
+
+    private Ontology createHandler() {
+        return new Ontology(ontologyPayloadCache, userRepository, workspaceRepository, configuration);
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+}
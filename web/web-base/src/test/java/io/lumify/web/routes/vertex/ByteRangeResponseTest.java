@@ -0,0 +1,143 @@
+package io.lumify.web.routes.vertex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.securegraph.property.StreamingPropertyValue;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ByteRangeResponseTest {
+    private static final byte[] DATA = "0123456789abcdefghij".getBytes();
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private StreamingPropertyValue value;
+
+    private ByteArrayOutputStream responseBytes;
+
+    @Before
+    public void setUp() throws IOException {
+        responseBytes = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                responseBytes.write(b);
+            }
+        });
+        when(value.getLength()).thenReturn((long) DATA.length);
+        when(value.getInputStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                return new ByteArrayInputStream(DATA);
+            }
+        });
+    }
+
+    @Test
+    public void testParse() {
+        assertNull(ByteRangeResponse.parse(null, 100));
+        assertNull(ByteRangeResponse.parse("items=0-5", 100));
+        assertNull(ByteRangeResponse.parse("bytes=5-1", 100));
+        assertNull(ByteRangeResponse.parse("bytes=abc", 100));
+
+        assertRanges(ByteRangeResponse.parse("bytes=0-", 100), 0, 99);
+        assertRanges(ByteRangeResponse.parse("bytes=10-19", 100), 10, 19);
+        assertRanges(ByteRangeResponse.parse("bytes=90-200", 100), 90, 99);
+        assertRanges(ByteRangeResponse.parse("bytes=-10", 100), 90, 99);
+        assertRanges(ByteRangeResponse.parse("bytes=-200", 100), 0, 99);
+        assertRanges(ByteRangeResponse.parse("bytes=50-59, 0-9,100-", 100), 50, 59, 0, 9);
+        assertEquals(0, ByteRangeResponse.parse("bytes=100-200", 100).size());
+    }
+
+    @Test
+    public void testParseTooManyRanges() {
+        StringBuilder range = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRangeResponse.MAX_RANGES; i++) {
+            range.append(",").append(i).append("-").append(i);
+        }
+        assertNull(ByteRangeResponse.parse(range.toString(), 100));
+    }
+
+    @Test
+    public void testWriteWholeValue() throws IOException {
+        ByteRangeResponse.write(null, response, value, "text/plain");
+        verify(response).addHeader("Content-Length", "20");
+        assertEquals(new String(DATA), responseBytes.toString());
+    }
+
+    @Test
+    public void testWriteSingleRange() throws IOException {
+        ByteRangeResponse.write("bytes=15-", response, value, "text/plain");
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).addHeader("Content-Range", "bytes 15-19/20");
+        verify(response).addHeader("Content-Length", "5");
+        assertEquals("fghij", responseBytes.toString());
+    }
+
+    @Test
+    public void testWriteUnsatisfiableRange() throws IOException {
+        ByteRangeResponse.write("bytes=20-", response, value, "text/plain");
+        verify(response).addHeader("Content-Range", "bytes */20");
+        verify(response).sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertEquals(0, responseBytes.size());
+    }
+
+    @Test
+    public void testWriteMultipleRanges() throws IOException {
+        ByteRangeResponse.write("bytes=10-12,0-1", response, value, "text/plain");
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setContentType(startsWith("multipart/byteranges; boundary="));
+
+        String body = responseBytes.toString();
+        String boundary = body.substring(4, body.indexOf("\r\n", 4));
+        assertEquals("\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Range: bytes 10-12/20\r\n"
+                + "\r\n"
+                + "abc"
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Range: bytes 0-1/20\r\n"
+                + "\r\n"
+                + "01"
+                + "\r\n--" + boundary + "--\r\n", body);
+    }
+
+    private static void assertRanges(List<ByteRangeResponse.ByteRange> ranges, long... startsAndEnds) {
+        assertNotNull(ranges);
+        assertEquals(startsAndEnds.length / 2, ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            assertEquals(startsAndEnds[i * 2], ranges.get(i).getStart());
+            assertEquals(startsAndEnds[i * 2 + 1], ranges.get(i).getEnd());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.lumify.web.routes.vertex;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.exception.LumifyResourceNotFoundException;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.user.User;
+import io.lumify.miniweb.HandlerChain;
+import io.lumify.web.clientapi.model.ClientApiDetectedObjectResolveItem;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.Authorizations;
+import org.securegraph.Vertex;
+import org.securegraph.Visibility;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResolveDetectedObjectsTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private static final String RESOLUTIONS = "[" +
+            "{\"title\":\"Joe\",\"conceptId\":\"person\",\"visibilitySource\":\"\",\"x1\":0.1,\"y1\":0.1,\"x2\":0.2,\"y2\":0.2}," +
+            "{\"title\":\"Existing\",\"conceptId\":\"person\",\"visibilitySource\":\"secret\",\"graphVertexId\":\"existing1\",\"x1\":0.3,\"y1\":0.3,\"x2\":0.4,\"y2\":0.4}" +
+            "]";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    @Mock
+    private Configuration configuration;
+
+    @Mock
+    private ResolveHelper resolveHelper;
+
+    @Mock
+    private Workspace workspace;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HandlerChain chain;
+
+    private Authorizations authorizations;
+    private StringWriter responseWriter;
+    private ResolveDetectedObjects resolveDetectedObjects;
+
+    @Before
+    public void setUp() throws Exception {
+        InMemoryGraph graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID);
+        graph.addVertex("artifact1", new Visibility(""), authorizations);
+        graph.flush();
+
+        when(request.getParameter("artifactId")).thenReturn("artifact1");
+        when(request.getParameter("resolutions")).thenReturn(RESOLUTIONS);
+        when(request.getAttribute("workspaceId")).thenReturn(WORKSPACE_ID);
+        when(workspaceRepository.hasReadPermissions(eq(WORKSPACE_ID), any(User.class))).thenReturn(true);
+        when(workspaceRepository.findById(eq(WORKSPACE_ID), any(User.class))).thenReturn(workspace);
+        when(userRepository.getAuthorizations(any(User.class), eq(WORKSPACE_ID))).thenReturn(authorizations);
+        responseWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(responseWriter));
+
+        resolveDetectedObjects = new ResolveDetectedObjects(graph, userRepository, configuration, workspaceRepository, resolveHelper) {
+            @Override
+            protected String getString(HttpServletRequest request, String key) {
+                return key;
+            }
+        };
+    }
+
+    @Test
+    public void testResolvesAllItemsInOneCall() throws Exception {
+        when(resolveHelper.findInvalidVisibilitySources(anyListOf(String.class), eq(WORKSPACE_ID), eq(authorizations))).thenReturn(new ArrayList<String>());
+        when(resolveHelper.resolveDetectedObjects(any(Vertex.class), anyListOf(ClientApiDetectedObjectResolveItem.class), eq(workspace), any(User.class), eq(authorizations)))
+                .thenReturn(Arrays.asList("new1", "existing1"));
+
+        resolveDetectedObjects.handle(request, response, chain);
+
+        ArgumentCaptor<List> items = ArgumentCaptor.forClass(List.class);
+        verify(resolveHelper, times(1)).resolveDetectedObjects(any(Vertex.class), items.capture(), eq(workspace), any(User.class), eq(authorizations));
+        assertEquals(2, items.getValue().size());
+        assertEquals("existing1", ((ClientApiDetectedObjectResolveItem) items.getValue().get(1)).getGraphVertexId());
+        JSONObject json = new JSONObject(responseWriter.toString());
+        assertEquals("new1", json.getJSONArray("resolvedVertexIds").getString(0));
+        assertEquals("existing1", json.getJSONArray("resolvedVertexIds").getString(1));
+        assertEquals("artifact1", json.getJSONObject("artifact").getString("id"));
+    }
+
+    @Test
+    public void testInvalidVisibilityRejectsTheWholeRequest() throws Exception {
+        when(resolveHelper.findInvalidVisibilitySources(anyListOf(String.class), eq(WORKSPACE_ID), eq(authorizations))).thenReturn(Arrays.asList("secret"));
+
+        resolveDetectedObjects.handle(request, response, chain);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST), contains("secret"));
+        verify(resolveHelper, never()).resolveDetectedObjects(any(Vertex.class), anyListOf(ClientApiDetectedObjectResolveItem.class), any(Workspace.class), any(User.class), any(Authorizations.class));
+    }
+
+    @Test
+    public void testMissingArtifact() throws Exception {
+        when(request.getParameter("artifactId")).thenReturn("missing1");
+        when(resolveHelper.findInvalidVisibilitySources(anyListOf(String.class), eq(WORKSPACE_ID), eq(authorizations))).thenReturn(new ArrayList<String>());
+
+        resolveDetectedObjects.handle(request, response, chain);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_NOT_FOUND), anyString());
+        verify(resolveHelper, never()).resolveDetectedObjects(any(Vertex.class), anyListOf(ClientApiDetectedObjectResolveItem.class), any(Workspace.class), any(User.class), any(Authorizations.class));
+    }
+
+    @Test
+    public void testMissingResolvedVertexFailsTheRequest() throws Exception {
+        when(resolveHelper.findInvalidVisibilitySources(anyListOf(String.class), eq(WORKSPACE_ID), eq(authorizations))).thenReturn(new ArrayList<String>());
+        when(resolveHelper.resolveDetectedObjects(any(Vertex.class), anyListOf(ClientApiDetectedObjectResolveItem.class), eq(workspace), any(User.class), eq(authorizations)))
+                .thenThrow(new LumifyResourceNotFoundException("Could not find vertex: existing1", "existing1"));
+
+        try {
+            resolveDetectedObjects.handle(request, response, chain);
+            fail("expected the missing vertex to fail the request");
+        } catch (LumifyResourceNotFoundException ex) {
+            assertEquals("existing1", ex.getResourceId());
+        }
+        assertEquals("", responseWriter.toString());
+    }
+}
@@ -0,0 +1,259 @@
+package io.lumify.web.routes.vertex;
+
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.exception.LumifyResourceNotFoundException;
+import io.lumify.core.model.SourceInfo;
+import io.lumify.core.model.audit.AuditRepository;
+import io.lumify.core.model.lock.LocalLockRepository;
+import io.lumify.core.model.ontology.Concept;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.termMention.TermMentionRepository;
+import io.lumify.core.model.user.InMemoryAuthorizationRepository;
+import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.model.workspace.Workspace;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.security.DirectVisibilityTranslator;
+import io.lumify.core.security.LumifyVisibility;
+import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.web.clientapi.model.ClientApiDetectedObjectResolveItem;
+import io.lumify.web.clientapi.model.ClientApiTermResolveItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.securegraph.util.IterableUtils.count;
+import static org.securegraph.util.IterableUtils.toList;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResolveHelperTest {
+    private static final String WORKSPACE_ID = "ws1";
+    private static final String CONCEPT_IRI = "http://lumify.io/test#person";
+    private static final String ARTIFACT_HAS_ENTITY_IRI = "http://lumify.io/test#artifactHasEntity";
+    private static final String ARTIFACT_CONTAINS_IMAGE_OF_ENTITY_IRI = "http://lumify.io/test#artifactContainsImageOfEntity";
+
+    @Mock
+    private AuditRepository auditRepository;
+
+    @Mock
+    private OntologyRepository ontologyRepository;
+
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    @Mock
+    private WorkQueueRepository workQueueRepository;
+
+    @Mock
+    private TermMentionRepository termMentionRepository;
+
+    @Mock
+    private Concept concept;
+
+    @Mock
+    private Workspace workspace;
+
+    @Mock
+    private User user;
+
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private Vertex artifactVertex;
+    private ResolveHelper resolveHelper;
+
+    @Before
+    public void setUp() {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID, TermMentionRepository.VISIBILITY_STRING);
+        artifactVertex = graph.addVertex("artifact1", new Visibility(""), authorizations);
+        graph.addVertex("existing1", new Visibility(""), authorizations);
+        graph.flush();
+
+        when(ontologyRepository.getRelationshipIRIByIntent("artifactHasEntity")).thenReturn(ARTIFACT_HAS_ENTITY_IRI);
+        when(ontologyRepository.getRelationshipIRIByIntent("artifactContainsImageOfEntity")).thenReturn(ARTIFACT_CONTAINS_IMAGE_OF_ENTITY_IRI);
+        when(ontologyRepository.getConceptByIRI(CONCEPT_IRI)).thenReturn(concept);
+        when(concept.getIRI()).thenReturn(CONCEPT_IRI);
+        when(workspace.getWorkspaceId()).thenReturn(WORKSPACE_ID);
+        InMemoryAuthorizationRepository authorizationRepository = new InMemoryAuthorizationRepository();
+        authorizationRepository.addAuthorizationToGraph(WORKSPACE_ID, TermMentionRepository.VISIBILITY_STRING);
+
+        resolveHelper = new ResolveHelper(
+                graph,
+                auditRepository,
+                ontologyRepository,
+                new DirectVisibilityTranslator(),
+                workspaceRepository,
+                workQueueRepository,
+                termMentionRepository,
+                new EdgeLabelSummary(graph, authorizationRepository, new LocalLockRepository(new HashMapConfigurationLoader(new HashMap()).createConfiguration()))
+        );
+    }
+
+    @Test
+    public void testResolveTerms() {
+        List<ClientApiTermResolveItem> items = Arrays.asList(
+                createTermItem("Joe", 0, 3, null),
+                createTermItem("Existing", 10, 18, "existing1")
+        );
+
+        List<String> resolvedVertexIds = resolveHelper.resolveTerms(artifactVertex, items, workspace, user, authorizations);
+
+        assertEquals(2, resolvedVertexIds.size());
+        assertEquals("existing1", resolvedVertexIds.get(1));
+        Vertex newVertex = graph.getVertex(resolvedVertexIds.get(0), authorizations);
+        assertNotNull(newVertex);
+        assertEquals("Joe", LumifyProperties.TITLE.getPropertyValue(newVertex, ResolveTermEntity.class.getName()));
+        assertEquals(2, count(graph.getVertex(artifactVertex.getId(), authorizations).getEdges(Direction.OUT, ARTIFACT_HAS_ENTITY_IRI, authorizations)));
+
+        ArgumentCaptor<Iterable> workspaceUpdates = ArgumentCaptor.forClass(Iterable.class);
+        verify(workspaceRepository, times(1)).updateEntitiesOnWorkspace(eq(workspace), workspaceUpdates.capture(), eq(user));
+        assertEquals(1, count(workspaceUpdates.getValue()));
+        ArgumentCaptor<Iterable> pushedEdges = ArgumentCaptor.forClass(Iterable.class);
+        verify(workQueueRepository, times(1)).pushElements(pushedEdges.capture());
+        assertEquals(2, count(pushedEdges.getValue()));
+        verify(workQueueRepository, times(1)).pushTextUpdated(artifactVertex.getId());
+        verify(auditRepository, times(1)).startBatch();
+        verify(auditRepository, times(1)).flushBatch();
+    }
+
+    @Test
+    public void testResolveTermsWithMissingVertexWritesNothing() {
+        List<ClientApiTermResolveItem> items = Arrays.asList(
+                createTermItem("Joe", 0, 3, null),
+                createTermItem("Missing", 10, 17, "missing1")
+        );
+
+        try {
+            resolveHelper.resolveTerms(artifactVertex, items, workspace, user, authorizations);
+            fail("expected the missing vertex to fail the call");
+        } catch (LumifyResourceNotFoundException ex) {
+            // expected
+        }
+
+        assertEquals(2, count(graph.getVertices(authorizations)));
+        assertEquals(0, count(graph.getEdges(authorizations)));
+        verify(workspaceRepository, never()).updateEntitiesOnWorkspace(any(Workspace.class), any(Iterable.class), any(User.class));
+        verify(workQueueRepository, never()).pushElements(any(Iterable.class));
+        verify(workQueueRepository, never()).pushTextUpdated(anyString());
+    }
+
+    @Test
+    public void testResolveTermsWithUnknownConceptWritesNothing() {
+        ClientApiTermResolveItem unknownConceptItem = createTermItem("Unknown", 10, 17, null);
+        unknownConceptItem.setConceptId("http://lumify.io/test#unknown");
+        List<ClientApiTermResolveItem> items = Arrays.asList(
+                createTermItem("Joe", 0, 3, null),
+                unknownConceptItem
+        );
+
+        try {
+            resolveHelper.resolveTerms(artifactVertex, items, workspace, user, authorizations);
+            fail("expected the unknown concept to fail the call");
+        } catch (LumifyResourceNotFoundException ex) {
+            assertEquals("http://lumify.io/test#unknown", ex.getResourceId());
+        }
+
+        assertEquals(2, count(graph.getVertices(authorizations)));
+        assertEquals(0, count(graph.getEdges(authorizations)));
+        verify(auditRepository, never()).startBatch();
+        verify(workQueueRepository, never()).pushElements(any(Iterable.class));
+    }
+
+    @Test
+    public void testResolveDetectedObjects() {
+        List<ClientApiDetectedObjectResolveItem> items = Arrays.asList(
+                createDetectedObjectItem(0.1, "Joe", null, "justification 1"),
+                createDetectedObjectItem(0.2, "Jane", null, "justification 2"),
+                createDetectedObjectItem(0.3, "Existing", "existing1", null)
+        );
+
+        List<String> resolvedVertexIds = resolveHelper.resolveDetectedObjects(artifactVertex, items, workspace, user, authorizations);
+
+        assertEquals(3, resolvedVertexIds.size());
+        assertEquals("existing1", resolvedVertexIds.get(2));
+        Vertex artifact = graph.getVertex(artifactVertex.getId(), authorizations);
+        assertEquals(3, count(artifact.getEdges(Direction.OUT, ARTIFACT_CONTAINS_IMAGE_OF_ENTITY_IRI, authorizations)));
+        assertEquals(3, toList(LumifyProperties.DETECTED_OBJECT.getProperties(artifact)).size());
+
+        verify(termMentionRepository, times(2)).addJustification(any(Vertex.class), anyString(), any(SourceInfo.class), any(LumifyVisibility.class), eq(authorizations));
+        ArgumentCaptor<Iterable> workspaceUpdates = ArgumentCaptor.forClass(Iterable.class);
+        verify(workspaceRepository, times(1)).updateEntitiesOnWorkspace(eq(workspace), workspaceUpdates.capture(), eq(user));
+        assertEquals(2, count(workspaceUpdates.getValue()));
+        ArgumentCaptor<Iterable> pushedEdges = ArgumentCaptor.forClass(Iterable.class);
+        verify(workQueueRepository, times(1)).pushElements(pushedEdges.capture());
+        assertEquals(3, count(pushedEdges.getValue()));
+        ArgumentCaptor<Iterable> detectedObjectPropertyKeys = ArgumentCaptor.forClass(Iterable.class);
+        verify(workQueueRepository, times(1)).pushGraphPropertiesQueue(eq(artifactVertex), eq(LumifyProperties.DETECTED_OBJECT.getPropertyName()), detectedObjectPropertyKeys.capture());
+        assertEquals(3, count(detectedObjectPropertyKeys.getValue()));
+    }
+
+    @Test
+    public void testResolveDetectedObjectsWithMissingVertexWritesNothing() {
+        List<ClientApiDetectedObjectResolveItem> items = Arrays.asList(
+                createDetectedObjectItem(0.1, "Joe", null, "justification"),
+                createDetectedObjectItem(0.2, "Missing", "missing1", null)
+        );
+
+        try {
+            resolveHelper.resolveDetectedObjects(artifactVertex, items, workspace, user, authorizations);
+            fail("expected the missing vertex to fail the call");
+        } catch (LumifyResourceNotFoundException ex) {
+            // expected
+        }
+
+        assertEquals(2, count(graph.getVertices(authorizations)));
+        assertEquals(0, count(graph.getEdges(authorizations)));
+        assertEquals(0, toList(LumifyProperties.DETECTED_OBJECT.getProperties(graph.getVertex(artifactVertex.getId(), authorizations))).size());
+        verify(termMentionRepository, never()).addJustification(any(Vertex.class), anyString(), any(SourceInfo.class), any(LumifyVisibility.class), any(Authorizations.class));
+        verify(workQueueRepository, never()).pushElements(any(Iterable.class));
+    }
+
+    @Test
+    public void testFindInvalidVisibilitySources() {
+        List<String> visibilitySources = new ArrayList<>();
+        visibilitySources.add("");
+        visibilitySources.add("secret");
+        assertEquals(Arrays.asList("secret"), resolveHelper.findInvalidVisibilitySources(visibilitySources, WORKSPACE_ID, authorizations));
+    }
+
+    private static ClientApiTermResolveItem createTermItem(String sign, long start, long end, String resolvedVertexId) {
+        ClientApiTermResolveItem item = new ClientApiTermResolveItem();
+        item.setPropertyKey("text1");
+        item.setMentionStart(start);
+        item.setMentionEnd(end);
+        item.setSign(sign);
+        item.setConceptId(CONCEPT_IRI);
+        item.setVisibilitySource("");
+        item.setResolvedVertexId(resolvedVertexId);
+        return item;
+    }
+
+    private static ClientApiDetectedObjectResolveItem createDetectedObjectItem(double x1, String title, String graphVertexId, String justificationText) {
+        ClientApiDetectedObjectResolveItem item = new ClientApiDetectedObjectResolveItem();
+        item.setTitle(title);
+        item.setConceptId(CONCEPT_IRI);
+        item.setVisibilitySource("");
+        item.setGraphVertexId(graphVertexId);
+        item.setJustificationText(justificationText);
+        item.setX1(x1);
+        item.setY1(0.1);
+        item.setX2(0.5);
+        item.setY2(0.5);
+        return item;
+    }
+}
@@ -0,0 +1,190 @@
+package io.lumify.web.routes.workspace;
+
+import io.lumify.core.config.Configuration;
+import io.lumify.core.config.HashMapConfigurationLoader;
+import io.lumify.core.model.audit.AuditAction;
+import io.lumify.core.model.audit.AuditRepository;
+import io.lumify.core.model.lock.LocalLockRepository;
+import io.lumify.core.model.ontology.OntologyRepository;
+import io.lumify.core.model.properties.LumifyProperties;
+import io.lumify.core.model.termMention.TermMentionRepository;
+import io.lumify.core.model.user.InMemoryAuthorizationRepository;
+import io.lumify.core.model.user.UserRepository;
+import io.lumify.core.model.workQueue.WorkQueueRepository;
+import io.lumify.core.model.workspace.WorkspaceRepository;
+import io.lumify.core.security.DirectVisibilityTranslator;
+import io.lumify.core.user.User;
+import io.lumify.core.util.EdgeLabelSummary;
+import io.lumify.miniweb.HandlerChain;
+import io.lumify.web.clientapi.model.VisibilityJson;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.securegraph.*;
+import org.securegraph.inmemory.InMemoryAuthorizations;
+import org.securegraph.inmemory.InMemoryGraph;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.securegraph.util.IterableUtils.toList;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WorkspaceUndoTest {
+    private static final String WORKSPACE_ID = "ws1";
+
+    @Mock
+    private TermMentionRepository termMentionRepository;
+
+    @Mock
+    private Configuration configuration;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkspaceRepository workspaceRepository;
+
+    @Mock
+    private WorkQueueRepository workQueueRepository;
+
+    @Mock
+    private AuditRepository auditRepository;
+
+    @Mock
+    private OntologyRepository ontologyRepository;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HandlerChain chain;
+
+    private InMemoryGraph graph;
+    private Authorizations authorizations;
+    private EdgeLabelSummary edgeLabelSummary;
+    private StringWriter responseWriter;
+    private WorkspaceUndo workspaceUndo;
+
+    @Before
+    public void setUp() throws Exception {
+        graph = InMemoryGraph.create();
+        authorizations = new InMemoryAuthorizations(WORKSPACE_ID);
+        InMemoryAuthorizationRepository authorizationRepository = new InMemoryAuthorizationRepository();
+        authorizationRepository.addAuthorizationToGraph(WORKSPACE_ID);
+        LocalLockRepository lockRepository = new LocalLockRepository(new HashMapConfigurationLoader(new HashMap()).createConfiguration());
+        edgeLabelSummary = new EdgeLabelSummary(graph, authorizationRepository, lockRepository);
+
+        graph.addVertex("v1", new Visibility(""), authorizations);
+        graph.addVertex("v2", new Visibility(""), authorizations);
+        graph.flush();
+
+        when(ontologyRepository.getRelationshipIRIByIntent("entityHasImage")).thenReturn("http://lumify.io/test#entityHasImage");
+        when(ontologyRepository.getRelationshipIRIByIntent("artifactContainsImageOfEntity")).thenReturn("http://lumify.io/test#artifactContainsImageOfEntity");
+        when(termMentionRepository.findByEdgeId(anyString(), anyString(), any(Authorizations.class))).thenReturn(new ArrayList<Vertex>());
+        when(request.getAttribute("workspaceId")).thenReturn(WORKSPACE_ID);
+        when(workspaceRepository.hasReadPermissions(eq(WORKSPACE_ID), any(User.class))).thenReturn(true);
+        when(userRepository.getAuthorizations(any(User.class), eq(WORKSPACE_ID))).thenReturn(authorizations);
+        responseWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(responseWriter));
+
+        DirectVisibilityTranslator visibilityTranslator = new DirectVisibilityTranslator();
+        WorkspaceHelper workspaceHelper = new WorkspaceHelper(termMentionRepository, configuration, auditRepository, userRepository,
+                workQueueRepository, graph, visibilityTranslator, ontologyRepository, edgeLabelSummary);
+        workspaceUndo = new WorkspaceUndo(termMentionRepository, configuration, graph, visibilityTranslator, userRepository,
+                workspaceHelper, workspaceRepository, workQueueRepository, auditRepository, ontologyRepository, edgeLabelSummary);
+    }
+
+    @Test
+    public void testUndoVertex() throws Exception {
+        graph.markVertexHidden(graph.getVertex("v1", authorizations), new Visibility(WORKSPACE_ID), authorizations);
+        graph.flush();
+        assertNull(graph.getVertex("v1", authorizations));
+
+        JSONObject json = undo("[{\"type\":\"vertex\",\"vertexId\":\"v1\"}]");
+
+        assertEquals(1, json.getJSONArray("undone").length());
+        assertEquals(0, json.getJSONArray("failures").length());
+        assertNotNull(graph.getVertex("v1", authorizations));
+        verify(workQueueRepository).broadcastUndoVertexDelete(any(Vertex.class));
+    }
+
+    @Test
+    public void testUndoEdge() throws Exception {
+        Edge edge = edgeLabelSummary.addEdge("e1", graph.getVertex("v1", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(WORKSPACE_ID), authorizations);
+        LumifyProperties.VISIBILITY_JSON.setProperty(edge, createVisibilityJson(), new Visibility(""), authorizations);
+        graph.flush();
+
+        JSONObject json = undo("[{\"type\":\"relationship\",\"edgeId\":\"e1\"}]");
+
+        assertEquals(1, json.getJSONArray("undone").length());
+        assertEquals(0, json.getJSONArray("failures").length());
+        assertNull(graph.getEdge("e1", authorizations));
+        verify(auditRepository).auditRelationship(eq(AuditAction.DELETE), any(Vertex.class), any(Vertex.class), any(Edge.class), anyString(), anyString(), any(User.class), any(Visibility.class));
+        verify(workQueueRepository).broadcastUndoEdge(any(Edge.class));
+    }
+
+    @Test
+    public void testUndoProperty() throws Exception {
+        Metadata metadata = new Metadata();
+        LumifyProperties.VISIBILITY_JSON.setMetadata(metadata, createVisibilityJson(), new Visibility(""));
+        graph.getVertex("v1", authorizations).prepareMutation()
+                .addPropertyValue("k1", "name", "public", new Visibility(""))
+                .addPropertyValue("k1", "name", "private", metadata, new Visibility(WORKSPACE_ID))
+                .save(authorizations);
+        graph.flush();
+
+        JSONObject json = undo("[{\"type\":\"property\",\"vertexId\":\"v1\",\"key\":\"k1\",\"name\":\"name\",\"visibilityString\":\"" + WORKSPACE_ID + "\"}]");
+
+        assertEquals(1, json.getJSONArray("undone").length());
+        assertEquals(0, json.getJSONArray("failures").length());
+        List<Property> properties = toList(graph.getVertex("v1", authorizations).getProperties("k1", "name"));
+        assertEquals(1, properties.size());
+        assertEquals("public", properties.get(0).getValue());
+        verify(auditRepository).auditEntityProperty(eq(AuditAction.DELETE), eq("v1"), eq("k1"), eq("name"), eq("private"), any(), anyString(), anyString(), any(Metadata.class), any(User.class), any(Visibility.class));
+        verify(workQueueRepository).broadcastUndoProperty(any(Vertex.class), eq("k1"), eq("name"));
+    }
+
+    @Test
+    public void testMixedFailureUndoesNothing() throws Exception {
+        graph.markVertexHidden(graph.getVertex("v1", authorizations), new Visibility(WORKSPACE_ID), authorizations);
+        graph.addEdge("e1", graph.getVertex("v2", authorizations), graph.getVertex("v2", authorizations), "knows", new Visibility(""), authorizations);
+        graph.flush();
+
+        JSONObject json = undo("[{\"type\":\"vertex\",\"vertexId\":\"v1\"},{\"type\":\"relationship\",\"edgeId\":\"e1\"}]");
+
+        assertEquals(0, json.getJSONArray("undone").length());
+        assertEquals(1, json.getJSONArray("failures").length());
+        assertEquals("e1", json.getJSONArray("failures").getJSONObject(0).getString("edgeId"));
+        assertNull(graph.getVertex("v1", authorizations));
+        assertNotNull(graph.getEdge("e1", authorizations));
+        verify(auditRepository, never()).startBatch();
+        verifyZeroInteractions(workQueueRepository);
+    }
+
+    private JSONObject undo(String undoData) throws Exception {
+        when(request.getParameter("undoData")).thenReturn(undoData);
+        workspaceUndo.handle(request, response, chain);
+        return new JSONObject(responseWriter.toString());
+    }
+
+    private static VisibilityJson createVisibilityJson() {
+        VisibilityJson visibilityJson = new VisibilityJson();
+        visibilityJson.addWorkspace(WORKSPACE_ID);
+        return visibilityJson;
+    }
+}
@@ -0,0 +1,74 @@
+package io.lumify.web.session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SessionSyncTrackerTest {
+    private static final long TOUCH_INTERVAL = 60 * 1000L;
+    private SessionSyncTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new SessionSyncTracker(TOUCH_INTERVAL, 100);
+    }
+
+    @Test
+    public void testUnchangedSessionNotSaved() {
+        byte[] fingerprint = SessionSyncTracker.fingerprint(attributes("user", "u1"));
+        assertTrue(tracker.needsSave("s1", fingerprint, 1000));
+        tracker.saved("s1", fingerprint, 1000);
+
+        assertFalse(tracker.needsSave("s1", SessionSyncTracker.fingerprint(attributes("user", "u1")), 2000));
+        assertTrue(tracker.needsSave("s1", SessionSyncTracker.fingerprint(attributes("user", "u2")), 2000));
+        assertTrue(tracker.needsSave("s1", SessionSyncTracker.fingerprint(attributes("user", "u1", "other", 1)), 2000));
+    }
+
+    @Test
+    public void testUnchangedSessionSavedAfterTouchInterval() {
+        byte[] fingerprint = SessionSyncTracker.fingerprint(attributes("user", "u1"));
+        tracker.saved("s1", fingerprint, 1000);
+
+        assertFalse(tracker.needsSave("s1", fingerprint, 1000 + TOUCH_INTERVAL - 1));
+        assertTrue(tracker.needsSave("s1", fingerprint, 1000 + TOUCH_INTERVAL));
+    }
+
+    @Test
+    public void testUnserializableAttributesAlwaysSaved() {
+        byte[] fingerprint = SessionSyncTracker.fingerprint(attributes("thread", new Object()));
+        assertNull(fingerprint);
+        tracker.saved("s1", fingerprint, 1000);
+        assertTrue(tracker.needsSave("s1", fingerprint, 1000));
+    }
+
+    @Test
+    public void testLoadedSessionNotSavedUntilChanged() {
+        byte[] fingerprint = SessionSyncTracker.fingerprint(attributes("user", "u1"));
+        tracker.loaded("s1", fingerprint, 1000);
+
+        assertFalse(tracker.needsSave("s1", SessionSyncTracker.fingerprint(attributes("user", "u1")), 2000));
+        assertTrue(tracker.needsSave("s1", SessionSyncTracker.fingerprint(attributes("user", "u2")), 2000));
+    }
+
+    @Test
+    public void testRemoved() {
+        byte[] fingerprint = SessionSyncTracker.fingerprint(attributes("user", "u1"));
+        tracker.saved("s1", fingerprint, 1000);
+        assertFalse(tracker.needsSave("s1", fingerprint, 2000));
+
+        tracker.removed("s1");
+        assertTrue(tracker.needsSave("s1", fingerprint, 2000));
+    }
+
+    private static Map<String, Object> attributes(Object... namesAndValues) {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            attributes.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return attributes;
+    }
+}